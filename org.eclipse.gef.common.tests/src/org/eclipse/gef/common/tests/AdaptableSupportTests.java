@@ -27,6 +27,7 @@ import org.junit.Test;
 import com.google.common.reflect.TypeToken;
 
 import javafx.beans.property.ReadOnlyMapProperty;
+import javafx.collections.MapChangeListener;
 import javafx.collections.ObservableMap;
 
 public class AdaptableSupportTests {
@@ -278,6 +279,42 @@ public class AdaptableSupportTests {
 		}).size());
 	}
 
+	@Test
+	public void cachedRetrievalAfterRegistrationChanges() {
+		AdaptableSupportWrapper td = new AdaptableSupportWrapper();
+		ParameterType1 adapter1 = new ParameterType1();
+		ParameterType1 adapter2 = new ParameterType1();
+
+		// cached (negative) lookup results are invalidated upon registration
+		td.setAdapter(new ParameterType2());
+		assertNull(td.getAdapter(ParameterType1.class));
+		td.setAdapter(adapter1);
+		assertEquals(adapter1, td.getAdapter(ParameterType1.class));
+		assertEquals(adapter1, td.getAdapter(AdapterKey.get(ParameterType1.class)));
+
+		// an additional adapter under a non-default role is not ambiguous
+		// because the default role is preferred
+		td.setAdapter(adapter2, "r2");
+		assertEquals(adapter1, td.getAdapter(ParameterType1.class));
+		assertEquals(adapter2, td.getAdapter(AdapterKey.get(ParameterType1.class, "r2")));
+
+		// cached lookup results are invalidated upon unregistration
+		td.unsetAdapter(adapter1);
+		assertEquals(adapter2, td.getAdapter(ParameterType1.class));
+		assertNull(td.getAdapter(AdapterKey.get(ParameterType1.class)));
+
+		// lookups performed by listeners are up-to-date
+		td.adaptersProperty().addListener(new MapChangeListener<AdapterKey<?>, Object>() {
+			@Override
+			public void onChanged(MapChangeListener.Change<? extends AdapterKey<?>, ? extends Object> change) {
+				assertEquals(change.wasAdded() ? change.getValueAdded() : null,
+						td.getAdapter(AdapterKey.get(ParameterType1.class, "r2")));
+			}
+		});
+		td.unsetAdapter(adapter2);
+		assertNull(td.getAdapter(ParameterType1.class));
+	}
+
 	@SuppressWarnings("serial")
 	@Test
 	public void retrievalOfParameterizedType() {
@@ -1227,6 +1227,57 @@ public class ObservableListTests {
 		checkListeners();
 	}
 
+	@Test
+	public void removeAll_ranges() {
+		// initialize list with some values
+		List<Integer> backupList = new ArrayList<>();
+		for (int i = 1; i <= 10; i++) {
+			observable.add(i);
+			backupList.add(i);
+		}
+		check(observable, backupList);
+
+		// register listeners
+		registerListeners();
+
+		// remove all (several continuous ranges, including the first and last
+		// element)
+		invalidationListener.expect(1);
+		// we expect one change per range, the index of which is shifted by the
+		// elements that were removed by the preceding ranges
+		listChangeListener.addAtomicExpectation();
+		listChangeListener.addElementaryExpectation(Arrays.asList(1, 2), null,
+				null, 0, 0);
+		listChangeListener.addElementaryExpectation(Arrays.asList(5, 6, 7),
+				null, null, 2, 2);
+		listChangeListener.addElementaryExpectation(Arrays.asList(10), null,
+				null, 4, 4);
+		observable.removeAll(Arrays.asList(10, 1, 6, 2, 7, 5));
+		backupList.removeAll(Arrays.asList(10, 1, 6, 2, 7, 5));
+		check(observable, backupList);
+		checkListeners();
+
+		// remove all (a single continuous range at the end)
+		invalidationListener.expect(1);
+		listChangeListener.addAtomicExpectation();
+		listChangeListener.addElementaryExpectation(Arrays.asList(8, 9), null,
+				null, 2, 2);
+		observable.removeAll(Arrays.asList(9, 8));
+		backupList.removeAll(Arrays.asList(9, 8));
+		check(observable, backupList);
+		checkListeners();
+
+		// remove all (all remaining elements)
+		invalidationListener.expect(1);
+		listChangeListener.addAtomicExpectation();
+		listChangeListener.addElementaryExpectation(Arrays.asList(3, 4), null,
+				null, 0, 0);
+		observable.removeAll(Arrays.asList(3, 4));
+		backupList.removeAll(Arrays.asList(3, 4));
+		check(observable, backupList);
+		checkListeners();
+	}
+
 	@Test
 	public void retainAll() {
 		// initialize list with some values
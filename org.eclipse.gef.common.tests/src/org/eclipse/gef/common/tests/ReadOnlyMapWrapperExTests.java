@@ -12,10 +12,18 @@
  *******************************************************************************/
 package org.eclipse.gef.common.tests;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.eclipse.gef.common.beans.property.ReadOnlyMapWrapperEx;
 import org.eclipse.gef.common.tests.MapPropertyExTests.MapChangeExpector;
 import org.junit.Test;
 
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.beans.property.ReadOnlyMapProperty;
 import javafx.collections.FXCollections;
 
@@ -43,4 +51,53 @@ public class ReadOnlyMapWrapperExTests {
 		roProperty.remove("key2");
 		mapChangeListener.check();
 	}
+
+	@Test
+	public void readOnlyWrapperBulkChangeNotifications() {
+		ReadOnlyMapWrapperEx<String, Integer> mapWrapper = new ReadOnlyMapWrapperEx<>(
+				FXCollections.observableHashMap());
+		mapWrapper.put("key3", 3);
+		ReadOnlyMapProperty<String, Integer> roProperty = mapWrapper
+				.getReadOnlyProperty();
+		MapChangeExpector<String, Integer> mapChangeListener = new MapChangeExpector<>(
+				roProperty);
+		roProperty.addListener(mapChangeListener);
+		final AtomicInteger invalidations = new AtomicInteger();
+		roProperty.addListener(new InvalidationListener() {
+			@Override
+			public void invalidated(Observable observable) {
+				invalidations.incrementAndGet();
+			}
+		});
+
+		// changes are reported once per key when the bulk change ends
+		mapWrapper.beginChange();
+		assertTrue(mapWrapper.isChanging());
+		mapWrapper.put("key1", 1);
+		mapWrapper.put("key1", 2);
+		// net no-ops are not reported
+		mapWrapper.put("key2", 2);
+		mapWrapper.remove("key2");
+		mapWrapper.put("key3", 4);
+		mapWrapper.put("key3", 3);
+		assertEquals(0, invalidations.get());
+		mapChangeListener.addExpectation("key1", null, 2);
+		mapWrapper.endChange();
+		assertFalse(mapWrapper.isChanging());
+		mapChangeListener.check();
+		assertEquals(1, invalidations.get());
+
+		// nested bulk changes are reported when the outermost one ends
+		mapWrapper.beginChange();
+		mapWrapper.beginChange();
+		mapWrapper.remove("key1");
+		mapWrapper.endChange();
+		mapWrapper.put("key3", 5);
+		assertEquals(1, invalidations.get());
+		mapChangeListener.addExpectation("key1", 2, null);
+		mapChangeListener.addExpectation("key3", 3, 5);
+		mapWrapper.endChange();
+		mapChangeListener.check();
+		assertEquals(2, invalidations.get());
+	}
 }
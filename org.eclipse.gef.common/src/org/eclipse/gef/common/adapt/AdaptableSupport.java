@@ -26,6 +26,7 @@ import com.google.common.reflect.TypeToken;
 
 import javafx.beans.property.ReadOnlyMapProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.MapChangeListener;
 import javafx.collections.ObservableMap;
 
 /**
@@ -44,9 +45,21 @@ import javafx.collections.ObservableMap;
  */
 public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 
+	// marks a cached lookup that did not yield an adapter
+	private static final Object NO_ADAPTER = new Object();
+
 	// XXX: We keep a sorted map of adapters to have a deterministic order
 	private ObservableMap<AdapterKey<?>, Object> adapters = FXCollections
 			.observableMap(new TreeMap<AdapterKey<?>, Object>());
+	// caches the results of getAdapter() lookups by the requested key (a
+	// Class, TypeToken, or AdapterKey); invalidated whenever the adapters
+	// change, and created lazily to save memory
+	private Map<Object, Object> lookupCache;
+	// memoizes the results of Types.isAssignable(TypeToken, TypeToken) for
+	// the keys of the registered adapters, as the reflective type checks are
+	// expensive; invalidated together with the lookup cache, so that no types
+	// are retained beyond the life-time of this adaptable and its adapters
+	private Map<TypeToken<?>, Map<TypeToken<?>, Boolean>> assignabilityCache;
 	private ObservableMap<AdapterKey<?>, Object> adaptersUnmodifiable;
 	private ReadOnlyMapWrapperEx<AdapterKey<?>, Object> adaptersUnmodifiableProperty;
 	private A source;
@@ -65,6 +78,16 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 			throw new IllegalArgumentException("source may not be null.");
 		}
 		this.source = source;
+		adapters.addListener(new MapChangeListener<AdapterKey<?>, Object>() {
+			@Override
+			public void onChanged(
+					MapChangeListener.Change<? extends AdapterKey<?>, ? extends Object> change) {
+				// invalidate lookup cache before any other listener is
+				// notified
+				lookupCache = null;
+				assignabilityCache = null;
+			}
+		});
 	}
 
 	/**
@@ -130,7 +153,14 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 		if (adapters.isEmpty()) {
 			return null;
 		}
+		Object cached = getCachedAdapter(key);
+		if (cached != null) {
+			return unwrapCachedAdapter(cached);
+		}
+		return putCachedAdapter(key, findAdapter(key));
+	}
 
+	private <T> T findAdapter(AdapterKey<T> key) {
 		// see if we can unambiguously retrieve a matching adapter
 		Map<AdapterKey<? extends T>, T> adaptersForTypeKey = getAdapters(
 				key.getKey(), key.getRole());
@@ -161,7 +191,14 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 	 * @see IAdaptable#getAdapter(Class)
 	 */
 	public <T> T getAdapter(Class<T> key) {
-		return this.<T> getAdapter(TypeToken.of(key));
+		if (adapters.isEmpty()) {
+			return null;
+		}
+		Object cached = getCachedAdapter(key);
+		if (cached != null) {
+			return unwrapCachedAdapter(cached);
+		}
+		return putCachedAdapter(key, this.<T> getAdapter(TypeToken.of(key)));
 	}
 
 	/**
@@ -183,6 +220,17 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 	 * @see IAdaptable#getAdapter(TypeToken)
 	 */
 	public <T> T getAdapter(TypeToken<T> key) {
+		if (adapters.isEmpty()) {
+			return null;
+		}
+		Object cached = getCachedAdapter(key);
+		if (cached != null) {
+			return unwrapCachedAdapter(cached);
+		}
+		return putCachedAdapter(key, findAdapter(key));
+	}
+
+	private <T> T findAdapter(TypeToken<T> key) {
 		// if we have only one adapter (instance) for the given type key
 		// (disregarding the
 		// role), return this one
@@ -288,7 +336,7 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 		}
 		Map<AdapterKey<? extends T>, T> typeSafeAdapters = new TreeMap<>();
 		for (AdapterKey<?> k : adapters.keySet()) {
-			if (Types.isAssignable(key, k.getKey())) {
+			if (isAssignable(key, k.getKey())) {
 				// check type compliance...
 				typeSafeAdapters.put((AdapterKey<? extends T>) k,
 						(T) adapters.get(k));
@@ -312,7 +360,7 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 			if (role == null || k.getRole().equals(role)) {
 				// return all adapters assignable to the given type
 				// key
-				if (Types.isAssignable(typeKey, k.getKey())) {
+				if (isAssignable(typeKey, k.getKey())) {
 					typeSafeAdapters.put((AdapterKey<? extends T>) k,
 							(T) adapters.get(k));
 
@@ -322,6 +370,42 @@ public class AdaptableSupport<A extends IAdaptable> implements IDisposable {
 		return typeSafeAdapters;
 	}
 
+	private Object getCachedAdapter(Object key) {
+		return lookupCache == null ? null : lookupCache.get(key);
+	}
+
+	private boolean isAssignable(TypeToken<?> superType,
+			TypeToken<?> subType) {
+		if (assignabilityCache == null) {
+			assignabilityCache = new HashMap<>();
+		}
+		Map<TypeToken<?>, Boolean> subTypes = assignabilityCache
+				.get(superType);
+		if (subTypes == null) {
+			subTypes = new HashMap<>();
+			assignabilityCache.put(superType, subTypes);
+		}
+		Boolean assignable = subTypes.get(subType);
+		if (assignable == null) {
+			assignable = Types.isAssignable(superType, subType);
+			subTypes.put(subType, assignable);
+		}
+		return assignable;
+	}
+
+	private <T> T putCachedAdapter(Object key, T adapter) {
+		if (lookupCache == null) {
+			lookupCache = new HashMap<>();
+		}
+		lookupCache.put(key, adapter == null ? NO_ADAPTER : adapter);
+		return adapter;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T unwrapCachedAdapter(Object cached) {
+		return cached == NO_ADAPTER ? null : (T) cached;
+	}
+
 	/**
 	 * Registers the given adapter under the default role (see
 	 * {@link AdapterKey#DEFAULT_ROLE}.
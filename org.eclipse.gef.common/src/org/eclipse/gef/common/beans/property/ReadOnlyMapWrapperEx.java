@@ -13,7 +13,14 @@
  *******************************************************************************/
 package org.eclipse.gef.common.beans.property;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
 import org.eclipse.gef.common.beans.binding.MapExpressionHelperEx;
+import org.eclipse.gef.common.collections.MapListenerHelperEx.AtomicChange;
 
 import javafx.beans.InvalidationListener;
 import javafx.beans.property.ReadOnlyBooleanProperty;
@@ -40,6 +47,9 @@ import javafx.collections.ObservableMap;
  * listeners to the nested read-only property but rather keeping the lists of
  * listeners distinct.</li>
  * </ul>
+ * <p>
+ * Additionally, several changes can be reported as one via
+ * {@link #beginChange()} and {@link #endChange()}.
  *
  * @author mwienand
  * @author anyssen
@@ -99,6 +109,13 @@ public class ReadOnlyMapWrapperEx<K, V> extends ReadOnlyMapWrapper<K, V> {
 			}
 		}
 
+		private void fireValueChangedEvent(
+				List<? extends Change<? extends K, ? extends V>> changes) {
+			if (helper != null) {
+				helper.fireValueChangedEvent(changes);
+			}
+		}
+
 		@Override
 		public ObservableMap<K, V> get() {
 			return ReadOnlyMapWrapperEx.this.get();
@@ -146,6 +163,10 @@ public class ReadOnlyMapWrapperEx<K, V> extends ReadOnlyMapWrapper<K, V> {
 	private MapExpressionHelperEx<K, V> helper = null;
 	private ReadOnlyPropertyImplEx readOnlyProperty;
 
+	// changes that are collected during a bulk change, by key
+	private int changeDepth = 0;
+	private Map<K, AtomicChange<K, V>> pendingChanges;
+
 	/**
 	 * The constructor of {@code ReadOnlyMapWrapperEx}
 	 */
@@ -229,11 +250,80 @@ public class ReadOnlyMapWrapperEx<K, V> extends ReadOnlyMapWrapper<K, V> {
 		helper.addListener(listener);
 	}
 
+	/**
+	 * Starts a bulk change. The changes that are applied to the wrapped map
+	 * until the matching call to {@link #endChange()} are collected and
+	 * reported at once, i.e. {@link InvalidationListener}s are notified once,
+	 * and {@link MapChangeListener}s are notified once per changed key (about
+	 * the value before the bulk change and the value after it). Keys whose
+	 * value is the same afterwards are not reported. Bulk changes may be
+	 * nested, in which case the changes are reported when the outermost bulk
+	 * change ends.
+	 */
+	public void beginChange() {
+		if (changeDepth++ == 0) {
+			pendingChanges = new LinkedHashMap<>();
+		}
+	}
+
+	/**
+	 * Ends a bulk change that was started by {@link #beginChange()}. If this
+	 * ends the outermost bulk change, the collected changes are reported to
+	 * the listeners.
+	 *
+	 * @throws IllegalStateException
+	 *             if no bulk change was started.
+	 */
+	public void endChange() {
+		if (changeDepth == 0) {
+			throw new IllegalStateException("No bulk change was started.");
+		}
+		if (--changeDepth == 0) {
+			flushChanges();
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if a bulk change is in progress (see
+	 * {@link #beginChange()}), otherwise <code>false</code>.
+	 *
+	 * @return <code>true</code> if a bulk change is in progress, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isChanging() {
+		return changeDepth > 0;
+	}
+
+	private void flushChanges() {
+		List<AtomicChange<K, V>> changes = new ArrayList<>(
+				pendingChanges.size());
+		for (AtomicChange<K, V> change : pendingChanges.values()) {
+			if (!Objects.equals(change.getValueRemoved(),
+					change.getValueAdded())) {
+				changes.add(change);
+			}
+		}
+		// a bulk change is still in progress if the map was replaced
+		pendingChanges = changeDepth > 0 ? new LinkedHashMap<>() : null;
+		if (!changes.isEmpty()) {
+			if (helper != null) {
+				helper.fireValueChangedEvent(changes);
+			}
+			if (readOnlyProperty != null) {
+				readOnlyProperty.fireValueChangedEvent(changes);
+			}
+		}
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	protected void fireValueChangedEvent() {
+		// changes of the previous map are reported before its replacement
+		if (changeDepth > 0) {
+			flushChanges();
+		}
 		if (helper != null) {
 			helper.fireValueChangedEvent();
 		}
@@ -248,6 +338,16 @@ public class ReadOnlyMapWrapperEx<K, V> extends ReadOnlyMapWrapper<K, V> {
 	@Override
 	protected void fireValueChangedEvent(
 			Change<? extends K, ? extends V> change) {
+		if (changeDepth > 0) {
+			K key = change.getKey();
+			AtomicChange<K, V> pending = pendingChanges.get(key);
+			pendingChanges.put(key,
+					new AtomicChange<>(get(), key,
+							pending == null ? change.getValueRemoved()
+									: pending.getValueRemoved(),
+							change.getValueAdded()));
+			return;
+		}
 		if (helper != null) {
 			helper.fireValueChangedEvent(change);
 		}
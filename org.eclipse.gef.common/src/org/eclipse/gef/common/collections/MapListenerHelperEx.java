@@ -216,6 +216,24 @@ public class MapListenerHelperEx<K, V> {
 		}
 	}
 
+	/**
+	 * Notifies all attached {@link InvalidationListener}s once, and all
+	 * attached {@link MapChangeListener}s about each of the given changes,
+	 * which were applied in one step.
+	 *
+	 * @param changes
+	 *            The changes to notify listeners about.
+	 */
+	public void fireValueChangedEvent(
+			List<? extends MapChangeListener.Change<? extends K, ? extends V>> changes) {
+		if (!changes.isEmpty()) {
+			notifyInvalidationListeners();
+			for (MapChangeListener.Change<? extends K, ? extends V> change : changes) {
+				notifyMapChangeListeners(change);
+			}
+		}
+	}
+
 	/**
 	 * Returns the source {@link ObservableMap} this {@link MapListenerHelperEx}
 	 * is bound to, which is used in change notifications.
@@ -212,41 +212,33 @@ class ObservableListWrapperEx<E> extends ForwardingList<E>
 	public boolean removeAll(Collection<?> collection) {
 		List<E> previousContents = delegateCopy();
 		if (super.removeAll(collection)) {
-			// check which have been removed
+			// check which have been removed (combining continuous ranges of
+			// removed elements into a single elementary change, and ensuring
+			// that the count of elements that have already been removed by
+			// preceding elementary changes is subtracted from the index)
 			List<ElementarySubChange<E>> elementaryChanges = new ArrayList<>();
-			ElementarySubChange<E> currentElementaryChange = null;
+			List<E> removed = null;
+			int index = 0;
 			int removeCount = 0;
-			for (E e : previousContents) {
+			for (int i = 0; i < previousContents.size(); i++) {
+				E e = previousContents.get(i);
 				if (collection.contains(e)) {
-					// create a new elementary change, if elements are not
-					// 'continuous' (ensure that the count of elements that have
-					// already been deleted by preceding elementary changes is
-					// subtracted from the index)
-					if (currentElementaryChange == null
-							|| previousContents.indexOf(e)
-									- currentElementaryChange.getFrom() > 1) {
-						if (currentElementaryChange != null) {
-							removeCount += currentElementaryChange.getRemoved()
-									.size();
-						}
-						int index = previousContents.indexOf(e) - removeCount;
-						currentElementaryChange = ElementarySubChange.removed(
-								Collections.singletonList(e), index, index);
-						elementaryChanges.add(currentElementaryChange);
-					} else {
-						// replace current elementary change (i.e. append the
-						// removed element)
-						List<E> removed = new ArrayList<>(
-								currentElementaryChange.getRemoved());
-						removed.add(e);
-						int index = currentElementaryChange.getFrom();
-						elementaryChanges.remove(currentElementaryChange);
-						currentElementaryChange = ElementarySubChange
-								.removed(removed, index, index);
-						elementaryChanges.add(currentElementaryChange);
+					if (removed == null) {
+						removed = new ArrayList<>();
+						index = i - removeCount;
 					}
+					removed.add(e);
+				} else if (removed != null) {
+					elementaryChanges.add(
+							ElementarySubChange.removed(removed, index, index));
+					removeCount += removed.size();
+					removed = null;
 				}
 			}
+			if (removed != null) {
+				elementaryChanges
+						.add(ElementarySubChange.removed(removed, index, index));
+			}
 			// determine lowest index that was removed (will be used as from and
 			// to index)
 			helper.fireValueChangedEvent(
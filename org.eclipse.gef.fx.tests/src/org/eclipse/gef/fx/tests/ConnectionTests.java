@@ -13,6 +13,7 @@
 package org.eclipse.gef.fx.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.List;
@@ -27,6 +28,11 @@ import org.junit.Test;
 
 public class ConnectionTests {
 
+	@SuppressWarnings("unchecked")
+	private static ICurve getCurveGeometry(Connection connection) {
+		return ((GeometryNode<ICurve>) connection.getCurve()).getGeometry();
+	}
+
 	@Test
 	public void controlPoints() throws IllegalArgumentException, IllegalAccessException {
 		Connection connection = new Connection();
@@ -96,6 +102,37 @@ public class ConnectionTests {
 		assertEquals(2, connection.getControlPoints().size());
 	}
 
+	@Test
+	public void deferredRefresh() {
+		Connection connection = new Connection();
+		connection.setStartPoint(new Point(0, 0));
+		connection.setEndPoint(new Point(100, 0));
+		ICurve initialGeometry = getCurveGeometry(connection);
+
+		// refreshes are coalesced while deferred refresh is enabled
+		connection.setDeferredRefresh(true);
+		for (int i = 1; i <= 10; i++) {
+			connection.setEndPoint(new Point(100, i * 10));
+		}
+		assertEquals(new Point(100, 100), connection.getEndPoint());
+		assertEquals(initialGeometry, getCurveGeometry(connection));
+		assertTrue(connection.getSavedRefreshCount() > 0);
+
+		// the pending refresh is performed upon flush, yielding the same result
+		// as an immediate refresh
+		Connection reference = new Connection();
+		reference.setStartPoint(new Point(0, 0));
+		reference.setEndPoint(new Point(100, 100));
+		connection.flushRefresh();
+		assertEquals(getCurveGeometry(reference), getCurveGeometry(connection));
+
+		// a pending refresh is performed when deferred refresh is disabled
+		connection.setEndPoint(new Point(50, 50));
+		reference.setEndPoint(new Point(50, 50));
+		connection.setDeferredRefresh(false);
+		assertEquals(getCurveGeometry(reference), getCurveGeometry(connection));
+	}
+
 	@Test
 	public void exchangeCurve() {
 		// setup connection with start, control, end points
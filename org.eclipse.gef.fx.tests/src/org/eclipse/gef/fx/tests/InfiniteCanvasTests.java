@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.gef.fx.nodes.InfiniteCanvas;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.embed.swing.JFXPanel;
+import javafx.scene.shape.Rectangle;
+
+public class InfiniteCanvasTests {
+
+	@BeforeClass
+	public static void initializeJavaFX() {
+		// initializes the JavaFX toolkit, which is needed by the scroll bars
+		new JFXPanel();
+	}
+
+	private static InfiniteCanvas createCanvas() {
+		InfiniteCanvas canvas = new InfiniteCanvas();
+		canvas.resize(400, 300);
+		canvas.setVirtualizationMargin(0);
+		canvas.setVirtualizeContent(true);
+		return canvas;
+	}
+
+	private static Rectangle createVirtualizedNode(InfiniteCanvas canvas, double x, double y) {
+		Rectangle node = new Rectangle(x, y, 50, 50);
+		canvas.getContentGroup().getChildren().add(node);
+		canvas.addVirtualizedNode(node);
+		return node;
+	}
+
+	@Test
+	public void cullAndRestoreOnScroll() {
+		InfiniteCanvas canvas = createCanvas();
+		Rectangle inside = createVirtualizedNode(canvas, 10, 10);
+		Rectangle outside = createVirtualizedNode(canvas, 1000, 10);
+		canvas.layout();
+
+		// the node outside of the viewport is culled, but still contributes
+		// to the content bounds
+		assertFalse(canvas.isCulled(inside));
+		assertTrue(inside.isVisible());
+		assertTrue(canvas.isCulled(outside));
+		assertFalse(outside.isVisible());
+		assertEquals(1050, canvas.getContentBounds().getMaxX(), 0);
+
+		// scrolling restores the culled node and culls the other one
+		canvas.setHorizontalScrollOffset(-900);
+		canvas.layout();
+		assertTrue(canvas.isCulled(inside));
+		assertFalse(inside.isVisible());
+		assertFalse(canvas.isCulled(outside));
+		assertTrue(outside.isVisible());
+		assertEquals(-890, canvas.getContentBounds().getMinX(), 0);
+
+		// disabling virtualization restores all nodes
+		canvas.setVirtualizeContent(false);
+		assertFalse(canvas.isCulled(inside));
+		assertTrue(inside.isVisible());
+	}
+
+	@Test
+	public void respectVisibilityOfApplication() {
+		InfiniteCanvas canvas = createCanvas();
+		Rectangle hidden = createVirtualizedNode(canvas, 1000, 10);
+		hidden.setVisible(false);
+		Rectangle bound = createVirtualizedNode(canvas, 1000, 100);
+		bound.visibleProperty().bind(new SimpleBooleanProperty(true));
+		Rectangle changed = createVirtualizedNode(canvas, 1000, 200);
+		canvas.layout();
+
+		// invisible nodes and nodes with bound visibility are not culled
+		assertFalse(canvas.isCulled(hidden));
+		assertFalse(canvas.isCulled(bound));
+		assertTrue(canvas.isCulled(changed));
+
+		// a culled node whose visibility is changed is no longer culled, and
+		// it is culled again within the next update
+		changed.setVisible(true);
+		assertFalse(canvas.isCulled(changed));
+		canvas.layout();
+		assertTrue(canvas.isCulled(changed));
+
+		// restoring nodes does not show invisible nodes
+		canvas.setHorizontalScrollOffset(-900);
+		canvas.layout();
+		assertFalse(hidden.isVisible());
+		assertTrue(changed.isVisible());
+	}
+
+}
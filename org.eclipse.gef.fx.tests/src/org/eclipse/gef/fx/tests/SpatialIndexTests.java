@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.gef.fx.utils.SpatialIndex;
+import org.junit.Test;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+
+public class SpatialIndexTests {
+
+	private static Set<Integer> bruteForce(List<Bounds> bounds, Bounds query) {
+		Set<Integer> result = new HashSet<>();
+		for (int i = 0; i < bounds.size(); i++) {
+			if (bounds.get(i) != null && bounds.get(i).intersects(query)) {
+				result.add(i);
+			}
+		}
+		return result;
+	}
+
+	private static double distance(Bounds b, double x, double y) {
+		double dx = Math.max(Math.max(b.getMinX() - x, x - b.getMaxX()), 0);
+		double dy = Math.max(Math.max(b.getMinY() - y, y - b.getMaxY()), 0);
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+	@Test
+	public void emptyAndRemovedElements() {
+		SpatialIndex<String> index = new SpatialIndex<>();
+		index.put("a", new BoundingBox(0, 0, 10, 10));
+		index.put("b", new BoundingBox(5, 5, -1, -1));
+		assertEquals(2, index.size());
+		assertTrue(index.contains("b"));
+		// empty bounds are never reported
+		assertEquals(new HashSet<>(index.query(new BoundingBox(-100, -100, 200, 200))),
+				new HashSet<>(Arrays.asList("a")));
+		assertTrue(index.query(7, 7).contains("a"));
+		assertFalse(index.query(11, 7).contains("a"));
+
+		assertTrue(index.remove("a"));
+		assertFalse(index.remove("a"));
+		assertTrue(index.query(7, 7).isEmpty());
+		index.clear();
+		assertEquals(0, index.size());
+	}
+
+	@Test
+	public void nearestMatchesBruteForce() {
+		Random random = new Random(7);
+		SpatialIndex<Integer> index = new SpatialIndex<>();
+		assertNull(index.nearest(0, 0));
+		List<Bounds> bounds = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			Bounds b = new BoundingBox(random.nextDouble() * 10000 - 5000, random.nextDouble() * 10000 - 5000,
+					random.nextDouble() * 50, random.nextDouble() * 50);
+			bounds.add(b);
+			index.put(i, b);
+		}
+		for (int q = 0; q < 200; q++) {
+			double x = random.nextDouble() * 12000 - 6000;
+			double y = random.nextDouble() * 12000 - 6000;
+			double minDistance = Double.POSITIVE_INFINITY;
+			for (Bounds b : bounds) {
+				minDistance = Math.min(minDistance, distance(b, x, y));
+			}
+			assertEquals(minDistance, distance(bounds.get(index.nearest(x, y)), x, y), 1e-9);
+		}
+	}
+
+	@Test
+	public void pointQueriesOnSplitLines() {
+		// the first element determines the root quadrant (0, 0, 16, 16), so
+		// that the split lines of all quadrants lie on the edges of the cells,
+		// which adjacent cells share
+		SpatialIndex<Integer> index = new SpatialIndex<>();
+		List<Bounds> bounds = new ArrayList<>();
+		bounds.add(new BoundingBox(4, 4, 8, 8));
+		index.put(0, bounds.get(0));
+		for (int i = 0; i < 32; i++) {
+			for (int j = 0; j < 32; j++) {
+				Bounds b = new BoundingBox(i * 8, j * 8, 8, 8);
+				bounds.add(b);
+				index.put(bounds.size() - 1, b);
+			}
+		}
+		for (int x = -4; x <= 260; x += 4) {
+			for (int y = -4; y <= 260; y += 4) {
+				assertEquals(bruteForce(bounds, new BoundingBox(x, y, 0, 0)), new HashSet<>(index.query(x, y)));
+			}
+		}
+	}
+
+	@Test
+	public void queriesMatchBruteForce() {
+		Random random = new Random(42);
+		SpatialIndex<Integer> index = new SpatialIndex<>();
+		List<Bounds> bounds = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			// spread elements over a large area, including negative coordinates
+			// and some large elements
+			double size = i % 100 == 0 ? 2000 : 1 + random.nextDouble() * 20;
+			Bounds b = new BoundingBox(random.nextDouble() * 10000 - 5000, random.nextDouble() * 10000 - 5000, size,
+					size);
+			bounds.add(b);
+			index.put(i, b);
+		}
+		// move and remove some elements
+		for (int i = 0; i < 2000; i += 7) {
+			Bounds b = new BoundingBox(random.nextDouble() * 20000 - 10000, random.nextDouble() * 20000 - 10000, 5,
+					5);
+			bounds.set(i, b);
+			index.put(i, b);
+		}
+		for (int i = 3; i < 2000; i += 11) {
+			bounds.set(i, null);
+			assertTrue(index.remove(i));
+		}
+
+		for (int q = 0; q < 200; q++) {
+			Bounds query = new BoundingBox(random.nextDouble() * 20000 - 10000, random.nextDouble() * 20000 - 10000,
+					random.nextDouble() * 3000, random.nextDouble() * 3000);
+			assertEquals(bruteForce(bounds, query), new HashSet<>(index.query(query)));
+
+			double x = random.nextDouble() * 10000 - 5000;
+			double y = random.nextDouble() * 10000 - 5000;
+			assertEquals(bruteForce(bounds, new BoundingBox(x, y, 0, 0)), new HashSet<>(index.query(x, y)));
+		}
+	}
+
+}
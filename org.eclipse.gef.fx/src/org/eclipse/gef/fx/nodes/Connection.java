@@ -312,6 +312,9 @@ public class Connection extends Group {
 		}
 	};
 	private boolean inRefresh = false;
+	private boolean deferredRefresh = false;
+	private boolean refreshPending = false;
+	private long savedRefreshCount = 0;
 
 	/**
 	 * Constructs a new {@link Connection} whose start and end point are set to
@@ -613,6 +616,20 @@ public class Connection extends Group {
 		return endDecorationProperty;
 	}
 
+	/**
+	 * Performs a pending {@link #refresh()} synchronously, i.e. in case
+	 * {@link #isDeferredRefresh() deferred refresh} is enabled and a refresh
+	 * was requested since the last refresh, the visualization is refreshed
+	 * right away. Otherwise, this method does nothing. Can be used (e.g. by
+	 * tests) to ensure that the visualization is up-to-date without waiting
+	 * for the next pulse.
+	 */
+	public void flushRefresh() {
+		if (refreshPending) {
+			doRefresh();
+		}
+	}
+
 	/**
 	 * Returns the anchor at the given index. The start anchor will be provided
 	 * for <code>index == 0</code>, the end anchor for the last defined index.
@@ -931,6 +948,18 @@ public class Connection extends Group {
 		return routerProperty.get();
 	}
 
+	/**
+	 * Returns the number of {@link #refresh()} requests that did not lead to
+	 * an additional refresh, because they were coalesced with an already
+	 * pending refresh while {@link #isDeferredRefresh() deferred refresh} was
+	 * enabled.
+	 *
+	 * @return The number of saved refreshes.
+	 */
+	public long getSavedRefreshCount() {
+		return savedRefreshCount;
+	}
+
 	/**
 	 * Returns the currently assigned start {@link IAnchor anchor}, or
 	 * <code>null</code> if no start {@link IAnchor anchor} is assigned.
@@ -1079,6 +1108,26 @@ public class Connection extends Group {
 		return isConnected(getStartAnchor());
 	}
 
+	/**
+	 * Returns <code>true</code> if {@link #refresh()} requests are deferred
+	 * and coalesced, so that the visualization is refreshed at most once per
+	 * pulse (during the layout pass). Otherwise returns <code>false</code>,
+	 * which is the default.
+	 *
+	 * @return <code>true</code> if refreshes are deferred, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isDeferredRefresh() {
+		return deferredRefresh;
+	}
+
+	@Override
+	protected void layoutChildren() {
+		super.layoutChildren();
+		// perform a deferred refresh once per pulse
+		flushRefresh();
+	}
+
 	@Override
 	public double maxHeight(double width) {
 		return Double.MAX_VALUE;
@@ -1227,13 +1276,40 @@ public class Connection extends Group {
 	 * <li>The connection refreshed its points manually again.
 	 * <li>The connection registers all position change listeners.
 	 * </ol>
+	 * <p>
+	 * In case {@link #isDeferredRefresh() deferred refresh} is enabled, the
+	 * refresh is not performed immediately, but the connection is marked for
+	 * a refresh that is performed within the next layout pass (or upon
+	 * {@link #flushRefresh()}), so that multiple refresh requests within one
+	 * pulse only lead to a single refresh.
 	 */
 	protected void refresh() {
+		// guard against refreshing while refreshing
+		if (inRefresh) {
+			return;
+		}
+		if (deferredRefresh) {
+			if (refreshPending) {
+				savedRefreshCount++;
+			} else {
+				refreshPending = true;
+				requestLayout();
+			}
+			return;
+		}
+		doRefresh();
+	}
+
+	/**
+	 * Performs the actual refresh as described in {@link #refresh()}.
+	 */
+	private void doRefresh() {
 		// guard against refreshing while refreshing
 		if (inRefresh) {
 			return;
 		}
 		inRefresh = true;
+		refreshPending = false;
 		// System.out.println("+--- Refresh ---+");
 
 		// unregister PCLs
@@ -1712,6 +1788,25 @@ public class Connection extends Group {
 		this.curveProperty.set(curve);
 	}
 
+	/**
+	 * Enables or disables deferred refreshing. When enabled, {@link #refresh()}
+	 * requests are coalesced and the visualization is refreshed at most once
+	 * per pulse (during the layout pass). Note that in this case, the points
+	 * and the curve geometry of this {@link Connection} may be out-of-date
+	 * until the next layout pass, or until {@link #flushRefresh()} is called.
+	 * When disabled, a pending refresh is performed immediately.
+	 *
+	 * @param deferredRefresh
+	 *            <code>true</code> to defer refreshes, <code>false</code> to
+	 *            refresh immediately.
+	 */
+	public void setDeferredRefresh(boolean deferredRefresh) {
+		this.deferredRefresh = deferredRefresh;
+		if (!deferredRefresh) {
+			flushRefresh();
+		}
+	}
+
 	/**
 	 * Sets the end {@link IAnchor} of this {@link Connection} to the given
 	 * value.
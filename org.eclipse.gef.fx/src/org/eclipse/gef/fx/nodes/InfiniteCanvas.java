@@ -13,14 +13,22 @@
  *******************************************************************************/
 package org.eclipse.gef.fx.nodes;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.eclipse.gef.fx.utils.SpatialIndex;
 import org.eclipse.gef.geometry.convert.fx.FX2Geometry;
 import org.eclipse.gef.geometry.convert.fx.Geometry2FX;
 import org.eclipse.gef.geometry.planar.AffineTransform;
 
 import javafx.animation.FadeTransition;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.beans.binding.DoubleBinding;
 import javafx.beans.binding.ObjectBinding;
 import javafx.beans.property.BooleanProperty;
@@ -29,7 +37,9 @@ import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ChangeListener;
@@ -42,6 +52,7 @@ import javafx.geometry.Point2D;
 import javafx.geometry.Side;
 import javafx.scene.Group;
 import javafx.scene.Node;
+import javafx.scene.Parent;
 import javafx.scene.control.ScrollBar;
 import javafx.scene.control.ScrollPane.ScrollBarPolicy;
 import javafx.scene.image.Image;
@@ -111,6 +122,23 @@ import javafx.util.Duration;
  * <li>The {@link #gridCellHeightProperty()} determines the grid cell height.
  * </ul>
  * <p>
+ * When the {@link #virtualizeContentProperty()} is enabled, the
+ * {@link #addVirtualizedNode(Node) virtualized nodes} that are placed within
+ * the {@link #getContentGroup()} are culled, i.e. they are not rendered, as
+ * long as they are outside of the visible area (extended by the
+ * {@link #virtualizationMarginProperty()}). Culled nodes remain within the
+ * scene graph and still contribute to the {@link #contentBoundsProperty()
+ * content bounds}. The bounds of the
+ * virtualized nodes are maintained within a {@link SpatialIndex}, so that only
+ * the nodes near the visible area need to be processed when the
+ * {@link #contentTransformProperty()} or the scroll offsets change.
+ * <p>
+ * Culling only saves the costs of rendering and picking the culled nodes. It
+ * does not reduce the number of nodes within the scene graph, nor the memory
+ * that is consumed by them. As culling is done by means of the
+ * {@link Node#visibleProperty()}, only those nodes should be virtualized whose
+ * visibility is not changed by others while they are culled.
+ * <p>
  * Internally, an {@link InfiniteCanvas} consists of four layers:
  *
  * <pre>
@@ -188,6 +216,13 @@ public class InfiniteCanvas extends Region {
 	 */
 	public static final int DEFAULT_GRID_CELL_HEIGHT = 10;
 
+	/**
+	 * The default virtualization margin, i.e. the distance (within the
+	 * coordinate system of the {@link InfiniteCanvas}) by which the visible
+	 * area is extended before culling virtualized nodes.
+	 */
+	public static final double DEFAULT_VIRTUALIZATION_MARGIN = 100;
+
 	// background grid
 	private Region grid;
 	private Affine gridTransform = new Affine();
@@ -221,6 +256,64 @@ public class InfiniteCanvas extends Region {
 	private final BooleanProperty clipContentProperty = new SimpleBooleanProperty(
 			true);
 
+	// virtualization
+	private final BooleanProperty virtualizeContentProperty = new SimpleBooleanProperty(
+			false);
+	private final DoubleProperty virtualizationMarginProperty = new SimpleDoubleProperty(
+			DEFAULT_VIRTUALIZATION_MARGIN);
+	private final SpatialIndex<Node> virtualizedNodeIndex = new SpatialIndex<>();
+	private final Set<Node> virtualizedNodes = Collections
+			.newSetFromMap(new IdentityHashMap<>());
+	private final Set<Node> shownNodes = Collections
+			.newSetFromMap(new IdentityHashMap<>());
+	// the culled nodes and their bounds within the content group
+	private final Map<Node, Bounds> culledNodes = new IdentityHashMap<>();
+	private Bounds culledNodesBounds;
+	private boolean isCulledNodesBoundsValid = true;
+	private final Set<Node> dirtyNodes = Collections
+			.newSetFromMap(new IdentityHashMap<>());
+	private Bounds virtualizationViewport;
+	private boolean isVirtualizationUpdateRequested = false;
+	private boolean isUpdatingVirtualization = false;
+	private final InvalidationListener virtualizedNodeBoundsListener = new InvalidationListener() {
+		@Override
+		public void invalidated(Observable observable) {
+			markDirty((Node) ((ReadOnlyProperty<?>) observable).getBean());
+		}
+	};
+	private final InvalidationListener virtualizedNodeTransformListener = new InvalidationListener() {
+		@Override
+		public void invalidated(Observable observable) {
+			// the bounds of nested virtualized nodes depend on the transform
+			Node node = (Node) ((ReadOnlyProperty<?>) observable).getBean();
+			markDirty(node);
+			markDescendantsDirty(node);
+		}
+	};
+	private final InvalidationListener virtualizedNodeVisibilityListener = new InvalidationListener() {
+		@Override
+		public void invalidated(Observable observable) {
+			if (isUpdatingVirtualization) {
+				return;
+			}
+			Node node = (Node) ((ReadOnlyProperty<?>) observable).getBean();
+			// the visibility of a culled node was explicitly changed by someone
+			// else, so that it is no longer culled
+			if (culledNodes.remove(node) != null) {
+				isCulledNodesBoundsValid = false;
+				shownNodes.add(node);
+			}
+			// a node that became visible needs to be culled again
+			markDirty(node);
+		}
+	};
+	private final InvalidationListener virtualizationViewportListener = new InvalidationListener() {
+		@Override
+		public void invalidated(Observable observable) {
+			requestVirtualizationUpdate();
+		}
+	};
+
 	// scrollbars
 	private Group scrollBarGroup;
 	private ScrollBar horizontalScrollBar;
@@ -396,6 +489,64 @@ public class InfiniteCanvas extends Region {
 				}
 			}
 		});
+
+		// register for viewport changes to update the culled nodes
+		widthProperty().addListener(virtualizationViewportListener);
+		heightProperty().addListener(virtualizationViewportListener);
+		getScrolledPane().localToParentTransformProperty()
+				.addListener(virtualizationViewportListener);
+		getContentGroup().localToParentTransformProperty()
+				.addListener(virtualizationViewportListener);
+		virtualizationMarginProperty
+				.addListener(virtualizationViewportListener);
+		// register for "virtualizeContent" changes to enable/disable culling
+		virtualizeContentProperty.addListener(new ChangeListener<Boolean>() {
+			@Override
+			public void changed(ObservableValue<? extends Boolean> observable,
+					Boolean oldValue, Boolean newValue) {
+				if (newValue.booleanValue()) {
+					virtualizeContent();
+				} else {
+					unvirtualizeContent();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Registers the given {@link Node}, which is (or will be) placed within the
+	 * {@link #getContentGroup()}, for viewport virtualization, i.e. it will be
+	 * culled while it is outside of the visible area, provided that the
+	 * {@link #virtualizeContentProperty()} is enabled.
+	 * <p>
+	 * Culling is done by making the node invisible (see
+	 * {@link Node#visibleProperty()}), so that it is neither rendered nor
+	 * picked, while its bounds are still considered for the content bounds.
+	 * Nodes that are invisible, whose visibility is bound, or that contain the
+	 * focus owner are not culled. If the visibility of a culled node is changed
+	 * explicitly, the node is no longer considered to be culled, and it is
+	 * culled again by the next update when it is still outside of the visible
+	 * area. However, making a culled node invisible is not noticed, so that the
+	 * node is shown again when it enters the visible area.
+	 *
+	 * @param node
+	 *            The {@link Node} to virtualize.
+	 */
+	public void addVirtualizedNode(Node node) {
+		if (node == null) {
+			throw new IllegalArgumentException("node may not be null.");
+		}
+		if (!virtualizedNodes.add(node)) {
+			return;
+		}
+		node.boundsInParentProperty()
+				.addListener(virtualizedNodeBoundsListener);
+		node.parentProperty().addListener(virtualizedNodeBoundsListener);
+		node.localToParentTransformProperty()
+				.addListener(virtualizedNodeTransformListener);
+		node.visibleProperty().addListener(virtualizedNodeVisibilityListener);
+		shownNodes.add(node);
+		markDirty(node);
 	}
 
 	/**
@@ -429,8 +580,7 @@ public class InfiniteCanvas extends Region {
 	 *         coordinate system of this {@link InfiniteCanvas}.
 	 */
 	protected double[] computeContentBoundsInLocal() {
-		Bounds contentBoundsInScrolledPane = getContentGroup()
-				.getBoundsInParent();
+		Bounds contentBoundsInScrolledPane = getContentBoundsInScrolledPane();
 		double minX = contentBoundsInScrolledPane.getMinX();
 		double maxX = contentBoundsInScrolledPane.getMaxX();
 		double minY = contentBoundsInScrolledPane.getMinY();
@@ -469,7 +619,7 @@ public class InfiniteCanvas extends Region {
 	 */
 	protected double[] computeScrollableBoundsInLocal() {
 		double[] cb = Arrays.copyOf(contentBounds, contentBounds.length);
-		Bounds db = getContentGroup().getBoundsInParent();
+		Bounds db = getContentBoundsInScrolledPane();
 
 		// factor in the viewport extending the content bounds
 		if (cb[0] < 0) {
@@ -523,6 +673,47 @@ public class InfiniteCanvas extends Region {
 						vv));
 	}
 
+	/**
+	 * Computes the region (within the local coordinate system of the
+	 * {@link #getContentGroup()}) outside of which virtualized nodes are
+	 * culled, i.e. the visible area extended by the
+	 * {@link #virtualizationMarginProperty()}.
+	 *
+	 * @return The {@link Bounds} of the region within which virtualized nodes
+	 *         are shown, or <code>null</code> if it cannot be determined.
+	 */
+	protected Bounds computeVirtualizationViewport() {
+		double margin = Math.max(0, getVirtualizationMargin());
+		Bounds viewport = new BoundingBox(-margin, -margin,
+				getWidth() + 2 * margin, getHeight() + 2 * margin);
+		Bounds viewportInScrolledPane = getScrolledPane()
+				.parentToLocal(viewport);
+		if (viewportInScrolledPane == null) {
+			return null;
+		}
+		return getContentGroup().parentToLocal(viewportInScrolledPane);
+	}
+
+	/**
+	 * Computes the bounds of the given virtualized {@link Node} within the
+	 * local coordinate system of the {@link #getContentGroup()}.
+	 *
+	 * @param node
+	 *            The virtualized {@link Node}.
+	 * @return The {@link Bounds} of the given {@link Node} within the
+	 *         {@link #getContentGroup()}, or <code>null</code> if the node is
+	 *         not placed within the {@link #getContentGroup()}.
+	 */
+	protected Bounds computeVirtualizedNodeBounds(Node node) {
+		Bounds bounds = node.getBoundsInParent();
+		Parent parent = node.getParent();
+		while (parent != null && parent != getContentGroup()) {
+			bounds = parent.localToParent(bounds);
+			parent = parent.getParent();
+		}
+		return parent == null ? null : bounds;
+	}
+
 	/**
 	 * Converts a vertical translation distance into the corresponding vertical
 	 * scrollbar value.
@@ -800,6 +991,21 @@ public class InfiniteCanvas extends Region {
 		return contentBoundsProperty.get();
 	}
 
+	/**
+	 * Returns the bounds of the content group within the scrolled pane,
+	 * including the culled nodes, which are not considered by the bounds of
+	 * the content group as they are invisible.
+	 */
+	private Bounds getContentBoundsInScrolledPane() {
+		Bounds bounds = getContentGroup().getBoundsInParent();
+		Bounds culledBounds = getCulledNodesBounds();
+		if (culledBounds == null) {
+			return bounds;
+		}
+		culledBounds = getContentGroup().localToParent(culledBounds);
+		return bounds.isEmpty() ? culledBounds : union(bounds, culledBounds);
+	}
+
 	/**
 	 * Returns the {@link Group} designated for holding the scrolled content.
 	 *
@@ -809,6 +1015,17 @@ public class InfiniteCanvas extends Region {
 		return contentGroup;
 	}
 
+	private Bounds getCulledNodesBounds() {
+		if (!isCulledNodesBoundsValid) {
+			culledNodesBounds = null;
+			for (Bounds bounds : culledNodes.values()) {
+				culledNodesBounds = union(culledNodesBounds, bounds);
+			}
+			isCulledNodesBoundsValid = true;
+		}
+		return culledNodesBounds;
+	}
+
 	/**
 	 * Returns the transformation that is applied to the
 	 * {@link #getContentGroup() content group}.
@@ -974,6 +1191,15 @@ public class InfiniteCanvas extends Region {
 		return getScrolledPane().getTranslateY();
 	}
 
+	/**
+	 * Returns the value of the {@link #virtualizationMarginProperty()}.
+	 *
+	 * @return The value of the {@link #virtualizationMarginProperty()}.
+	 */
+	public double getVirtualizationMargin() {
+		return virtualizationMarginProperty.get();
+	}
+
 	/**
 	 * Returns the grid cell height as a (writable) property.
 	 *
@@ -1034,6 +1260,19 @@ public class InfiniteCanvas extends Region {
 		return clipContentProperty.get();
 	}
 
+	/**
+	 * Returns <code>true</code> if the given virtualized {@link Node} is
+	 * currently culled. Otherwise returns <code>false</code>.
+	 *
+	 * @param node
+	 *            The {@link Node} to test.
+	 * @return <code>true</code> if the given {@link Node} is culled, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isCulled(Node node) {
+		return culledNodes.containsKey(node);
+	}
+
 	/**
 	 * Returns the value of the {@link #showGridProperty()}.
 	 *
@@ -1043,6 +1282,15 @@ public class InfiniteCanvas extends Region {
 		return showGridProperty.get();
 	}
 
+	/**
+	 * Returns the value of the {@link #virtualizeContentProperty()}.
+	 *
+	 * @return The value of the {@link #virtualizeContentProperty()}.
+	 */
+	public boolean isVirtualizeContent() {
+		return virtualizeContentProperty.get();
+	}
+
 	/**
 	 * Returns the value of the {@link #zoomGridProperty()}.
 	 *
@@ -1052,6 +1300,12 @@ public class InfiniteCanvas extends Region {
 		return zoomGridProperty.get();
 	}
 
+	@Override
+	protected void layoutChildren() {
+		super.layoutChildren();
+		updateVirtualization();
+	}
+
 	/**
 	 * Linear interpolation between <i>min</i> and <i>max</i> at the given
 	 * <i>ratio</i>. Returns the interpolated value in the interval
@@ -1070,6 +1324,34 @@ public class InfiniteCanvas extends Region {
 		return Double.isNaN(d) ? 0 : Math.min(max, Math.max(min, d));
 	}
 
+	private boolean isAncestorOrSelf(Node node, Node descendant) {
+		while (descendant != null) {
+			if (descendant == node) {
+				return true;
+			}
+			descendant = descendant.getParent();
+		}
+		return false;
+	}
+
+	private void markDescendantsDirty(Node node) {
+		if (node instanceof Parent) {
+			for (Node child : ((Parent) node).getChildrenUnmodifiable()) {
+				if (virtualizedNodes.contains(child)) {
+					dirtyNodes.add(child);
+				}
+				markDescendantsDirty(child);
+			}
+		}
+	}
+
+	private void markDirty(Node node) {
+		if (virtualizedNodes.contains(node)) {
+			dirtyNodes.add(node);
+			requestVirtualizationUpdate();
+		}
+	}
+
 	/**
 	 * Normalizes a given <i>value</i> which is in range <code>[min;max]</code>
 	 * to range <code>[0;1]</code>.
@@ -1182,6 +1464,37 @@ public class InfiniteCanvas extends Region {
 		heightProperty().addListener(updateScrollBarsOnSizeChangeListener);
 	}
 
+	/**
+	 * Unregisters the given {@link Node} from viewport virtualization. If the
+	 * node is currently culled, it is shown again.
+	 *
+	 * @param node
+	 *            The {@link Node} that should no longer be virtualized.
+	 */
+	public void removeVirtualizedNode(Node node) {
+		if (!virtualizedNodes.remove(node)) {
+			return;
+		}
+		node.boundsInParentProperty()
+				.removeListener(virtualizedNodeBoundsListener);
+		node.parentProperty().removeListener(virtualizedNodeBoundsListener);
+		node.localToParentTransformProperty()
+				.removeListener(virtualizedNodeTransformListener);
+		node.visibleProperty()
+				.removeListener(virtualizedNodeVisibilityListener);
+		dirtyNodes.remove(node);
+		virtualizedNodeIndex.remove(node);
+		shownNodes.remove(node);
+		if (culledNodesBounds != null) {
+			// the node may be covered by the culled nodes bounds (see
+			// show(Node))
+			isCulledNodesBoundsValid = false;
+		}
+		if (culledNodes.remove(node) != null) {
+			node.setVisible(true);
+		}
+	}
+
 	/**
 	 * Repaints the tile image that depends on the grid cell size only. The tile
 	 * image is repeated when repainting the grid.
@@ -1199,6 +1512,17 @@ public class InfiniteCanvas extends Region {
 		grid.setBackground(background);
 	}
 
+	/**
+	 * Requests an update of the culled virtualized nodes, which is performed
+	 * within the next layout pass (see {@link #updateVirtualization()}).
+	 */
+	protected void requestVirtualizationUpdate() {
+		if (isVirtualizeContent() && !isVirtualizationUpdateRequested) {
+			isVirtualizationUpdateRequested = true;
+			requestLayout();
+		}
+	}
+
 	/**
 	 * Ensures that the specified child {@link Node} is visible to the user by
 	 * scrolling to its position. The effect and style of the node are taken
@@ -1393,6 +1717,28 @@ public class InfiniteCanvas extends Region {
 		getScrolledPane().setTranslateY(scrollOffsetY);
 	}
 
+	/**
+	 * Sets the value of the {@link #virtualizationMarginProperty()} to the
+	 * given value.
+	 *
+	 * @param virtualizationMargin
+	 *            The new value for the {@link #virtualizationMarginProperty()}.
+	 */
+	public void setVirtualizationMargin(double virtualizationMargin) {
+		virtualizationMarginProperty.set(virtualizationMargin);
+	}
+
+	/**
+	 * Sets the value of the {@link #virtualizeContentProperty()} to the given
+	 * value.
+	 *
+	 * @param virtualizeContent
+	 *            The new value for the {@link #virtualizeContentProperty()}.
+	 */
+	public void setVirtualizeContent(boolean virtualizeContent) {
+		virtualizeContentProperty.set(virtualizeContent);
+	}
+
 	/**
 	 * Assigns the given value to the {@link #showGridProperty()}.
 	 *
@@ -1404,6 +1750,15 @@ public class InfiniteCanvas extends Region {
 		zoomGridProperty.set(zoomGrid);
 	}
 
+	private void show(Node node) {
+		// the bounds of a shown node are still covered by the culled nodes
+		// bounds, which is correct as long as the node does not change
+		if (culledNodes.remove(node) != null) {
+			shownNodes.add(node);
+			node.setVisible(true);
+		}
+	}
+
 	/**
 	 * Enables the background grid.
 	 */
@@ -1527,6 +1882,37 @@ public class InfiniteCanvas extends Region {
 				.removeListener(updateScrollBarsOnBoundsChangeListener);
 	}
 
+	private static Bounds union(Bounds bounds, Bounds other) {
+		if (bounds == null) {
+			return other;
+		}
+		double minX = Math.min(bounds.getMinX(), other.getMinX());
+		double minY = Math.min(bounds.getMinY(), other.getMinY());
+		return new BoundingBox(minX, minY,
+				Math.max(bounds.getMaxX(), other.getMaxX()) - minX,
+				Math.max(bounds.getMaxY(), other.getMaxY()) - minY);
+	}
+
+	/**
+	 * Disables viewport virtualization for this {@link InfiniteCanvas}, i.e.
+	 * all culled nodes are shown again.
+	 */
+	protected void unvirtualizeContent() {
+		isUpdatingVirtualization = true;
+		try {
+			for (Node node : culledNodes.keySet()) {
+				node.setVisible(true);
+			}
+		} finally {
+			isUpdatingVirtualization = false;
+		}
+		shownNodes.addAll(culledNodes.keySet());
+		culledNodes.clear();
+		culledNodesBounds = null;
+		isCulledNodesBoundsValid = true;
+		virtualizationViewport = null;
+	}
+
 	/**
 	 * Disables zooming of the background grid.
 	 *
@@ -1645,6 +2031,94 @@ public class InfiniteCanvas extends Region {
 				.addListener(verticalScrollBarValueChangeListener);
 	}
 
+	/**
+	 * Updates the culled virtualized nodes, so that all nodes within the
+	 * {@link #computeVirtualizationViewport() virtualization viewport} are
+	 * shown and all other nodes are culled. The bounds of the nodes are only
+	 * re-computed for the nodes that changed since the last update, and only
+	 * the nodes near the viewport and the currently shown nodes are processed,
+	 * so that the costs are independent of the number of culled nodes. This
+	 * method is called within each layout pass of this {@link InfiniteCanvas}
+	 * (see {@link #requestVirtualizationUpdate()}).
+	 */
+	protected void updateVirtualization() {
+		isVirtualizationUpdateRequested = false;
+		if (!isVirtualizeContent()) {
+			return;
+		}
+		isUpdatingVirtualization = true;
+		try {
+			// update the bounds of changed nodes
+			boolean nodesChanged = !dirtyNodes.isEmpty();
+			for (Node node : dirtyNodes) {
+				Bounds bounds = computeVirtualizedNodeBounds(node);
+				if (bounds == null) {
+					// nodes outside of the content group are never culled
+					virtualizedNodeIndex.remove(node);
+					show(node);
+				} else {
+					virtualizedNodeIndex.put(node, bounds);
+					if (culledNodes.containsKey(node)) {
+						culledNodes.put(node, bounds);
+					}
+				}
+			}
+			dirtyNodes.clear();
+			if (nodesChanged && isCulledNodesBoundsValid
+					&& culledNodesBounds != null) {
+				// changed nodes may have been covered by the culled nodes
+				// bounds (see show(Node))
+				isCulledNodesBoundsValid = false;
+			}
+
+			Bounds viewport = computeVirtualizationViewport();
+			if (viewport == null || !nodesChanged
+					&& viewport.equals(virtualizationViewport)) {
+				return;
+			}
+			virtualizationViewport = viewport;
+
+			// show the culled nodes within the viewport
+			final Set<Node> nodesInViewport = Collections
+					.newSetFromMap(new IdentityHashMap<>());
+			virtualizedNodeIndex.query(viewport, nodesInViewport::add);
+			for (Node node : nodesInViewport) {
+				show(node);
+			}
+
+			// cull the shown nodes outside of the viewport
+			Node focusOwner = getScene() == null ? null
+					: getScene().getFocusOwner();
+			List<Node> toCull = new ArrayList<>();
+			for (Node node : shownNodes) {
+				if (!nodesInViewport.contains(node)
+						&& virtualizedNodeIndex.contains(node)
+						&& node.isVisible() && !node.visibleProperty().isBound()
+						&& !isAncestorOrSelf(node, focusOwner)) {
+					toCull.add(node);
+				}
+			}
+			for (Node node : toCull) {
+				shownNodes.remove(node);
+				Bounds bounds = computeVirtualizedNodeBounds(node);
+				culledNodes.put(node, bounds);
+				if (isCulledNodesBoundsValid) {
+					culledNodesBounds = union(culledNodesBounds, bounds);
+				}
+				// the culled nodes bounds have to be updated before the
+				// content bounds change
+				node.setVisible(false);
+			}
+		} finally {
+			isUpdatingVirtualization = false;
+		}
+		if (!isCulledNodesBoundsValid) {
+			// the content bounds may have changed without a change of the
+			// bounds of the content group
+			updateScrollBars();
+		}
+	}
+
 	/**
 	 * Returns the {@link ObjectProperty} that controls the
 	 * {@link ScrollBarPolicy} that decides when to show a vertical scrollbar.
@@ -1666,6 +2140,40 @@ public class InfiniteCanvas extends Region {
 		return getScrolledPane().translateYProperty();
 	}
 
+	/**
+	 * Returns the {@link DoubleProperty} that determines the distance (within
+	 * the coordinate system of this {@link InfiniteCanvas}) by which the
+	 * visible area is extended before virtualized nodes are culled.
+	 *
+	 * @return The {@link DoubleProperty} that determines the virtualization
+	 *         margin.
+	 */
+	public DoubleProperty virtualizationMarginProperty() {
+		return virtualizationMarginProperty;
+	}
+
+	/**
+	 * Enables viewport virtualization for this {@link InfiniteCanvas}, i.e.
+	 * virtualized nodes outside of the visible area are culled within the next
+	 * layout pass.
+	 */
+	protected void virtualizeContent() {
+		virtualizationViewport = null;
+		requestVirtualizationUpdate();
+	}
+
+	/**
+	 * Returns the {@link BooleanProperty} that determines if this
+	 * {@link InfiniteCanvas} culls the {@link #addVirtualizedNode(Node)
+	 * virtualized nodes} that are outside of the visible area.
+	 *
+	 * @return The {@link BooleanProperty} that determines if this
+	 *         {@link InfiniteCanvas} performs viewport virtualization.
+	 */
+	public BooleanProperty virtualizeContentProperty() {
+		return virtualizeContentProperty;
+	}
+
 	/**
 	 * Enables zooming of the background grid when the contents are zoomed.
 	 */
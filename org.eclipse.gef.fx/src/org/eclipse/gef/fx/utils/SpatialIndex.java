@@ -0,0 +1,550 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.fx.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javafx.geometry.Bounds;
+
+/**
+ * A {@link SpatialIndex} stores elements together with their (axis-aligned)
+ * bounds and allows to efficiently query the elements whose bounds intersect
+ * a given region or contain a given point, as well as the element that is
+ * nearest to a given point. Internally, a region quadtree is
+ * used that grows as needed, so that elements can be placed anywhere on the
+ * (infinite) plane. Elements are stored within the smallest quadrant that
+ * fully contains their bounds.
+ * <p>
+ * Elements with empty bounds are kept within the index, but are never
+ * reported by a query. A {@link SpatialIndex} is not thread-safe.
+ *
+ * @param <T>
+ *            The type of the indexed elements.
+ */
+public class SpatialIndex<T> {
+
+	private static final class Entry<T> {
+		private final T element;
+		private double minX;
+		private double minY;
+		private double maxX;
+		private double maxY;
+		private Quad<T> quad;
+		private int slot = -1;
+
+		private Entry(T element) {
+			this.element = element;
+		}
+
+		private boolean contains(double x, double y) {
+			return x >= minX && x <= maxX && y >= minY && y <= maxY;
+		}
+
+		private double distanceSq(double x, double y) {
+			return SpatialIndex.distanceSq(minX, minY, maxX, maxY, x, y);
+		}
+
+		private boolean intersects(double qMinX, double qMinY, double qMaxX,
+				double qMaxY) {
+			return minX <= qMaxX && maxX >= qMinX && minY <= qMaxY
+					&& maxY >= qMinY;
+		}
+	}
+
+	private static final class Quad<T> {
+		private Quad<T> parent;
+		private final double minX;
+		private final double minY;
+		private final double size;
+		private final List<Entry<T>> entries = new ArrayList<>(0);
+		private Quad<T>[] children;
+
+		private Quad(Quad<T> parent, double minX, double minY, double size) {
+			this.parent = parent;
+			this.minX = minX;
+			this.minY = minY;
+			this.size = size;
+		}
+
+		private void add(Entry<T> entry) {
+			entry.quad = this;
+			entry.slot = entries.size();
+			entries.add(entry);
+		}
+
+		private int childIndex(Entry<T> entry) {
+			double midX = minX + size / 2;
+			double midY = minY + size / 2;
+			int index;
+			if (entry.maxX <= midX) {
+				index = 0;
+			} else if (entry.minX >= midX) {
+				index = 1;
+			} else {
+				return -1;
+			}
+			if (entry.maxY <= midY) {
+				return index;
+			} else if (entry.minY >= midY) {
+				return index + 2;
+			}
+			return -1;
+		}
+
+		private boolean contains(Entry<T> entry) {
+			return entry.minX >= minX && entry.maxX <= minX + size
+					&& entry.minY >= minY && entry.maxY <= minY + size;
+		}
+
+		private double distanceSq(double x, double y) {
+			return SpatialIndex.distanceSq(minX, minY, minX + size,
+					minY + size, x, y);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void createChildren() {
+			children = new Quad[4];
+		}
+
+		private Quad<T> getOrCreateChild(int index) {
+			if (children[index] == null) {
+				double half = size / 2;
+				children[index] = new Quad<>(this,
+						(index & 1) == 0 ? minX : minX + half,
+						(index & 2) == 0 ? minY : minY + half, half);
+			}
+			return children[index];
+		}
+
+		private boolean isEmpty() {
+			if (!entries.isEmpty()) {
+				return false;
+			}
+			if (children != null) {
+				for (Quad<T> child : children) {
+					if (child != null) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		private void remove(Entry<T> entry) {
+			Entry<T> last = entries.remove(entries.size() - 1);
+			if (last != entry) {
+				entries.set(entry.slot, last);
+				last.slot = entry.slot;
+			}
+			entry.quad = null;
+			entry.slot = -1;
+		}
+	}
+
+	/**
+	 * The maximum number of elements within a quadrant before it is split.
+	 */
+	private static final int MAX_QUAD_ENTRIES = 8;
+
+	/**
+	 * The minimum size of a quadrant, i.e. quadrants are not split below this
+	 * size.
+	 */
+	private static final double MIN_QUAD_SIZE = 1e-3;
+
+	/**
+	 * Returns the squared distance between the given point and the given
+	 * rectangle, which is <code>0</code> if the point lies within the
+	 * rectangle.
+	 */
+	private static double distanceSq(double minX, double minY, double maxX,
+			double maxY, double x, double y) {
+		double dx = x < minX ? minX - x : x > maxX ? x - maxX : 0;
+		double dy = y < minY ? minY - y : y > maxY ? y - maxY : 0;
+		return dx * dx + dy * dy;
+	}
+
+	private final Map<T, Entry<T>> entries = new HashMap<>();
+	private final List<Entry<T>> unbounded = new ArrayList<>();
+	private Quad<T> root;
+
+	/**
+	 * Removes all elements from this {@link SpatialIndex}.
+	 */
+	public void clear() {
+		entries.clear();
+		unbounded.clear();
+		root = null;
+	}
+
+	/**
+	 * Returns <code>true</code> if the given element is contained within this
+	 * {@link SpatialIndex}. Otherwise returns <code>false</code>.
+	 *
+	 * @param element
+	 *            The element to test.
+	 * @return <code>true</code> if the given element is indexed, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean contains(T element) {
+		return entries.containsKey(element);
+	}
+
+	/**
+	 * Returns an unmodifiable {@link Set} containing all elements of this
+	 * {@link SpatialIndex}.
+	 *
+	 * @return An unmodifiable {@link Set} containing all indexed elements.
+	 */
+	public Set<T> getElements() {
+		return Collections.unmodifiableSet(entries.keySet());
+	}
+
+	/**
+	 * Doubles the size of the root quadrant in direction of the given entry.
+	 */
+	private void grow(Entry<T> entry) {
+		Quad<T> oldRoot = root;
+		boolean growLeft = entry.minX < oldRoot.minX;
+		boolean growUp = entry.minY < oldRoot.minY;
+		double minX = growLeft ? oldRoot.minX - oldRoot.size : oldRoot.minX;
+		double minY = growUp ? oldRoot.minY - oldRoot.size : oldRoot.minY;
+		Quad<T> newRoot = new Quad<>(null, minX, minY, oldRoot.size * 2);
+		// the old root covers exactly one quadrant of the new root
+		newRoot.createChildren();
+		newRoot.children[(growLeft ? 1 : 0) + (growUp ? 2 : 0)] = oldRoot;
+		oldRoot.parent = newRoot;
+		root = newRoot;
+	}
+
+	private void insert(Entry<T> entry) {
+		if (entry.minX > entry.maxX || entry.minY > entry.maxY) {
+			// empty bounds are never reported
+			return;
+		}
+		if (Double.isInfinite(entry.maxX - entry.minX)
+				|| Double.isInfinite(entry.maxY - entry.minY)
+				|| Double.isNaN(entry.maxX - entry.minX)
+				|| Double.isNaN(entry.maxY - entry.minY)) {
+			// unbounded entries are tested by each query
+			entry.slot = unbounded.size();
+			unbounded.add(entry);
+			return;
+		}
+		if (root == null) {
+			double size = Math.max(
+					Math.max(entry.maxX - entry.minX, entry.maxY - entry.minY),
+					MIN_QUAD_SIZE) * 2;
+			root = new Quad<>(null, entry.minX - size / 4,
+					entry.minY - size / 4, size);
+		}
+		while (!root.contains(entry)) {
+			grow(entry);
+		}
+		insert(root, entry);
+	}
+
+	private void insert(Quad<T> quad, Entry<T> entry) {
+		// descend into the smallest existing quadrant containing the entry
+		while (quad.children != null) {
+			int index = quad.childIndex(entry);
+			if (index < 0) {
+				break;
+			}
+			quad = quad.getOrCreateChild(index);
+		}
+		quad.add(entry);
+		if (quad.children == null && quad.entries.size() > MAX_QUAD_ENTRIES
+				&& quad.size / 2 >= MIN_QUAD_SIZE) {
+			split(quad);
+		}
+	}
+
+	/**
+	 * Returns the element whose bounds are nearest to the given point, or
+	 * <code>null</code> if no (non-empty) element is indexed. The distance of
+	 * an element is measured between the point and the closest point of its
+	 * bounds, i.e. it is <code>0</code> for all elements whose bounds contain
+	 * the point. In case several elements have the same distance, one of them
+	 * is returned.
+	 *
+	 * @param x
+	 *            The x coordinate of the point.
+	 * @param y
+	 *            The y coordinate of the point.
+	 * @return The element that is nearest to the given point, or
+	 *         <code>null</code>.
+	 */
+	public T nearest(double x, double y) {
+		Entry<T> nearest = null;
+		double nearestDistanceSq = Double.POSITIVE_INFINITY;
+		for (Entry<T> entry : unbounded) {
+			double d = entry.distanceSq(x, y);
+			if (d < nearestDistanceSq) {
+				nearest = entry;
+				nearestDistanceSq = d;
+			}
+		}
+		if (root == null) {
+			return nearest == null ? null : nearest.element;
+		}
+		// best-first search over the quadrants, ordered by their distance
+		PriorityQueue<Quad<T>> queue = new PriorityQueue<>(
+				Comparator.comparingDouble(q -> q.distanceSq(x, y)));
+		queue.add(root);
+		while (!queue.isEmpty()) {
+			Quad<T> quad = queue.poll();
+			if (quad.distanceSq(x, y) >= nearestDistanceSq) {
+				// no remaining quadrant can contain a nearer element
+				break;
+			}
+			for (Entry<T> entry : quad.entries) {
+				double d = entry.distanceSq(x, y);
+				if (d < nearestDistanceSq) {
+					nearest = entry;
+					nearestDistanceSq = d;
+				}
+			}
+			if (quad.children != null) {
+				for (Quad<T> child : quad.children) {
+					if (child != null
+							&& child.distanceSq(x, y) < nearestDistanceSq) {
+						queue.add(child);
+					}
+				}
+			}
+		}
+		return nearest == null ? null : nearest.element;
+	}
+
+	/**
+	 * Inserts the given element into this {@link SpatialIndex} or updates its
+	 * bounds if it is already indexed.
+	 *
+	 * @param element
+	 *            The element to index.
+	 * @param bounds
+	 *            The {@link Bounds} of the element.
+	 */
+	public void put(T element, Bounds bounds) {
+		if (bounds == null) {
+			throw new IllegalArgumentException("bounds may not be null.");
+		}
+		put(element, bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(),
+				bounds.getMaxY());
+	}
+
+	/**
+	 * Inserts the given element into this {@link SpatialIndex} or updates its
+	 * bounds if it is already indexed.
+	 *
+	 * @param element
+	 *            The element to index.
+	 * @param minX
+	 *            The minimum x coordinate of the element's bounds.
+	 * @param minY
+	 *            The minimum y coordinate of the element's bounds.
+	 * @param maxX
+	 *            The maximum x coordinate of the element's bounds.
+	 * @param maxY
+	 *            The maximum y coordinate of the element's bounds.
+	 */
+	public void put(T element, double minX, double minY, double maxX,
+			double maxY) {
+		if (element == null) {
+			throw new IllegalArgumentException("element may not be null.");
+		}
+		Entry<T> entry = entries.get(element);
+		if (entry == null) {
+			entry = new Entry<>(element);
+			entries.put(element, entry);
+		} else {
+			if (entry.minX == minX && entry.minY == minY && entry.maxX == maxX
+					&& entry.maxY == maxY) {
+				return;
+			}
+			unlink(entry);
+		}
+		entry.minX = minX;
+		entry.minY = minY;
+		entry.maxX = maxX;
+		entry.maxY = maxY;
+		insert(entry);
+	}
+
+	/**
+	 * Returns a {@link List} containing the elements whose bounds contain the
+	 * given point.
+	 *
+	 * @param x
+	 *            The x coordinate of the point.
+	 * @param y
+	 *            The y coordinate of the point.
+	 * @return A {@link List} containing the elements at the given point.
+	 */
+	public List<T> query(double x, double y) {
+		List<T> result = new ArrayList<>();
+		for (Entry<T> entry : unbounded) {
+			if (entry.contains(x, y)) {
+				result.add(entry.element);
+			}
+		}
+		if (root != null) {
+			// only the quadrants containing the point are tested, which are
+			// those on both sides of a split line if the point lies on it
+			// (entries may touch a split line from either side)
+			query(root, x, y, x, y, result::add);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a {@link List} containing the elements whose bounds intersect
+	 * the given {@link Bounds}.
+	 *
+	 * @param bounds
+	 *            The {@link Bounds} to test.
+	 * @return A {@link List} containing the elements that intersect the given
+	 *         {@link Bounds}.
+	 */
+	public List<T> query(Bounds bounds) {
+		List<T> result = new ArrayList<>();
+		query(bounds, result::add);
+		return result;
+	}
+
+	/**
+	 * Passes all elements whose bounds intersect the given {@link Bounds} to
+	 * the given {@link Consumer}.
+	 *
+	 * @param bounds
+	 *            The {@link Bounds} to test.
+	 * @param consumer
+	 *            The {@link Consumer} that is called for each intersecting
+	 *            element.
+	 */
+	public void query(Bounds bounds, Consumer<? super T> consumer) {
+		if (bounds == null) {
+			throw new IllegalArgumentException("bounds may not be null.");
+		}
+		if (bounds.isEmpty()) {
+			return;
+		}
+		double minX = bounds.getMinX();
+		double minY = bounds.getMinY();
+		double maxX = bounds.getMaxX();
+		double maxY = bounds.getMaxY();
+		for (Entry<T> entry : unbounded) {
+			if (entry.intersects(minX, minY, maxX, maxY)) {
+				consumer.accept(entry.element);
+			}
+		}
+		if (root != null) {
+			query(root, minX, minY, maxX, maxY, consumer);
+		}
+	}
+
+	private void query(Quad<T> quad, double minX, double minY, double maxX,
+			double maxY, Consumer<? super T> consumer) {
+		if (quad.minX > maxX || quad.minX + quad.size < minX
+				|| quad.minY > maxY || quad.minY + quad.size < minY) {
+			return;
+		}
+		for (Entry<T> entry : quad.entries) {
+			if (entry.intersects(minX, minY, maxX, maxY)) {
+				consumer.accept(entry.element);
+			}
+		}
+		if (quad.children != null) {
+			for (Quad<T> child : quad.children) {
+				if (child != null) {
+					query(child, minX, minY, maxX, maxY, consumer);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the given element from this {@link SpatialIndex}.
+	 *
+	 * @param element
+	 *            The element to remove.
+	 * @return <code>true</code> if the element was indexed, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean remove(T element) {
+		Entry<T> entry = entries.remove(element);
+		if (entry == null) {
+			return false;
+		}
+		unlink(entry);
+		return true;
+	}
+
+	/**
+	 * Returns the number of elements within this {@link SpatialIndex}.
+	 *
+	 * @return The number of indexed elements.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	private void split(Quad<T> quad) {
+		List<Entry<T>> toDistribute = new ArrayList<>(quad.entries);
+		quad.entries.clear();
+		quad.createChildren();
+		for (Entry<T> entry : toDistribute) {
+			insert(quad, entry);
+		}
+	}
+
+	private void unlink(Entry<T> entry) {
+		Quad<T> quad = entry.quad;
+		if (quad == null) {
+			if (entry.slot >= 0) {
+				// unbounded entry
+				Entry<T> last = unbounded.remove(unbounded.size() - 1);
+				if (last != entry) {
+					unbounded.set(entry.slot, last);
+					last.slot = entry.slot;
+				}
+				entry.slot = -1;
+			}
+			return;
+		}
+		quad.remove(entry);
+		// prune empty quadrants
+		while (quad.parent != null && quad.isEmpty()) {
+			Quad<T> parent = quad.parent;
+			for (int i = 0; i < 4; i++) {
+				if (parent.children[i] == quad) {
+					parent.children[i] = null;
+				}
+			}
+			quad = parent;
+		}
+		if (quad == root && root.isEmpty()) {
+			root = null;
+		}
+	}
+
+}
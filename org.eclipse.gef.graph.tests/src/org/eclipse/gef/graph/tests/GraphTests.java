@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.junit.Test;
+
+public class GraphTests {
+
+	@Test
+	public void adjacencyFollowsEdgeChanges() {
+		Node n1 = new Node();
+		Node n2 = new Node();
+		Node n3 = new Node();
+		Edge e12 = new Edge(n1, n2);
+		Edge e13 = new Edge(n1, n3);
+		Graph g = new Graph(Arrays.asList(n1, n2, n3), Arrays.asList(e12, e13));
+
+		assertEquals(2, n1.getOutgoingEdgeCount());
+		assertEquals(0, n1.getIncomingEdgeCount());
+		assertEquals(1, n2.getIncomingEdgeCount());
+		assertSame(e12, n2.getIncomingEdge(0));
+		assertEquals(2, n1.getSuccessorNodes().size());
+		assertTrue(n3.getPredecessorNodes().contains(n1));
+
+		// remove edge
+		g.getEdges().remove(e13);
+		assertEquals(1, n1.getOutgoingEdgeCount());
+		assertEquals(0, n3.getIncomingEdgeCount());
+		assertTrue(n3.getNeighbors().isEmpty());
+
+		// change end points of a contained edge
+		e12.setTarget(n3);
+		assertEquals(0, n2.getIncomingEdgeCount());
+		assertSame(e12, n3.getIncomingEdge(0));
+		e12.setSource(n2);
+		assertEquals(0, n1.getOutgoingEdgeCount());
+		assertSame(e12, n2.getOutgoingEdge(0));
+		assertEquals(1, n3.getNeighbors().size());
+		assertTrue(n1.getNeighbors().isEmpty());
+
+		// replace all edges
+		Edge e21 = new Edge(n2, n1);
+		g.getEdges().setAll(e21);
+		assertEquals(0, n3.getIncomingEdgeCount());
+		assertSame(e21, n1.getIncomingEdge(0));
+		assertEquals(n1.getIncomingEdges(), n2.getOutgoingEdges());
+	}
+
+	@Test
+	public void membership() {
+		Node n1 = new Node();
+		Node n2 = new Node();
+		Edge e12 = new Edge(n1, n2);
+		Graph g = new Graph.Builder().nodes(n1, n2).edges(e12).build();
+		assertTrue(g.containsNode(n1));
+		assertTrue(g.containsEdge(e12));
+		assertSame(g, n2.getGraph());
+		assertSame(g, e12.getGraph());
+
+		// a node that is contained twice remains associated after removing
+		// one occurrence
+		g.getNodes().add(n1);
+		g.getNodes().remove(n1);
+		assertTrue(g.containsNode(n1));
+		assertSame(g, n1.getGraph());
+		g.getNodes().remove(n1);
+		assertFalse(g.containsNode(n1));
+		assertNull(n1.getGraph());
+
+		g.getEdges().clear();
+		assertFalse(g.containsEdge(e12));
+		assertNull(e12.getGraph());
+	}
+
+}
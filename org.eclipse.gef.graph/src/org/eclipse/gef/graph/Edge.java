@@ -27,7 +27,6 @@ import org.eclipse.gef.common.beans.property.ReadOnlyMapWrapperEx;
 import org.eclipse.gef.graph.Graph.Builder.Context;
 
 import javafx.beans.property.ReadOnlyMapProperty;
-import javafx.beans.property.ReadOnlyMapWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableMap;
 
@@ -211,7 +210,7 @@ public class Edge implements IAttributeStore {
 		}
 	}
 
-	private final ReadOnlyMapWrapper<String, Object> attributesProperty = new ReadOnlyMapWrapperEx<>(this,
+	private final ReadOnlyMapWrapperEx<String, Object> attributesProperty = new ReadOnlyMapWrapperEx<>(this,
 			ATTRIBUTES_PROPERTY, FXCollections.<String, Object>observableHashMap());
 	private Node source;
 	private Node target;
@@ -257,6 +256,28 @@ public class Edge implements IAttributeStore {
 		return attributesProperty.getReadOnlyProperty();
 	}
 
+	/**
+	 * Starts a bulk change of the {@link #attributesProperty() attributes} of
+	 * this {@link Edge}. The attribute changes are reported to listeners when
+	 * the matching {@link #endAttributesChange()} is called, i.e. invalidation
+	 * listeners are notified once, and map change listeners are notified once
+	 * per changed attribute. Bulk changes may be nested.
+	 */
+	public void beginAttributesChange() {
+		attributesProperty.beginChange();
+	}
+
+	/**
+	 * Ends a bulk change of the {@link #attributesProperty() attributes} of
+	 * this {@link Edge} that was started by {@link #beginAttributesChange()}.
+	 *
+	 * @throws IllegalStateException
+	 *             if no bulk change was started.
+	 */
+	public void endAttributesChange() {
+		attributesProperty.endChange();
+	}
+
 	@Override
 	public ObservableMap<String, Object> getAttributes() {
 		return attributesProperty.get();
@@ -297,7 +318,7 @@ public class Edge implements IAttributeStore {
 	 *            The new {@link Graph} for this {@link Edge}.
 	 */
 	void setGraph(Graph graph) {
-		if (graph != null && !graph.getEdges().contains(this)) {
+		if (graph != null && !graph.containsEdge(this)) {
 			throw new IllegalArgumentException("Edge is not contained in graph " + graph);
 		}
 		this.graph = graph;
@@ -310,7 +331,11 @@ public class Edge implements IAttributeStore {
 	 *            The new source {@link Node} for this {@link Edge}.
 	 */
 	public void setSource(Node source) {
+		Node oldSource = this.source;
 		this.source = source;
+		if (graph != null && oldSource != source) {
+			graph.edgeSourceChanged(this, oldSource);
+		}
 	}
 
 	/**
@@ -320,7 +345,11 @@ public class Edge implements IAttributeStore {
 	 *            The new target {@link Node} for this {@link Edge}.
 	 */
 	public void setTarget(Node target) {
+		Node oldTarget = this.target;
 		this.target = target;
+		if (graph != null && oldTarget != target) {
+			graph.edgeTargetChanged(this, oldTarget);
+		}
 	}
 
 	@Override
@@ -17,12 +17,13 @@ import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
-import java.util.UUID;
 import java.util.function.BiConsumer;
 
 import org.eclipse.gef.common.attributes.IAttributeStore;
@@ -33,7 +34,6 @@ import org.eclipse.gef.common.collections.CollectionUtils;
 import javafx.beans.property.ReadOnlyListProperty;
 import javafx.beans.property.ReadOnlyListWrapper;
 import javafx.beans.property.ReadOnlyMapProperty;
-import javafx.beans.property.ReadOnlyMapWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
@@ -151,6 +151,8 @@ public final class Graph implements IAttributeStore {
 			for (Object key : context.nodeKeys) {
 				nodeList.add(nodes.get(key));
 			}
+			// all nodes are added before all edges (each within a single
+			// change), so that the adjacency indices are built in one pass
 			Graph g = new Graph(nodeList, edges);
 			for (Entry<Object, Object> s : attr) {
 				if (s.getKey() instanceof String) {
@@ -288,8 +290,9 @@ public final class Graph implements IAttributeStore {
 			for (Node n : nodes) {
 				// use a unique id for each given node (they are not
 				// identifiable from outside, so we just have to ensure the key
-				// is not already used)
-				UUID key = UUID.randomUUID();
+				// is not already used); a plain object is unique and cheaper to
+				// create than a random UUID
+				Object key = new Object();
 				context.nodeKeys.add(key);
 				this.nodes.put(key, n);
 			}
@@ -323,7 +326,7 @@ public final class Graph implements IAttributeStore {
 	/**
 	 * Attributes of this {@link Graph}.
 	 */
-	private final ReadOnlyMapWrapper<String, Object> attributesProperty = new ReadOnlyMapWrapperEx<>(this,
+	private final ReadOnlyMapWrapperEx<String, Object> attributesProperty = new ReadOnlyMapWrapperEx<>(this,
 			ATTRIBUTES_PROPERTY, FXCollections.<String, Object>observableHashMap());
 
 	/**
@@ -332,6 +335,32 @@ public final class Graph implements IAttributeStore {
 	 */
 	private Node nestingNode; // when contained as a nested graph within a node
 
+	/**
+	 * Number of occurrences of each {@link Node} within the
+	 * {@link #nodesProperty}, used for constant-time membership checks.
+	 */
+	private final Map<Node, Integer> nodeMembership = new IdentityHashMap<>();
+
+	/**
+	 * Number of occurrences of each {@link Edge} within the
+	 * {@link #edgesProperty}, used for constant-time membership checks.
+	 */
+	private final Map<Edge, Integer> edgeMembership = new IdentityHashMap<>();
+
+	/**
+	 * Index of the {@link Edge}s of this {@link Graph} by their
+	 * {@link Edge#getTarget() target}, kept in sync with the
+	 * {@link #edgesProperty}.
+	 */
+	private final Map<Node, List<Edge>> incomingEdges = new IdentityHashMap<>();
+
+	/**
+	 * Index of the {@link Edge}s of this {@link Graph} by their
+	 * {@link Edge#getSource() source}, kept in sync with the
+	 * {@link #edgesProperty}.
+	 */
+	private final Map<Node, List<Edge>> outgoingEdges = new IdentityHashMap<>();
+
 	/**
 	 * Default constructor, using empty collections for attributes, nodes, and
 	 * edges.
@@ -372,11 +401,19 @@ public final class Graph implements IAttributeStore {
 			@Override
 			public void onChanged(ListChangeListener.Change<? extends Node> c) {
 				while (c.next()) {
+					for (Node n : c.getRemoved()) {
+						leave(nodeMembership, n);
+					}
+					for (Node n : c.getAddedSubList()) {
+						join(nodeMembership, n);
+					}
 					for (Node n : c.getAddedSubList()) {
 						n.setGraph(Graph.this);
 					}
 					for (Node n : c.getRemoved()) {
-						n.setGraph(null);
+						if (!nodeMembership.containsKey(n)) {
+							n.setGraph(null);
+						}
 					}
 				}
 			}
@@ -385,11 +422,23 @@ public final class Graph implements IAttributeStore {
 			@Override
 			public void onChanged(ListChangeListener.Change<? extends Edge> c) {
 				while (c.next()) {
+					for (Edge e : c.getRemoved()) {
+						leave(edgeMembership, e);
+						unindex(outgoingEdges, e.getSource(), e);
+						unindex(incomingEdges, e.getTarget(), e);
+					}
+					for (Edge e : c.getAddedSubList()) {
+						join(edgeMembership, e);
+						index(outgoingEdges, e.getSource(), e);
+						index(incomingEdges, e.getTarget(), e);
+					}
 					for (Edge e : c.getAddedSubList()) {
 						e.setGraph(Graph.this);
 					}
 					for (Edge e : c.getRemoved()) {
-						e.setGraph(null);
+						if (!edgeMembership.containsKey(e)) {
+							e.setGraph(null);
+						}
 					}
 				}
 			}
@@ -403,6 +452,88 @@ public final class Graph implements IAttributeStore {
 		return attributesProperty.getReadOnlyProperty();
 	}
 
+	/**
+	 * Starts a bulk change of the {@link #attributesProperty() attributes} of
+	 * this {@link Graph}. The attribute changes are reported to listeners when
+	 * the matching {@link #endAttributesChange()} is called, i.e. invalidation
+	 * listeners are notified once, and map change listeners are notified once
+	 * per changed attribute. Bulk changes may be nested.
+	 */
+	public void beginAttributesChange() {
+		attributesProperty.beginChange();
+	}
+
+	/**
+	 * Ends a bulk change of the {@link #attributesProperty() attributes} of
+	 * this {@link Graph} that was started by {@link #beginAttributesChange()}.
+	 *
+	 * @throws IllegalStateException
+	 *             if no bulk change was started.
+	 */
+	public void endAttributesChange() {
+		attributesProperty.endChange();
+	}
+
+	/**
+	 * Returns <code>true</code> if the given {@link Edge} is contained in the
+	 * {@link #getEdges() edges} of this {@link Graph}. In contrast to
+	 * <code>getEdges().contains(edge)</code>, the check is performed in
+	 * constant time (and based on identity).
+	 *
+	 * @param edge
+	 *            The {@link Edge} to test.
+	 * @return <code>true</code> if the given {@link Edge} is contained in this
+	 *         {@link Graph}, otherwise <code>false</code>.
+	 */
+	public boolean containsEdge(Edge edge) {
+		return edgeMembership.containsKey(edge);
+	}
+
+	/**
+	 * Returns <code>true</code> if the given {@link Node} is contained in the
+	 * {@link #getNodes() nodes} of this {@link Graph}. In contrast to
+	 * <code>getNodes().contains(node)</code>, the check is performed in
+	 * constant time (and based on identity).
+	 *
+	 * @param node
+	 *            The {@link Node} to test.
+	 * @return <code>true</code> if the given {@link Node} is contained in this
+	 *         {@link Graph}, otherwise <code>false</code>.
+	 */
+	public boolean containsNode(Node node) {
+		return nodeMembership.containsKey(node);
+	}
+
+	/**
+	 * Updates the adjacency indices after the {@link Edge#getSource() source}
+	 * of the given {@link Edge} of this {@link Graph} was changed.
+	 *
+	 * @param edge
+	 *            The {@link Edge} whose source was changed.
+	 * @param oldSource
+	 *            The previous source {@link Node}.
+	 */
+	void edgeSourceChanged(Edge edge, Node oldSource) {
+		if (unindex(outgoingEdges, oldSource, edge)) {
+			index(outgoingEdges, edge.getSource(), edge);
+		}
+	}
+
+	/**
+	 * Updates the adjacency indices after the {@link Edge#getTarget() target}
+	 * of the given {@link Edge} of this {@link Graph} was changed.
+	 *
+	 * @param edge
+	 *            The {@link Edge} whose target was changed.
+	 * @param oldTarget
+	 *            The previous target {@link Node}.
+	 */
+	void edgeTargetChanged(Edge edge, Node oldTarget) {
+		if (unindex(incomingEdges, oldTarget, edge)) {
+			index(incomingEdges, edge.getTarget(), edge);
+		}
+	}
+
 	/**
 	 * Returns a read-only list property containing the {@link Edge}s of this
 	 * {@link Graph}.
@@ -427,6 +558,21 @@ public final class Graph implements IAttributeStore {
 		return edgesProperty.getReadOnlyProperty();
 	}
 
+	/**
+	 * Returns the {@link Edge}s of this {@link Graph} that have the given
+	 * {@link Node} as their {@link Edge#getTarget() target}. The returned list
+	 * is backed by the adjacency index of this {@link Graph} and may not be
+	 * modified.
+	 *
+	 * @param node
+	 *            The {@link Node} for which to return the incoming edges.
+	 * @return The (indexed) incoming {@link Edge}s of the given {@link Node}.
+	 */
+	List<Edge> getIncomingEdges(Node node) {
+		List<Edge> incoming = incomingEdges.get(node);
+		return incoming == null ? Collections.<Edge>emptyList() : incoming;
+	}
+
 	/**
 	 * Returns the {@link Node} in which this {@link Graph} is nested. Returns
 	 * <code>null</code> when this {@link Graph} is not nested.
@@ -447,6 +593,21 @@ public final class Graph implements IAttributeStore {
 		return nodesProperty.getReadOnlyProperty();
 	}
 
+	/**
+	 * Returns the {@link Edge}s of this {@link Graph} that have the given
+	 * {@link Node} as their {@link Edge#getSource() source}. The returned list
+	 * is backed by the adjacency index of this {@link Graph} and may not be
+	 * modified.
+	 *
+	 * @param node
+	 *            The {@link Node} for which to return the outgoing edges.
+	 * @return The (indexed) outgoing {@link Edge}s of the given {@link Node}.
+	 */
+	List<Edge> getOutgoingEdges(Node node) {
+		List<Edge> outgoing = outgoingEdges.get(node);
+		return outgoing == null ? Collections.<Edge>emptyList() : outgoing;
+	}
+
 	/**
 	 * Returns the root graph of this Graph.
 	 *
@@ -460,6 +621,53 @@ public final class Graph implements IAttributeStore {
 		}
 	}
 
+	private static <T> void join(Map<T, Integer> membership, T element) {
+		Integer count = membership.get(element);
+		membership.put(element, count == null ? 1 : count + 1);
+	}
+
+	private static <T> void leave(Map<T, Integer> membership, T element) {
+		Integer count = membership.get(element);
+		if (count == null) {
+			return;
+		}
+		if (count > 1) {
+			membership.put(element, count - 1);
+		} else {
+			membership.remove(element);
+		}
+	}
+
+	private static void index(Map<Node, List<Edge>> index, Node node, Edge edge) {
+		if (node == null) {
+			return;
+		}
+		List<Edge> edges = index.get(node);
+		if (edges == null) {
+			edges = new ArrayList<>(2);
+			index.put(node, edges);
+		}
+		edges.add(edge);
+	}
+
+	private static boolean unindex(Map<Node, List<Edge>> index, Node node, Edge edge) {
+		List<Edge> edges = index.get(node);
+		if (edges == null) {
+			return false;
+		}
+		// search from the end, as recently added edges are removed most often
+		for (int i = edges.size() - 1; i >= 0; i--) {
+			if (edges.get(i) == edge) {
+				edges.remove(i);
+				if (edges.isEmpty()) {
+					index.remove(node);
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Returns a read-only list property containing the {@link Node}s of this
 	 * {@link Graph}.
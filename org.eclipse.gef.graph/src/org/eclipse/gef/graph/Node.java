@@ -31,7 +31,6 @@ import org.eclipse.gef.common.beans.property.ReadOnlyMapWrapperEx;
 import org.eclipse.gef.graph.Graph.Builder.Context;
 
 import javafx.beans.property.ReadOnlyMapProperty;
-import javafx.beans.property.ReadOnlyMapWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableMap;
 
@@ -209,7 +208,7 @@ public class Node implements IAttributeStore {
 
 	}
 
-	private final ReadOnlyMapWrapper<String, Object> attributesProperty = new ReadOnlyMapWrapperEx<>(this,
+	private final ReadOnlyMapWrapperEx<String, Object> attributesProperty = new ReadOnlyMapWrapperEx<>(this,
 			ATTRIBUTES_PROPERTY, FXCollections.<String, Object>observableHashMap());
 
 	/**
@@ -247,6 +246,28 @@ public class Node implements IAttributeStore {
 		return attributesProperty.getReadOnlyProperty();
 	}
 
+	/**
+	 * Starts a bulk change of the {@link #attributesProperty() attributes} of
+	 * this {@link Node}. The attribute changes are reported to listeners when
+	 * the matching {@link #endAttributesChange()} is called, i.e. invalidation
+	 * listeners are notified once, and map change listeners are notified once
+	 * per changed attribute. Bulk changes may be nested.
+	 */
+	public void beginAttributesChange() {
+		attributesProperty.beginChange();
+	}
+
+	/**
+	 * Ends a bulk change of the {@link #attributesProperty() attributes} of
+	 * this {@link Node} that was started by {@link #beginAttributesChange()}.
+	 *
+	 * @throws IllegalStateException
+	 *             if no bulk change was started.
+	 */
+	public void endAttributesChange() {
+		attributesProperty.endChange();
+	}
+
 	/**
 	 * Returns all incoming {@link Edge}s of this {@link Node}. The full graph
 	 * hierarchy is scanned for incoming edges, and not just the
@@ -363,14 +384,46 @@ public class Node implements IAttributeStore {
 			return Collections.emptySet();
 		}
 		Set<Edge> incoming = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
-		for (Edge e : graph.getEdges()) {
-			if (e.getTarget() == this) {
-				incoming.add(e);
-			}
-		}
+		incoming.addAll(graph.getIncomingEdges(this));
 		return incoming;
 	}
 
+	/**
+	 * Returns the local incoming {@link Edge} at the given index. Together
+	 * with {@link #getIncomingEdgeCount()}, this allows to iterate the local
+	 * incoming edges without allocating a new collection, as opposed to
+	 * {@link #getIncomingEdges()}. The index refers to the current state of
+	 * the {@link #getGraph() associated graph}.
+	 *
+	 * @param index
+	 *            The index of the incoming {@link Edge} to return.
+	 * @return The local incoming {@link Edge} at the given index.
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is not within
+	 *             <code>[0, getIncomingEdgeCount())</code>.
+	 */
+	public Edge getIncomingEdge(int index) {
+		if (graph == null) {
+			throw new IndexOutOfBoundsException("Node is not contained in a graph.");
+		}
+		return graph.getIncomingEdges(this).get(index);
+	}
+
+	/**
+	 * Returns the number of local incoming {@link Edge}s of this {@link Node}.
+	 * The number is retrieved from the adjacency index of the
+	 * {@link #getGraph() associated graph} in constant time.
+	 *
+	 * @return The number of local incoming {@link Edge}s.
+	 * @see #getIncomingEdge(int)
+	 */
+	public int getIncomingEdgeCount() {
+		if (graph == null) {
+			return 0;
+		}
+		return graph.getIncomingEdges(this).size();
+	}
+
 	/**
 	 * Returns all (local) neighbors of this {@link Node}, i.e. the union of the
 	 * {@link #getPredecessorNodes()} and {@link #getSuccessorNodes()} .
@@ -379,8 +432,14 @@ public class Node implements IAttributeStore {
 	 */
 	public Set<Node> getNeighbors() {
 		Set<Node> neighbors = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
-		neighbors.addAll(getPredecessorNodes());
-		neighbors.addAll(getSuccessorNodes());
+		if (graph != null) {
+			for (Edge incoming : graph.getIncomingEdges(this)) {
+				neighbors.add(incoming.getSource());
+			}
+			for (Edge outgoing : graph.getOutgoingEdges(this)) {
+				neighbors.add(outgoing.getTarget());
+			}
+		}
 		return neighbors;
 	}
 
@@ -407,14 +466,46 @@ public class Node implements IAttributeStore {
 			return Collections.emptySet();
 		}
 		Set<Edge> outgoing = Collections.newSetFromMap(new IdentityHashMap<Edge, Boolean>());
-		for (Edge e : graph.getEdges()) {
-			if (e.getSource() == this) {
-				outgoing.add(e);
-			}
-		}
+		outgoing.addAll(graph.getOutgoingEdges(this));
 		return outgoing;
 	}
 
+	/**
+	 * Returns the local outgoing {@link Edge} at the given index. Together
+	 * with {@link #getOutgoingEdgeCount()}, this allows to iterate the local
+	 * outgoing edges without allocating a new collection, as opposed to
+	 * {@link #getOutgoingEdges()}. The index refers to the current state of
+	 * the {@link #getGraph() associated graph}.
+	 *
+	 * @param index
+	 *            The index of the outgoing {@link Edge} to return.
+	 * @return The local outgoing {@link Edge} at the given index.
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is not within
+	 *             <code>[0, getOutgoingEdgeCount())</code>.
+	 */
+	public Edge getOutgoingEdge(int index) {
+		if (graph == null) {
+			throw new IndexOutOfBoundsException("Node is not contained in a graph.");
+		}
+		return graph.getOutgoingEdges(this).get(index);
+	}
+
+	/**
+	 * Returns the number of local outgoing {@link Edge}s of this {@link Node}.
+	 * The number is retrieved from the adjacency index of the
+	 * {@link #getGraph() associated graph} in constant time.
+	 *
+	 * @return The number of local outgoing {@link Edge}s.
+	 * @see #getOutgoingEdge(int)
+	 */
+	public int getOutgoingEdgeCount() {
+		if (graph == null) {
+			return 0;
+		}
+		return graph.getOutgoingEdges(this).size();
+	}
+
 	/**
 	 * Returns the local predecessor {@link Node}s of this {@link Node}. Only
 	 * the {@link #getGraph() associated graph} is scanned for predecessor
@@ -424,8 +515,10 @@ public class Node implements IAttributeStore {
 	 */
 	public Set<Node> getPredecessorNodes() {
 		Set<Node> predecessors = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
-		for (Edge incoming : getIncomingEdges()) {
-			predecessors.add(incoming.getSource());
+		if (graph != null) {
+			for (Edge incoming : graph.getIncomingEdges(this)) {
+				predecessors.add(incoming.getSource());
+			}
 		}
 		return predecessors;
 	}
@@ -439,8 +532,10 @@ public class Node implements IAttributeStore {
 	 */
 	public Set<Node> getSuccessorNodes() {
 		Set<Node> successors = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
-		for (Edge outgoing : getOutgoingEdges()) {
-			successors.add(outgoing.getTarget());
+		if (graph != null) {
+			for (Edge outgoing : graph.getOutgoingEdges(this)) {
+				successors.add(outgoing.getTarget());
+			}
 		}
 		return successors;
 	}
@@ -453,7 +548,7 @@ public class Node implements IAttributeStore {
 	 *            The new {@link Graph} for this {@link Node}.
 	 */
 	void setGraph(Graph graph) {
-		if (graph != null && !graph.getNodes().contains(this)) {
+		if (graph != null && !graph.containsNode(this)) {
 			throw new IllegalArgumentException("Node is not contained in graph " + graph);
 		}
 		this.graph = graph;
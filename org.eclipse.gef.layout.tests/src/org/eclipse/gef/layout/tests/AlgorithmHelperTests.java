@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Method;
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.junit.Test;
+
+/**
+ * Tests for the (package-private) AlgorithmHelper, which are executed via
+ * reflection.
+ */
+public class AlgorithmHelperTests {
+
+	/**
+	 * Compares all pairs of nodes, keeping the first of several equally close
+	 * pairs.
+	 */
+	private static Dimension bruteForceMinimumDistance(Node[] nodes) {
+		Dimension result = new Dimension(Double.MAX_VALUE, Double.MAX_VALUE);
+		double minDistanceSq = Double.MAX_VALUE;
+		for (int i = 0; i < nodes.length; i++) {
+			Point location1 = LayoutProperties.getLocation(nodes[i]);
+			for (int j = i + 1; j < nodes.length; j++) {
+				Point location2 = LayoutProperties.getLocation(nodes[j]);
+				double distanceX = location1.x - location2.x;
+				double distanceY = location1.y - location2.y;
+				double distanceSq = distanceX * distanceX
+						+ distanceY * distanceY;
+				if (distanceSq < minDistanceSq) {
+					minDistanceSq = distanceSq;
+					result.width = Math.abs(distanceX);
+					result.height = Math.abs(distanceY);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static Node[] createNodes(double... coordinates) {
+		Node[] nodes = new Node[coordinates.length / 2];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new Node();
+			LayoutProperties.setLocation(nodes[i],
+					new Point(coordinates[2 * i], coordinates[2 * i + 1]));
+		}
+		return nodes;
+	}
+
+	private static Dimension getMinimumDistance(Node[] nodes) {
+		try {
+			Method method = Class
+					.forName(
+							"org.eclipse.gef.layout.algorithms.AlgorithmHelper")
+					.getDeclaredMethod("getMinimumDistance", Node[].class);
+			method.setAccessible(true);
+			return (Dimension) method.invoke(null, (Object) nodes);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Test
+	public void minimumDistanceOfEquallyClosePairs() {
+		// the pairs (0, 1) and (2, 3) are equally close, but the sweep line
+		// reaches the second one first
+		Node[] nodes = createNodes(10, 0, 15, 0, 0, 0, 3, 4);
+		assertEquals(new Dimension(5, 0),
+				getMinimumDistance(nodes));
+
+		// the same holds for vertical and diagonal pairs
+		nodes = createNodes(20, 0, 24, 3, 0, 0, 0, 5);
+		assertEquals(new Dimension(4, 3),
+				getMinimumDistance(nodes));
+	}
+
+	@Test
+	public void minimumDistanceMatchesBruteForce() {
+		Random random = new Random(7);
+		for (int run = 0; run < 200; run++) {
+			int n = 2 + random.nextInt(60);
+			double[] coordinates = new double[2 * n];
+			for (int i = 0; i < coordinates.length; i++) {
+				// use a coarse grid in every second run, which yields many
+				// equally close pairs as well as coincident nodes
+				coordinates[i] = run % 2 == 0 ? random.nextInt(8)
+						: random.nextDouble() * 100 - 50;
+			}
+			Node[] nodes = createNodes(coordinates);
+			assertEquals(bruteForceMinimumDistance(nodes),
+					getMinimumDistance(nodes));
+		}
+	}
+
+}
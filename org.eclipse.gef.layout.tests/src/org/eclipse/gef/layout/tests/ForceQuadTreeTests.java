@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.eclipse.gef.layout.internal.algorithms.ForceQuadTree;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link ForceQuadTree}.
+ */
+public class ForceQuadTreeTests {
+
+	private static final double STRENGTH = 2;
+	private static final double MIN_DISTANCE_SQ = 1e-4;
+
+	private static double[][] exactForces(double[] x, double[] y) {
+		int n = x.length;
+		double[][] forces = new double[2][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (i == j) {
+					continue;
+				}
+				double dx = x[i] - x[j];
+				double dy = y[i] - y[j];
+				double dsq = Math.max(MIN_DISTANCE_SQ, dx * dx + dy * dy);
+				double f = STRENGTH / (dsq * Math.sqrt(dsq));
+				forces[0][i] += f * dx;
+				forces[1][i] += f * dy;
+			}
+		}
+		return forces;
+	}
+
+	private static double[][] treeForces(double[] x, double[] y,
+			double theta) {
+		int n = x.length;
+		ForceQuadTree tree = new ForceQuadTree();
+		tree.build(x, y, n);
+		double[][] forces = new double[2][n];
+		double[] force = new double[2];
+		for (int i = 0; i < n; i++) {
+			force[0] = 0;
+			force[1] = 0;
+			tree.addRepulsion(i, theta, STRENGTH, MIN_DISTANCE_SQ, force);
+			forces[0][i] = force[0];
+			forces[1][i] = force[1];
+		}
+		return forces;
+	}
+
+	private static double[][] randomLocations(Random random, int n) {
+		double[][] locations = new double[2][n];
+		for (int i = 0; i < n; i++) {
+			// use clusters as well as (nearly) coincident bodies
+			if (i % 50 == 1) {
+				locations[0][i] = locations[0][i - 1];
+				locations[1][i] = locations[1][i - 1] + 1e-9;
+			} else {
+				double cx = (i % 3) * 2;
+				locations[0][i] = cx + random.nextGaussian() * 0.3;
+				locations[1][i] = random.nextDouble() * 4 - 2;
+			}
+		}
+		return locations;
+	}
+
+	@Test
+	public void approximationStaysWithinTolerance() {
+		double[][] locations = randomLocations(new Random(11), 800);
+		double[][] exact = exactForces(locations[0], locations[1]);
+		double[][] approximated = treeForces(locations[0], locations[1], 0.3);
+		// the error of the total force is small compared to its magnitude
+		double errorSq = 0;
+		double magnitudeSq = 0;
+		for (int i = 0; i < exact[0].length; i++) {
+			double ex = approximated[0][i] - exact[0][i];
+			double ey = approximated[1][i] - exact[1][i];
+			errorSq += ex * ex + ey * ey;
+			magnitudeSq += exact[0][i] * exact[0][i]
+					+ exact[1][i] * exact[1][i];
+		}
+		assertTrue(Math.sqrt(errorSq / magnitudeSq) < 0.01);
+	}
+
+	@Test
+	public void zeroThetaIsExact() {
+		double[][] locations = randomLocations(new Random(5), 500);
+		double[][] exact = exactForces(locations[0], locations[1]);
+		double[][] approximated = treeForces(locations[0], locations[1], 0);
+		for (int i = 0; i < exact[0].length; i++) {
+			// all bodies are evaluated pairwise, only the summation order
+			// differs
+			double tolerance = 1e-12 * (Math.abs(exact[0][i])
+					+ Math.abs(exact[1][i]) + STRENGTH);
+			assertEquals(exact[0][i], approximated[0][i], tolerance);
+			assertEquals(exact[1][i], approximated[1][i], tolerance);
+		}
+	}
+
+}
@@ -10,11 +10,39 @@
  *******************************************************************************/
 package org.eclipse.gef.layout.tests;
 
+import static org.eclipse.gef.layout.tests.TestUtils.createContext;
+import static org.eclipse.gef.layout.tests.TestUtils.createNode;
+
+import java.util.Arrays;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
 import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.ComponentPackingLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.MultilevelLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SpaceTreeLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm.Repulsion;
+import org.eclipse.gef.layout.algorithms.StressMajorizationLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.BrandesKoepfCoordinateAssigner;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.Direction;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.LayerSweepCrossingReducer;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.NetworkSimplexLayerProvider;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.ParallelCrossingReducer;
+import org.eclipse.gef.layout.algorithms.TreeLayoutAlgorithm;
 import org.eclipse.gef.layout.algorithms.TreeLayoutHelper;
 import org.junit.Assert;
 import org.junit.Test;
 
+import javafx.collections.MapChangeListener;
+
 /**
  * Tests involving the {@link ILayoutAlgorithm} interface.
  *
@@ -83,4 +111,584 @@ public class LayoutAlgorithmTests {
 		Assert.assertFalse(node3.isAncestorOf(node4));
 		Assert.assertFalse(node4.isAncestorOf(node3));
 	}
+
+	/**
+	 * Tests that the {@link LayerSweepCrossingReducer} removes a crossing that
+	 * results from the initial order of the nodes.
+	 */
+	@Test
+	public void testLayerSweepCrossingReducer() {
+		Graph graph = new Graph();
+		Node a = createNode(graph);
+		Node b = createNode(graph);
+		Node c = createNode(graph);
+		Node d = createNode(graph);
+		graph.getEdges().add(new Edge(a, d));
+		graph.getEdges().add(new Edge(b, c));
+		LayoutContext context = createContext(graph,
+				new Rectangle(0, 0, 100, 100), new SugiyamaLayoutAlgorithm(
+						Direction.VERTICAL, new LayerSweepCrossingReducer()));
+		context.applyLayout(true);
+
+		double ax = LayoutProperties.getLocation(a).x;
+		double bx = LayoutProperties.getLocation(b).x;
+		double cx = LayoutProperties.getLocation(c).x;
+		double dx = LayoutProperties.getLocation(d).x;
+		Assert.assertEquals(ax < bx, dx < cx);
+	}
+
+	/**
+	 * Tests that the {@link ParallelCrossingReducer} removes all crossings of
+	 * a planar two-layer graph.
+	 */
+	@Test
+	public void testParallelCrossingReducer() {
+		Graph graph = new Graph();
+		Node a = createNode(graph);
+		Node b = createNode(graph);
+		Node c = createNode(graph);
+		Node d = createNode(graph);
+		Node e = createNode(graph);
+		Node f = createNode(graph);
+		graph.getEdges().add(new Edge(a, f));
+		graph.getEdges().add(new Edge(b, e));
+		graph.getEdges().add(new Edge(c, d));
+		LayoutContext context = createContext(graph,
+				new Rectangle(0, 0, 100, 100),
+				new SugiyamaLayoutAlgorithm(Direction.VERTICAL,
+						new ParallelCrossingReducer(2, 8, 0)));
+		context.applyLayout(true);
+
+		double ax = LayoutProperties.getLocation(a).x;
+		double bx = LayoutProperties.getLocation(b).x;
+		double cx = LayoutProperties.getLocation(c).x;
+		double dx = LayoutProperties.getLocation(d).x;
+		double ex = LayoutProperties.getLocation(e).x;
+		double fx = LayoutProperties.getLocation(f).x;
+		Assert.assertEquals(ax < bx, fx < ex);
+		Assert.assertEquals(bx < cx, ex < dx);
+		Assert.assertEquals(ax < cx, fx < dx);
+	}
+
+	/**
+	 * Tests that the runs of the {@link ParallelCrossingReducer} stop when the
+	 * termination of the layout pass is requested.
+	 */
+	@Test
+	public void testParallelCrossingReducerTermination() {
+		Graph graph = new Graph();
+		Node a = createNode(graph);
+		Node b = createNode(graph);
+		Node c = createNode(graph);
+		Node d = createNode(graph);
+		graph.getEdges().add(new Edge(a, d));
+		graph.getEdges().add(new Edge(b, c));
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 100, 100));
+		final Thread callingThread = Thread.currentThread();
+		LayoutContext context = new LayoutContext() {
+			@Override
+			public boolean isTerminationRequested() {
+				// the termination is only requested for the runs of the
+				// crossing reducer, which are executed by other threads
+				return Thread.currentThread() != callingThread;
+			}
+		};
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(
+				new SugiyamaLayoutAlgorithm(Direction.VERTICAL,
+						new ParallelCrossingReducer(2, 8, 0)));
+		context.applyLayout(true);
+
+		// the initial order, which has a crossing, is kept
+		double ax = LayoutProperties.getLocation(a).x;
+		double bx = LayoutProperties.getLocation(b).x;
+		double cx = LayoutProperties.getLocation(c).x;
+		double dx = LayoutProperties.getLocation(d).x;
+		Assert.assertNotEquals(ax < bx, dx < cx);
+	}
+
+	/**
+	 * Tests that the {@link NetworkSimplexLayerProvider} minimizes the edge
+	 * lengths, and that the {@link BrandesKoepfCoordinateAssigner} respects
+	 * the node sizes.
+	 */
+	@Test
+	public void testNetworkSimplexAndBrandesKoepf() {
+		Graph graph = new Graph();
+		Node a = createNode(graph);
+		Node b = createNode(graph);
+		Node c = createNode(graph);
+		Node d = createNode(graph);
+		Node e = createNode(graph);
+		LayoutProperties.setSize(b, new Dimension(100, 30));
+		graph.getEdges().add(new Edge(a, b));
+		graph.getEdges().add(new Edge(b, c));
+		graph.getEdges().add(new Edge(c, d));
+		// a longest-path layering puts e into the first layer
+		graph.getEdges().add(new Edge(e, d));
+		LayoutContext context = createContext(graph,
+				new Rectangle(0, 0, 100, 100),
+				new SugiyamaLayoutAlgorithm(Direction.VERTICAL, null,
+						new NetworkSimplexLayerProvider(),
+						new LayerSweepCrossingReducer(),
+						new BrandesKoepfCoordinateAssigner(10, 20)));
+		context.applyLayout(true);
+
+		// e is placed directly above d, in the same layer as c
+		Point cLocation = LayoutProperties.getLocation(c);
+		Point eLocation = LayoutProperties.getLocation(e);
+		Assert.assertEquals(cLocation.y, eLocation.y, 0);
+		Assert.assertTrue(LayoutProperties.getLocation(d).y > eLocation.y);
+		// nodes of the same layer are separated by their sizes and spacing
+		Assert.assertTrue(Math.abs(cLocation.x - eLocation.x) >= 20);
+		// layers are separated by their thickness and spacing
+		Assert.assertEquals(5 + 20 + 15, LayoutProperties.getLocation(b).y
+				- LayoutProperties.getLocation(a).y, 1e-9);
+	}
+
+	/**
+	 * Tests that the compact mode of the {@link TreeLayoutAlgorithm} places a
+	 * leaf next to the subtree of its sibling, instead of assigning it a
+	 * separate slot.
+	 */
+	@Test
+	public void testCompactTreeLayout() {
+		Graph graph = new Graph();
+		Node root = createNode(graph);
+		Node a = createNode(graph);
+		Node b = createNode(graph);
+		Node a1 = createNode(graph);
+		Node a2 = createNode(graph);
+		Node a3 = createNode(graph);
+		graph.getEdges().add(new Edge(root, a));
+		graph.getEdges().add(new Edge(root, b));
+		graph.getEdges().add(new Edge(a, a1));
+		graph.getEdges().add(new Edge(a, a2));
+		graph.getEdges().add(new Edge(a, a3));
+
+		TreeLayoutAlgorithm algorithm = new TreeLayoutAlgorithm(
+				TreeLayoutAlgorithm.TOP_DOWN, new Dimension(10, 10));
+		algorithm.setCompact(true);
+		LayoutContext context = createContext(graph,
+				new Rectangle(0, 0, 100, 100), algorithm);
+		context.applyLayout(true);
+
+		// the leaves of a occupy three slots, b is placed in the third slot
+		double minX = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		for (Node node : graph.getNodes()) {
+			minX = Math.min(minX, LayoutProperties.getLocation(node).x);
+			maxX = Math.max(maxX, LayoutProperties.getLocation(node).x);
+		}
+		Assert.assertEquals(20, maxX - minX, 1e-9);
+		Assert.assertEquals(10, Math.abs(LayoutProperties.getLocation(b).x
+				- LayoutProperties.getLocation(a).x), 1e-9);
+		Assert.assertEquals(LayoutProperties.getLocation(a).x,
+				(LayoutProperties.getLocation(a1).x
+						+ LayoutProperties.getLocation(a3).x) / 2, 1e-9);
+	}
+
+	@Test
+	public void testIncrementalSpaceTreeLayout() {
+		Graph graph = new Graph();
+		Node root = createNode(graph);
+		Node a = createNode(graph);
+		Node b = createNode(graph);
+		Node a1 = createNode(graph);
+		Node a2 = createNode(graph);
+		graph.getEdges().add(new Edge(root, a));
+		graph.getEdges().add(new Edge(root, b));
+		graph.getEdges().add(new Edge(a, a1));
+		graph.getEdges().add(new Edge(a, a2));
+		LayoutContext context = createContext(graph,
+				new Rectangle(0, 0, 200, 200), new SpaceTreeLayoutAlgorithm());
+		context.applyLayout(true);
+		Point a1Location = LayoutProperties.getLocation(a1);
+		Point a2Location = LayoutProperties.getLocation(a2);
+		Assert.assertEquals(a1Location.y, a2Location.y, 1e-9);
+		Assert.assertTrue(a2Location.x - a1Location.x >= 10);
+
+		// an incremental pass keeps the tree, so that nodes are not relocated
+		context.applyLayout(false);
+		Assert.assertSame(a1Location, LayoutProperties.getLocation(a1));
+		Assert.assertSame(a2Location, LayoutProperties.getLocation(a2));
+
+		// moved nodes are put back into their layer
+		LayoutProperties.setLocation(a2, new Point(a2Location.x, 150));
+		context.applyLayout(false);
+		Assert.assertEquals(a1Location.y, LayoutProperties.getLocation(a2).y,
+				1e-9);
+		Assert.assertSame(a1Location, LayoutProperties.getLocation(a1));
+	}
+
+	@Test
+	public void testComponentPackingLayout() {
+		Graph graph = new Graph();
+		Node[][] components = new Node[3][];
+		for (int c = 0; c < components.length; c++) {
+			components[c] = new Node[c + 2];
+			for (int i = 0; i < components[c].length; i++) {
+				components[c][i] = createNode(graph);
+				if (i > 0) {
+					graph.getEdges().add(
+							new Edge(components[c][0], components[c][i]));
+				}
+			}
+		}
+
+		ComponentPackingLayoutAlgorithm algorithm = new ComponentPackingLayoutAlgorithm(
+				() -> new TreeLayoutAlgorithm(TreeLayoutAlgorithm.TOP_DOWN,
+						new Dimension(10, 10)),
+				2);
+		algorithm.setComponentGap(5);
+		LayoutContext context = createContext(graph,
+				new Rectangle(0, 0, 100, 100), algorithm);
+		context.applyLayout(true);
+
+		// the components are laid out separately and do not overlap
+		Rectangle[] extents = new Rectangle[components.length];
+		for (int c = 0; c < components.length; c++) {
+			for (int i = 1; i < components[c].length; i++) {
+				Assert.assertTrue(LayoutProperties.getLocation(
+						components[c][0]).y < LayoutProperties
+								.getLocation(components[c][i]).y);
+			}
+			for (Node node : components[c]) {
+				Point location = LayoutProperties.getLocation(node);
+				Rectangle nodeBounds = new Rectangle(location.x - 5,
+						location.y - 5, 10, 10);
+				Assert.assertTrue(location.x >= 5 && location.y >= 5);
+				extents[c] = extents[c] == null ? nodeBounds
+						: extents[c].union(nodeBounds);
+			}
+		}
+		for (int c = 0; c < extents.length; c++) {
+			for (int d = c + 1; d < extents.length; d++) {
+				Assert.assertFalse(extents[c].touches(extents[d]));
+			}
+		}
+	}
+
+	@Test
+	public void testComponentPackingLayoutWithPinnedNode() {
+		Graph graph = new Graph();
+		Node[][] components = new Node[3][];
+		for (int c = 0; c < components.length; c++) {
+			components[c] = new Node[c + 2];
+			for (int i = 0; i < components[c].length; i++) {
+				components[c][i] = createNode(graph);
+				if (i > 0) {
+					graph.getEdges().add(
+							new Edge(components[c][0], components[c][i]));
+				}
+			}
+		}
+		// pin a leaf of the second component within the layout bounds
+		Node pinned = components[1][1];
+		LayoutProperties.setLocation(pinned, new Point(30, 40));
+		pinned.getAttributes().put(LayoutProperties.MOVABLE_PROPERTY, false);
+
+		ComponentPackingLayoutAlgorithm algorithm = new ComponentPackingLayoutAlgorithm(
+				() -> new TreeLayoutAlgorithm(TreeLayoutAlgorithm.TOP_DOWN,
+						new Dimension(10, 10)),
+				2);
+		algorithm.setComponentGap(5);
+		LayoutContext context = createContext(graph,
+				new Rectangle(0, 0, 100, 100), algorithm);
+		context.applyLayout(true);
+
+		// the pinned node keeps its location, and its component is laid out
+		// around it
+		Assert.assertEquals(new Point(30, 40),
+				LayoutProperties.getLocation(pinned));
+		for (int c = 0; c < components.length; c++) {
+			for (int i = 1; i < components[c].length; i++) {
+				Assert.assertTrue(LayoutProperties.getLocation(
+						components[c][0]).y < LayoutProperties
+								.getLocation(components[c][i]).y);
+			}
+		}
+
+		// the packed components do not overlap the anchored one
+		Rectangle[] extents = new Rectangle[components.length];
+		for (int c = 0; c < components.length; c++) {
+			for (Node node : components[c]) {
+				Point location = LayoutProperties.getLocation(node);
+				Rectangle nodeBounds = new Rectangle(location.x - 5,
+						location.y - 5, 10, 10);
+				extents[c] = extents[c] == null ? nodeBounds
+						: extents[c].union(nodeBounds);
+			}
+		}
+		for (int c = 0; c < extents.length; c++) {
+			for (int d = c + 1; d < extents.length; d++) {
+				Assert.assertFalse(extents[c].touches(extents[d]));
+			}
+		}
+	}
+
+	@Test
+	public void testMultilevelLayout() {
+		Graph graph = new Graph();
+		int side = 8;
+		Node[][] grid = new Node[side][side];
+		for (int i = 0; i < side; i++) {
+			for (int j = 0; j < side; j++) {
+				grid[i][j] = createNode(graph);
+				if (i > 0) {
+					graph.getEdges().add(new Edge(grid[i - 1][j], grid[i][j]));
+				}
+				if (j > 0) {
+					graph.getEdges().add(new Edge(grid[i][j - 1], grid[i][j]));
+				}
+			}
+		}
+		Rectangle bounds = new Rectangle(0, 0, 400, 400);
+		LayoutContext context = createContext(graph, bounds,
+				new MultilevelLayoutAlgorithm());
+		context.applyLayout(true);
+
+		// all nodes are within the bounds, and the grid is unfolded, i.e. the
+		// edges are short compared to the diagonal of the grid
+		Point first = LayoutProperties.getLocation(grid[0][0]);
+		Point last = LayoutProperties.getLocation(grid[side - 1][side - 1]);
+		double diagonal = first.getDistance(last);
+		for (Node node : graph.getNodes()) {
+			Assert.assertTrue(
+					bounds.contains(LayoutProperties.getLocation(node)));
+		}
+		for (Edge edge : graph.getEdges()) {
+			Assert.assertTrue(LayoutProperties.getLocation(edge.getSource())
+					.getDistance(LayoutProperties.getLocation(
+							edge.getTarget())) < diagonal / 4);
+		}
+
+		// layouts are reproducible
+		Point location = LayoutProperties.getLocation(grid[2][3]).getCopy();
+		context.applyLayout(true);
+		Assert.assertEquals(location, LayoutProperties.getLocation(grid[2][3]));
+
+		// the locations are applied after they were fit into the bounds
+		final Point[] applied = new Point[1];
+		grid[2][3].getAttributes()
+				.addListener((MapChangeListener<String, Object>) change -> {
+					if (LayoutProperties.LOCATION_PROPERTY
+							.equals(change.getKey())) {
+						applied[0] = ((Point) change.getValueAdded())
+								.getCopy();
+					}
+				});
+		LayoutProperties.setLocation(grid[2][3], new Point(-100, -100));
+		context.applyLayout(true);
+		Assert.assertEquals(LayoutProperties.getLocation(grid[2][3]),
+				applied[0]);
+	}
+
+	@Test
+	public void testMultilevelLayoutWithPinnedNode() {
+		Graph graph = new Graph();
+		Node[] chain = new Node[200];
+		for (int i = 0; i < chain.length; i++) {
+			chain[i] = createNode(graph);
+			if (i > 0) {
+				graph.getEdges().add(new Edge(chain[i - 1], chain[i]));
+			}
+		}
+		LayoutProperties.setLocation(chain[0], new Point(700, 500));
+		chain[0].getAttributes().put(LayoutProperties.MOVABLE_PROPERTY,
+				false);
+		Rectangle bounds = new Rectangle(0, 0, 800, 600);
+		LayoutContext context = createContext(graph, bounds,
+				new MultilevelLayoutAlgorithm());
+		context.applyLayout(true);
+
+		// the pinned node keeps its location, and the other nodes are laid
+		// out around it, using a large share of the bounds
+		Assert.assertEquals(new Point(700, 500),
+				LayoutProperties.getLocation(chain[0]));
+		Rectangle extent = null;
+		for (Node node : chain) {
+			Point location = LayoutProperties.getLocation(node);
+			Assert.assertTrue(bounds.contains(location));
+			extent = extent == null ? new Rectangle(location, location)
+					: extent.union(location);
+		}
+		Assert.assertTrue(extent.getWidth() > 400);
+		Assert.assertTrue(extent.getHeight() > 300);
+		Assert.assertTrue(LayoutProperties.getLocation(chain[1])
+				.getDistance(LayoutProperties.getLocation(chain[0])) < 100);
+	}
+
+	@Test
+	public void testBarnesHutRepulsion() {
+		// with theta = 0, the Barnes-Hut repulsion yields the exact layout
+		Point[] exact = layoutRing(Repulsion.EXACT, 0);
+		Point[] barnesHut = layoutRing(Repulsion.BARNES_HUT, 0);
+		for (int i = 0; i < exact.length; i++) {
+			Assert.assertEquals(exact[i].x, barnesHut[i].x, 1e-6);
+			Assert.assertEquals(exact[i].y, barnesHut[i].y, 1e-6);
+		}
+	}
+
+	private static Point[] layoutRing(Repulsion repulsion, double theta) {
+		Graph graph = new Graph();
+		Node[] nodes = new Node[30];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = createNode(graph);
+			LayoutProperties.setLocation(nodes[i],
+					new Point(200 + 100 * Math.cos(i), 200 + 100 * Math.sin(i)));
+			if (i > 0) {
+				graph.getEdges().add(new Edge(nodes[i - 1], nodes[i]));
+			}
+		}
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setRandom(false);
+		algorithm.setSpringTimeout(0);
+		algorithm.setIterations(200);
+		algorithm.setRepulsion(repulsion);
+		algorithm.setBarnesHutTheta(theta);
+		createContext(graph, algorithm).applyLayout(true);
+		Point[] locations = new Point[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			locations[i] = LayoutProperties.getLocation(nodes[i]);
+		}
+		return locations;
+	}
+
+	@Test
+	public void testIncrementalSpringLayoutIsReproducible() {
+		Point[] first = layoutAddedNodes();
+		Point[] second = layoutAddedNodes();
+		Assert.assertArrayEquals(first, second);
+	}
+
+	private static Point[] layoutAddedNodes() {
+		Graph graph = new Graph();
+		Node[] nodes = new Node[12];
+		for (int i = 0; i < 10; i++) {
+			nodes[i] = createNode(graph);
+			if (i > 0) {
+				graph.getEdges().add(new Edge(nodes[i - 1], nodes[i]));
+			}
+		}
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setSpringTimeout(0);
+		LayoutContext context = createContext(graph, algorithm);
+		context.applyLayout(true);
+
+		// the added nodes have the same neighbor, so that they are separated
+		// by a random jitter
+		nodes[10] = createNode(graph);
+		nodes[11] = createNode(graph);
+		graph.getEdges().add(new Edge(nodes[0], nodes[10]));
+		graph.getEdges().add(new Edge(nodes[0], nodes[11]));
+		context.applyLayout(false);
+		Point[] locations = new Point[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			locations[i] = LayoutProperties.getLocation(nodes[i]);
+		}
+		return locations;
+	}
+
+	@Test
+	public void testStressMajorizationLayout() {
+		// a triangle whose edge weights (ideal lengths) form a right triangle
+		Graph graph = new Graph();
+		Node a = createNode(graph);
+		Node b = createNode(graph);
+		Node c = createNode(graph);
+		Edge ab = new Edge(a, b);
+		Edge bc = new Edge(b, c);
+		Edge ca = new Edge(c, a);
+		LayoutProperties.setWeight(ab, 30);
+		LayoutProperties.setWeight(bc, 40);
+		LayoutProperties.setWeight(ca, 50);
+		graph.getEdges().addAll(Arrays.asList(ab, bc, ca));
+		Rectangle bounds = new Rectangle(0, 0, 400, 400);
+		LayoutContext context = createContext(graph, bounds,
+				new StressMajorizationLayoutAlgorithm(2));
+		context.applyLayout(true);
+
+		// the layout is scaled uniformly, so that the ratios of the edge
+		// lengths match the ratios of the weights
+		Point pa = LayoutProperties.getLocation(a);
+		Point pb = LayoutProperties.getLocation(b);
+		Point pc = LayoutProperties.getLocation(c);
+		double unit = pa.getDistance(pb) / 30;
+		Assert.assertEquals(40, pb.getDistance(pc) / unit, 1);
+		Assert.assertEquals(50, pc.getDistance(pa) / unit, 1);
+		for (Node node : graph.getNodes()) {
+			Assert.assertTrue(
+					bounds.contains(LayoutProperties.getLocation(node)));
+		}
+
+		// layouts are reproducible
+		Point location = pb.getCopy();
+		context.applyLayout(true);
+		Assert.assertEquals(location, LayoutProperties.getLocation(b));
+	}
+
+	@Test
+	public void testStressMajorizationLayoutWithPinnedNode() {
+		Graph graph = new Graph();
+		Node[] chain = new Node[200];
+		for (int i = 0; i < chain.length; i++) {
+			chain[i] = createNode(graph);
+			if (i > 0) {
+				graph.getEdges().add(new Edge(chain[i - 1], chain[i]));
+			}
+		}
+		LayoutProperties.setLocation(chain[0], new Point(700, 500));
+		chain[0].getAttributes().put(LayoutProperties.MOVABLE_PROPERTY,
+				false);
+		Rectangle bounds = new Rectangle(0, 0, 800, 600);
+		LayoutContext context = createContext(graph, bounds,
+				new StressMajorizationLayoutAlgorithm(2));
+		context.applyLayout(true);
+
+		// the pinned node keeps its location, and the other nodes are laid
+		// out around it, within the bounds
+		Assert.assertEquals(new Point(700, 500),
+				LayoutProperties.getLocation(chain[0]));
+		for (Node node : chain) {
+			Assert.assertTrue(
+					bounds.contains(LayoutProperties.getLocation(node)));
+		}
+		Assert.assertTrue(LayoutProperties.getLocation(chain[1])
+				.getDistance(LayoutProperties.getLocation(chain[0])) < 100);
+
+		// an incremental layout keeps the pinned node, too
+		context.applyLayout(false);
+		Assert.assertEquals(new Point(700, 500),
+				LayoutProperties.getLocation(chain[0]));
+		Assert.assertTrue(LayoutProperties.getLocation(chain[1])
+				.getDistance(LayoutProperties.getLocation(chain[0])) < 100);
+	}
+
+	@Test
+	public void testStressMajorizationLayoutTermination() {
+		Graph graph = new Graph();
+		Node a = createNode(graph);
+		Node b = createNode(graph);
+		Node c = createNode(graph);
+		graph.getEdges().add(new Edge(a, b));
+		graph.getEdges().add(new Edge(b, c));
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 400, 400));
+		LayoutContext context = new LayoutContext() {
+			@Override
+			public boolean isTerminationRequested() {
+				return true;
+			}
+		};
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new StressMajorizationLayoutAlgorithm(2));
+		context.applyLayout(true);
+
+		// the shortest path distances are not computed, and the nodes are
+		// not moved
+		for (Node node : graph.getNodes()) {
+			Assert.assertEquals(new Point(),
+					LayoutProperties.getLocation(node));
+		}
+	}
 }
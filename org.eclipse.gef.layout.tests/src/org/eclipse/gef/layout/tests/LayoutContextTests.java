@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.eclipse.gef.layout.tests.TestUtils.createContext;
+import static org.eclipse.gef.layout.tests.TestUtils.createNode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.ILayoutFilter;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutModel;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.TreeLayoutAlgorithm;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link LayoutContext}.
+ */
+public class LayoutContextTests {
+
+	@Test
+	public void changes() {
+		Graph graph = new Graph();
+		Node n1 = createNode(graph);
+		Node n2 = createNode(graph);
+		LayoutContext context = createContext(graph, new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext,
+					boolean clean) {
+			}
+		});
+
+		// all nodes are added in the first layout pass
+		context.applyLayout(false);
+		assertEquals(2, context.getAddedNodes().size());
+
+		// no changes
+		context.applyLayout(false);
+		assertFalse(context.hasChanges());
+
+		// add, remove, and move nodes
+		Node n3 = createNode(graph);
+		graph.getNodes().remove(n1);
+		LayoutProperties.setLocation(n2, new Point(5, 5));
+		context.applyLayout(false);
+		assertTrue(context.hasChanges());
+		assertEquals(1, context.getAddedNodes().size());
+		assertTrue(context.getAddedNodes().contains(n3));
+		assertEquals(1, context.getRemovedNodes().size());
+		assertTrue(context.getRemovedNodes().contains(n1));
+		assertEquals(1, context.getMovedNodes().size());
+		assertTrue(context.getMovedNodes().contains(n2));
+	}
+
+	@Test
+	public void cachedLayoutRelevance() {
+		Graph graph = new Graph();
+		final Node n1 = createNode(graph);
+		createNode(graph);
+		LayoutContext context = createContext(graph, null);
+		final int[] filterCalls = new int[1];
+		context.addLayoutFilter(new ILayoutFilter() {
+			@Override
+			public boolean isLayoutIrrelevant(Edge edge) {
+				return false;
+			}
+
+			@Override
+			public boolean isLayoutIrrelevant(Node node) {
+				filterCalls[0]++;
+				return node == n1;
+			}
+		});
+
+		// the filter is evaluated once per node
+		assertEquals(1, context.getNodes().length);
+		assertEquals(1, context.getNodes().length);
+		assertEquals(2, filterCalls[0]);
+
+		// changing the graph invalidates the cache
+		long revision = context.getRevision();
+		createNode(graph);
+		assertTrue(context.getRevision() > revision);
+		assertEquals(2, context.getNodes().length);
+		assertEquals(5, filterCalls[0]);
+
+		// explicit invalidation
+		revision = context.getRevision();
+		context.invalidateLayoutRelevance();
+		assertTrue(context.getRevision() > revision);
+		context.getNodes();
+		assertEquals(8, filterCalls[0]);
+	}
+
+	@Test
+	public void layoutModel() {
+		Graph graph = new Graph();
+		final Node n1 = createNode(graph);
+		Node n2 = createNode(graph);
+		graph.getEdges().add(new Edge(n1, n2));
+		LayoutContext context = createContext(graph, new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext,
+					boolean clean) {
+				LayoutModel model = layoutContext.getLayoutModel();
+				assertSame(model, layoutContext.getLayoutModel());
+				int index = model.indexOf(n1);
+				model.getX()[index] = 20;
+				model.getY()[index] = 30;
+				// the nodes are not updated before the model is committed
+				assertEquals(new Point(), LayoutProperties.getLocation(n1));
+			}
+		});
+
+		LayoutModel model = context.getLayoutModel();
+		assertEquals(2, model.getNodeCount());
+		assertEquals(1, model.getEdgeCount());
+		assertEquals(model.indexOf(n1), model.getEdgeSources()[0]);
+		assertEquals(model.indexOf(n2), model.getEdgeTargets()[0]);
+		assertEquals(10, model.getWidth()[model.indexOf(n2)], 0);
+		assertTrue(model.getMovable()[model.indexOf(n2)]);
+
+		// only the changed node is updated when the model is committed
+		Point n2Location = LayoutProperties.getLocation(n2);
+		context.applyLayout(true);
+		assertEquals(new Point(20, 30), LayoutProperties.getLocation(n1));
+		assertSame(n2Location, LayoutProperties.getLocation(n2));
+		assertNotSame(model, context.getLayoutModel());
+	}
+
+	@Test
+	public void incrementalTreeLayout() {
+		Graph graph = new Graph();
+		Node root = createNode(graph);
+		Node left = createNode(graph);
+		Node right = createNode(graph);
+		graph.getEdges().add(new Edge(root, left));
+		graph.getEdges().add(new Edge(root, right));
+		TreeLayoutAlgorithm algorithm = new TreeLayoutAlgorithm(
+				TreeLayoutAlgorithm.TOP_DOWN, new Dimension(50, 50));
+		LayoutContext context = createContext(graph, algorithm);
+		context.applyLayout(true);
+		Point rootLocation = LayoutProperties.getLocation(root);
+		Point leftLocation = LayoutProperties.getLocation(left);
+		Point rightLocation = LayoutProperties.getLocation(right);
+
+		// an incremental pass without changes does not relocate any node
+		context.applyLayout(false);
+		assertSame(rootLocation, LayoutProperties.getLocation(root));
+		assertSame(leftLocation, LayoutProperties.getLocation(left));
+
+		// adding a leaf below the right node does not affect the others
+		Node leaf = createNode(graph);
+		graph.getEdges().add(new Edge(right, leaf));
+		context.applyLayout(false);
+		assertSame(rootLocation, LayoutProperties.getLocation(root));
+		assertSame(leftLocation, LayoutProperties.getLocation(left));
+		assertSame(rightLocation, LayoutProperties.getLocation(right));
+		assertEquals(LayoutProperties.getLocation(right).x,
+				LayoutProperties.getLocation(leaf).x, 0);
+
+		// moved nodes are put back into place
+		Point leafLocation = LayoutProperties.getLocation(leaf).getCopy();
+		LayoutProperties.setLocation(leaf, new Point(-100, -100));
+		context.applyLayout(false);
+		assertEquals(leafLocation, LayoutProperties.getLocation(leaf));
+		assertSame(leftLocation, LayoutProperties.getLocation(left));
+
+		// adding a second leaf below the right node changes the breadth of
+		// the tree, so that the root is relocated
+		Node leaf2 = createNode(graph);
+		graph.getEdges().add(new Edge(right, leaf2));
+		context.applyLayout(false);
+		assertNotSame(rootLocation, LayoutProperties.getLocation(root));
+		assertEquals(75, LayoutProperties.getLocation(root).x, 0);
+	}
+
+	@Test
+	public void progressAndTermination() {
+		Graph graph = new Graph();
+		Node first = createNode(graph);
+		Node previous = first;
+		for (int i = 1; i < 20; i++) {
+			Node node = createNode(graph);
+			graph.getEdges().add(new Edge(previous, node));
+			previous = node;
+		}
+		graph.getEdges().add(new Edge(previous, first));
+		LayoutContext context = createContext(graph,
+				new SpringLayoutAlgorithm());
+
+		// progress is reported for every iteration
+		final int[] reports = new int[1];
+		context.addProgressListener(
+				(c, iteration, totalIterations, energy) -> reports[0]++);
+		context.applyLayout(true);
+		int totalIterations = context.getTotalIterations();
+		assertTrue(totalIterations > 1);
+		assertEquals(totalIterations, context.getIteration());
+		assertEquals(totalIterations, reports[0]);
+		assertFalse(Double.isNaN(context.getEnergy()));
+
+		// a cancellation while no layout pass is executed is ignored
+		context.cancel();
+		context.applyLayout(true);
+		assertEquals(totalIterations, context.getIteration());
+
+		// a cancelled layout pass stops after the current iteration
+		context.addProgressListener(
+				(c, iteration, total, energy) -> c.cancel());
+		context.applyLayout(true);
+		assertEquals(1, context.getIteration());
+		assertFalse(context.isCancelled());
+
+		// an exceeded time budget terminates the layout pass
+		context.setTimeBudget(20);
+		context.setLayoutAlgorithm(new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext,
+					boolean clean) {
+				while (!layoutContext.isTerminationRequested()) {
+					Thread.yield();
+				}
+				assertTrue(layoutContext.isTimeBudgetExceeded());
+			}
+		});
+		context.applyLayout(true);
+		assertFalse(context.isTimeBudgetExceeded());
+	}
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+
+/**
+ * Utilities for layout unit tests.
+ */
+public class TestUtils {
+
+	/**
+	 * Creates a {@link LayoutContext} for the given {@link Graph} and
+	 * {@link ILayoutAlgorithm}, using bounds of 400 x 400.
+	 *
+	 * @param graph
+	 *            The {@link Graph} to lay out.
+	 * @param algorithm
+	 *            The {@link ILayoutAlgorithm} to use.
+	 * @return The new {@link LayoutContext}.
+	 */
+	public static LayoutContext createContext(Graph graph,
+			ILayoutAlgorithm algorithm) {
+		return createContext(graph, new Rectangle(0, 0, 400, 400), algorithm);
+	}
+
+	/**
+	 * Creates a {@link LayoutContext} for the given {@link Graph} and
+	 * {@link ILayoutAlgorithm}, using the given layout bounds.
+	 *
+	 * @param graph
+	 *            The {@link Graph} to lay out.
+	 * @param bounds
+	 *            The layout bounds to set on the {@link Graph}.
+	 * @param algorithm
+	 *            The {@link ILayoutAlgorithm} to use.
+	 * @return The new {@link LayoutContext}.
+	 */
+	public static LayoutContext createContext(Graph graph, Rectangle bounds,
+			ILayoutAlgorithm algorithm) {
+		LayoutProperties.setBounds(graph, bounds);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		return context;
+	}
+
+	/**
+	 * Creates a {@link Node} of size 10 x 10 at the origin and adds it to the
+	 * given {@link Graph}.
+	 *
+	 * @param graph
+	 *            The {@link Graph} to add the {@link Node} to.
+	 * @return The new {@link Node}.
+	 */
+	public static Node createNode(Graph graph) {
+		Node node = new Node();
+		LayoutProperties.setLocation(node, new Point());
+		LayoutProperties.setSize(node, new Dimension(10, 10));
+		graph.getNodes().add(node);
+		return node;
+	}
+
+	private TestUtils() {
+		// this class should not be instantiated by clients
+	}
+
+}
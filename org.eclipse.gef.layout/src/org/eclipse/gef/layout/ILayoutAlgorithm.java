@@ -33,8 +33,12 @@ public interface ILayoutAlgorithm {
 	 *            it keeps track of changes with listeners. False can be used
 	 *            after dynamic layout in a context is turned back on so that
 	 *            layout algorithm working in background can apply accumulated
-	 *            changes. Static layout algorithm can ignore this call entirely
-	 *            if clean is false.
+	 *            changes. Algorithms that support incremental layout may use
+	 *            the changes reported by {@link LayoutContext#getAddedNodes()},
+	 *            {@link LayoutContext#getRemovedNodes()}, and
+	 *            {@link LayoutContext#getMovedNodes()} to update their previous
+	 *            layout if clean is false. Static layout algorithm can ignore
+	 *            this call entirely if clean is false.
 	 */
 	public void applyLayout(LayoutContext layoutContext, boolean clean);
 }
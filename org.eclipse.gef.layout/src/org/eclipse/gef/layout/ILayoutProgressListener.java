@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout;
+
+/**
+ * An {@link ILayoutProgressListener} is notified about the progress of the
+ * layout passes that are executed by a {@link LayoutContext} (see
+ * {@link LayoutContext#reportProgress(int, int, double)}). The notification
+ * happens on the thread that executes the {@link ILayoutAlgorithm}, which is
+ * not necessarily the JavaFX application thread.
+ */
+public interface ILayoutProgressListener {
+
+	/**
+	 * Called when the progress of the current layout pass of the given
+	 * {@link LayoutContext} changed.
+	 *
+	 * @param context
+	 *            The {@link LayoutContext} that is laid out.
+	 * @param iteration
+	 *            The number of completed iterations (or steps) of the current
+	 *            layout pass.
+	 * @param totalIterations
+	 *            The total number of iterations (or steps) of the current
+	 *            layout pass, or <code>-1</code> if unknown.
+	 * @param energy
+	 *            A measure of the remaining layout energy (e.g. the total
+	 *            displacement of the last iteration), or {@link Double#NaN} if
+	 *            not computed by the layout algorithm.
+	 */
+	public void progressChanged(LayoutContext context, int iteration,
+			int totalIterations, double energy);
+
+}
@@ -13,21 +13,51 @@
 package org.eclipse.gef.layout;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.graph.Edge;
 import org.eclipse.gef.graph.Graph;
 import org.eclipse.gef.graph.Node;
 
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
-import javafx.collections.ObservableList;
+import javafx.collections.ListChangeListener;
 
 /**
  * The {@link LayoutContext} provides the context in which to layout a
  * {@link Graph}. It maintains an {@link ILayoutAlgorithm} that can be applied,
  * supports the handling and execution of pre and post {@link Runnable}s, and
  * filtering of layout objects using {@link ILayoutFilter}.
+ * <p>
+ * Additionally, the {@link LayoutContext} keeps track of the changes that
+ * happened since the last layout pass, so that an {@link ILayoutAlgorithm} can
+ * update its previous layout incrementally (see {@link #getAddedNodes()},
+ * {@link #getRemovedNodes()}, and {@link #getMovedNodes()}).
+ * <p>
+ * An {@link ILayoutAlgorithm} may work on a primitive snapshot of the layout
+ * properties (see {@link #getLayoutModel()}), which is written back to the
+ * nodes once, after the layout algorithm was executed.
+ * <p>
+ * The layout-relevant nodes and edges (see {@link #getNodes()} and
+ * {@link #getEdges()}) are cached. The cache is invalidated when the nodes or
+ * edges of the graph or the layout filters change. If the result of a layout
+ * filter changes for other reasons, {@link #invalidateLayoutRelevance()} has
+ * to be called. Each invalidation increments the revision (see
+ * {@link #getRevision()}).
+ * <p>
+ * Layout algorithms report the progress of a layout pass via
+ * {@link #reportProgress(int, int, double)}, which is forwarded to the
+ * registered {@link ILayoutProgressListener}s, and they regularly check
+ * {@link #isTerminationRequested()}, so that a layout pass can be aborted via
+ * {@link #cancel()} or limited by a time budget (see
+ * {@link #setTimeBudget(long)}). An aborted layout pass is still committed,
+ * i.e. the locations that were computed so far are applied.
  * 
  * @author mwienand
  *
@@ -48,6 +78,41 @@ public class LayoutContext {
 	private final List<Runnable> preLayoutPass = new ArrayList<>();
 	private final List<ILayoutFilter> layoutFilters = new ArrayList<>();
 
+	// locations of the layout-relevant nodes after the last layout pass (null
+	// if no layout pass was performed yet)
+	private Map<Node, Point> lastLocations;
+	private final Set<Node> addedNodes = Collections
+			.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+	private final Set<Node> removedNodes = Collections
+			.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+	private final Set<Node> movedNodes = Collections
+			.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+
+	// snapshot of the layout properties (null if not requested yet)
+	private LayoutModel layoutModel;
+
+	// cached layout-relevant nodes and edges (null if invalid)
+	private Node[] layoutRelevantNodes;
+	private Edge[] layoutRelevantEdges;
+	private long revision;
+
+	// progress and interruption of the current layout pass
+	private volatile boolean cancelled;
+	private long timeBudget;
+	private volatile long passStartTime;
+	private volatile int iteration;
+	private volatile int totalIterations = -1;
+	private volatile double energy = Double.NaN;
+	private final List<ILayoutProgressListener> progressListeners = new CopyOnWriteArrayList<>();
+
+	private final ListChangeListener<Object> graphObserver = new ListChangeListener<Object>() {
+		@Override
+		public void onChanged(
+				ListChangeListener.Change<? extends Object> change) {
+			invalidateLayoutRelevance();
+		}
+	};
+
 	/**
 	 * Adds the given ILayoutFilter to this {@link LayoutContext}.
 	 * 
@@ -56,12 +121,29 @@ public class LayoutContext {
 	 */
 	public void addLayoutFilter(ILayoutFilter layoutFilter) {
 		layoutFilters.add(layoutFilter);
+		invalidateLayoutRelevance();
+	}
+
+	/**
+	 * Adds the given {@link ILayoutProgressListener} to this
+	 * {@link LayoutContext}, so that it is notified about the progress of the
+	 * subsequent layout passes.
+	 * 
+	 * @param progressListener
+	 *            The {@link ILayoutProgressListener} to add.
+	 */
+	public void addProgressListener(ILayoutProgressListener progressListener) {
+		progressListeners.add(progressListener);
 	}
 
 	/**
 	 * Applies the layout algorithm of this LayoutContext. The clean flag is
 	 * passed-in to the layout algorithm to indicate whether the context changed
-	 * significantly since the last layout pass.
+	 * significantly since the last layout pass. If the clean flag is
+	 * <code>false</code>, the layout algorithm may update the previous layout
+	 * incrementally, based on the changes that are reported by
+	 * {@link #getAddedNodes()}, {@link #getRemovedNodes()}, and
+	 * {@link #getMovedNodes()}.
 	 * 
 	 * @param clear
 	 *            <code>true</code> to indicate that the algorithm has to fully
@@ -71,11 +153,175 @@ public class LayoutContext {
 		ILayoutAlgorithm layoutAlgorithm = layoutAlgorithmProperty.get();
 		if (layoutAlgorithm != null) {
 			preLayout();
-			layoutAlgorithm.applyLayout(this, clear);
+			computeChanges();
+			layoutModel = null;
+			iteration = 0;
+			totalIterations = -1;
+			energy = Double.NaN;
+			// a cancellation while no layout pass was executed is ignored
+			cancelled = false;
+			passStartTime = System.nanoTime();
+			try {
+				layoutAlgorithm.applyLayout(this, clear);
+			} finally {
+				// a cancellation only applies to the current layout pass
+				cancelled = false;
+				passStartTime = 0;
+			}
+			commitLayoutModel();
+			recordLayoutState();
 			postLayout();
 		}
 	}
 
+	/**
+	 * Requests the termination of the layout pass that is currently executed.
+	 * This method may be called from any thread. The layout algorithm stops at
+	 * its next check of {@link #isTerminationRequested()}, and the locations
+	 * that were computed so far are applied. If no layout pass is executed,
+	 * this method has no effect, i.e. it does not affect the next layout pass.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Writes the changes of the current {@link LayoutModel} (if any) back to
+	 * the nodes and discards it, so that the next call to
+	 * {@link #getLayoutModel()} takes a new snapshot. This is called by
+	 * {@link #applyLayout(boolean)} after the layout algorithm was executed,
+	 * but may also be called by layout algorithms that are executed
+	 * step-wise.
+	 */
+	public void commitLayoutModel() {
+		if (layoutModel != null) {
+			layoutModel.commit();
+			layoutModel = null;
+		}
+	}
+
+	/**
+	 * Determines the nodes that were added, removed, or moved since the last
+	 * layout pass.
+	 */
+	private void computeChanges() {
+		addedNodes.clear();
+		removedNodes.clear();
+		movedNodes.clear();
+		Node[] nodes = getLayoutRelevantNodes();
+		if (lastLocations == null) {
+			Collections.addAll(addedNodes, nodes);
+			return;
+		}
+		Set<Node> currentNodes = Collections
+				.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		for (Node node : nodes) {
+			currentNodes.add(node);
+			if (!lastLocations.containsKey(node)) {
+				addedNodes.add(node);
+			} else {
+				Point lastLocation = lastLocations.get(node);
+				Point location = LayoutProperties.getLocation(node);
+				if (lastLocation == null ? location != null
+						: !lastLocation.equals(location)) {
+					movedNodes.add(node);
+				}
+			}
+		}
+		for (Node node : lastLocations.keySet()) {
+			if (!currentNodes.contains(node)) {
+				removedNodes.add(node);
+			}
+		}
+	}
+
+	/**
+	 * Returns the layout-relevant nodes that were added since the last layout
+	 * pass, either because they were added to the graph, or because they
+	 * became layout-relevant. If no layout pass was performed yet, all
+	 * layout-relevant nodes are reported as added.
+	 * <p>
+	 * The changes are determined by {@link #applyLayout(boolean)} before the
+	 * layout algorithm is executed, and remain available until the next
+	 * layout pass.
+	 * 
+	 * @return An unmodifiable set containing the added nodes.
+	 */
+	public Set<Node> getAddedNodes() {
+		return Collections.unmodifiableSet(addedNodes);
+	}
+
+	/**
+	 * Returns a {@link LayoutModel} containing the layout-relevant nodes and
+	 * edges (see {@link #getNodes()} and {@link #getEdges()}). The snapshot is
+	 * taken upon the first call and is shared until it is committed (see
+	 * {@link #commitLayoutModel()}), which happens automatically at the end of
+	 * {@link #applyLayout(boolean)}.
+	 * 
+	 * @return The {@link LayoutModel} for the current layout pass.
+	 */
+	public LayoutModel getLayoutModel() {
+		if (layoutModel == null) {
+			layoutModel = new LayoutModel(getLayoutRelevantNodes(),
+					getLayoutRelevantEdges());
+		}
+		return layoutModel;
+	}
+
+	/**
+	 * Returns the layout-relevant nodes whose location changed since the last
+	 * layout pass, i.e. that were moved by the user.
+	 * <p>
+	 * The changes are determined by {@link #applyLayout(boolean)} before the
+	 * layout algorithm is executed, and remain available until the next
+	 * layout pass.
+	 * 
+	 * @return An unmodifiable set containing the moved nodes.
+	 */
+	public Set<Node> getMovedNodes() {
+		return Collections.unmodifiableSet(movedNodes);
+	}
+
+	/**
+	 * Returns the nodes that were layout-relevant during the last layout pass,
+	 * but are no longer, either because they were removed from the graph, or
+	 * because they became layout-irrelevant.
+	 * <p>
+	 * The changes are determined by {@link #applyLayout(boolean)} before the
+	 * layout algorithm is executed, and remain available until the next
+	 * layout pass.
+	 * 
+	 * @return An unmodifiable set containing the removed nodes.
+	 */
+	public Set<Node> getRemovedNodes() {
+		return Collections.unmodifiableSet(removedNodes);
+	}
+
+	/**
+	 * Returns <code>true</code> if any nodes were added, removed, or moved
+	 * since the last layout pass. Otherwise returns <code>false</code>.
+	 * 
+	 * @return <code>true</code> if any nodes were added, removed, or moved
+	 *         since the last layout pass, otherwise <code>false</code>.
+	 */
+	public boolean hasChanges() {
+		return !addedNodes.isEmpty() || !removedNodes.isEmpty()
+				|| !movedNodes.isEmpty();
+	}
+
+	/**
+	 * Records the locations of the layout-relevant nodes after a layout pass,
+	 * so that the changes can be determined before the next layout pass.
+	 */
+	private void recordLayoutState() {
+		Map<Node, Point> locations = new IdentityHashMap<>();
+		for (Node node : getLayoutRelevantNodes()) {
+			Point location = LayoutProperties.getLocation(node);
+			locations.put(node, location == null ? null : location.getCopy());
+		}
+		lastLocations = locations;
+	}
+
 	/**
 	 * Initiated by the context or by an {@link ILayoutAlgorithm} to perform
 	 * steps that are scheduled to be run after the layout pass. Should not be
@@ -119,42 +365,83 @@ public class LayoutContext {
 		if (graph == null) {
 			graph = new Graph();
 		}
+		if (this.graph != null) {
+			this.graph.getNodes().removeListener(graphObserver);
+			this.graph.getEdges().removeListener(graphObserver);
+		}
 		this.graph = graph;
+		graph.getNodes().addListener(graphObserver);
+		graph.getEdges().addListener(graphObserver);
+		invalidateLayoutRelevance();
+		// changes are tracked relative to the last layout of the same graph
+		lastLocations = null;
+		layoutModel = null;
+		addedNodes.clear();
+		removedNodes.clear();
+		movedNodes.clear();
 	}
 
 	/**
 	 * Returns all the nodes that should be laid out. Replacing elements in the
 	 * returned array does not affect this context.
+	 * <p>
+	 * The layout-relevant nodes are cached until the layout relevance is
+	 * invalidated (see {@link #invalidateLayoutRelevance()}), so that the
+	 * layout filters are not evaluated upon each call.
 	 * 
 	 * @return array of nodes to lay out
 	 */
 	// TODO: remove this (algorithms should use getGraph().getNodes())
 	public Node[] getNodes() {
-		ObservableList<Node> nodes = graph.getNodes();
-		List<Node> layoutRelevantNodes = new ArrayList<>();
-		for (Node n : nodes) {
-			if (!isLayoutIrrelevant(n)) {
-				layoutRelevantNodes.add(n);
-			}
-		}
-		return layoutRelevantNodes.toArray(new Node[] {});
+		return getLayoutRelevantNodes().clone();
 	}
 
 	/**
 	 * Returns all the connections between nodes that should be laid out.
 	 * Replacing elements in the returned array does not affect this context.
+	 * <p>
+	 * The layout-relevant edges are cached until the layout relevance is
+	 * invalidated (see {@link #invalidateLayoutRelevance()}), so that the
+	 * layout filters are not evaluated upon each call.
 	 * 
 	 * @return array of connections between nodes
 	 */
 	public Edge[] getEdges() {
-		ObservableList<Edge> edges = graph.getEdges();
-		List<Edge> layoutRelevantEdges = new ArrayList<>();
-		for (Edge e : edges) {
-			if (!isLayoutIrrelevant(e)) {
-				layoutRelevantEdges.add(e);
+		return getLayoutRelevantEdges().clone();
+	}
+
+	/**
+	 * Returns the cached layout-relevant edges (see {@link #getEdges()})
+	 * without copying them, so that they must not be changed.
+	 */
+	private Edge[] getLayoutRelevantEdges() {
+		if (layoutRelevantEdges == null) {
+			List<Edge> edges = new ArrayList<>();
+			for (Edge e : graph.getEdges()) {
+				if (!isLayoutIrrelevant(e)) {
+					edges.add(e);
+				}
 			}
+			layoutRelevantEdges = edges.toArray(new Edge[] {});
 		}
-		return layoutRelevantEdges.toArray(new Edge[] {});
+		return layoutRelevantEdges;
+	}
+
+	/**
+	 * Returns the cached layout-relevant nodes (see {@link #getNodes()})
+	 * without copying them, so that they must not be changed.
+	 */
+	private Node[] getLayoutRelevantNodes() {
+		if (layoutRelevantNodes == null) {
+			List<Node> nodes = new ArrayList<>();
+			for (Node n : graph.getNodes()) {
+				if (!isLayoutIrrelevant(n)) {
+					nodes.add(n);
+				}
+			}
+			layoutRelevantNodes = nodes.toArray(new Node[] {});
+		}
+		return layoutRelevantNodes;
 	}
 
 	/**
@@ -167,6 +454,91 @@ public class LayoutContext {
 		return layoutAlgorithmProperty.get();
 	}
 
+	/**
+	 * Returns the measure of the remaining layout energy that was last
+	 * reported for the current (or last) layout pass, or {@link Double#NaN} if
+	 * it was not reported.
+	 * 
+	 * @return The last reported layout energy.
+	 * @see #reportProgress(int, int, double)
+	 */
+	public double getEnergy() {
+		return energy;
+	}
+
+	/**
+	 * Returns the number of completed iterations that was last reported for
+	 * the current (or last) layout pass.
+	 * 
+	 * @return The last reported number of completed iterations.
+	 * @see #reportProgress(int, int, double)
+	 */
+	public int getIteration() {
+		return iteration;
+	}
+
+	/**
+	 * Returns the revision of the layout-relevant nodes and edges, which is
+	 * incremented whenever they are invalidated (see
+	 * {@link #invalidateLayoutRelevance()}). Layout algorithms can compare the
+	 * revision to a previously recorded one in order to determine if data
+	 * that was derived from {@link #getNodes()} or {@link #getEdges()} is
+	 * stale.
+	 * 
+	 * @return The revision of the layout-relevant nodes and edges.
+	 */
+	public long getRevision() {
+		return revision;
+	}
+
+	/**
+	 * Returns the time budget (in milliseconds) of a layout pass, or
+	 * <code>0</code> if the time of a layout pass is not limited.
+	 * 
+	 * @return The time budget of a layout pass.
+	 */
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+
+	/**
+	 * Returns the total number of iterations that was last reported for the
+	 * current (or last) layout pass, or <code>-1</code> if it is unknown.
+	 * 
+	 * @return The last reported total number of iterations.
+	 * @see #reportProgress(int, int, double)
+	 */
+	public int getTotalIterations() {
+		return totalIterations;
+	}
+
+	/**
+	 * Discards the cached layout-relevant nodes and edges, so that the layout
+	 * filters are re-evaluated upon the next call to {@link #getNodes()} or
+	 * {@link #getEdges()}, and increments the revision (see
+	 * {@link #getRevision()}). This is called automatically when the nodes or
+	 * edges of the graph, or the layout filters change. Clients have to call
+	 * this method when the result of a layout filter changes for other
+	 * reasons.
+	 */
+	public void invalidateLayoutRelevance() {
+		layoutRelevantNodes = null;
+		layoutRelevantEdges = null;
+		revision++;
+	}
+
+	/**
+	 * Returns <code>true</code> if the termination of the current layout pass
+	 * was requested via {@link #cancel()}, or if the executing thread was
+	 * interrupted. Otherwise returns <code>false</code>.
+	 * 
+	 * @return <code>true</code> if the current layout pass was cancelled,
+	 *         otherwise <code>false</code>.
+	 */
+	public boolean isCancelled() {
+		return cancelled || Thread.currentThread().isInterrupted();
+	}
+
 	/**
 	 * Returns <code>true</code> when the given {@link Edge} is not relevant for
 	 * layout according to the configured {@link ILayoutFilter layout filters}.
@@ -207,6 +579,34 @@ public class LayoutContext {
 		return false;
 	}
 
+	/**
+	 * Returns <code>true</code> if the layout algorithm should stop the current
+	 * layout pass as soon as possible, i.e. if it was cancelled (see
+	 * {@link #isCancelled()}) or if its time budget is exceeded (see
+	 * {@link #isTimeBudgetExceeded()}). Layout algorithms are expected to check
+	 * this regularly, e.g. once per iteration.
+	 * 
+	 * @return <code>true</code> if the current layout pass should be
+	 *         terminated, otherwise <code>false</code>.
+	 */
+	public boolean isTerminationRequested() {
+		return isCancelled() || isTimeBudgetExceeded();
+	}
+
+	/**
+	 * Returns <code>true</code> if a time budget is set (see
+	 * {@link #setTimeBudget(long)}) and the current layout pass has been
+	 * running longer than that. Otherwise returns <code>false</code>.
+	 * 
+	 * @return <code>true</code> if the time budget of the current layout pass
+	 *         is exceeded, otherwise <code>false</code>.
+	 */
+	public boolean isTimeBudgetExceeded() {
+		long start = passStartTime;
+		return timeBudget > 0 && start != 0
+				&& System.nanoTime() - start > timeBudget * 1000000L;
+	}
+
 	/**
 	 * A property representing the layout algorithm used by this
 	 * {@link LayoutContext}.
@@ -227,7 +627,45 @@ public class LayoutContext {
 	 *            The ILayoutFilter to remove to this context.
 	 */
 	public void removeLayoutFilter(ILayoutFilter layoutFilter) {
-		layoutFilters.remove(layoutFilter);
+		if (layoutFilters.remove(layoutFilter)) {
+			invalidateLayoutRelevance();
+		}
+	}
+
+	/**
+	 * Removes the given {@link ILayoutProgressListener} from this
+	 * {@link LayoutContext}.
+	 * 
+	 * @param progressListener
+	 *            The {@link ILayoutProgressListener} to remove.
+	 */
+	public void removeProgressListener(
+			ILayoutProgressListener progressListener) {
+		progressListeners.remove(progressListener);
+	}
+
+	/**
+	 * Reports the progress of the current layout pass and notifies all
+	 * registered {@link ILayoutProgressListener}s. Called by layout
+	 * algorithms, e.g. once per iteration.
+	 * 
+	 * @param iteration
+	 *            The number of completed iterations (or steps).
+	 * @param totalIterations
+	 *            The total number of iterations (or steps), or <code>-1</code>
+	 *            if unknown.
+	 * @param energy
+	 *            A measure of the remaining layout energy, or
+	 *            {@link Double#NaN} if not computed.
+	 */
+	public void reportProgress(int iteration, int totalIterations,
+			double energy) {
+		this.iteration = iteration;
+		this.totalIterations = totalIterations;
+		this.energy = energy;
+		for (ILayoutProgressListener listener : progressListeners) {
+			listener.progressChanged(this, iteration, totalIterations, energy);
+		}
 	}
 
 	/**
@@ -277,6 +715,24 @@ public class LayoutContext {
 		layoutAlgorithmProperty.set(algorithm);
 	}
 
+	/**
+	 * Sets the time budget (in milliseconds) of a layout pass. When a layout
+	 * pass exceeds its time budget, the layout algorithm is requested to
+	 * terminate (see {@link #isTerminationRequested()}). A value of
+	 * <code>0</code> (the default) does not limit the time of a layout pass.
+	 * 
+	 * @param timeBudget
+	 *            The time budget of a layout pass in milliseconds, or
+	 *            <code>0</code> for no limit.
+	 */
+	public void setTimeBudget(long timeBudget) {
+		if (timeBudget < 0) {
+			throw new IllegalArgumentException(
+					"The time budget may not be negative.");
+		}
+		this.timeBudget = timeBudget;
+	}
+
 	/**
 	 * Removes the given {@link Runnable} from the list of runnables which are
 	 * called when this {@link LayoutContext} is asked to apply all changes made
@@ -0,0 +1,316 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Node;
+
+/**
+ * The {@link LayoutModel} is a snapshot of the layout-relevant properties of a
+ * set of {@link Node}s and {@link Edge}s, stored in primitive arrays that are
+ * indexed by node (or edge) index. It allows an {@link ILayoutAlgorithm} to
+ * read and write locations and sizes without accessing the attributes of the
+ * {@link Node}s, i.e. without allocating {@link Point}s and {@link Dimension}s
+ * and without notifying attribute listeners.
+ * <p>
+ * The snapshot is taken when the {@link LayoutModel} is constructed. Changes
+ * to the location and size arrays are written back to the {@link Node}s by
+ * {@link #commit()}, which only updates the nodes whose values changed. Apart
+ * from construction and {@link #commit()}, the {@link LayoutModel} does not
+ * access the {@link Node}s, so that the arrays can be processed by any
+ * thread.
+ * <p>
+ * The arrays are returned by reference and may be changed by the client. The
+ * locations refer to the centers of the nodes (see
+ * {@link LayoutProperties#getLocation(Node)}).
+ */
+public class LayoutModel {
+
+	private final Node[] nodes;
+	private final Edge[] edges;
+	private final Map<Node, Integer> indices = new IdentityHashMap<>();
+
+	private final double[] x;
+	private final double[] y;
+	private final double[] width;
+	private final double[] height;
+	private final boolean[] movable;
+	private final boolean[] resizable;
+	private final int[] edgeSources;
+	private final int[] edgeTargets;
+	private final double[] edgeWeights;
+
+	// values that were last read from or written to the nodes
+	private final double[] committedX;
+	private final double[] committedY;
+	private final double[] committedWidth;
+	private final double[] committedHeight;
+
+	/**
+	 * Constructs a new {@link LayoutModel} that takes a snapshot of the given
+	 * {@link Node}s and {@link Edge}s. Nodes without location or size are
+	 * represented by zero values. Edge end points that are not contained in
+	 * the given nodes are represented by <code>-1</code>.
+	 *
+	 * @param nodes
+	 *            The {@link Node}s to capture.
+	 * @param edges
+	 *            The {@link Edge}s to capture.
+	 */
+	public LayoutModel(Node[] nodes, Edge[] edges) {
+		if (nodes == null) {
+			throw new IllegalArgumentException("Nodes may not be null.");
+		}
+		if (edges == null) {
+			throw new IllegalArgumentException("Edges may not be null.");
+		}
+		this.nodes = nodes.clone();
+		this.edges = edges.clone();
+		int n = nodes.length;
+		x = new double[n];
+		y = new double[n];
+		width = new double[n];
+		height = new double[n];
+		movable = new boolean[n];
+		resizable = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			Node node = nodes[i];
+			indices.put(node, i);
+			Point location = LayoutProperties.getLocation(node);
+			if (location != null) {
+				x[i] = location.x;
+				y[i] = location.y;
+			}
+			Dimension size = LayoutProperties.getSize(node);
+			if (size != null) {
+				width[i] = size.width;
+				height[i] = size.height;
+			}
+			movable[i] = LayoutProperties.isMovable(node);
+			resizable[i] = LayoutProperties.isResizable(node);
+		}
+		committedX = x.clone();
+		committedY = y.clone();
+		committedWidth = width.clone();
+		committedHeight = height.clone();
+
+		int m = edges.length;
+		edgeSources = new int[m];
+		edgeTargets = new int[m];
+		edgeWeights = new double[m];
+		for (int i = 0; i < m; i++) {
+			edgeSources[i] = indexOf(edges[i].getSource());
+			edgeTargets[i] = indexOf(edges[i].getTarget());
+			edgeWeights[i] = LayoutProperties.getWeight(edges[i]);
+		}
+	}
+
+	/**
+	 * Writes the locations and sizes that changed since the snapshot was
+	 * taken (or since the last commit) back to the {@link Node}s. Locations
+	 * and sizes that did not change are not written, so that changes that
+	 * were applied to the nodes directly are preserved. The location and size
+	 * of a node are written within one bulk change (see
+	 * {@link Node#beginAttributesChange()}), so that listeners are notified
+	 * once per node.
+	 *
+	 * @return The number of {@link Node}s that were updated.
+	 */
+	public int commit() {
+		int updated = 0;
+		for (int i = 0; i < nodes.length; i++) {
+			boolean locationChanged = x[i] != committedX[i]
+					|| y[i] != committedY[i];
+			boolean sizeChanged = width[i] != committedWidth[i]
+					|| height[i] != committedHeight[i];
+			if (!locationChanged && !sizeChanged) {
+				continue;
+			}
+			nodes[i].beginAttributesChange();
+			try {
+				if (locationChanged) {
+					LayoutProperties.setLocation(nodes[i],
+							new Point(x[i], y[i]));
+					committedX[i] = x[i];
+					committedY[i] = y[i];
+				}
+				if (sizeChanged) {
+					LayoutProperties.setSize(nodes[i],
+							new Dimension(width[i], height[i]));
+					committedWidth[i] = width[i];
+					committedHeight[i] = height[i];
+				}
+			} finally {
+				nodes[i].endAttributesChange();
+			}
+			updated++;
+		}
+		return updated;
+	}
+
+	/**
+	 * Returns the {@link Edge} with the given index.
+	 *
+	 * @param index
+	 *            The index of the {@link Edge}.
+	 * @return The {@link Edge} with the given index.
+	 */
+	public Edge getEdge(int index) {
+		return edges[index];
+	}
+
+	/**
+	 * Returns the number of {@link Edge}s of this {@link LayoutModel}.
+	 *
+	 * @return The number of {@link Edge}s.
+	 */
+	public int getEdgeCount() {
+		return edges.length;
+	}
+
+	/**
+	 * Returns the node indices of the edge sources, indexed by edge index. An
+	 * index of <code>-1</code> indicates that the source is not contained in
+	 * this {@link LayoutModel}.
+	 *
+	 * @return The node indices of the edge sources.
+	 */
+	public int[] getEdgeSources() {
+		return edgeSources;
+	}
+
+	/**
+	 * Returns the node indices of the edge targets, indexed by edge index. An
+	 * index of <code>-1</code> indicates that the target is not contained in
+	 * this {@link LayoutModel}.
+	 *
+	 * @return The node indices of the edge targets.
+	 */
+	public int[] getEdgeTargets() {
+		return edgeTargets;
+	}
+
+	/**
+	 * Returns the weights of the edges (see
+	 * {@link LayoutProperties#getWeight(Edge)}), indexed by edge index.
+	 *
+	 * @return The weights of the edges.
+	 */
+	public double[] getEdgeWeights() {
+		return edgeWeights;
+	}
+
+	/**
+	 * Returns the heights of the nodes, indexed by node index.
+	 *
+	 * @return The heights of the nodes.
+	 */
+	public double[] getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the movable flags of the nodes (see
+	 * {@link LayoutProperties#isMovable(Node)}), indexed by node index.
+	 *
+	 * @return The movable flags of the nodes.
+	 */
+	public boolean[] getMovable() {
+		return movable;
+	}
+
+	/**
+	 * Returns the {@link Node} with the given index.
+	 *
+	 * @param index
+	 *            The index of the {@link Node}.
+	 * @return The {@link Node} with the given index.
+	 */
+	public Node getNode(int index) {
+		return nodes[index];
+	}
+
+	/**
+	 * Returns the number of {@link Node}s of this {@link LayoutModel}.
+	 *
+	 * @return The number of {@link Node}s.
+	 */
+	public int getNodeCount() {
+		return nodes.length;
+	}
+
+	/**
+	 * Returns a copy of the {@link Node}s of this {@link LayoutModel}, in the
+	 * order of their indices.
+	 *
+	 * @return The {@link Node}s of this {@link LayoutModel}.
+	 */
+	public Node[] getNodes() {
+		return nodes.clone();
+	}
+
+	/**
+	 * Returns the resizable flags of the nodes (see
+	 * {@link LayoutProperties#isResizable(Node)}), indexed by node index.
+	 *
+	 * @return The resizable flags of the nodes.
+	 */
+	public boolean[] getResizable() {
+		return resizable;
+	}
+
+	/**
+	 * Returns the widths of the nodes, indexed by node index.
+	 *
+	 * @return The widths of the nodes.
+	 */
+	public double[] getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the x-coordinates of the node centers, indexed by node index.
+	 *
+	 * @return The x-coordinates of the nodes.
+	 */
+	public double[] getX() {
+		return x;
+	}
+
+	/**
+	 * Returns the y-coordinates of the node centers, indexed by node index.
+	 *
+	 * @return The y-coordinates of the nodes.
+	 */
+	public double[] getY() {
+		return y;
+	}
+
+	/**
+	 * Returns the index of the given {@link Node}, or <code>-1</code> if it is
+	 * not contained in this {@link LayoutModel}.
+	 *
+	 * @param node
+	 *            The {@link Node} whose index is returned.
+	 * @return The index of the given {@link Node}, or <code>-1</code>.
+	 */
+	public int indexOf(Node node) {
+		Integer index = indices.get(node);
+		return index == null ? -1 : index;
+	}
+}
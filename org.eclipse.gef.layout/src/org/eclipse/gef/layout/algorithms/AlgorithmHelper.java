@@ -12,10 +12,23 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
 import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutModel;
 import org.eclipse.gef.layout.LayoutProperties;
 
 /**
@@ -60,7 +73,38 @@ class AlgorithmHelper {
 			fitSingleEntity(entities[0], destinationBounds, resize);
 			return;
 		}
-		Rectangle startingBounds = getLayoutBounds(entities, false);
+		Point[] locations = getLocations(entities);
+		fitWithinBounds(entities, locations, getBounds(locations),
+				destinationBounds, resize);
+	}
+
+	/**
+	 * Fits given entities within given bounds, mapping the given starting
+	 * bounds to the destination bounds. This allows to fit a subset of the
+	 * entities in the same way as all entities were fit before, i.e. when the
+	 * starting bounds are the {@link #getLayoutBounds(Node[], boolean) layout
+	 * bounds} of all entities.
+	 * 
+	 * @param entities
+	 *            The {@link Node}s to fit.
+	 * @param startingBounds
+	 *            The {@link Rectangle} that is mapped to the destination
+	 *            bounds.
+	 * @param destinationBounds
+	 *            The {@link Rectangle} representing the layout bounds.
+	 * @param resize
+	 *            <code>true</code> to indicate that the entities can be
+	 *            resized, otherwise <code>false</code>.
+	 */
+	static void fitWithinBounds(Node[] entities, Rectangle startingBounds,
+			Rectangle destinationBounds, boolean resize) {
+		fitWithinBounds(entities, getLocations(entities), startingBounds,
+				destinationBounds, resize);
+	}
+
+	private static void fitWithinBounds(Node[] entities, Point[] locations,
+			Rectangle startingBounds, Rectangle destinationBounds,
+			boolean resize) {
 		double sizeScale = Math.min(
 				destinationBounds.getWidth() / startingBounds.getWidth(),
 				destinationBounds.getHeight() / startingBounds.getHeight());
@@ -68,7 +112,7 @@ class AlgorithmHelper {
 			Node entity = entities[i];
 			Dimension size = LayoutProperties.getSize(entity);
 			if (LayoutProperties.isMovable(entity)) {
-				Point location = LayoutProperties.getLocation(entity);
+				Point location = locations[i];
 				double percentX = startingBounds.getWidth() == 0 ? 0
 						: (location.x - startingBounds.getX())
 								/ (startingBounds.getWidth());
@@ -92,6 +136,145 @@ class AlgorithmHelper {
 		}
 	}
 
+	/**
+	 * Fits the nodes of the given {@link LayoutModel} within the given bounds,
+	 * preserving their relative locations, like
+	 * {@link #fitWithinBounds(Node[], Rectangle, boolean)} (without resizing
+	 * the nodes). Only the locations of the movable nodes are changed, and the
+	 * changes are applied to the nodes when the {@link LayoutModel} is
+	 * committed.
+	 * 
+	 * @param model
+	 *            The {@link LayoutModel} containing the nodes to fit.
+	 * @param destinationBounds
+	 *            The {@link Rectangle} representing the layout bounds.
+	 */
+	static void fitWithinBounds(LayoutModel model,
+			Rectangle destinationBounds) {
+		int n = model.getNodeCount();
+		double[] x = model.getX();
+		double[] y = model.getY();
+		double[] width = model.getWidth();
+		double[] height = model.getHeight();
+		boolean[] movable = model.getMovable();
+		if (n == 1) {
+			if (movable[0]) {
+				x[0] = destinationBounds.getX()
+						+ destinationBounds.getWidth() / 2;
+				y[0] = destinationBounds.getY()
+						+ destinationBounds.getHeight() / 2;
+			}
+			return;
+		}
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		double startingWidth = maxX - minX;
+		double startingHeight = maxY - minY;
+		for (int i = 0; i < n; i++) {
+			if (movable[i]) {
+				double percentX = startingWidth == 0 ? 0
+						: (x[i] - minX) / startingWidth;
+				double percentY = startingHeight == 0 ? 0
+						: (y[i] - minY) / startingHeight;
+				x[i] = destinationBounds.getX() + width[i] / 2 + percentX
+						* (destinationBounds.getWidth() - width[i]);
+				y[i] = destinationBounds.getY() + height[i] / 2 + percentY
+						* (destinationBounds.getHeight() - height[i]);
+			}
+		}
+	}
+
+	/**
+	 * Writes the given locations of the movable nodes into the given
+	 * {@link LayoutModel}, while the nodes that are not movable (the pinned
+	 * nodes) keep their locations. The given locations have to be in the
+	 * coordinate space of the pinned nodes. If the movable nodes do not fit
+	 * into the given bounds, the nodes on the exceeding side of the center of
+	 * the pinned nodes are moved towards it (by a uniform factor per side), so
+	 * that the order of the nodes is preserved.
+	 * 
+	 * @param model
+	 *            The {@link LayoutModel} containing the nodes to fit.
+	 * @param x
+	 *            The x coordinates of the (movable) nodes, indexed by node
+	 *            index.
+	 * @param y
+	 *            The y coordinates of the (movable) nodes, indexed by node
+	 *            index.
+	 * @param destinationBounds
+	 *            The {@link Rectangle} representing the layout bounds.
+	 */
+	static void fitAroundPinnedNodes(LayoutModel model, double[] x,
+			double[] y, Rectangle destinationBounds) {
+		int n = model.getNodeCount();
+		double[] modelX = model.getX();
+		double[] modelY = model.getY();
+		boolean[] movable = model.getMovable();
+		double centerX = 0;
+		double centerY = 0;
+		int pinned = 0;
+		for (int i = 0; i < n; i++) {
+			if (!movable[i]) {
+				centerX += modelX[i];
+				centerY += modelY[i];
+				pinned++;
+			}
+		}
+		if (pinned == 0) {
+			throw new IllegalArgumentException(
+					"The model does not contain pinned nodes.");
+		}
+		fitAroundCenter(movable, x, model.getWidth(), modelX,
+				centerX / pinned, destinationBounds.getX(),
+				destinationBounds.getWidth());
+		fitAroundCenter(movable, y, model.getHeight(), modelY,
+				centerY / pinned, destinationBounds.getY(),
+				destinationBounds.getHeight());
+	}
+
+	/**
+	 * Writes the given coordinates of the movable nodes into the given target
+	 * array, scaling the distances to the given center separately below and
+	 * above it by the largest factor (within <code>[0, 1]</code>), for which
+	 * the nodes (with the given extents) lie within the given range.
+	 */
+	private static void fitAroundCenter(boolean[] movable,
+			double[] coordinates, double[] extents, double[] target,
+			double center, double min, double length) {
+		double lowerFactor = 1;
+		double upperFactor = 1;
+		for (int i = 0; i < coordinates.length; i++) {
+			if (!movable[i]) {
+				continue;
+			}
+			double distance = coordinates[i] - center;
+			double lower = min + extents[i] / 2;
+			double upper = min + length - extents[i] / 2;
+			if (distance > 0 && coordinates[i] > upper) {
+				upperFactor = Math.min(upperFactor,
+						Math.max(0, (upper - center) / distance));
+			} else if (distance < 0 && coordinates[i] < lower) {
+				lowerFactor = Math.min(lowerFactor,
+						Math.max(0, (lower - center) / distance));
+			}
+		}
+		for (int i = 0; i < coordinates.length; i++) {
+			if (movable[i]) {
+				double distance = coordinates[i] - center;
+				target[i] = center + distance
+						* (distance > 0 ? upperFactor : lowerFactor);
+			}
+		}
+	}
+
 	private static void fitSingleEntity(Node entity,
 			Rectangle destinationBounds, boolean resize) {
 		if (LayoutProperties.isMovable(entity)) {
@@ -126,7 +309,7 @@ class AlgorithmHelper {
 	 */
 	public static void maximizeSizes(Node[] entities) {
 		if (entities.length > 1) {
-			Dimension minDistance = getMinimumDistance(entities);
+			Dimension minDistance = getMinimumDistance(getLocations(entities));
 			double nodeSize = Math.max(minDistance.width, minDistance.height)
 					* PADDING_PERCENT;
 			double width = nodeSize;
@@ -185,6 +368,9 @@ class AlgorithmHelper {
 	 */
 	public static Rectangle getLayoutBounds(Node[] entities,
 			boolean includeNodeSize) {
+		if (!includeNodeSize) {
+			return getBounds(getLocations(entities));
+		}
 		double rightSide = Double.NEGATIVE_INFINITY;
 		double bottomSide = Double.NEGATIVE_INFINITY;
 		double leftSide = Double.POSITIVE_INFINITY;
@@ -231,32 +417,188 @@ class AlgorithmHelper {
 	 *         |_______|
 	 * </pre>
 	 * 
+	 * The closest pair is determined by a sweep line in
+	 * <code>O(n log n)</code>.
+	 * 
 	 * @param entities
 	 *            The {@link Node}s for which the minimum distance is computed.
 	 * @return A {@link Dimension} representing the minimum distance (in x- and
 	 *         y-direction).
 	 */
 	public static Dimension getMinimumDistance(Node[] entities) {
-		Dimension horAndVertdistance = new Dimension(Double.MAX_VALUE,
+		return getMinimumDistance(getLocations(entities));
+	}
+
+	private static Dimension getMinimumDistance(Point[] locations) {
+		int n = locations.length;
+		final double[] x = new double[n];
+		final double[] y = new double[n];
+		Integer[] byX = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = locations[i].x;
+			y[i] = locations[i].y;
+			byX[i] = i;
+		}
+		Arrays.sort(byX, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				return Double.compare(x[i1], x[i2]);
+			}
+		});
+
+		// sweep from left to right, keeping the points whose x-distance to
+		// the sweep line is not greater than the minimum distance, ordered by
+		// y; distances are compared squared, so that pairs that are as close
+		// as the closest pair found so far are not skipped
+		TreeSet<Integer> active = new TreeSet<>(new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				int c = Double.compare(y[i1], y[i2]);
+				return c != 0 ? c : Integer.compare(i1, i2);
+			}
+		});
+		ClosestPair closest = new ClosestPair();
+		int left = 0;
+		for (int k = 0; k < n; k++) {
+			int i = byX[k];
+			while (square(x[i] - x[byX[left]]) > closest.distanceSq) {
+				active.remove(byX[left++]);
+			}
+			// examine the points within the minimum distance in y-direction
+			for (int j : active.tailSet(i, false)) {
+				if (square(y[j] - y[i]) > closest.distanceSq) {
+					break;
+				}
+				closest.update(i, j, x, y);
+			}
+			for (int j : active.headSet(i, false).descendingSet()) {
+				if (square(y[i] - y[j]) > closest.distanceSq) {
+					break;
+				}
+				closest.update(i, j, x, y);
+			}
+			active.add(i);
+		}
+		return closest.distance;
+	}
+
+	private static double square(double value) {
+		return value * value;
+	}
+
+	/**
+	 * The closest pair of locations found so far. Of several pairs that are
+	 * equally close, the one with the smallest indices (compared
+	 * lexicographically) is kept, so that the result does not depend on the
+	 * order in which the pairs are examined.
+	 */
+	private static class ClosestPair {
+		final Dimension distance = new Dimension(Double.MAX_VALUE,
 				Double.MAX_VALUE);
-		double minDistance = Double.MAX_VALUE;
+		double distanceSq = Double.MAX_VALUE;
+		int first = -1;
+		int second = -1;
+
+		void update(int i, int j, double[] x, double[] y) {
+			int lower = Math.min(i, j);
+			int upper = Math.max(i, j);
+			double distanceX = x[lower] - x[upper];
+			double distanceY = y[lower] - y[upper];
+			double candidateSq = distanceX * distanceX
+					+ distanceY * distanceY;
+			if (candidateSq < distanceSq || candidateSq == distanceSq
+					&& (lower < first || lower == first && upper < second)) {
+				distanceSq = candidateSq;
+				first = lower;
+				second = upper;
+				distance.width = Math.abs(distanceX);
+				distance.height = Math.abs(distanceY);
+			}
+		}
+	}
 
-		// TODO: Very Slow!
+	/**
+	 * Returns the bounds of the given locations.
+	 */
+	private static Rectangle getBounds(Point[] locations) {
+		double rightSide = Double.NEGATIVE_INFINITY;
+		double bottomSide = Double.NEGATIVE_INFINITY;
+		double leftSide = Double.POSITIVE_INFINITY;
+		double topSide = Double.POSITIVE_INFINITY;
+		for (Point location : locations) {
+			leftSide = Math.min(location.x, leftSide);
+			topSide = Math.min(location.y, topSide);
+			rightSide = Math.max(location.x, rightSide);
+			bottomSide = Math.max(location.y, bottomSide);
+		}
+		return new Rectangle(leftSide, topSide, rightSide - leftSide,
+				bottomSide - topSide);
+	}
+
+	/**
+	 * Reads the locations of the given entities once, so that subsequent
+	 * passes do not need to access the attributes of the entities.
+	 */
+	private static Point[] getLocations(Node[] entities) {
+		Point[] locations = new Point[entities.length];
 		for (int i = 0; i < entities.length; i++) {
-			Point location1 = LayoutProperties.getLocation(entities[i]);
-			for (int j = i + 1; j < entities.length; j++) {
-				Point location2 = LayoutProperties.getLocation(entities[j]);
-				double distanceX = location1.x - location2.x;
-				double distanceY = location1.y - location2.y;
-				double distance = distanceX * distanceX + distanceY * distanceY;
+			locations[i] = LayoutProperties.getLocation(entities[i]);
+		}
+		return locations;
+	}
 
-				if (distance < minDistance) {
-					minDistance = distance;
-					horAndVertdistance.width = Math.abs(distanceX);
-					horAndVertdistance.height = Math.abs(distanceY);
-				}
+	/**
+	 * Returns a {@link BooleanSupplier} that reports whether the termination
+	 * of the layout pass of the given {@link LayoutContext} is requested or
+	 * whether the calling thread is interrupted. Tasks that are executed via
+	 * {@link #invokeAll(List, int)} run on the threads of a pool, so that an
+	 * interruption of the calling thread has to be checked explicitly.
+	 *
+	 * @param layoutContext
+	 *            The {@link LayoutContext} whose termination is checked, or
+	 *            <code>null</code>.
+	 * @return A {@link BooleanSupplier} that can be evaluated by any thread.
+	 */
+	static BooleanSupplier getTerminationCheck(
+			final LayoutContext layoutContext) {
+		final Thread callingThread = Thread.currentThread();
+		return () -> layoutContext != null
+				&& layoutContext.isTerminationRequested()
+				|| callingThread.isInterrupted();
+	}
+
+	/**
+	 * Executes the given tasks on a {@link ForkJoinPool} with the given
+	 * parallelism and waits for their completion. Runtime exceptions that are
+	 * thrown by the tasks are rethrown.
+	 *
+	 * @param tasks
+	 *            The tasks to execute.
+	 * @param parallelism
+	 *            The number of threads of the pool.
+	 * @return The results of the tasks in the order of the tasks, or
+	 *         <code>null</code> if the calling thread was interrupted while
+	 *         waiting (in which case its interrupted status is restored).
+	 */
+	static <T> List<T> invokeAll(List<? extends Callable<T>> tasks,
+			int parallelism) {
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			List<T> results = new ArrayList<>(tasks.size());
+			for (Future<T> future : pool.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
 			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdownNow();
 		}
-		return horAndVertdistance;
 	}
 }
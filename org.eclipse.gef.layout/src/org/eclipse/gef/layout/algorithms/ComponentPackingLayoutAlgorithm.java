@@ -0,0 +1,534 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+
+/**
+ * The {@link ComponentPackingLayoutAlgorithm} lays out each connected
+ * component of a graph separately, using a delegate {@link ILayoutAlgorithm},
+ * and packs the resulting components into the layout bounds.
+ * <p>
+ * Every component is laid out on a copy of its nodes and edges, within bounds
+ * that are proportional to the area of its nodes, so that the components can
+ * be laid out in parallel. As delegate algorithms may keep state during a
+ * layout pass, a new delegate is obtained from the given {@link Supplier} for
+ * every component. Afterwards, the bounding boxes of the components are packed
+ * (largest first) using a skyline packer, so that each component is placed as
+ * far to the top (and then to the left) as possible, and the locations (and
+ * sizes) are transferred to the original nodes.
+ * <p>
+ * Pinned nodes, i.e. nodes that are not movable (see
+ * {@link LayoutProperties#isMovable(Node)}), keep their location. A component
+ * that contains pinned nodes is not packed, but anchored at its (first)
+ * pinned node, and the packed components are placed below the anchored ones
+ * if they would overlap otherwise.
+ * <p>
+ * If the graph consists of a single component, the delegate is applied to the
+ * layout context directly. Incremental layout passes are not supported, i.e.
+ * the nodes are only laid out when a clean layout is requested.
+ */
+public class ComponentPackingLayoutAlgorithm implements ILayoutAlgorithm {
+
+	private static final double DEFAULT_COMPONENT_GAP = 20;
+
+	/**
+	 * The share of the layout bounds that is distributed among the components,
+	 * leaving room for gaps and for the space that is wasted by packing.
+	 */
+	private static final double PACKING_DENSITY = 0.7;
+
+	private final Supplier<? extends ILayoutAlgorithm> algorithmFactory;
+	private final int parallelism;
+	private double componentGap = DEFAULT_COMPONENT_GAP;
+
+	/**
+	 * Constructs a new {@link ComponentPackingLayoutAlgorithm} that lays out
+	 * the components with delegates obtained from the given {@link Supplier},
+	 * using one thread per available processor.
+	 *
+	 * @param algorithmFactory
+	 *            The {@link Supplier} that provides a new delegate
+	 *            {@link ILayoutAlgorithm} for each component.
+	 */
+	public ComponentPackingLayoutAlgorithm(
+			Supplier<? extends ILayoutAlgorithm> algorithmFactory) {
+		this(algorithmFactory, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructs a new {@link ComponentPackingLayoutAlgorithm} that lays out
+	 * the components with delegates obtained from the given {@link Supplier},
+	 * using the given number of threads.
+	 *
+	 * @param algorithmFactory
+	 *            The {@link Supplier} that provides a new delegate
+	 *            {@link ILayoutAlgorithm} for each component.
+	 * @param parallelism
+	 *            The number of threads to use.
+	 */
+	public ComponentPackingLayoutAlgorithm(
+			Supplier<? extends ILayoutAlgorithm> algorithmFactory,
+			int parallelism) {
+		if (algorithmFactory == null) {
+			throw new IllegalArgumentException(
+					"The algorithm factory may not be null.");
+		}
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(
+					"The parallelism has to be positive.");
+		}
+		this.algorithmFactory = algorithmFactory;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the distance between packed components. Default value is 20.
+	 *
+	 * @return The distance between packed components.
+	 */
+	public double getComponentGap() {
+		return componentGap;
+	}
+
+	/**
+	 * Sets the distance between packed components to the given value. Default
+	 * value is 20.
+	 *
+	 * @param componentGap
+	 *            The new distance between packed components.
+	 */
+	public void setComponentGap(double componentGap) {
+		if (componentGap < 0) {
+			throw new IllegalArgumentException(
+					"The component gap may not be negative.");
+		}
+		this.componentGap = componentGap;
+	}
+
+	@Override
+	public void applyLayout(LayoutContext layoutContext, boolean clean) {
+		if (!clean || layoutContext.isTerminationRequested()) {
+			return;
+		}
+		Rectangle bounds = LayoutProperties
+				.getBounds(layoutContext.getGraph());
+		if (bounds == null || bounds.isEmpty()) {
+			return;
+		}
+		Node[] nodes = layoutContext.getNodes();
+		Edge[] edges = layoutContext.getEdges();
+		List<Component> components = findComponents(nodes, edges);
+		if (components.size() < 2) {
+			algorithmFactory.get().applyLayout(layoutContext, clean);
+			return;
+		}
+
+		// assign bounds proportional to the area of the nodes
+		double totalArea = 0;
+		for (Component component : components) {
+			totalArea += component.area;
+		}
+		for (Component component : components) {
+			double scale = Math
+					.sqrt(PACKING_DENSITY * component.area / totalArea);
+			component.layoutBounds = new Rectangle(0, 0,
+					Math.max(component.maxWidth, bounds.getWidth() * scale),
+					Math.max(component.maxHeight,
+							bounds.getHeight() * scale));
+		}
+
+		if (!layoutComponents(components, layoutContext)) {
+			return;
+		}
+
+		// components with pinned nodes are anchored at these, the others are
+		// packed
+		List<Component> packedComponents = new ArrayList<>();
+		Rectangle anchoredExtent = null;
+		for (Component component : components) {
+			Point anchorOffset = component.getAnchorOffset();
+			if (anchorOffset == null) {
+				packedComponents.add(component);
+			} else {
+				component.transfer(anchorOffset);
+				Rectangle extent = new Rectangle(anchorOffset,
+						component.extent.getSize());
+				anchoredExtent = anchoredExtent == null ? extent
+						: anchoredExtent.union(extent);
+			}
+		}
+		if (packedComponents.isEmpty()) {
+			return;
+		}
+		Point[] offsets = pack(packedComponents, bounds.getWidth());
+		Point origin = bounds.getTopLeft();
+		if (anchoredExtent != null) {
+			// place the packed components below the anchored ones if they
+			// would overlap otherwise
+			Rectangle packedExtent = null;
+			for (int i = 0; i < packedComponents.size(); i++) {
+				Rectangle extent = new Rectangle(offsets[i],
+						packedComponents.get(i).extent.getSize());
+				packedExtent = packedExtent == null ? extent
+						: packedExtent.union(extent);
+			}
+			if (packedExtent.getTranslated(origin).touches(anchoredExtent)) {
+				origin.y = anchoredExtent.getBottom().y + componentGap;
+			}
+		}
+		for (int i = 0; i < packedComponents.size(); i++) {
+			packedComponents.get(i)
+					.transfer(offsets[i].getTranslated(origin));
+		}
+	}
+
+	/**
+	 * Determines the connected components that are formed by the given nodes
+	 * and edges, using a union-find structure.
+	 */
+	private static List<Component> findComponents(Node[] nodes,
+			Edge[] edges) {
+		Map<Node, Integer> ids = new IdentityHashMap<>();
+		for (int i = 0; i < nodes.length; i++) {
+			ids.put(nodes[i], i);
+		}
+		int[] parents = new int[nodes.length];
+		for (int i = 0; i < parents.length; i++) {
+			parents[i] = i;
+		}
+		List<Edge> relevantEdges = new ArrayList<>();
+		for (Edge edge : edges) {
+			Integer source = ids.get(edge.getSource());
+			Integer target = ids.get(edge.getTarget());
+			if (source == null || target == null) {
+				continue;
+			}
+			relevantEdges.add(edge);
+			int sourceRoot = findRoot(parents, source);
+			int targetRoot = findRoot(parents, target);
+			if (sourceRoot != targetRoot) {
+				parents[Math.max(sourceRoot, targetRoot)] = Math
+						.min(sourceRoot, targetRoot);
+			}
+		}
+
+		// components are ordered by their first node
+		List<Component> components = new ArrayList<>();
+		Component[] byRoot = new Component[nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			int root = findRoot(parents, i);
+			if (byRoot[root] == null) {
+				byRoot[root] = new Component();
+				components.add(byRoot[root]);
+			}
+			byRoot[root].add(nodes[i]);
+		}
+		for (Edge edge : relevantEdges) {
+			byRoot[findRoot(parents, ids.get(edge.getSource()))].edges
+					.add(edge);
+		}
+		return components;
+	}
+
+	private static int findRoot(int[] parents, int i) {
+		int root = i;
+		while (parents[root] != root) {
+			root = parents[root];
+		}
+		// path compression
+		while (parents[i] != root) {
+			int next = parents[i];
+			parents[i] = root;
+			i = next;
+		}
+		return root;
+	}
+
+	/**
+	 * Lays out the given components in parallel. The layout contexts of the
+	 * components request the termination of their layout pass when the
+	 * termination of the given {@link LayoutContext} is requested, and the
+	 * number of laid out components is reported as its progress.
+	 *
+	 * @return <code>true</code> if all components were laid out,
+	 *         <code>false</code> if the layout was interrupted.
+	 */
+	private boolean layoutComponents(List<Component> components,
+			final LayoutContext layoutContext) {
+		final BooleanSupplier terminationCheck = AlgorithmHelper
+				.getTerminationCheck(layoutContext);
+		final int total = components.size();
+		final AtomicInteger completed = new AtomicInteger();
+		Map<String, Object> graphAttributes = layoutContext.getGraph()
+				.getAttributes();
+		List<Callable<Void>> tasks = new ArrayList<>(total);
+		for (final Component component : components) {
+			// copies are created up front, so that the original nodes are
+			// only accessed by the calling thread
+			component.createCopy(graphAttributes);
+			final ILayoutAlgorithm algorithm = algorithmFactory.get();
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					component.layout(algorithm, new LayoutContext() {
+						@Override
+						public boolean isTerminationRequested() {
+							return super.isTerminationRequested()
+									|| terminationCheck.getAsBoolean();
+						}
+					});
+					layoutContext.reportProgress(completed.incrementAndGet(),
+							total, Double.NaN);
+					return null;
+				}
+			});
+		}
+
+		return AlgorithmHelper.invokeAll(tasks, parallelism) != null;
+	}
+
+	/**
+	 * Packs the bounding boxes of the given (laid out) components using a
+	 * skyline packer. The components are placed in the order of decreasing
+	 * height, each one at the position along the skyline where its top is
+	 * minimal (ties are resolved by the left-most position).
+	 *
+	 * @return The location of the top-left corner of each component (in the
+	 *         order of the given list).
+	 */
+	private Point[] pack(List<Component> components, double width) {
+		final double[] widths = new double[components.size()];
+		final double[] heights = new double[components.size()];
+		Integer[] order = new Integer[components.size()];
+		double maxWidth = width;
+		for (int i = 0; i < order.length; i++) {
+			Rectangle extent = components.get(i).extent;
+			widths[i] = extent.getWidth() + componentGap;
+			heights[i] = extent.getHeight() + componentGap;
+			maxWidth = Math.max(maxWidth, widths[i]);
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i, Integer j) {
+				int result = Double.compare(heights[j], heights[i]);
+				return result != 0 ? result : Integer.compare(i, j);
+			}
+		});
+
+		// the skyline is a sequence of segments, given by their left x
+		// coordinate and their height, that covers [0, maxWidth]
+		List<double[]> skyline = new ArrayList<>();
+		skyline.add(new double[] { 0, 0 });
+		Point[] offsets = new Point[order.length];
+		for (int i : order) {
+			int bestSegment = -1;
+			double bestX = 0;
+			double bestY = Double.POSITIVE_INFINITY;
+			for (int s = 0; s < skyline.size(); s++) {
+				double x = skyline.get(s)[0];
+				if (x + widths[i] > maxWidth + 1e-9) {
+					break;
+				}
+				// the component rests on the highest segment it spans
+				double y = 0;
+				for (int t = s; t < skyline.size()
+						&& skyline.get(t)[0] < x + widths[i]; t++) {
+					y = Math.max(y, skyline.get(t)[1]);
+				}
+				if (y < bestY) {
+					bestSegment = s;
+					bestX = x;
+					bestY = y;
+				}
+			}
+			offsets[i] = new Point(bestX, bestY);
+			raiseSkyline(skyline, bestSegment, bestX + widths[i],
+					bestY + heights[i]);
+		}
+		return offsets;
+	}
+
+	/**
+	 * Replaces the segments of the skyline from the given segment up to the
+	 * given x coordinate by a single segment of the given height.
+	 */
+	private static void raiseSkyline(List<double[]> skyline, int segment,
+			double endX, double height) {
+		// height of the (last) covered segment that continues after endX
+		double remainingHeight = skyline.get(segment)[1];
+		int next = segment + 1;
+		while (next < skyline.size() && skyline.get(next)[0] < endX) {
+			remainingHeight = skyline.get(next)[1];
+			skyline.remove(next);
+		}
+		skyline.get(segment)[1] = height;
+		if (next == skyline.size() || skyline.get(next)[0] > endX) {
+			skyline.add(next, new double[] { endX, remainingHeight });
+		}
+	}
+
+	/**
+	 * A connected component, along with the copies of its nodes and edges on
+	 * which it is laid out.
+	 */
+	private static class Component {
+		final List<Node> nodes = new ArrayList<>();
+		final List<Edge> edges = new ArrayList<>();
+		double area;
+		double maxWidth;
+		double maxHeight;
+		Rectangle layoutBounds;
+
+		Node[] copies;
+		Graph graph;
+		// the bounding box of the laid out copies
+		Rectangle extent;
+
+		void add(Node node) {
+			nodes.add(node);
+			Dimension size = LayoutProperties.getSize(node);
+			// every node contributes to the area, even if it has no size
+			area += size == null ? 1 : Math.max(1, size.width * size.height);
+			if (size != null) {
+				maxWidth = Math.max(maxWidth, size.width);
+				maxHeight = Math.max(maxHeight, size.height);
+			}
+		}
+
+		/**
+		 * Returns the location of the top-left corner of the extent, for
+		 * which the (first) pinned node, i.e. a node that is not movable,
+		 * keeps its location, or <code>null</code> if this component does not
+		 * contain pinned nodes (with a location).
+		 */
+		Point getAnchorOffset() {
+			for (int i = 0; i < copies.length; i++) {
+				Node node = nodes.get(i);
+				Point location = LayoutProperties.getLocation(node);
+				Point copyLocation = LayoutProperties.getLocation(copies[i]);
+				if (!LayoutProperties.isMovable(node) && location != null
+						&& copyLocation != null) {
+					return new Point(
+							extent.getX() + location.x - copyLocation.x,
+							extent.getY() + location.y - copyLocation.y);
+				}
+			}
+			return null;
+		}
+
+		void createCopy(Map<String, Object> graphAttributes) {
+			Map<Node, Node> copiesByNode = new IdentityHashMap<>();
+			copies = new Node[nodes.size()];
+			for (int i = 0; i < copies.length; i++) {
+				Node node = nodes.get(i);
+				Map<String, Object> attributes = new HashMap<>(
+						node.getAttributes());
+				// location and size may be changed in place
+				Point location = LayoutProperties.getLocation(node);
+				if (location != null) {
+					attributes.put(LayoutProperties.LOCATION_PROPERTY,
+							location.getCopy());
+				}
+				Dimension size = LayoutProperties.getSize(node);
+				if (size != null) {
+					attributes.put(LayoutProperties.SIZE_PROPERTY,
+							size.getCopy());
+				}
+				copies[i] = new Node(attributes);
+				copiesByNode.put(node, copies[i]);
+			}
+			List<Edge> edgeCopies = new ArrayList<>(edges.size());
+			for (Edge edge : edges) {
+				edgeCopies.add(new Edge(edge.getAttributes(),
+						copiesByNode.get(edge.getSource()),
+						copiesByNode.get(edge.getTarget())));
+			}
+			graph = new Graph(graphAttributes, Arrays.asList(copies),
+					edgeCopies);
+			LayoutProperties.setBounds(graph, layoutBounds);
+		}
+
+		void layout(ILayoutAlgorithm algorithm, LayoutContext context) {
+			context.setGraph(graph);
+			context.setLayoutAlgorithm(algorithm);
+			context.applyLayout(true);
+
+			double minX = Double.POSITIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			for (Node copy : copies) {
+				Point location = LayoutProperties.getLocation(copy);
+				Dimension size = LayoutProperties.getSize(copy);
+				double x = location == null ? 0 : location.x;
+				double y = location == null ? 0 : location.y;
+				double w = size == null ? 0 : size.width / 2;
+				double h = size == null ? 0 : size.height / 2;
+				minX = Math.min(minX, x - w);
+				minY = Math.min(minY, y - h);
+				maxX = Math.max(maxX, x + w);
+				maxY = Math.max(maxY, y + h);
+			}
+			extent = new Rectangle(minX, minY, maxX - minX, maxY - minY);
+		}
+
+		/**
+		 * Transfers the locations (and sizes) of the copies to the original
+		 * nodes, so that the top-left corner of the extent is moved to the
+		 * given offset. Pinned nodes, i.e. nodes that are not movable, are not
+		 * changed.
+		 */
+		void transfer(Point offset) {
+			double dx = offset.x - extent.getX();
+			double dy = offset.y - extent.getY();
+			for (int i = 0; i < copies.length; i++) {
+				Node node = nodes.get(i);
+				if (!LayoutProperties.isMovable(node)) {
+					continue;
+				}
+				Point location = LayoutProperties.getLocation(copies[i]);
+				if (location != null) {
+					LayoutProperties.setLocation(node,
+							new Point(location.x + dx, location.y + dy));
+				}
+				Dimension size = LayoutProperties.getSize(copies[i]);
+				if (size != null
+						&& !size.equals(LayoutProperties.getSize(node))) {
+					LayoutProperties.setSize(node, size.getCopy());
+				}
+			}
+		}
+	}
+}
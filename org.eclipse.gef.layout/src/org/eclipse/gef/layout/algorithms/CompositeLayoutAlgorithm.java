@@ -42,6 +42,11 @@ public class CompositeLayoutAlgorithm implements ILayoutAlgorithm {
 
 	public void applyLayout(LayoutContext context, boolean clean) {
 		for (int i = 0; i < algorithms.length; i++) {
+			// the remaining algorithms are skipped when the layout pass is
+			// to be terminated
+			if (context.isTerminationRequested()) {
+				break;
+			}
 			algorithms[i].applyLayout(context, clean);
 		}
 	}
@@ -89,9 +89,10 @@ public class GridLayoutAlgorithm implements ILayoutAlgorithm {
 	}
 
 	public void applyLayout(LayoutContext context, boolean clean) {
-		if (!clean)
+		if (!clean || context.isTerminationRequested())
 			return;
-		numChildren = context.getNodes().length;
+		Node[] nodes = context.getNodes();
+		numChildren = nodes.length;
 		Rectangle bounds = LayoutProperties.getBounds(context.getGraph());
 		calculateGrid(bounds);
 
@@ -99,7 +100,7 @@ public class GridLayoutAlgorithm implements ILayoutAlgorithm {
 		for (int i = 0; i < rows; i++) {
 			for (int j = 0; j < cols; j++) {
 				if ((i * cols + j) < numChildren) {
-					Node node = context.getNodes()[index++];
+					Node node = nodes[index++];
 					if (resize && LayoutProperties.isResizable(node))
 						LayoutProperties.setSize(node, new Dimension(
 								Math.max(childrenWidth, MIN_ENTITY_SIZE),
@@ -114,6 +115,7 @@ public class GridLayoutAlgorithm implements ILayoutAlgorithm {
 								new Point(xmove, ymove));
 				}
 			}
+			context.reportProgress(i + 1, rows, Double.NaN);
 		}
 	}
 
@@ -40,7 +40,7 @@ public class HorizontalShiftAlgorithm implements ILayoutAlgorithm {
 	private static final double VSPACING = 16;
 
 	public void applyLayout(LayoutContext context, boolean clean) {
-		if (!clean)
+		if (!clean || context.isTerminationRequested())
 			return;
 		ArrayList<List<Node>> rowsList = new ArrayList<>();
 		Node[] entities = context.getNodes();
@@ -87,6 +87,7 @@ public class HorizontalShiftAlgorithm implements ILayoutAlgorithm {
 				width += size.width;
 			}
 		}
+		context.reportProgress(1, 1, Double.NaN);
 	}
 
 	private void addToRowList(Node entity, ArrayList<List<Node>> rowsList) {
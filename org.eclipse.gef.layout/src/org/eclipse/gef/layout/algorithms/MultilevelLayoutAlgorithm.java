@@ -0,0 +1,745 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutModel;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.internal.algorithms.ForceQuadTree;
+
+/**
+ * The {@link MultilevelLayoutAlgorithm} is a force-directed layout algorithm
+ * for large graphs, which follows the multilevel approach of Walshaw ("A
+ * Multilevel Algorithm for Force-Directed Graph Drawing") and Hu ("Efficient
+ * and High Quality Force-Directed Graph Drawing").
+ * <p>
+ * The graph is repeatedly coarsened by contracting a maximal matching of its
+ * edges, until it is small enough (or cannot be coarsened any further). The
+ * coarsest graph is laid out from random locations. Afterwards, the layout is
+ * interpolated to the next finer graph (each node is placed at the location of
+ * the node it was contracted into) and refined, until the original graph is
+ * reached. Refinement uses a spring-electrical force model, in which connected
+ * nodes attract each other with <code>d^2 / k</code> and all nodes repel each
+ * other with <code>k^3 / d^2</code>, where <code>k</code> is the natural
+ * spring length of the level. The repulsive forces are approximated using a
+ * Barnes-Hut quadtree, and the step length is adapted according to the
+ * progress of the system energy. As the nodes of a coarse level are already
+ * well placed, only few iterations are needed per level.
+ * <p>
+ * Finally, the layout is scaled to fit the layout bounds. Nodes that are not
+ * movable keep their location: they are placed at their locations (converted
+ * into the units of the layout, and averaged for coarse nodes that contain
+ * several of them) on all levels, and the movable nodes are laid out around
+ * them. Then, the layout is not scaled to fit the layout bounds, but the
+ * movable nodes are moved towards the nodes that are not movable if they
+ * exceed the layout bounds. If <i>clean</i> is <code>false</code>, the
+ * current locations are refined on the original graph only, after placing the
+ * added nodes at the barycenter of their neighbors.
+ */
+public class MultilevelLayoutAlgorithm implements ILayoutAlgorithm {
+
+	/**
+	 * The default number of iterations per level.
+	 */
+	private static final int DEFAULT_ITERATIONS = 30;
+
+	/**
+	 * The factor by which the number of iterations is increased for the
+	 * coarsest level (if it is small), which is laid out from random
+	 * locations.
+	 */
+	private static final int COARSEST_ITERATIONS_FACTOR = 10;
+
+	/**
+	 * The default number of iterations of an incremental layout pass.
+	 */
+	private static final int DEFAULT_INCREMENTAL_ITERATIONS = 30;
+
+	/**
+	 * The default value for the Barnes-Hut opening criterion.
+	 */
+	private static final double DEFAULT_BARNES_HUT_THETA = 1.2;
+
+	/**
+	 * Coarsening stops when a level has at most this number of nodes.
+	 */
+	private static final int COARSEST_SIZE = 32;
+
+	/**
+	 * Coarsening stops when a level would retain more than this share of the
+	 * nodes of the finer level.
+	 */
+	private static final double MAX_COARSENING_RATIO = 0.9;
+
+	/**
+	 * The ratio of the natural spring lengths of a finer and a coarser level,
+	 * as proposed by Walshaw.
+	 */
+	private static final double SPRING_LENGTH_RATIO = Math.sqrt(4d / 7d);
+
+	/**
+	 * The factor by which the step length is decreased (or increased) in
+	 * response to the energy progress.
+	 */
+	private static final double COOLING = 0.9;
+
+	/**
+	 * Refinement of a level stops when the step length falls below this share
+	 * of the natural spring length.
+	 */
+	private static final double TOLERANCE = 0.01;
+
+	private static final int INSETS = 4;
+
+	private int iterations = DEFAULT_ITERATIONS;
+	private int incrementalIterations = DEFAULT_INCREMENTAL_ITERATIONS;
+	private double barnesHutTheta = DEFAULT_BARNES_HUT_THETA;
+	private long seed = 0;
+
+	private final ForceQuadTree quadTree = new ForceQuadTree();
+	private final double[] force = new double[2];
+
+	// progress of the current layout pass
+	private LayoutContext layoutContext;
+	private int completedIterations;
+	private int totalIterations;
+
+	/**
+	 * A level of the multilevel hierarchy: an undirected graph in compressed
+	 * sparse row (CSR) form, i.e. the neighbors of node <i>i</i> are stored at
+	 * <code>neighbors[offsets[i] .. offsets[i + 1] - 1]</code>, together with
+	 * the locations of its nodes.
+	 */
+	private static class Level {
+		final int n;
+		final int[] offsets;
+		final int[] neighbors;
+		final double[] weights;
+		// the number of original nodes that were contracted into a node
+		final double[] nodeWeights;
+		final double[] x;
+		final double[] y;
+		// the index of the node in the next coarser level
+		int[] coarseIndices;
+		// the movable nodes (null if all nodes are movable), and the
+		// locations at which the other nodes are held
+		boolean[] movable;
+		double[] pinnedX;
+		double[] pinnedY;
+
+		Level(int n, int[] offsets, int[] neighbors, double[] weights,
+				double[] nodeWeights) {
+			this.n = n;
+			this.offsets = offsets;
+			this.neighbors = neighbors;
+			this.weights = weights;
+			this.nodeWeights = nodeWeights;
+			this.x = new double[n];
+			this.y = new double[n];
+		}
+	}
+
+	/**
+	 * Returns the maximum number of iterations that are performed per level
+	 * (the coarsest level is granted ten times as many). Default value is 30.
+	 *
+	 * @return The maximum number of iterations per level.
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Sets the maximum number of iterations that are performed per level (the
+	 * coarsest level is granted ten times as many). Default value is 30.
+	 *
+	 * @param iterations
+	 *            The maximum number of iterations per level.
+	 */
+	public void setIterations(int iterations) {
+		if (iterations < 1) {
+			throw new IllegalArgumentException(
+					"The number of iterations has to be positive.");
+		}
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Returns the maximum number of iterations that are performed by an
+	 * incremental layout pass. Default value is 30.
+	 *
+	 * @return The maximum number of iterations of an incremental layout pass.
+	 */
+	public int getIncrementalIterations() {
+		return incrementalIterations;
+	}
+
+	/**
+	 * Sets the maximum number of iterations that are performed by an
+	 * incremental layout pass. Default value is 30.
+	 *
+	 * @param iterations
+	 *            The maximum number of iterations of an incremental layout
+	 *            pass.
+	 */
+	public void setIncrementalIterations(int iterations) {
+		if (iterations < 0) {
+			throw new IllegalArgumentException(
+					"The number of iterations may not be negative.");
+		}
+		this.incrementalIterations = iterations;
+	}
+
+	/**
+	 * Returns the Barnes-Hut opening criterion. Default value is 1.2.
+	 *
+	 * @return The Barnes-Hut opening criterion.
+	 */
+	public double getBarnesHutTheta() {
+		return barnesHutTheta;
+	}
+
+	/**
+	 * Sets the Barnes-Hut opening criterion. A cell of the quadtree is
+	 * approximated by its center of mass if the ratio of its size and its
+	 * distance is smaller than the given value. Smaller values yield more
+	 * accurate, but slower results. Default value is 1.2.
+	 *
+	 * @param theta
+	 *            The Barnes-Hut opening criterion.
+	 */
+	public void setBarnesHutTheta(double theta) {
+		if (theta < 0) {
+			throw new IllegalArgumentException(
+					"The Barnes-Hut opening criterion may not be negative.");
+		}
+		this.barnesHutTheta = theta;
+	}
+
+	/**
+	 * Returns the seed that is used for the random decisions of the
+	 * algorithm. Default value is 0.
+	 *
+	 * @return The seed of the random number generator.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Sets the seed that is used for the random decisions (matching order and
+	 * initial locations) of the algorithm, so that layouts can be reproduced.
+	 * Default value is 0.
+	 *
+	 * @param seed
+	 *            The seed of the random number generator.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	@Override
+	public void applyLayout(LayoutContext layoutContext, boolean clean) {
+		if (!clean && !layoutContext.hasChanges()) {
+			return;
+		}
+		Rectangle bounds = LayoutProperties
+				.getBounds(layoutContext.getGraph());
+		if (bounds == null || bounds.isEmpty()) {
+			return;
+		}
+		LayoutModel model = layoutContext.getLayoutModel();
+		int n = model.getNodeCount();
+		if (n == 0) {
+			return;
+		}
+		Random random = new Random(seed);
+		Rectangle insetBounds = new Rectangle(bounds.getX() + INSETS,
+				bounds.getY() + INSETS, bounds.getWidth() - 2 * INSETS,
+				bounds.getHeight() - 2 * INSETS);
+		Level finest = createLevel(model);
+		boolean[] movable = model.getMovable();
+		for (int i = 0; i < n; i++) {
+			if (!movable[i]) {
+				finest.movable = movable;
+				break;
+			}
+		}
+		Set<Node> addedNodes = layoutContext.getAddedNodes();
+		this.layoutContext = layoutContext;
+		completedIterations = 0;
+		try {
+			if (!clean && addedNodes.size() * 2 <= n) {
+				double k = placeAddedNodes(finest, model, addedNodes, bounds,
+						random);
+				totalIterations = incrementalIterations;
+				refine(finest, k, incrementalIterations, 0.1 * k);
+			} else {
+				layoutMultilevel(finest, model, insetBounds, random);
+			}
+		} finally {
+			this.layoutContext = null;
+		}
+
+		// apply locations (of movable nodes) and fit them into the bounds
+		if (finest.movable != null) {
+			AlgorithmHelper.fitAroundPinnedNodes(model, finest.x, finest.y,
+					insetBounds);
+		} else {
+			System.arraycopy(finest.x, 0, model.getX(), 0, n);
+			System.arraycopy(finest.y, 0, model.getY(), 0, n);
+			if (n > 1) {
+				AlgorithmHelper.fitWithinBounds(model, insetBounds);
+			}
+		}
+		layoutContext.commitLayoutModel();
+	}
+
+	/**
+	 * Builds the CSR adjacency of the given {@link LayoutModel}. Self loops
+	 * are ignored and parallel edges are merged, so that their weights add up.
+	 */
+	private static Level createLevel(LayoutModel model) {
+		int n = model.getNodeCount();
+		int[] sources = model.getEdgeSources();
+		int[] targets = model.getEdgeTargets();
+		int[] degrees = new int[n + 1];
+		for (int e = 0; e < sources.length; e++) {
+			int s = sources[e];
+			int t = targets[e];
+			if (s >= 0 && t >= 0 && s != t) {
+				degrees[s + 1]++;
+				degrees[t + 1]++;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			degrees[i + 1] += degrees[i];
+		}
+		int[] neighbors = new int[degrees[n]];
+		int[] fill = Arrays.copyOf(degrees, n);
+		for (int e = 0; e < sources.length; e++) {
+			int s = sources[e];
+			int t = targets[e];
+			if (s >= 0 && t >= 0 && s != t) {
+				neighbors[fill[s]++] = t;
+				neighbors[fill[t]++] = s;
+			}
+		}
+		double[] weights = new double[neighbors.length];
+		Arrays.fill(weights, 1);
+		double[] nodeWeights = new double[n];
+		Arrays.fill(nodeWeights, 1);
+		return merge(n, degrees, neighbors, weights, nodeWeights);
+	}
+
+	/**
+	 * Merges duplicate neighbors within the rows of the given CSR adjacency
+	 * (in place) and creates a {@link Level} for the result.
+	 */
+	private static Level merge(int n, int[] offsets, int[] neighbors,
+			double[] weights, double[] nodeWeights) {
+		int[] lastIndex = new int[n];
+		Arrays.fill(lastIndex, -1);
+		int size = 0;
+		for (int i = 0; i < n; i++) {
+			int start = offsets[i];
+			int end = offsets[i + 1];
+			offsets[i] = size;
+			for (int k = start; k < end; k++) {
+				int j = neighbors[k];
+				if (lastIndex[j] >= offsets[i]) {
+					weights[lastIndex[j]] += weights[k];
+				} else {
+					lastIndex[j] = size;
+					neighbors[size] = j;
+					weights[size] = weights[k];
+					size++;
+				}
+			}
+		}
+		offsets[n] = size;
+		return new Level(n, offsets, Arrays.copyOf(neighbors, size),
+				Arrays.copyOf(weights, size), nodeWeights);
+	}
+
+	/**
+	 * Contracts a maximal matching of the edges of the given level. Nodes are
+	 * visited in random order, and each unmatched node is matched with its
+	 * unmatched neighbor of minimal node weight, so that the node weights of
+	 * the coarse level stay balanced. A node whose neighbors are all matched
+	 * already is contracted into its neighbor of minimal node weight, so that
+	 * star-like structures (which do not allow for large matchings) are
+	 * coarsened as well.
+	 *
+	 * @return The coarser level, or <code>null</code> if the level could not
+	 *         be coarsened sufficiently.
+	 */
+	private static Level coarsen(Level level, Random random) {
+		int n = level.n;
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		for (int i = n - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int tmp = order[i];
+			order[i] = order[j];
+			order[j] = tmp;
+		}
+
+		int[] coarseIndices = new int[n];
+		Arrays.fill(coarseIndices, -1);
+		int coarseN = 0;
+		for (int v : order) {
+			if (coarseIndices[v] >= 0) {
+				continue;
+			}
+			int match = -1;
+			int lightest = -1;
+			for (int k = level.offsets[v]; k < level.offsets[v + 1]; k++) {
+				int u = level.neighbors[k];
+				if (coarseIndices[u] < 0 && (match < 0
+						|| level.nodeWeights[u] < level.nodeWeights[match])) {
+					match = u;
+				}
+				if (lightest < 0
+						|| level.nodeWeights[u] < level.nodeWeights[lightest]) {
+					lightest = u;
+				}
+			}
+			if (match < 0 && lightest >= 0) {
+				coarseIndices[v] = coarseIndices[lightest];
+				continue;
+			}
+			coarseIndices[v] = coarseN;
+			if (match >= 0) {
+				coarseIndices[match] = coarseN;
+			}
+			coarseN++;
+		}
+		if (coarseN > MAX_COARSENING_RATIO * n) {
+			return null;
+		}
+
+		// collect the edges of the coarse nodes (grouped by coarse node)
+		double[] nodeWeights = new double[coarseN];
+		int[] offsets = new int[coarseN + 1];
+		for (int v = 0; v < n; v++) {
+			int c = coarseIndices[v];
+			nodeWeights[c] += level.nodeWeights[v];
+			offsets[c + 1] += level.offsets[v + 1] - level.offsets[v];
+		}
+		for (int c = 0; c < coarseN; c++) {
+			offsets[c + 1] += offsets[c];
+		}
+		int[] neighbors = new int[offsets[coarseN]];
+		double[] weights = new double[neighbors.length];
+		int[] fill = Arrays.copyOf(offsets, coarseN);
+		for (int v = 0; v < n; v++) {
+			int c = coarseIndices[v];
+			for (int k = level.offsets[v]; k < level.offsets[v + 1]; k++) {
+				int d = coarseIndices[level.neighbors[k]];
+				if (d == c) {
+					// contracted edge
+					continue;
+				}
+				neighbors[fill[c]] = d;
+				weights[fill[c]++] = level.weights[k];
+			}
+		}
+		// compact rows that lost their contracted edges
+		int size = 0;
+		for (int c = 0; c < coarseN; c++) {
+			int start = offsets[c];
+			int end = fill[c];
+			offsets[c] = size;
+			for (int k = start; k < end; k++) {
+				neighbors[size] = neighbors[k];
+				weights[size++] = weights[k];
+			}
+		}
+		offsets[coarseN] = size;
+		level.coarseIndices = coarseIndices;
+		return merge(coarseN, offsets, neighbors, weights, nodeWeights);
+	}
+
+	/**
+	 * Holds the nodes of the given level that are not movable at their
+	 * locations.
+	 */
+	private static void holdPinnedNodes(Level level) {
+		if (level.movable == null) {
+			return;
+		}
+		for (int i = 0; i < level.n; i++) {
+			if (!level.movable[i]) {
+				level.x[i] = level.pinnedX[i];
+				level.y[i] = level.pinnedY[i];
+			}
+		}
+	}
+
+	/**
+	 * Lays out the given (finest) level by building the multilevel hierarchy,
+	 * laying out the coarsest level, and refining the layout level by level.
+	 * If the finest level contains nodes that are not movable, their locations
+	 * are converted into the units of the layout, and the resulting layout is
+	 * converted back into the coordinate space of the given bounds.
+	 */
+	private void layoutMultilevel(Level finest, LayoutModel model,
+			Rectangle bounds, Random random) {
+		Level[] levels = new Level[] { finest };
+		int count = 1;
+		while (levels[count - 1].n > COARSEST_SIZE) {
+			Level coarser = coarsen(levels[count - 1], random);
+			if (coarser == null) {
+				break;
+			}
+			if (count == levels.length) {
+				levels = Arrays.copyOf(levels, 2 * count);
+			}
+			levels[count++] = coarser;
+		}
+
+		// the natural spring length of the finest level is 1
+		double k = Math.pow(1 / SPRING_LENGTH_RATIO, count - 1);
+		Level coarsest = levels[count - 1];
+		double side = k * Math.sqrt(coarsest.n);
+
+		// a layout of the finest level covers an area of about n, which is
+		// mapped to the bounds, so that the center of the bounds corresponds
+		// to the center of the initial layout
+		double scale = Math.max(Double.MIN_VALUE,
+				Math.min(bounds.getWidth(), bounds.getHeight()))
+				/ Math.sqrt(finest.n);
+		double centerX = bounds.getX() + bounds.getWidth() / 2;
+		double centerY = bounds.getY() + bounds.getHeight() / 2;
+		if (finest.movable != null) {
+			pinLevels(levels, count, model, scale, centerX - side / 2 * scale,
+					centerY - side / 2 * scale);
+		}
+
+		for (int i = 0; i < coarsest.n; i++) {
+			coarsest.x[i] = random.nextDouble() * side;
+			coarsest.y[i] = random.nextDouble() * side;
+		}
+		holdPinnedNodes(coarsest);
+		int coarsestIterations = coarsest.n <= COARSEST_SIZE
+				? COARSEST_ITERATIONS_FACTOR * iterations : iterations;
+		totalIterations = coarsestIterations + (count - 1) * iterations;
+		refine(coarsest, k, coarsestIterations, side / 10);
+
+		for (int l = count - 2; l >= 0; l--) {
+			Level level = levels[l];
+			Level coarse = levels[l + 1];
+			k *= SPRING_LENGTH_RATIO;
+			// interpolate, jitter nodes that were contracted into one node
+			for (int i = 0; i < level.n; i++) {
+				int c = level.coarseIndices[i];
+				level.x[i] = coarse.x[c] + (random.nextDouble() - 0.5) * k;
+				level.y[i] = coarse.y[c] + (random.nextDouble() - 0.5) * k;
+			}
+			holdPinnedNodes(level);
+			refine(level, k, iterations, k);
+		}
+
+		if (finest.movable != null) {
+			for (int i = 0; i < finest.n; i++) {
+				finest.x[i] = centerX + (finest.x[i] - side / 2) * scale;
+				finest.y[i] = centerY + (finest.y[i] - side / 2) * scale;
+			}
+		}
+	}
+
+	/**
+	 * Converts the locations of the nodes that are not movable into the units
+	 * of the layout (using the given scale and origin), and propagates them
+	 * to the coarser levels: a coarse node is not movable if it contains a
+	 * node that is not movable, and it is held at the average location of
+	 * these nodes.
+	 */
+	private static void pinLevels(Level[] levels, int count,
+			LayoutModel model, double scale, double originX,
+			double originY) {
+		Level finest = levels[0];
+		finest.pinnedX = new double[finest.n];
+		finest.pinnedY = new double[finest.n];
+		double[] x = model.getX();
+		double[] y = model.getY();
+		for (int i = 0; i < finest.n; i++) {
+			finest.pinnedX[i] = (x[i] - originX) / scale;
+			finest.pinnedY[i] = (y[i] - originY) / scale;
+		}
+		for (int l = 0; l < count - 1; l++) {
+			Level level = levels[l];
+			Level coarse = levels[l + 1];
+			coarse.movable = new boolean[coarse.n];
+			Arrays.fill(coarse.movable, true);
+			coarse.pinnedX = new double[coarse.n];
+			coarse.pinnedY = new double[coarse.n];
+			int[] pinned = new int[coarse.n];
+			for (int i = 0; i < level.n; i++) {
+				if (!level.movable[i]) {
+					int c = level.coarseIndices[i];
+					coarse.movable[c] = false;
+					coarse.pinnedX[c] += level.pinnedX[i];
+					coarse.pinnedY[c] += level.pinnedY[i];
+					pinned[c]++;
+				}
+			}
+			for (int c = 0; c < coarse.n; c++) {
+				if (pinned[c] > 0) {
+					coarse.pinnedX[c] /= pinned[c];
+					coarse.pinnedY[c] /= pinned[c];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Refines the locations of the given level using the spring-electrical
+	 * force model. In each iteration, every (movable) node moves by the
+	 * current step length in the direction of the force that acts upon it.
+	 * The step length is decreased when the energy of the system does not
+	 * decrease, and increased when it decreased for several iterations (see
+	 * Hu). The refinement stops early when the termination of the layout
+	 * pass is requested, so that the remaining levels are only interpolated.
+	 */
+	private void refine(Level level, double k, int maxIterations,
+			double initialStep) {
+		int n = level.n;
+		boolean[] movable = level.movable;
+		double[] x = level.x;
+		double[] y = level.y;
+		double strength = k * k * k;
+		double minDistanceSq = 1e-4 * k * k;
+		double step = initialStep;
+		double previousEnergy = Double.POSITIVE_INFINITY;
+		int progress = 0;
+		for (int iteration = 0; iteration < maxIterations
+				&& step > TOLERANCE * k
+				&& !layoutContext.isTerminationRequested(); iteration++) {
+			quadTree.build(x, y, n);
+			double energy = 0;
+			for (int i = 0; i < n; i++) {
+				if (movable != null && !movable[i]) {
+					continue;
+				}
+				force[0] = 0;
+				force[1] = 0;
+				quadTree.addRepulsion(i, barnesHutTheta, strength,
+						minDistanceSq, force);
+				double fx = force[0];
+				double fy = force[1];
+				for (int e = level.offsets[i]; e < level.offsets[i
+						+ 1]; e++) {
+					int j = level.neighbors[e];
+					double dx = x[j] - x[i];
+					double dy = y[j] - y[i];
+					double f = level.weights[e] * Math.sqrt(dx * dx + dy * dy)
+							/ k;
+					fx += f * dx;
+					fy += f * dy;
+				}
+				double magnitude = Math.sqrt(fx * fx + fy * fy);
+				if (magnitude > 0) {
+					x[i] += step * fx / magnitude;
+					y[i] += step * fy / magnitude;
+				}
+				energy += magnitude * magnitude;
+			}
+			if (energy < previousEnergy) {
+				if (++progress >= 5) {
+					progress = 0;
+					step /= COOLING;
+				}
+			} else {
+				progress = 0;
+				step *= COOLING;
+			}
+			previousEnergy = energy;
+			layoutContext.reportProgress(completedIterations + iteration + 1,
+					totalIterations, energy);
+		}
+		completedIterations += maxIterations;
+	}
+
+	/**
+	 * Loads the current locations into the given level and places the added
+	 * nodes at the barycenter of their neighbors that were not added.
+	 *
+	 * @return The natural spring length, i.e. the average length of the edges
+	 *         between nodes that were not added.
+	 */
+	private static double placeAddedNodes(Level level, LayoutModel model,
+			Set<Node> addedNodes, Rectangle bounds, Random random) {
+		int n = level.n;
+		boolean[] added = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			added[i] = addedNodes.contains(model.getNode(i));
+		}
+		System.arraycopy(model.getX(), 0, level.x, 0, n);
+		System.arraycopy(model.getY(), 0, level.y, 0, n);
+
+		double length = 0;
+		int edges = 0;
+		for (int i = 0; i < n; i++) {
+			for (int e = level.offsets[i]; e < level.offsets[i + 1]; e++) {
+				int j = level.neighbors[e];
+				if (!added[i] && !added[j]) {
+					length += Math.hypot(level.x[j] - level.x[i],
+							level.y[j] - level.y[i]);
+					edges++;
+				}
+			}
+		}
+		double k = edges > 0 ? length / edges
+				: Math.sqrt(bounds.getWidth() * bounds.getHeight() / n);
+		if (k <= 0) {
+			k = 1;
+		}
+
+		for (int i = 0; i < n; i++) {
+			if (!added[i]) {
+				continue;
+			}
+			double x = 0, y = 0;
+			int count = 0;
+			for (int e = level.offsets[i]; e < level.offsets[i + 1]; e++) {
+				int j = level.neighbors[e];
+				if (!added[j]) {
+					x += level.x[j];
+					y += level.y[j];
+					count++;
+				}
+			}
+			if (count > 0) {
+				level.x[i] = x / count + (random.nextDouble() - 0.5) * k;
+				level.y[i] = y / count + (random.nextDouble() - 0.5) * k;
+			} else {
+				level.x[i] = bounds.getX()
+						+ random.nextDouble() * bounds.getWidth();
+				level.y[i] = bounds.getY()
+						+ random.nextDouble() * bounds.getHeight();
+			}
+		}
+		return k;
+	}
+}
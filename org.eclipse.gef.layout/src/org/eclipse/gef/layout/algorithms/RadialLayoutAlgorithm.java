@@ -44,9 +44,11 @@ public class RadialLayoutAlgorithm implements ILayoutAlgorithm {
 	}
 
 	public void applyLayout(LayoutContext layoutContext, boolean clean) {
-		if (!clean)
+		if (!clean || layoutContext.isTerminationRequested())
 			return;
 		treeLayout.internalApplyLayout(layoutContext);
+		if (layoutContext.isTerminationRequested())
+			return;
 		Node[] entities = layoutContext.getNodes();
 		Rectangle bounds = LayoutProperties.getBounds(layoutContext.getGraph())
 				.getCopy();
@@ -59,6 +61,7 @@ public class RadialLayoutAlgorithm implements ILayoutAlgorithm {
 		bounds.setWidth(bounds.getWidth() - 2 * insets);
 		bounds.setHeight(bounds.getHeight() - 2 * insets);
 		AlgorithmHelper.fitWithinBounds(entities, bounds, resize);
+		layoutContext.reportProgress(1, 1, Double.NaN);
 	}
 
 	private void computeRadialPositions(Node[] entities, Rectangle bounds) {
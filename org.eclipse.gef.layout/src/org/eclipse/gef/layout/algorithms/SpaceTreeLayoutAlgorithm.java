@@ -72,16 +72,47 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 	private class SpaceTreeNode extends TreeLayoutHelper.TreeNode {
 		public boolean expanded = true;
 		public double positionInLayer;
+		// the size of the node along the layer, see refreshSpaceRequired()
+		private double spaceRequired;
 
 		public SpaceTreeNode(Node node, TreeLayoutHelper owner) {
 			super(node, owner);
+			refreshSpaceRequired();
+		}
+
+		/**
+		 * Changes the expansion state of this node, recording the previous
+		 * state in the journal (see {@link #takeSnapShot()}).
+		 *
+		 * @param expanded
+		 *            The new expansion state.
+		 */
+		public void setExpanded(boolean expanded) {
+			if (this.expanded != expanded) {
+				journal.add(new NodeSnapshot(this));
+				this.expanded = expanded;
+			}
+		}
+
+		/**
+		 * Changes the position in layer of this node, recording the previous
+		 * position in the journal (see {@link #takeSnapShot()}).
+		 *
+		 * @param positionInLayer
+		 *            The new position in layer.
+		 */
+		public void setPositionInLayer(double positionInLayer) {
+			if (this.positionInLayer != positionInLayer) {
+				journal.add(new NodeSnapshot(this));
+				this.positionInLayer = positionInLayer;
+			}
 		}
 
 		protected void addChild(TreeLayoutHelper.TreeNode child) {
 			super.addChild(child);
 
 			SpaceTreeNode child2 = (SpaceTreeNode) child;
-			child2.expanded = false;
+			child2.setExpanded(false);
 
 			if (child.depth >= 0)
 				spaceTreeLayers.get(child.depth).removeNode(child2);
@@ -108,7 +139,7 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 		public void precomputeTree() {
 			super.precomputeTree();
 			if (this == owner.getSuperRoot()) {
-				expanded = true;
+				setExpanded(true);
 				while (spaceTreeLayers.size() <= this.height)
 					spaceTreeLayers
 							.add(new SpaceTreeLayer(spaceTreeLayers.size()));
@@ -135,15 +166,28 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 
 		public double spaceRequiredForNode() {
-			if (node == null)
-				return 0;
+			return spaceRequired;
+		}
+
+		/**
+		 * Reads the size of this node, so that it does not have to be queried
+		 * by {@link #spaceRequiredForNode()}, which is called very frequently
+		 * while nodes are moved.
+		 */
+		public void refreshSpaceRequired() {
+			if (node == null) {
+				spaceRequired = 0;
+				return;
+			}
 			switch (direction) {
 			case TOP_DOWN:
 			case BOTTOM_UP:
-				return LayoutProperties.getSize(node).width;
+				spaceRequired = LayoutProperties.getSize(node).width;
+				return;
 			case LEFT_RIGHT:
 			case RIGHT_LEFT:
-				return LayoutProperties.getSize(node).height;
+				spaceRequired = LayoutProperties.getSize(node).height;
+				return;
 			}
 			throw new RuntimeException("invalid direction");
 		}
@@ -228,7 +272,7 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 
 		public void centerParentsTopDown() {
 			if (this == owner.getSuperRoot()) {
-				this.positionInLayer = getAvailableSpace() / 2;
+				setPositionInLayer(getAvailableSpace() / 2);
 			}
 			if (!children.isEmpty() && expanded) {
 				SpaceTreeNode firstChild = (SpaceTreeNode) children.get(0);
@@ -355,12 +399,32 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 		public ArrayList<SpaceTreeNode> nodes = new ArrayList<>();
 		private final int depth;
 		public double thickness = 0;
+		// the epoch in which the nodes list was last recorded in the journal
+		private int journalEpoch = -1;
 
 		public SpaceTreeLayer(int depth) {
 			this.depth = depth;
 		}
 
+		/**
+		 * Records the nodes of this layer in the journal before they are
+		 * changed for the first time since the last snapshot (see
+		 * {@link SpaceTreeLayoutAlgorithm#takeSnapShot()}). The recorded list
+		 * is replaced by a copy, so that it can be restored without copying.
+		 */
+		private void recordNodes() {
+			if (journalEpoch != SpaceTreeLayoutAlgorithm.this.journalEpoch) {
+				journal.add(new LayerSnapshot(this));
+				nodes = new ArrayList<>(nodes);
+				journalEpoch = SpaceTreeLayoutAlgorithm.this.journalEpoch;
+			}
+		}
+
 		public void addNodes(List<TreeNode> nodesToAdd) {
+			if (nodesToAdd.isEmpty()) {
+				return;
+			}
+			recordNodes();
 			ListIterator<SpaceTreeNode> layerIterator = nodes.listIterator();
 			SpaceTreeNode previousNode = null;
 			for (Iterator<TreeNode> iterator = nodesToAdd.iterator(); iterator
@@ -375,8 +439,8 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 					double expectedPostion = (previousNode == null) ? 0
 							: previousNode.positionInLayer + expectedDistance(
 									previousNode, nodeInLayer);
-					nodeInLayer.positionInLayer = Math
-							.max(nodeInLayer.positionInLayer, expectedPostion);
+					nodeInLayer.setPositionInLayer(Math
+							.max(nodeInLayer.positionInLayer, expectedPostion));
 					previousNode = nodeInLayer;
 				}
 
@@ -397,8 +461,8 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 				double expectedPostion = (previousNode == null) ? 0
 						: previousNode.positionInLayer
 								+ expectedDistance(previousNode, nodeInLayer);
-				nodeInLayer.positionInLayer = Math
-						.max(nodeInLayer.positionInLayer, expectedPostion);
+				nodeInLayer.setPositionInLayer(Math
+						.max(nodeInLayer.positionInLayer, expectedPostion));
 				previousNode = nodeInLayer;
 			}
 
@@ -406,14 +470,19 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 
 		public void removeNode(SpaceTreeNode node) {
-			if (nodes.remove(node)) {
+			int index = nodes.indexOf(node);
+			if (index != -1) {
+				recordNodes();
+				nodes.remove(index);
 				spaceTreeLayers.get(depth + 1).removeNodes(node.children);
 				refreshThickness();
 			}
 		}
 
 		public void removeNodes(List<TreeNode> nodesToRemove) {
-			if (this.nodes.removeAll(nodesToRemove)) {
+			if (!Collections.disjoint(nodes, nodesToRemove)) {
+				recordNodes();
+				nodes.removeAll(nodesToRemove);
 				SpaceTreeLayer nextLayer = spaceTreeLayers.get(depth + 1);
 				for (Iterator<TreeNode> iterator = nodesToRemove
 						.iterator(); iterator.hasNext();) {
@@ -443,7 +512,7 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 
 		public void fitNodesWithinBounds(List<TreeNode> nodeList,
 				double startPosition, double endPosition) {
-			NodeSnapshot[][] snapShot = takeSnapShot();
+			int snapShot = takeSnapShot();
 			SpaceTreeNode[] nodes = nodeList
 					.toArray(new SpaceTreeNode[nodeList.size()]);
 			double initialStartPosition = nodes[0].positionInLayer;
@@ -513,11 +582,18 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 
 		public void moveNode(SpaceTreeNode node, double newPosition) {
-			Collections.sort(nodes, new Comparator<SpaceTreeNode>() {
-				public int compare(SpaceTreeNode arg0, SpaceTreeNode arg1) {
-					return arg0.order - arg1.order;
+			for (int i = 1; i < nodes.size(); i++) {
+				if (nodes.get(i - 1).order > nodes.get(i).order) {
+					recordNodes();
+					Collections.sort(nodes, new Comparator<SpaceTreeNode>() {
+						public int compare(SpaceTreeNode arg0,
+								SpaceTreeNode arg1) {
+							return arg0.order - arg1.order;
+						}
+					});
+					break;
 				}
-			});
+			}
 			double positionInLayerAtStart = node.positionInLayer;
 			if (newPosition >= positionInLayerAtStart)
 				moveNodeForward(node, newPosition);
@@ -543,7 +619,7 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 			if (nodeIndex == -1)
 				throw new IllegalArgumentException("node not on this layer");
 			// move forward -> check space to the 'right'
-			NodeSnapshot[][] snapShot = takeSnapShot();
+			int snapShot = takeSnapShot();
 			boolean firstRun = true;
 			mainLoop: while (firstRun
 					|| nodeToMove.positionInLayer < newPosition) {
@@ -583,7 +659,7 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 				SpaceTreeNode currentNodeToMove = nodeToMove;
 				double newPositionForCurrent = newPosition;
 				for (int i = nodeIndex; i < nodes.size(); i++) {
-					currentNodeToMove.positionInLayer = newPositionForCurrent;
+					currentNodeToMove.setPositionInLayer(newPositionForCurrent);
 					// move parent if moved node is its first child
 					if (currentNodeToMove.firstChild) {
 						SpaceTreeNode parent = (SpaceTreeNode) currentNodeToMove.parent;
@@ -668,7 +744,7 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 				throw new IllegalArgumentException("node not on this layer");
 			// move backward -> check space to the 'left'
 			// move and collapse until there's enough space
-			NodeSnapshot[][] snapShot = takeSnapShot();
+			int snapShot = takeSnapShot();
 			boolean firstRun = true;
 			mainLoop: while (firstRun
 					|| nodeToMove.positionInLayer > newPosition) {
@@ -709,7 +785,7 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 				SpaceTreeNode currentNodeToMove = nodeToMove;
 				double newPositionForCurrent = newPosition;
 				for (int i = nodeIndex; i >= 0; i--) {
-					currentNodeToMove.positionInLayer = newPositionForCurrent;
+					currentNodeToMove.setPositionInLayer(newPositionForCurrent);
 					// move parent if moved node is its last child
 					if (currentNodeToMove.lastChild) {
 						SpaceTreeNode parent = (SpaceTreeNode) currentNodeToMove.parent;
@@ -790,7 +866,7 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 
 		private void collapseNode(SpaceTreeNode node) {
-			node.expanded = false;
+			node.setExpanded(false);
 			SpaceTreeLayer layer = spaceTreeLayers.get(node.depth + 1);
 			layer.removeNodes(node.children);
 			for (Iterator<TreeNode> iterator = node.children
@@ -874,6 +950,21 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 	private double availableSpace;
 	private ArrayList<SpaceTreeLayer> spaceTreeLayers = new ArrayList<>();
 
+	/**
+	 * Changes that were made since the first snapshot of the current layout
+	 * pass (see {@link #takeSnapShot()}).
+	 */
+	private final ArrayList<JournalEntry> journal = new ArrayList<>();
+	private int journalEpoch = 0;
+
+	/**
+	 * The {@link LayoutContext} and its revision (see
+	 * {@link LayoutContext#getRevision()}) for which the current tree was
+	 * computed.
+	 */
+	private LayoutContext treeContext;
+	private long treeRevision;
+
 	/**
 	 * If not null, this node and all of its children shall not be collapsed
 	 * during node movements.
@@ -924,6 +1015,8 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 		if (direction == TOP_DOWN || direction == BOTTOM_UP
 				|| direction == LEFT_RIGHT || direction == RIGHT_LEFT) {
 			this.direction = direction;
+			// positions in layer depend on the direction
+			treeObserver = null;
 		} else
 			throw new IllegalArgumentException(
 					"Invalid direction: " + direction);
@@ -935,19 +1028,37 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 			return;
 		}
 
-		treeObserver = new TreeLayoutHelper(spaceTreeNodeFactory);
-		treeObserver.computeTree(layoutContext.getNodes());
+		// the tree (including the expansion state and the positions in layers)
+		// is kept across incremental passes, as long as the layout-relevant
+		// nodes and edges did not change
+		if (clean || treeObserver == null || treeContext != layoutContext
+				|| treeRevision != layoutContext.getRevision()) {
+			spaceTreeLayers.clear();
+			treeObserver = new TreeLayoutHelper(spaceTreeNodeFactory);
+			treeObserver.computeTree(layoutContext.getNodes());
+			treeContext = layoutContext;
+			treeRevision = layoutContext.getRevision();
+		} else {
+			for (Node node : layoutContext.getNodes()) {
+				((SpaceTreeNode) treeObserver.getTreeNode(node))
+						.refreshSpaceRequired();
+			}
+		}
 
 		if (clean) {
-			maximizeExpansion((SpaceTreeNode) treeObserver.getSuperRoot());
+			maximizeExpansion((SpaceTreeNode) treeObserver.getSuperRoot(),
+					layoutContext);
 		}
 
 		SpaceTreeNode superRoot = ((SpaceTreeNode) treeObserver.getSuperRoot());
 		superRoot.flushExpansionChanges();
 		superRoot.flushLocationChanges(0);
+		// snapshots do not outlive a layout pass
+		journal.clear();
 	}
 
-	private void maximizeExpansion(SpaceTreeNode nodeToExpand) {
+	private void maximizeExpansion(SpaceTreeNode nodeToExpand,
+			LayoutContext layoutContext) {
 		protectedNode = nodeToExpand;
 		double availableSpace = getAvailableSpace();
 		double requiredSpace = 0;
@@ -960,7 +1071,13 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 		nodesInNextLayer.add(nodeToExpand);
 		double spaceRequiredInNextLayer = nodeToExpand.spaceRequiredForNode();
 		for (int layer = 0; !nodesInNextLayer.isEmpty(); layer++) {
-			NodeSnapshot[][] snapShot = takeSnapShot();
+			// the layers expanded so far are kept when the layout pass is to
+			// be terminated
+			if (layoutContext.isTerminationRequested()) {
+				break;
+			}
+			layoutContext.reportProgress(layer, -1, Double.NaN);
+			int snapShot = takeSnapShot();
 			requiredSpace = Math.max(requiredSpace, spaceRequiredInNextLayer);
 			spaceRequiredInNextLayer = 0;
 
@@ -972,7 +1089,7 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 					.iterator(); iterator.hasNext();) {
 				SpaceTreeNode node = (SpaceTreeNode) iterator.next();
 				if (!node.children.isEmpty()) {
-					node.expanded = true;
+					node.setExpanded(true);
 					spaceRequiredInNextLayer += node.spaceRequiredForChildren();
 					nodesInNextLayer.addAll(node.children);
 					numOfNodesWithChildren++;
@@ -982,7 +1099,7 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 			for (Iterator<TreeNode> iterator = nodesInNextLayer
 					.iterator(); iterator.hasNext();) {
 				SpaceTreeNode node = (SpaceTreeNode) iterator.next();
-				node.expanded = false;
+				node.setExpanded(false);
 			}
 
 			if (numOfNodesWithChildren == 0)
@@ -1079,47 +1196,72 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 		return expectedDistance;
 	}
 
-	private class NodeSnapshot {
-		SpaceTreeNode node;
-		double position;
-		boolean expanded;
+	/**
+	 * An entry of the journal, which stores the state of a tree node or layer
+	 * before it was changed.
+	 */
+	private interface JournalEntry {
+		void revert();
+	}
+
+	private static class NodeSnapshot implements JournalEntry {
+		private final SpaceTreeNode node;
+		private final double position;
+		private final boolean expanded;
+
+		public NodeSnapshot(SpaceTreeNode node) {
+			this.node = node;
+			this.position = node.positionInLayer;
+			this.expanded = node.expanded;
+		}
+
+		public void revert() {
+			node.positionInLayer = position;
+			node.expanded = expanded;
+		}
+	}
+
+	private static class LayerSnapshot implements JournalEntry {
+		private final SpaceTreeLayer layer;
+		private final ArrayList<SpaceTreeNode> nodes;
+
+		public LayerSnapshot(SpaceTreeLayer layer) {
+			this.layer = layer;
+			this.nodes = layer.nodes;
+		}
+
+		public void revert() {
+			layer.nodes = nodes;
+		}
 	}
 
 	/**
-	 * Stores current expansion state of tree nodes and their position in layers
-	 * 
-	 * @return array containing state of all unpruned nodes
+	 * Marks the current expansion state of tree nodes and their position in
+	 * layers, so that it can be restored using {@link #revertToSnapshot(int)}.
+	 * Instead of copying the state of all nodes, the previous state of nodes
+	 * and layers is recorded in a journal when they are changed, so that a
+	 * snapshot is only as expensive as the changes that are made after it.
+	 *
+	 * @return the position of the snapshot within the journal
 	 */
-	private NodeSnapshot[][] takeSnapShot() {
-		NodeSnapshot[][] result = new NodeSnapshot[spaceTreeLayers.size()][];
-		for (int i = 0; i < result.length; i++) {
-			SpaceTreeLayer layer = spaceTreeLayers.get(i);
-			result[i] = new NodeSnapshot[layer.nodes.size()];
-			for (int j = 0; j < result[i].length; j++) {
-				result[i][j] = new NodeSnapshot();
-				result[i][j].node = layer.nodes.get(j);
-				result[i][j].position = result[i][j].node.positionInLayer;
-				result[i][j].expanded = result[i][j].node.expanded;
-			}
-		}
-		return result;
+	private int takeSnapShot() {
+		journalEpoch++;
+		return journal.size();
 	}
 
 	/**
-	 * Restores tree nodes' expansion state and position in layers
-	 * 
+	 * Restores tree nodes' expansion state and position in layers by undoing
+	 * all changes that were recorded in the journal after the given snapshot
+	 * was taken.
+	 *
 	 * @param snapShot
 	 *            state obtained with {@link #takeSnapShot()}
 	 */
-	private void revertToSnapshot(NodeSnapshot[][] snapShot) {
-		for (int i = 0; i < snapShot.length; i++) {
-			SpaceTreeLayer layer = spaceTreeLayers.get(i);
-			layer.nodes.clear();
-			for (int j = 0; j < snapShot[i].length; j++) {
-				snapShot[i][j].node.positionInLayer = snapShot[i][j].position;
-				snapShot[i][j].node.expanded = snapShot[i][j].expanded;
-				layer.nodes.add(snapShot[i][j].node);
-			}
+	private void revertToSnapshot(int snapShot) {
+		for (int i = journal.size() - 1; i >= snapShot; i--) {
+			journal.remove(i).revert();
 		}
+		// changes after the revert have to be recorded again
+		journalEpoch++;
 	}
 }
@@ -14,16 +14,18 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.Set;
 
-import org.eclipse.gef.geometry.planar.Dimension;
-import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
-import org.eclipse.gef.graph.Edge;
 import org.eclipse.gef.graph.Node;
 import org.eclipse.gef.layout.ILayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutModel;
 import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.internal.algorithms.ForceQuadTree;
 
 /**
  * The SpringLayoutAlgorithm has its own data repository and relation
@@ -39,11 +41,37 @@ import org.eclipse.gef.layout.LayoutProperties;
  */
 public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 
+	/**
+	 * Specifies how the repulsive forces between the nodes are computed by the
+	 * {@link SpringLayoutAlgorithm}.
+	 */
+	public enum Repulsion {
+		/**
+		 * The repulsive forces are computed exactly for all pairs of nodes,
+		 * which needs <code>O(n^2)</code> time per iteration.
+		 */
+		EXACT,
+
+		/**
+		 * The repulsive forces are approximated using a Barnes-Hut quadtree,
+		 * which needs <code>O(n log n)</code> time per iteration. The accuracy
+		 * of the approximation can be controlled via
+		 * {@link SpringLayoutAlgorithm#setBarnesHutTheta(double)}.
+		 */
+		BARNES_HUT
+	}
+
 	/**
 	 * The default value for the spring layout number of iterations.
 	 */
 	private static final int DEFAULT_SPRING_ITERATIONS = 1000;
 
+	/**
+	 * The default value for the number of iterations of an incremental layout
+	 * pass.
+	 */
+	private static final int DEFAULT_INCREMENTAL_ITERATIONS = 100;
+
 	/**
 	 * the default value for the time algorithm runs.
 	 */
@@ -79,11 +107,22 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	private static final double MIN_DISTANCE = 1.0d;
 
+	/**
+	 * The default value for the Barnes-Hut opening criterion.
+	 */
+	private static final double DEFAULT_BARNES_HUT_THETA = 0.8d;
+
 	/**
 	 * The variable can be customized to set the number of iterations used.
 	 */
 	private int sprIterations = DEFAULT_SPRING_ITERATIONS;
 
+	/**
+	 * The variable can be customized to set the number of iterations used for
+	 * an incremental layout pass.
+	 */
+	private int incrementalIterations = DEFAULT_INCREMENTAL_ITERATIONS;
+
 	/**
 	 * This variable can be customized to set the max number of MS the algorithm
 	 * should run
@@ -122,12 +161,41 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	private boolean resize = false;
 
+	/**
+	 * The variable can be customized to set how repulsive forces are computed.
+	 */
+	private Repulsion repulsion = Repulsion.EXACT;
+
+	/**
+	 * The variable can be customized to set the Barnes-Hut opening criterion.
+	 */
+	private double barnesHutTheta = DEFAULT_BARNES_HUT_THETA;
+
+	/**
+	 * The seed of the random number generator that is used to place nodes
+	 * randomly.
+	 */
+	private long seed = 0;
+	private Random random = new Random(seed);
+
 	private int iteration;
-	private double[][] srcDestToSumOfWeights;
 	private Node[] entities;
+	// compressed sparse row (CSR) adjacency: the neighbors j > i of node i
+	// are stored at adjacentNodes[adjacencyOffsets[i] ..
+	// adjacencyOffsets[i + 1] - 1], weights of parallel edges are summed up
+	private int[] adjacencyOffsets;
+	private int[] adjacentNodes;
+	private double[] adjacentWeights;
 	private double[] forcesX, forcesY;
 	private double[] locationsX, locationsY;
+	// scratch arrays used by computeForces()
+	private double[][] passForcesX, passForcesY;
+	private double[] passLocationsX, passLocationsY;
+	private double[] scaledX, scaledY;
+	private final double[] force = new double[2];
+	private final ForceQuadTree quadTree = new ForceQuadTree();
 	private double[] sizeW, sizeH;
+	private boolean[] movable;
 	private Rectangle bounds;
 	private double boundsScaleX = 0.2;
 	private double boundsScaleY = 0.2;
@@ -135,18 +203,47 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	// XXX: Needed by performNIteration(int), see below.
 	private LayoutContext layoutContext;
 
+	// total displacement of the nodes in the last iteration
+	private double displacement = Double.NaN;
+
 	// TODO: expose field
 	private boolean fitWithinBounds = true;
 
+	/**
+	 * Performs a layout pass. If <i>clean</i> is <code>false</code> and only
+	 * some of the nodes were added or moved since the last layout pass (see
+	 * {@link LayoutContext#getAddedNodes()} and
+	 * {@link LayoutContext#getMovedNodes()}), the layout is warm-started from
+	 * the current node locations: added nodes are placed at the barycenter of
+	 * their already placed neighbors, and only
+	 * {@link #getIncrementalIterations()} iterations are performed. If no
+	 * changes occurred, an incremental layout pass does nothing.
+	 */
 	public void applyLayout(LayoutContext layoutContext, boolean clean) {
 		this.layoutContext = layoutContext;
-		initLayout(layoutContext);
-		if (!clean) {
+		Set<Node> addedNodes = layoutContext.getAddedNodes();
+		int nodeCount = layoutContext.getLayoutModel().getNodeCount();
+		boolean incremental = !clean && addedNodes.size() * 2 <= nodeCount;
+		initLayout(layoutContext, !incremental);
+		if (!clean && !layoutContext.hasChanges()) {
 			return;
 		}
 
-		while (performAnotherNonContinuousIteration()) {
-			computeOneIteration();
+		if (incremental) {
+			placeAddedNodes(addedNodes);
+			for (int i = 0; i < incrementalIterations
+					&& performAnotherNonContinuousIteration(); i++) {
+				computeOneIteration();
+				layoutContext.reportProgress(i + 1, incrementalIterations,
+						displacement);
+			}
+		} else {
+			while (performAnotherNonContinuousIteration()) {
+				computeOneIteration();
+				layoutContext.reportProgress(
+						Math.min(iteration - 1, sprIterations), sprIterations,
+						displacement);
+			}
 		}
 
 		saveLocations();
@@ -165,7 +262,8 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	}
 
 	/**
-	 * Performs the given number of iterations.
+	 * Performs the given number of iterations. The locations are applied to
+	 * the nodes once, after the last iteration.
 	 * 
 	 * @param n
 	 *            The number of iterations to perform.
@@ -173,15 +271,13 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	public void performNIteration(int n) {
 		layoutContext.preLayout();
 		if (iteration == 0) {
-			entities = layoutContext.getNodes();
-			loadLocations();
-			initLayout(layoutContext);
+			initLayout(layoutContext, true);
 		}
 		bounds = LayoutProperties.getBounds(layoutContext.getGraph());
 		for (int i = 0; i < n; i++) {
 			computeOneIteration();
-			saveLocations();
 		}
+		saveLocations();
 		layoutContext.postLayout();
 	}
 
@@ -192,9 +288,7 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	public void performOneIteration() {
 		layoutContext.preLayout();
 		if (iteration == 0) {
-			entities = layoutContext.getNodes();
-			loadLocations();
-			initLayout(layoutContext);
+			initLayout(layoutContext, true);
 		}
 		bounds = LayoutProperties.getBounds(layoutContext.getGraph());
 		computeOneIteration();
@@ -338,6 +432,32 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		return sprIterations;
 	}
 
+	/**
+	 * Sets the number of iterations to be used for an incremental layout pass,
+	 * i.e. when {@link #applyLayout(LayoutContext, boolean)} is called with
+	 * <code>clean</code> set to <code>false</code>.
+	 * 
+	 * @param iterations
+	 *            The number of iterations for an incremental layout pass.
+	 */
+	public void setIncrementalIterations(int iterations) {
+		if (iterations < 0) {
+			throw new IllegalArgumentException(
+					"The number of iterations may not be negative.");
+		}
+		incrementalIterations = iterations;
+	}
+
+	/**
+	 * Returns the number of iterations to be used for an incremental layout
+	 * pass.
+	 * 
+	 * @return The number of iterations for an incremental layout pass.
+	 */
+	public int getIncrementalIterations() {
+		return incrementalIterations;
+	}
+
 	/**
 	 * Sets whether or not this SpringLayoutAlgorithm will layout the nodes
 	 * randomly before beginning iterations.
@@ -360,35 +480,92 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		return sprRandom;
 	}
 
-	private long startTime = 0;
+	/**
+	 * Sets the {@link Repulsion} mode that is used to compute the repulsive
+	 * forces between the nodes. Per default, {@link Repulsion#EXACT} is used.
+	 * 
+	 * @param repulsion
+	 *            The new {@link Repulsion} mode.
+	 */
+	public void setRepulsion(Repulsion repulsion) {
+		if (repulsion == null) {
+			throw new IllegalArgumentException("Repulsion may not be null.");
+		}
+		this.repulsion = repulsion;
+	}
 
-	private void initLayout(LayoutContext context) {
-		entities = context.getNodes();
-		bounds = LayoutProperties.getBounds(context.getGraph());
-		loadLocations();
+	/**
+	 * Returns the {@link Repulsion} mode that is used to compute the repulsive
+	 * forces between the nodes.
+	 * 
+	 * @return The {@link Repulsion} mode.
+	 */
+	public Repulsion getRepulsion() {
+		return repulsion;
+	}
 
-		srcDestToSumOfWeights = new double[entities.length][entities.length];
-		HashMap<Node, Integer> entityToPosition = new HashMap<>();
-		for (int i = 0; i < entities.length; i++) {
-			entityToPosition.put(entities[i], new Integer(i));
+	/**
+	 * Sets the Barnes-Hut opening criterion that is used when the
+	 * {@link Repulsion#BARNES_HUT} mode is active. A group of nodes is
+	 * approximated by its center of mass if the ratio of its extent and its
+	 * distance is less than theta. Smaller values are more accurate, larger
+	 * values are faster. A value of <code>0</code> yields exact results.
+	 * 
+	 * @param theta
+	 *            The new Barnes-Hut opening criterion.
+	 */
+	public void setBarnesHutTheta(double theta) {
+		if (theta < 0) {
+			throw new IllegalArgumentException("Theta may not be negative.");
 		}
+		barnesHutTheta = theta;
+	}
 
-		Edge[] connections = context.getEdges();
-		for (int i = 0; i < connections.length; i++) {
-			Edge connection = connections[i];
-			Integer source = entityToPosition.get(connection.getSource());
-			Integer target = entityToPosition.get(connection.getTarget());
-			if (source == null || target == null)
-				continue;
-			double weight = LayoutProperties.getWeight(connection);
-			weight = (weight <= 0 ? 0.1 : weight);
-			srcDestToSumOfWeights[source.intValue()][target
-					.intValue()] += weight;
-			srcDestToSumOfWeights[target.intValue()][source
-					.intValue()] += weight;
-		}
+	/**
+	 * Returns the Barnes-Hut opening criterion that is used when the
+	 * {@link Repulsion#BARNES_HUT} mode is active.
+	 * 
+	 * @return The Barnes-Hut opening criterion.
+	 */
+	public double getBarnesHutTheta() {
+		return barnesHutTheta;
+	}
+
+	/**
+	 * Returns the seed of the random number generator that is used to place
+	 * nodes randomly. Default value is 0.
+	 *
+	 * @return The seed of the random number generator.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Sets the seed of the random number generator that is used to place
+	 * nodes randomly (see {@link #setRandom(boolean)}) and to place the nodes
+	 * that were added since the last layout pass, so that layouts are
+	 * reproducible. Default value is 0.
+	 *
+	 * @param seed
+	 *            The seed of the random number generator.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	private long startTime = 0;
+
+	private void initLayout(LayoutContext context, boolean randomize) {
+		LayoutModel model = context.getLayoutModel();
+		entities = model.getNodes();
+		bounds = LayoutProperties.getBounds(context.getGraph());
+		loadLocations(model);
 
-		if (sprRandom)
+		buildAdjacency(model);
+
+		random = new Random(seed);
+		if (sprRandom && randomize)
 			placeRandomly(); // put vertices in random places
 
 		iteration = 1;
@@ -396,7 +573,84 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		startTime = System.currentTimeMillis();
 	}
 
-	private void loadLocations() {
+	/**
+	 * Builds the compressed sparse row adjacency of the layout-relevant nodes.
+	 * Each pair of adjacent nodes is only stored once, in the row of the node
+	 * with the smaller index. The adjacency is built once per layout pass and
+	 * reused by all iterations.
+	 */
+	private void buildAdjacency(LayoutModel model) {
+		int n = entities.length;
+
+		// resolve edge end points (upper triangle, self loops are ignored)
+		int edges = model.getEdgeCount();
+		int[] sources = model.getEdgeSources();
+		int[] targets = model.getEdgeTargets();
+		int[] rows = new int[edges];
+		int[] columns = new int[edges];
+		int[] offsets = new int[n + 1];
+		int edgeCount = 0;
+		for (int i = 0; i < edges; i++) {
+			int source = sources[i];
+			int target = targets[i];
+			if (source < 0 || target < 0 || source == target) {
+				rows[i] = -1;
+				continue;
+			}
+			rows[i] = Math.min(source, target);
+			columns[i] = Math.max(source, target);
+			offsets[rows[i] + 1]++;
+			edgeCount++;
+		}
+		for (int i = 0; i < n; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+
+		// distribute edges into their rows
+		int[] nodes = new int[edgeCount];
+		double[] weights = new double[edgeCount];
+		int[] fill = Arrays.copyOf(offsets, n);
+		double[] edgeWeights = model.getEdgeWeights();
+		for (int i = 0; i < edges; i++) {
+			if (rows[i] < 0) {
+				continue;
+			}
+			double weight = edgeWeights[i];
+			int index = fill[rows[i]]++;
+			nodes[index] = columns[i];
+			weights[index] = (weight <= 0 ? 0.1 : weight);
+		}
+
+		// merge parallel edges (in place), so that every pair occurs once
+		int[] lastIndex = new int[n];
+		Arrays.fill(lastIndex, -1);
+		int size = 0;
+		for (int i = 0; i < n; i++) {
+			int start = offsets[i];
+			int end = offsets[i + 1];
+			offsets[i] = size;
+			for (int k = start; k < end; k++) {
+				int j = nodes[k];
+				if (lastIndex[j] >= offsets[i]) {
+					weights[lastIndex[j]] += weights[k];
+				} else {
+					lastIndex[j] = size;
+					nodes[size] = j;
+					weights[size] = weights[k];
+					size++;
+				}
+			}
+		}
+		offsets[n] = size;
+
+		adjacencyOffsets = offsets;
+		adjacentNodes = size == nodes.length ? nodes
+				: Arrays.copyOf(nodes, size);
+		adjacentWeights = size == weights.length ? weights
+				: Arrays.copyOf(weights, size);
+	}
+
+	private void loadLocations(LayoutModel model) {
 		if (locationsX == null || locationsX.length != entities.length) {
 			int length = entities.length;
 			locationsX = new double[length];
@@ -405,31 +659,45 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 			sizeH = new double[length];
 			forcesX = new double[length];
 			forcesY = new double[length];
+			passForcesX = new double[2][length];
+			passForcesY = new double[2][length];
+			passLocationsX = new double[length];
+			passLocationsY = new double[length];
+			scaledX = new double[length];
+			scaledY = new double[length];
 		}
-		for (int i = 0; i < entities.length; i++) {
-			Point location = LayoutProperties.getLocation(entities[i]);
-			locationsX[i] = location.x;
-			locationsY[i] = location.y;
-			Dimension size = LayoutProperties.getSize(entities[i]);
-			sizeW[i] = size.width;
-			sizeH[i] = size.height;
-		}
+		int length = entities.length;
+		System.arraycopy(model.getX(), 0, locationsX, 0, length);
+		System.arraycopy(model.getY(), 0, locationsY, 0, length);
+		System.arraycopy(model.getWidth(), 0, sizeW, 0, length);
+		System.arraycopy(model.getHeight(), 0, sizeH, 0, length);
+		movable = model.getMovable().clone();
 	}
 
+	/**
+	 * Writes the locations to the {@link LayoutModel} of the
+	 * {@link LayoutContext} and commits it, so that all locations are applied
+	 * to the nodes at once.
+	 */
 	private void saveLocations() {
 		if (entities == null)
 			return;
+		LayoutModel model = layoutContext.getLayoutModel();
+		double[] x = model.getX();
+		double[] y = model.getY();
 		for (int i = 0; i < entities.length; i++) {
-			// TODO ensure no dynamic layout passes are triggered as a result of
-			// storing the positions
 			// TODO: check where NaN values originate from
 			if (Double.isNaN(locationsX[i]) || Double.isNaN(locationsY[i])) {
 				locationsX[i] = 0;
 				locationsY[i] = 0;
 			}
-			LayoutProperties.setLocation(entities[i],
-					new Point(locationsX[i], locationsY[i]));
+			int index = model.indexOf(entities[i]);
+			if (index >= 0) {
+				x[index] = locationsX[i];
+				y[index] = locationsY[i];
+			}
 		}
+		layoutContext.commitLayoutModel();
 	}
 
 	/**
@@ -457,6 +725,9 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 *         reached yet, otherwise <code>false</code>.
 	 */
 	protected boolean performAnotherNonContinuousIteration() {
+		if (layoutContext != null && layoutContext.isTerminationRequested()) {
+			return false;
+		}
 		setSprIterationsBasedOnTime();
 		return (iteration <= sprIterations);
 	}
@@ -493,6 +764,49 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		iteration++;
 	}
 
+	/**
+	 * Places the given added nodes at the barycenter of their neighbors that
+	 * were already laid out. Nodes without such neighbors are placed randomly.
+	 * 
+	 * @param addedNodes
+	 *            The nodes that were added since the last layout pass.
+	 */
+	private void placeAddedNodes(Set<Node> addedNodes) {
+		IdentityHashMap<Node, Integer> entityToPosition = new IdentityHashMap<>();
+		for (int i = 0; i < entities.length; i++) {
+			entityToPosition.put(entities[i], i);
+		}
+		for (int i = 0; i < entities.length; i++) {
+			if (!addedNodes.contains(entities[i])) {
+				continue;
+			}
+			double x = 0, y = 0;
+			int count = 0;
+			for (Node neighbor : entities[i].getNeighbors()) {
+				Integer j = entityToPosition.get(neighbor);
+				if (j != null && !addedNodes.contains(neighbor)) {
+					x += locationsX[j];
+					y += locationsY[j];
+					count++;
+				}
+			}
+			// jitter, so that nodes with the same neighbors are separated
+			double jitterX = (random.nextDouble() - 0.5) * bounds.getWidth()
+					* 0.05;
+			double jitterY = (random.nextDouble() - 0.5) * bounds.getHeight()
+					* 0.05;
+			if (count > 0) {
+				locationsX[i] = x / count + jitterX;
+				locationsY[i] = y / count + jitterY;
+			} else {
+				locationsX[i] = bounds.getX()
+						+ random.nextDouble() * bounds.getWidth();
+				locationsY[i] = bounds.getY()
+						+ random.nextDouble() * bounds.getHeight();
+			}
+		}
+	}
+
 	/**
 	 * Puts vertices in random places, all between (0,0) and (1,1).
 	 */
@@ -513,9 +827,9 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 			locationsY[1] = bounds.getY() + bounds.getHeight();
 			for (int i = 2; i < locationsX.length; i++) {
 				locationsX[i] = bounds.getX()
-						+ Math.random() * bounds.getWidth();
+						+ random.nextDouble() * bounds.getWidth();
 				locationsY[i] = bounds.getY()
-						+ Math.random() * bounds.getHeight();
+						+ random.nextDouble() * bounds.getHeight();
 			}
 		}
 	}
@@ -525,13 +839,12 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 * computed force will be stored in the data repository
 	 */
 	protected void computeForces() {
+		double forcesX[][] = passForcesX;
+		double forcesY[][] = passForcesY;
+		double locationsX[] = passLocationsX;
+		double locationsY[] = passLocationsY;
 
-		double forcesX[][] = new double[2][this.forcesX.length];
-		double forcesY[][] = new double[2][this.forcesX.length];
-		double locationsX[] = new double[this.forcesX.length];
-		double locationsY[] = new double[this.forcesX.length];
-
-		// // initialize all forces to zero
+		// initialize all forces to zero
 		for (int j = 0; j < 2; j++) {
 			for (int i = 0; i < this.forcesX.length; i++) {
 				forcesX[j][i] = 0;
@@ -540,51 +853,13 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 				locationsY[i] = this.locationsY[i];
 			}
 		}
-		// TODO: Again really really slow!
 
 		for (int k = 0; k < 2; k++) {
-			for (int i = 0; i < this.locationsX.length; i++) {
-
-				for (int j = i + 1; j < locationsX.length; j++) {
-					double dx = (locationsX[i] - locationsX[j])
-							/ bounds.getWidth() / boundsScaleX;
-					double dy = (locationsY[i] - locationsY[j])
-							/ bounds.getHeight() / boundsScaleY;
-					double distance_sq = dx * dx + dy * dy;
-					// make sure distance and distance squared not too small
-					distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
-							distance_sq);
-					double distance = Math.sqrt(distance_sq);
-
-					// If there are relationships between srcObj and destObj
-					// then decrease force on srcObj (a pull) in direction of
-					// destObj
-					// If no relation between srcObj and destObj then increase
-					// force on srcObj (a push) from direction of destObj.
-					double sumOfWeights = srcDestToSumOfWeights[i][j];
-
-					double f;
-					if (sumOfWeights > 0) {
-						// nodes are pulled towards each other
-						f = -sprStrain * Math.log(distance / sprLength)
-								* sumOfWeights;
-					} else {
-						// nodes are repelled from each other
-						f = sprGravitation / (distance_sq);
-					}
-					double dfx = f * dx / distance;
-					double dfy = f * dy / distance;
-
-					forcesX[k][i] += dfx;
-					forcesY[k][i] += dfy;
-
-					forcesX[k][j] -= dfx;
-					forcesY[k][j] -= dfy;
-				}
-			}
+			computeRepulsion(locationsX, locationsY, forcesX[k], forcesY[k]);
+			computeAttraction(forcesX[k], forcesY[k]);
 
 			for (int i = 0; i < entities.length; i++) {
-				if (LayoutProperties.isMovable(entities[i])) {
+				if (movable[i]) {
 					double deltaX = sprMove * forcesX[k][i];
 					double deltaY = sprMove * forcesY[k][i];
 
@@ -622,14 +897,106 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 
 	}
 
+	/**
+	 * Computes the repulsive forces between all pairs of nodes (regardless of
+	 * whether they are connected or not) and adds them to the given force
+	 * arrays. The computation is either exact or approximated, depending on
+	 * the {@link Repulsion} mode. Afterwards, the scaled locations (i.e.
+	 * relative to the current bounds scale) are available in
+	 * {@link #scaledX} and {@link #scaledY}.
+	 */
+	private void computeRepulsion(double[] locationsX, double[] locationsY,
+			double[] forcesX, double[] forcesY) {
+		int n = entities.length;
+		double scaleX = bounds.getWidth() * boundsScaleX;
+		double scaleY = bounds.getHeight() * boundsScaleY;
+		for (int i = 0; i < n; i++) {
+			scaledX[i] = locationsX[i] / scaleX;
+			scaledY[i] = locationsY[i] / scaleY;
+		}
+		double minDistanceSq = MIN_DISTANCE * MIN_DISTANCE;
+
+		if (repulsion == Repulsion.BARNES_HUT) {
+			quadTree.build(scaledX, scaledY, n);
+			for (int i = 0; i < n; i++) {
+				force[0] = 0;
+				force[1] = 0;
+				quadTree.addRepulsion(i, barnesHutTheta, sprGravitation,
+						minDistanceSq, force);
+				forcesX[i] += force[0];
+				forcesY[i] += force[1];
+			}
+			return;
+		}
+
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				double dx = scaledX[i] - scaledX[j];
+				double dy = scaledY[i] - scaledY[j];
+				// make sure distance and distance squared not too small
+				double distance_sq = Math.max(minDistanceSq,
+						dx * dx + dy * dy);
+				double distance = Math.sqrt(distance_sq);
+
+				// nodes are repelled from each other
+				double f = sprGravitation / distance_sq;
+				double dfx = f * dx / distance;
+				double dfy = f * dy / distance;
+
+				forcesX[i] += dfx;
+				forcesY[i] += dfy;
+
+				forcesX[j] -= dfx;
+				forcesY[j] -= dfy;
+			}
+		}
+	}
+
+	/**
+	 * Computes the attractive forces between connected nodes and adds them to
+	 * the given force arrays. As connected nodes should not repel each other,
+	 * the repulsive force that was added by
+	 * {@link #computeRepulsion(double[], double[], double[], double[])} is
+	 * removed for them.
+	 */
+	private void computeAttraction(double[] forcesX, double[] forcesY) {
+		double minDistanceSq = MIN_DISTANCE * MIN_DISTANCE;
+		for (int i = 0; i < entities.length; i++) {
+			double xi = scaledX[i];
+			double yi = scaledY[i];
+			for (int k = adjacencyOffsets[i]; k < adjacencyOffsets[i
+					+ 1]; k++) {
+				int j = adjacentNodes[k];
+				double dx = xi - scaledX[j];
+				double dy = yi - scaledY[j];
+				double distance_sq = Math.max(minDistanceSq,
+						dx * dx + dy * dy);
+				double distance = Math.sqrt(distance_sq);
+
+				// nodes are pulled towards each other
+				double f = -sprStrain * Math.log(distance / sprLength)
+						* adjacentWeights[k] - sprGravitation / distance_sq;
+				double dfx = f * dx / distance;
+				double dfy = f * dy / distance;
+
+				forcesX[i] += dfx;
+				forcesY[i] += dfy;
+
+				forcesX[j] -= dfx;
+				forcesY[j] -= dfy;
+			}
+		}
+	}
+
 	/**
 	 * Computes the position for each node in this SpringLayoutAlgorithm. The
 	 * computed position will be stored in the data repository. position =
 	 * position + sprMove * force
 	 */
 	protected void computePositions() {
+		displacement = 0;
 		for (int i = 0; i < entities.length; i++) {
-			if (LayoutProperties.isMovable(entities[i])) {
+			if (movable[i]) {
 				double deltaX = sprMove * forcesX[i];
 				double deltaY = sprMove * forcesY[i];
 
@@ -642,8 +1009,11 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 					deltaY *= maxMovement / dist;
 				}
 
-				locationsX[i] += deltaX * bounds.getWidth() * boundsScaleX;
-				locationsY[i] += deltaY * bounds.getHeight() * boundsScaleY;
+				deltaX = deltaX * bounds.getWidth() * boundsScaleX;
+				deltaY = deltaY * bounds.getHeight() * boundsScaleY;
+				locationsX[i] += deltaX;
+				locationsY[i] += deltaY;
+				displacement += Math.sqrt(deltaX * deltaX + deltaY * deltaY);
 			}
 		}
 	}
@@ -0,0 +1,1044 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutModel;
+import org.eclipse.gef.layout.LayoutProperties;
+
+/**
+ * The {@link StressMajorizationLayoutAlgorithm} places the nodes so that their
+ * Euclidean distances approximate their graph-theoretic distances, which makes
+ * it suitable for graphs where edge lengths matter. The weight of an edge (see
+ * {@link LayoutProperties#getWeight(Edge)}) is used as its ideal length. Edges
+ * without a positive weight get the average length of the weighted edges (or
+ * <code>1</code> if no edge is weighted).
+ * <p>
+ * The algorithm follows the sparse stress model of Ortmann, Klimenta, and
+ * Brandes ("A Sparse Stress Model"). A number of pivots is chosen randomly,
+ * and the shortest path distances from the pivots to all nodes are computed in
+ * parallel (using breadth-first search if all edges have the same length, and
+ * Dijkstra's algorithm otherwise). The initial layout is computed by pivot
+ * multidimensional scaling (see Brandes and Pich, "Eigensolver Methods for
+ * Progressive Multidimensional Scaling of Large Data"). Afterwards, the stress
+ * is reduced by localized majorization, where every node is only related to its
+ * neighbors and to the pivots. The term of a pivot is weighted by the number of
+ * nodes in its region (the nodes that are closer to it than to any other
+ * pivot) that are closer to it than half its distance to the node, so that the
+ * pivots represent the remaining nodes. Thus, every iteration requires
+ * <code>O(m + kn)</code> time for <code>k</code> pivots, and all data is kept
+ * in primitive arrays.
+ * <p>
+ * Finally, the layout is scaled uniformly (preserving the relative distances)
+ * to fit the layout bounds. Nodes that are not movable keep their location
+ * throughout the majorization, and the movable nodes are laid out around them
+ * and only moved towards them as far as needed to fit the layout bounds. If
+ * <i>clean</i> is <code>false</code>, the majorization starts from the current
+ * locations, after placing the added nodes at the barycenter of their
+ * neighbors. Pairs of nodes that are not connected are related via the largest
+ * distance of the graph, so that disconnected graphs should rather be laid out
+ * using a {@link ComponentPackingLayoutAlgorithm}.
+ */
+public class StressMajorizationLayoutAlgorithm implements ILayoutAlgorithm {
+
+	private static final int DEFAULT_ITERATIONS = 100;
+	private static final int DEFAULT_INCREMENTAL_ITERATIONS = 30;
+	private static final int DEFAULT_PIVOT_COUNT = 50;
+
+	/**
+	 * The number of iterations of the power iteration that computes the
+	 * eigenvectors for pivot multidimensional scaling.
+	 */
+	private static final int POWER_ITERATIONS = 100;
+
+	/**
+	 * The majorization stops when the stress decreased by less than this share
+	 * within one iteration.
+	 */
+	private static final double TOLERANCE = 1e-4;
+
+	private static final int INSETS = 4;
+
+	private final int parallelism;
+	private int iterations = DEFAULT_ITERATIONS;
+	private int incrementalIterations = DEFAULT_INCREMENTAL_ITERATIONS;
+	private int pivotCount = DEFAULT_PIVOT_COUNT;
+	private long seed = 0;
+
+	// the undirected graph in compressed sparse row (CSR) form, i.e. the
+	// neighbors of node i are stored at neighbors[offsets[i]] to
+	// neighbors[offsets[i + 1] - 1], together with the ideal edge lengths
+	private int[] offsets;
+	private int[] neighbors;
+	private double[] lengths;
+
+	/**
+	 * Constructs a new {@link StressMajorizationLayoutAlgorithm} that computes
+	 * the shortest path distances using one thread per available processor.
+	 */
+	public StressMajorizationLayoutAlgorithm() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructs a new {@link StressMajorizationLayoutAlgorithm} that computes
+	 * the shortest path distances using the given number of threads.
+	 *
+	 * @param parallelism
+	 *            The number of threads to use.
+	 */
+	public StressMajorizationLayoutAlgorithm(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(
+					"The parallelism has to be positive.");
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the maximum number of majorization iterations. Default value is
+	 * 100.
+	 *
+	 * @return The maximum number of majorization iterations.
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Sets the maximum number of majorization iterations. Default value is
+	 * 100.
+	 *
+	 * @param iterations
+	 *            The maximum number of majorization iterations.
+	 */
+	public void setIterations(int iterations) {
+		if (iterations < 0) {
+			throw new IllegalArgumentException(
+					"The number of iterations may not be negative.");
+		}
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Returns the maximum number of majorization iterations that are performed
+	 * by an incremental layout pass. Default value is 30.
+	 *
+	 * @return The maximum number of iterations of an incremental layout pass.
+	 */
+	public int getIncrementalIterations() {
+		return incrementalIterations;
+	}
+
+	/**
+	 * Sets the maximum number of majorization iterations that are performed by
+	 * an incremental layout pass. Default value is 30.
+	 *
+	 * @param iterations
+	 *            The maximum number of iterations of an incremental layout
+	 *            pass.
+	 */
+	public void setIncrementalIterations(int iterations) {
+		if (iterations < 0) {
+			throw new IllegalArgumentException(
+					"The number of iterations may not be negative.");
+		}
+		this.incrementalIterations = iterations;
+	}
+
+	/**
+	 * Returns the number of pivots. Default value is 50.
+	 *
+	 * @return The number of pivots.
+	 */
+	public int getPivotCount() {
+		return pivotCount;
+	}
+
+	/**
+	 * Sets the number of pivots. More pivots improve the approximation of the
+	 * distances between nodes that are not adjacent, at the cost of time and
+	 * memory (both grow linearly). Default value is 50.
+	 *
+	 * @param pivotCount
+	 *            The number of pivots.
+	 */
+	public void setPivotCount(int pivotCount) {
+		if (pivotCount < 1) {
+			throw new IllegalArgumentException(
+					"The number of pivots has to be positive.");
+		}
+		this.pivotCount = pivotCount;
+	}
+
+	/**
+	 * Returns the seed of the random number generator that is used to choose
+	 * the pivots. Default value is 0.
+	 *
+	 * @return The seed of the random number generator.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Sets the seed of the random number generator that is used to choose the
+	 * pivots, so that layouts are reproducible. Default value is 0.
+	 *
+	 * @param seed
+	 *            The seed of the random number generator.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	@Override
+	public void applyLayout(LayoutContext layoutContext, boolean clean) {
+		if (!clean && !layoutContext.hasChanges()) {
+			return;
+		}
+		Rectangle bounds = LayoutProperties
+				.getBounds(layoutContext.getGraph());
+		if (bounds == null || bounds.isEmpty()) {
+			return;
+		}
+		LayoutModel model = layoutContext.getLayoutModel();
+		int n = model.getNodeCount();
+		if (n == 0) {
+			return;
+		}
+		Random random = new Random(seed);
+		createAdjacency(model);
+
+		int k = Math.min(pivotCount, n);
+		int[] pivots = choosePivots(n, k, random);
+		double[][] distances = computeDistances(layoutContext, pivots);
+		if (distances == null) {
+			// terminated
+			offsets = null;
+			neighbors = null;
+			lengths = null;
+			return;
+		}
+
+		double[] x = new double[n];
+		double[] y = new double[n];
+		Set<Node> addedNodes = layoutContext.getAddedNodes();
+		boolean incremental = !clean && addedNodes.size() * 2 <= n;
+		int maxIterations;
+		if (incremental) {
+			placeAddedNodes(model, addedNodes, x, y, random);
+			maxIterations = incrementalIterations;
+		} else {
+			pivotMds(distances, x, y, random);
+			maxIterations = iterations;
+		}
+
+		// relate the nodes to the pivots in node-major order
+		double[] pivotDistances = new double[n * k];
+		double[] pivotWeights = new double[n * k];
+		computePivotTerms(distances, pivotDistances, pivotWeights);
+		distances = null;
+
+		double factor = scale(pivots, pivotDistances, pivotWeights, x, y);
+		Rectangle insetBounds = new Rectangle(bounds.getX() + INSETS,
+				bounds.getY() + INSETS, bounds.getWidth() - 2 * INSETS,
+				bounds.getHeight() - 2 * INSETS);
+		boolean[] movable = model.getMovable();
+		boolean pinned = false;
+		for (int i = 0; i < n && !pinned; i++) {
+			pinned = !movable[i];
+		}
+		if (!pinned) {
+			majorize(layoutContext, movable, pivots, pivotDistances,
+					pivotWeights, x, y, maxIterations, random);
+			// apply locations and fit them into the bounds
+			fitWithinBounds(model, x, y, insetBounds);
+		} else {
+			// the nodes that are not movable are held at their locations
+			// (converted into the units of the ideal distances), and the
+			// movable nodes are laid out around them; the current locations
+			// (of an incremental layout) are scaled just like the initial
+			// ones, otherwise the scale is chosen as if the initial layout
+			// was fit into the bounds
+			double pixelsPerUnit;
+			double unitCenterX = 0;
+			double unitCenterY = 0;
+			double pixelCenterX = 0;
+			double pixelCenterY = 0;
+			if (incremental) {
+				pixelsPerUnit = 1 / factor;
+			} else {
+				pixelsPerUnit = getFitFactor(model, x, y, insetBounds);
+				unitCenterX = getCenter(x);
+				unitCenterY = getCenter(y);
+				pixelCenterX = insetBounds.getX() + insetBounds.getWidth() / 2;
+				pixelCenterY = insetBounds.getY()
+						+ insetBounds.getHeight() / 2;
+			}
+			if (!(pixelsPerUnit > 0) || Double.isInfinite(pixelsPerUnit)) {
+				pixelsPerUnit = 1;
+			}
+			double[] modelX = model.getX();
+			double[] modelY = model.getY();
+			for (int i = 0; i < n; i++) {
+				if (!movable[i]) {
+					x[i] = unitCenterX
+							+ (modelX[i] - pixelCenterX) / pixelsPerUnit;
+					y[i] = unitCenterY
+							+ (modelY[i] - pixelCenterY) / pixelsPerUnit;
+				}
+			}
+			majorize(layoutContext, movable, pivots, pivotDistances,
+					pivotWeights, x, y, maxIterations, random);
+			for (int i = 0; i < n; i++) {
+				x[i] = pixelCenterX + (x[i] - unitCenterX) * pixelsPerUnit;
+				y[i] = pixelCenterY + (y[i] - unitCenterY) * pixelsPerUnit;
+			}
+			AlgorithmHelper.fitAroundPinnedNodes(model, x, y, insetBounds);
+		}
+		layoutContext.commitLayoutModel();
+		offsets = null;
+		neighbors = null;
+		lengths = null;
+	}
+
+	/**
+	 * Builds the CSR adjacency of the given {@link LayoutModel} and determines
+	 * the ideal edge lengths. Self loops are ignored, and of parallel edges
+	 * the shortest one is kept.
+	 */
+	private void createAdjacency(LayoutModel model) {
+		int n = model.getNodeCount();
+		int[] sources = model.getEdgeSources();
+		int[] targets = model.getEdgeTargets();
+		double[] weights = model.getEdgeWeights();
+		double totalWeight = 0;
+		int weighted = 0;
+		int[] degrees = new int[n + 1];
+		for (int e = 0; e < sources.length; e++) {
+			int s = sources[e];
+			int t = targets[e];
+			if (s >= 0 && t >= 0 && s != t) {
+				degrees[s + 1]++;
+				degrees[t + 1]++;
+				if (weights[e] > 0 && !Double.isInfinite(weights[e])) {
+					totalWeight += weights[e];
+					weighted++;
+				}
+			}
+		}
+		double defaultLength = weighted > 0 ? totalWeight / weighted : 1;
+		for (int i = 0; i < n; i++) {
+			degrees[i + 1] += degrees[i];
+		}
+		int[] adjacent = new int[degrees[n]];
+		double[] adjacentLengths = new double[adjacent.length];
+		int[] fill = Arrays.copyOf(degrees, n);
+		for (int e = 0; e < sources.length; e++) {
+			int s = sources[e];
+			int t = targets[e];
+			if (s >= 0 && t >= 0 && s != t) {
+				double length = weights[e] > 0
+						&& !Double.isInfinite(weights[e]) ? weights[e]
+								: defaultLength;
+				adjacentLengths[fill[s]] = length;
+				adjacent[fill[s]++] = t;
+				adjacentLengths[fill[t]] = length;
+				adjacent[fill[t]++] = s;
+			}
+		}
+
+		// merge parallel edges (in place)
+		int[] lastIndex = new int[n];
+		Arrays.fill(lastIndex, -1);
+		int size = 0;
+		for (int i = 0; i < n; i++) {
+			int start = degrees[i];
+			int end = degrees[i + 1];
+			degrees[i] = size;
+			for (int e = start; e < end; e++) {
+				int j = adjacent[e];
+				if (lastIndex[j] >= degrees[i]) {
+					adjacentLengths[lastIndex[j]] = Math.min(
+							adjacentLengths[lastIndex[j]], adjacentLengths[e]);
+				} else {
+					lastIndex[j] = size;
+					adjacent[size] = j;
+					adjacentLengths[size] = adjacentLengths[e];
+					size++;
+				}
+			}
+		}
+		degrees[n] = size;
+		offsets = degrees;
+		neighbors = Arrays.copyOf(adjacent, size);
+		lengths = Arrays.copyOf(adjacentLengths, size);
+	}
+
+	/**
+	 * Chooses <i>k</i> distinct pivots uniformly at random.
+	 */
+	private static int[] choosePivots(int n, int k, Random random) {
+		int[] permutation = new int[n];
+		for (int i = 0; i < n; i++) {
+			permutation[i] = i;
+		}
+		for (int i = 0; i < k; i++) {
+			int j = i + random.nextInt(n - i);
+			int tmp = permutation[i];
+			permutation[i] = permutation[j];
+			permutation[j] = tmp;
+		}
+		return Arrays.copyOf(permutation, k);
+	}
+
+	/**
+	 * Computes the shortest path distances from the given pivots to all nodes
+	 * in parallel. Distances to nodes that cannot be reached are replaced by
+	 * the largest distance plus the largest edge length. Searches that did not
+	 * start before the termination of the layout pass is requested are
+	 * skipped.
+	 *
+	 * @return The distances indexed by pivot and node, or <code>null</code> if
+	 *         the computation was terminated.
+	 */
+	private double[][] computeDistances(final LayoutContext layoutContext,
+			int[] pivots) {
+		boolean uniform = true;
+		double maxLength = 0;
+		for (int e = 0; e < lengths.length; e++) {
+			uniform &= lengths[e] == lengths[0];
+			maxLength = Math.max(maxLength, lengths[e]);
+		}
+		final boolean bfs = uniform;
+		final BooleanSupplier terminationCheck = AlgorithmHelper
+				.getTerminationCheck(layoutContext);
+		List<Callable<double[]>> tasks = new ArrayList<>(pivots.length);
+		for (final int pivot : pivots) {
+			tasks.add(new Callable<double[]>() {
+				@Override
+				public double[] call() {
+					if (terminationCheck.getAsBoolean()) {
+						return null;
+					}
+					return bfs ? breadthFirstSearch(pivot)
+							: dijkstra(pivot);
+				}
+			});
+		}
+
+		List<double[]> results = AlgorithmHelper.invokeAll(tasks, parallelism);
+		if (results == null || results.contains(null)) {
+			return null;
+		}
+		double[][] distances = results.toArray(new double[pivots.length][]);
+
+		double maxDistance = 0;
+		for (double[] row : distances) {
+			for (double d : row) {
+				if (d != Double.POSITIVE_INFINITY) {
+					maxDistance = Math.max(maxDistance, d);
+				}
+			}
+		}
+		double unreachable = maxDistance + (maxLength > 0 ? maxLength : 1);
+		for (double[] row : distances) {
+			for (int i = 0; i < row.length; i++) {
+				if (row[i] == Double.POSITIVE_INFINITY) {
+					row[i] = unreachable;
+				}
+			}
+		}
+		return distances;
+	}
+
+	/**
+	 * Computes the distances from the given source to all nodes by
+	 * breadth-first search, assuming that all edges have the same length.
+	 */
+	private double[] breadthFirstSearch(int source) {
+		int n = offsets.length - 1;
+		double length = lengths.length > 0 ? lengths[0] : 1;
+		int[] hops = new int[n];
+		Arrays.fill(hops, -1);
+		int[] queue = new int[n];
+		int head = 0;
+		int tail = 0;
+		hops[source] = 0;
+		queue[tail++] = source;
+		while (head < tail) {
+			int i = queue[head++];
+			for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+				int j = neighbors[e];
+				if (hops[j] < 0) {
+					hops[j] = hops[i] + 1;
+					queue[tail++] = j;
+				}
+			}
+		}
+		double[] distances = new double[n];
+		for (int i = 0; i < n; i++) {
+			distances[i] = hops[i] < 0 ? Double.POSITIVE_INFINITY
+					: hops[i] * length;
+		}
+		return distances;
+	}
+
+	/**
+	 * Computes the distances from the given source to all nodes using
+	 * Dijkstra's algorithm with an indexed binary heap.
+	 */
+	private double[] dijkstra(int source) {
+		int n = offsets.length - 1;
+		double[] distances = new double[n];
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		int[] heap = new int[n];
+		// position of a node within the heap, -1 if not inserted yet, and -2
+		// if already settled
+		int[] positions = new int[n];
+		Arrays.fill(positions, -1);
+		int size = 0;
+		distances[source] = 0;
+		heap[size] = source;
+		positions[source] = size++;
+		while (size > 0) {
+			int i = heap[0];
+			positions[i] = -2;
+			size--;
+			if (size > 0) {
+				heap[0] = heap[size];
+				positions[heap[0]] = 0;
+				siftDown(heap, positions, distances, size, 0);
+			}
+			for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+				int j = neighbors[e];
+				if (positions[j] == -2) {
+					continue;
+				}
+				double d = distances[i] + lengths[e];
+				if (d < distances[j]) {
+					distances[j] = d;
+					if (positions[j] < 0) {
+						heap[size] = j;
+						positions[j] = size++;
+					}
+					siftUp(heap, positions, distances, positions[j]);
+				}
+			}
+		}
+		return distances;
+	}
+
+	private static void siftUp(int[] heap, int[] positions, double[] keys,
+			int index) {
+		int node = heap[index];
+		while (index > 0) {
+			int parent = (index - 1) / 2;
+			if (keys[heap[parent]] <= keys[node]) {
+				break;
+			}
+			heap[index] = heap[parent];
+			positions[heap[index]] = index;
+			index = parent;
+		}
+		heap[index] = node;
+		positions[node] = index;
+	}
+
+	private static void siftDown(int[] heap, int[] positions, double[] keys,
+			int size, int index) {
+		int node = heap[index];
+		while (2 * index + 1 < size) {
+			int child = 2 * index + 1;
+			if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+				child++;
+			}
+			if (keys[node] <= keys[heap[child]]) {
+				break;
+			}
+			heap[index] = heap[child];
+			positions[heap[index]] = index;
+			index = child;
+		}
+		heap[index] = node;
+		positions[node] = index;
+	}
+
+	/**
+	 * Computes an initial layout by pivot multidimensional scaling: the
+	 * squared pivot distances are double centered (yielding the matrix
+	 * <i>C</i>), and the nodes are projected onto the two dominant
+	 * eigenvectors of <i>C<sup>T</sup>C</i>, which are computed by power
+	 * iteration.
+	 */
+	private static void pivotMds(double[][] distances, double[] x, double[] y,
+			Random random) {
+		int k = distances.length;
+		int n = x.length;
+		double[] columnMeans = new double[k];
+		double[] rowMeans = new double[n];
+		double mean = 0;
+		for (int p = 0; p < k; p++) {
+			double[] row = distances[p];
+			for (int i = 0; i < n; i++) {
+				double squared = row[i] * row[i];
+				columnMeans[p] += squared;
+				rowMeans[i] += squared;
+			}
+			mean += columnMeans[p];
+			columnMeans[p] /= n;
+		}
+		mean /= (double) n * k;
+		for (int i = 0; i < n; i++) {
+			rowMeans[i] /= k;
+		}
+
+		// accumulate C^T C row by row
+		double[][] product = new double[k][k];
+		double[] c = new double[k];
+		for (int i = 0; i < n; i++) {
+			centeredRow(distances, rowMeans, columnMeans, mean, i, c);
+			for (int p = 0; p < k; p++) {
+				double cp = c[p];
+				double[] row = product[p];
+				for (int q = p; q < k; q++) {
+					row[q] += cp * c[q];
+				}
+			}
+		}
+		for (int p = 0; p < k; p++) {
+			for (int q = 0; q < p; q++) {
+				product[p][q] = product[q][p];
+			}
+		}
+
+		double[] first = dominantEigenvector(product, null, random);
+		double[] second = dominantEigenvector(product, first, random);
+		for (int i = 0; i < n; i++) {
+			centeredRow(distances, rowMeans, columnMeans, mean, i, c);
+			double px = 0;
+			double py = 0;
+			for (int p = 0; p < k; p++) {
+				px += c[p] * first[p];
+				py += c[p] * second[p];
+			}
+			x[i] = px;
+			y[i] = py;
+		}
+	}
+
+	private static void centeredRow(double[][] distances, double[] rowMeans,
+			double[] columnMeans, double mean, int i, double[] c) {
+		for (int p = 0; p < c.length; p++) {
+			double d = distances[p][i];
+			c[p] = -0.5 * (d * d - rowMeans[i] - columnMeans[p] + mean);
+		}
+	}
+
+	/**
+	 * Computes the dominant eigenvector of the given symmetric matrix by power
+	 * iteration. If an orthogonal vector is given, the iteration is restricted
+	 * to its orthogonal complement, which yields the second eigenvector.
+	 */
+	private static double[] dominantEigenvector(double[][] matrix,
+			double[] orthogonal, Random random) {
+		int k = matrix.length;
+		double[] v = new double[k];
+		for (int p = 0; p < k; p++) {
+			v[p] = random.nextDouble() - 0.5;
+		}
+		double[] next = new double[k];
+		for (int iteration = 0; iteration < POWER_ITERATIONS; iteration++) {
+			if (orthogonal != null) {
+				double dot = 0;
+				for (int p = 0; p < k; p++) {
+					dot += v[p] * orthogonal[p];
+				}
+				for (int p = 0; p < k; p++) {
+					v[p] -= dot * orthogonal[p];
+				}
+			}
+			double norm = 0;
+			for (int p = 0; p < k; p++) {
+				norm += v[p] * v[p];
+			}
+			norm = Math.sqrt(norm);
+			if (norm == 0) {
+				break;
+			}
+			for (int p = 0; p < k; p++) {
+				v[p] /= norm;
+			}
+			double change = 0;
+			for (int p = 0; p < k; p++) {
+				double sum = 0;
+				double[] row = matrix[p];
+				for (int q = 0; q < k; q++) {
+					sum += row[q] * v[q];
+				}
+				next[p] = sum;
+			}
+			double nextNorm = 0;
+			for (int p = 0; p < k; p++) {
+				nextNorm += next[p] * next[p];
+			}
+			nextNorm = Math.sqrt(nextNorm);
+			if (nextNorm == 0) {
+				break;
+			}
+			for (int p = 0; p < k; p++) {
+				double value = next[p] / nextNorm;
+				change += Math.abs(value - v[p]);
+				v[p] = value;
+			}
+			if (change < 1e-9) {
+				break;
+			}
+		}
+		return v;
+	}
+
+	/**
+	 * Loads the current locations and places the added nodes at the
+	 * barycenter of their neighbors that were not added (nodes without such
+	 * neighbors are placed randomly).
+	 */
+	private void placeAddedNodes(LayoutModel model, Set<Node> addedNodes,
+			double[] x, double[] y, Random random) {
+		int n = x.length;
+		System.arraycopy(model.getX(), 0, x, 0, n);
+		System.arraycopy(model.getY(), 0, y, 0, n);
+		boolean[] added = new boolean[n];
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			added[i] = addedNodes.contains(model.getNode(i));
+			if (!added[i]) {
+				minX = Math.min(minX, x[i]);
+				minY = Math.min(minY, y[i]);
+				maxX = Math.max(maxX, x[i]);
+				maxY = Math.max(maxY, y[i]);
+			}
+		}
+		if (minX > maxX) {
+			minX = minY = 0;
+			maxX = maxY = 1;
+		}
+		for (int i = 0; i < n; i++) {
+			if (!added[i]) {
+				continue;
+			}
+			double sumX = 0;
+			double sumY = 0;
+			int count = 0;
+			for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+				int j = neighbors[e];
+				if (!added[j]) {
+					sumX += x[j];
+					sumY += y[j];
+					count++;
+				}
+			}
+			if (count > 0) {
+				x[i] = sumX / count;
+				y[i] = sumY / count;
+			} else {
+				x[i] = minX + random.nextDouble() * (maxX - minX);
+				y[i] = minY + random.nextDouble() * (maxY - minY);
+			}
+		}
+	}
+
+	/**
+	 * Transposes the pivot distances into node-major order, and computes the
+	 * weights of the pivot terms: the term of node <i>i</i> and pivot
+	 * <i>p</i> is weighted by the number of nodes in the region of <i>p</i>
+	 * that are at most half as far from <i>p</i> as <i>i</i>, divided by the
+	 * squared distance.
+	 */
+	private static void computePivotTerms(double[][] distances,
+			double[] pivotDistances, double[] pivotWeights) {
+		int k = distances.length;
+		int n = pivotDistances.length / k;
+
+		// assign every node to the region of its closest pivot
+		int[] regions = new int[n];
+		int[] regionSizes = new int[k];
+		for (int i = 0; i < n; i++) {
+			int region = 0;
+			for (int p = 1; p < k; p++) {
+				if (distances[p][i] < distances[region][i]) {
+					region = p;
+				}
+			}
+			regions[i] = region;
+			regionSizes[region]++;
+		}
+		double[][] regionDistances = new double[k][];
+		for (int p = 0; p < k; p++) {
+			regionDistances[p] = new double[regionSizes[p]];
+			regionSizes[p] = 0;
+		}
+		for (int i = 0; i < n; i++) {
+			int region = regions[i];
+			regionDistances[region][regionSizes[region]++] = distances[region][i];
+		}
+		for (int p = 0; p < k; p++) {
+			Arrays.sort(regionDistances[p]);
+		}
+
+		for (int p = 0; p < k; p++) {
+			double[] row = distances[p];
+			double[] sorted = regionDistances[p];
+			for (int i = 0; i < n; i++) {
+				double d = row[i];
+				pivotDistances[i * k + p] = d;
+				if (d > 0) {
+					// the pivot itself is always counted
+					int count = Math.max(1, countAtMost(sorted, d / 2));
+					pivotWeights[i * k + p] = count / (d * d);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of values of the given sorted array that are less
+	 * than or equal to the given value.
+	 */
+	private static int countAtMost(double[] sorted, double value) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (sorted[middle] <= value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Scales the given locations by the factor that minimizes the sparse
+	 * stress, so that the majorization starts at the scale of the ideal
+	 * distances.
+	 *
+	 * @return The factor by which the locations were scaled.
+	 */
+	private double scale(int[] pivots, double[] pivotDistances,
+			double[] pivotWeights, double[] x, double[] y) {
+		int n = x.length;
+		int k = pivots.length;
+		double numerator = 0;
+		double denominator = 0;
+		for (int i = 0; i < n; i++) {
+			for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+				int j = neighbors[e];
+				double distance = Math.hypot(x[i] - x[j], y[i] - y[j]);
+				double weight = 1 / (lengths[e] * lengths[e]);
+				numerator += weight * lengths[e] * distance;
+				denominator += weight * distance * distance;
+			}
+			for (int p = 0; p < k; p++) {
+				double weight = pivotWeights[i * k + p];
+				if (weight > 0) {
+					int j = pivots[p];
+					double distance = Math.hypot(x[i] - x[j], y[i] - y[j]);
+					numerator += weight * pivotDistances[i * k + p] * distance;
+					denominator += weight * distance * distance;
+				}
+			}
+		}
+		if (denominator > 0 && numerator > 0) {
+			double factor = numerator / denominator;
+			for (int i = 0; i < n; i++) {
+				x[i] *= factor;
+				y[i] *= factor;
+			}
+			return factor;
+		}
+		return 1;
+	}
+
+	/**
+	 * Reduces the sparse stress by localized majorization: every movable node
+	 * is moved (in turn) to the weighted average of the locations that
+	 * realize its ideal distances to its neighbors and to the pivots. Stops
+	 * when the stress does not decrease significantly any more, or when the
+	 * termination of the layout pass is requested.
+	 */
+	private void majorize(LayoutContext layoutContext, boolean[] movable,
+			int[] pivots, double[] pivotDistances, double[] pivotWeights,
+			double[] x, double[] y, int maxIterations, Random random) {
+		int n = x.length;
+		int k = pivots.length;
+		// marks the pivots that are neighbors of the current node, so that
+		// their terms are only considered once
+		int[] adjacentPivots = new int[k];
+		int[] pivotIndices = new int[n];
+		Arrays.fill(pivotIndices, -1);
+		for (int p = 0; p < k; p++) {
+			pivotIndices[pivots[p]] = p;
+		}
+		double previousStress = Double.POSITIVE_INFINITY;
+		for (int iteration = 0; iteration < maxIterations
+				&& !layoutContext.isTerminationRequested(); iteration++) {
+			double stress = 0;
+			for (int i = 0; i < n; i++) {
+				double sumX = 0;
+				double sumY = 0;
+				double sumWeights = 0;
+				for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+					int j = neighbors[e];
+					if (pivotIndices[j] >= 0) {
+						adjacentPivots[pivotIndices[j]] = i + 1;
+					}
+					double d = lengths[e];
+					double weight = 1 / (d * d);
+					double dx = x[i] - x[j];
+					double dy = y[i] - y[j];
+					double distance = Math.sqrt(dx * dx + dy * dy);
+					if (distance < 1e-9 * d) {
+						// coincident nodes are separated in a random direction
+						double angle = 2 * Math.PI * random.nextDouble();
+						dx = Math.cos(angle);
+						dy = Math.sin(angle);
+						distance = 1;
+					}
+					sumX += weight * (x[j] + d * dx / distance);
+					sumY += weight * (y[j] + d * dy / distance);
+					sumWeights += weight;
+					stress += weight * (distance - d) * (distance - d);
+				}
+				for (int p = 0; p < k; p++) {
+					double weight = pivotWeights[i * k + p];
+					if (weight == 0 || adjacentPivots[p] == i + 1) {
+						continue;
+					}
+					int j = pivots[p];
+					double d = pivotDistances[i * k + p];
+					double dx = x[i] - x[j];
+					double dy = y[i] - y[j];
+					double distance = Math.sqrt(dx * dx + dy * dy);
+					if (distance < 1e-9 * d) {
+						double angle = 2 * Math.PI * random.nextDouble();
+						dx = Math.cos(angle);
+						dy = Math.sin(angle);
+						distance = 1;
+					}
+					sumX += weight * (x[j] + d * dx / distance);
+					sumY += weight * (y[j] + d * dy / distance);
+					sumWeights += weight;
+					stress += weight * (distance - d) * (distance - d);
+				}
+				if (movable[i] && sumWeights > 0) {
+					x[i] = sumX / sumWeights;
+					y[i] = sumY / sumWeights;
+				}
+			}
+			layoutContext.reportProgress(iteration + 1, maxIterations,
+					stress);
+			if (previousStress - stress < TOLERANCE * previousStress) {
+				break;
+			}
+			previousStress = stress;
+		}
+	}
+
+	/**
+	 * Writes the given locations into the given {@link LayoutModel}, scaled
+	 * uniformly and centered, so that the nodes fit into the given bounds.
+	 */
+	private static void fitWithinBounds(LayoutModel model, double[] x,
+			double[] y, Rectangle bounds) {
+		double factor = getFitFactor(model, x, y, bounds);
+		double centerX = getCenter(x);
+		double centerY = getCenter(y);
+		double boundsCenterX = bounds.getX() + bounds.getWidth() / 2;
+		double boundsCenterY = bounds.getY() + bounds.getHeight() / 2;
+		double[] modelX = model.getX();
+		double[] modelY = model.getY();
+		for (int i = 0; i < x.length; i++) {
+			modelX[i] = boundsCenterX + (x[i] - centerX) * factor;
+			modelY[i] = boundsCenterY + (y[i] - centerY) * factor;
+		}
+	}
+
+	/**
+	 * Returns the center of the range of the given values.
+	 */
+	private static double getCenter(double[] values) {
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (double value : values) {
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		return (min + max) / 2;
+	}
+
+	/**
+	 * Returns the factor by which the given locations have to be scaled, so
+	 * that the nodes fit into the given bounds.
+	 */
+	private static double getFitFactor(LayoutModel model, double[] x,
+			double[] y, Rectangle bounds) {
+		int n = x.length;
+		double[] width = model.getWidth();
+		double[] height = model.getHeight();
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		double maxWidth = 0;
+		double maxHeight = 0;
+		for (int i = 0; i < n; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+			maxWidth = Math.max(maxWidth, width[i]);
+			maxHeight = Math.max(maxHeight, height[i]);
+		}
+		double factor = Double.POSITIVE_INFINITY;
+		if (maxX > minX) {
+			factor = Math.max(0, bounds.getWidth() - maxWidth) / (maxX - minX);
+		}
+		if (maxY > minY) {
+			factor = Math.min(factor,
+					Math.max(0, bounds.getHeight() - maxHeight)
+							/ (maxY - minY));
+		}
+		if (Double.isInfinite(factor)) {
+			factor = 0;
+		}
+		return factor;
+	}
+}
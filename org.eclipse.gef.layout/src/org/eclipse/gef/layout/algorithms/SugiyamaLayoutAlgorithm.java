@@ -18,6 +18,7 @@
 package org.eclipse.gef.layout.algorithms;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -29,6 +30,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
 
 import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
@@ -90,6 +94,44 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 		 *            List of nodes needed to be organized
 		 */
 		void crossReduction(List<List<NodeWrapper>> nodes);
+
+		/**
+		 * Organizes the given nodes like {@link #crossReduction(List)}, but
+		 * may stop early when the termination of the layout pass is requested
+		 * (see {@link LayoutContext#isTerminationRequested()}). The default
+		 * implementation delegates to {@link #crossReduction(List)}.
+		 * 
+		 * @param nodes
+		 *            List of nodes needed to be organized
+		 * @param layoutContext
+		 *            The {@link LayoutContext} of the current layout pass.
+		 */
+		default void crossReduction(List<List<NodeWrapper>> nodes,
+				LayoutContext layoutContext) {
+			crossReduction(nodes);
+		}
+	}
+
+	/**
+	 * An interface for heuristics that compute the coordinates of the nodes
+	 * after the layers were calculated and the crossings were reduced.
+	 */
+	public static interface CoordinateAssigner {
+		/**
+		 * Computes the locations of the nodes contained in the given layers,
+		 * and applies them to the nodes. The order of the nodes within the
+		 * layers may not be changed.
+		 * 
+		 * @param layers
+		 *            The layers of nodes, ordered by the {@link CrossingReducer}
+		 *            .
+		 * @param direction
+		 *            The {@link Direction} of the layout.
+		 * @param bounds
+		 *            The layout bounds.
+		 */
+		void assignCoordinates(List<List<NodeWrapper>> layers,
+				Direction direction, Rectangle bounds);
 	}
 
 	/**
@@ -634,6 +676,947 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 	}
 
+	/**
+	 * An int-indexed representation of the layers that is shared by the
+	 * crossing reduction and coordinate assignment heuristics. Each
+	 * {@link NodeWrapper} is identified by an id, and the neighbors in the
+	 * previous and next layer are stored per id. Only edges between
+	 * consecutive layers are represented. If the {@link NodeWrapper}s of
+	 * consecutive layers are not linked (e.g. by the {@link DFSLayerProvider}
+	 * ), the edges of the graph are used instead.
+	 */
+	private static class IndexedLayers {
+
+		final NodeWrapper[] wrappers;
+		final int[] layer;
+		final int[] position;
+		final int[][] orders;
+		final int[][] upper;
+		final int[][] lower;
+
+		IndexedLayers(List<List<NodeWrapper>> nodes) {
+			int n = 0;
+			for (List<NodeWrapper> l : nodes) {
+				n += l.size();
+			}
+			wrappers = new NodeWrapper[n];
+			position = new int[n];
+			layer = new int[n];
+			orders = new int[nodes.size()][];
+			Map<NodeWrapper, Integer> ids = new IdentityHashMap<>();
+			Map<Node, Integer> nodeIds = new IdentityHashMap<>();
+			boolean linked = false;
+			int id = 0;
+			for (int l = 0; l < nodes.size(); l++) {
+				List<NodeWrapper> nodesOfLayer = nodes.get(l);
+				orders[l] = new int[nodesOfLayer.size()];
+				for (int i = 0; i < nodesOfLayer.size(); i++) {
+					NodeWrapper nw = nodesOfLayer.get(i);
+					wrappers[id] = nw;
+					position[id] = i;
+					layer[id] = l;
+					orders[l][i] = id;
+					ids.put(nw, id);
+					if (nw.node != null) {
+						nodeIds.put(nw.node, id);
+					}
+					linked |= !nw.succ.isEmpty();
+					id++;
+				}
+			}
+
+			// collect edges between consecutive layers
+			List<List<Integer>> upperLists = new ArrayList<>(n);
+			List<List<Integer>> lowerLists = new ArrayList<>(n);
+			for (int i = 0; i < n; i++) {
+				upperLists.add(new ArrayList<Integer>(2));
+				lowerLists.add(new ArrayList<Integer>(2));
+			}
+			for (int source = 0; source < n; source++) {
+				if (linked) {
+					for (NodeWrapper succ : wrappers[source].succ) {
+						Integer target = ids.get(succ);
+						if (target != null
+								&& layer[target] == layer[source] + 1) {
+							lowerLists.get(source).add(target);
+							upperLists.get(target).add(source);
+						}
+					}
+				} else if (wrappers[source].node != null) {
+					for (Edge edge : wrappers[source].node.getOutgoingEdges()) {
+						Integer target = nodeIds.get(edge.getTarget());
+						if (target == null) {
+							continue;
+						}
+						if (layer[target] == layer[source] + 1) {
+							lowerLists.get(source).add(target);
+							upperLists.get(target).add(source);
+						} else if (layer[target] == layer[source] - 1) {
+							lowerLists.get(target).add(source);
+							upperLists.get(source).add(target);
+						}
+					}
+				}
+			}
+			upper = toArrays(upperLists);
+			lower = toArrays(lowerLists);
+		}
+
+		/**
+		 * Applies the given orders (of node ids) to the given layers, and
+		 * updates the indices of the {@link NodeWrapper}s accordingly.
+		 */
+		void apply(List<List<NodeWrapper>> nodes, int[][] orders) {
+			for (int l = 0; l < orders.length; l++) {
+				List<NodeWrapper> nodesOfLayer = nodes.get(l);
+				nodesOfLayer.clear();
+				for (int id : orders[l]) {
+					wrappers[id].index = nodesOfLayer.size();
+					nodesOfLayer.add(wrappers[id]);
+				}
+			}
+		}
+
+		private static int[][] toArrays(List<List<Integer>> lists) {
+			int[][] arrays = new int[lists.size()][];
+			for (int i = 0; i < arrays.length; i++) {
+				List<Integer> list = lists.get(i);
+				arrays[i] = new int[list.size()];
+				for (int j = 0; j < arrays[i].length; j++) {
+					arrays[i][j] = list.get(j);
+				}
+			}
+			return arrays;
+		}
+	}
+
+	/**
+	 * A single run of the layer sweep heuristic on its own copy of the layer
+	 * orders. The neighbor arrays of the {@link IndexedLayers} are only read,
+	 * so that several runs can operate on the same {@link IndexedLayers}
+	 * concurrently.
+	 */
+	private static class LayerSweep {
+
+		private final int[][] upper;
+		private final int[][] lower;
+		private final int[] position;
+		private final boolean median;
+		private int[][] orders;
+		private long crossings;
+
+		/**
+		 * Creates a new {@link LayerSweep} that starts with a copy of the given
+		 * orders. The layers are sorted by the barycenters of the neighbors,
+		 * or by the medians if <i>median</i> is <code>true</code>.
+		 */
+		LayerSweep(IndexedLayers indexedLayers, int[][] orders,
+				boolean median) {
+			this.upper = indexedLayers.upper;
+			this.lower = indexedLayers.lower;
+			this.position = new int[indexedLayers.position.length];
+			this.median = median;
+			this.orders = copyOrders(orders);
+			updatePositions();
+		}
+
+		/**
+		 * Sweeps over the layers (down and up) and keeps the best order that
+		 * was found. Afterwards, adjacent nodes are exchanged as long as this
+		 * reduces the number of crossings. Stops early when the given
+		 * {@link BooleanSupplier} requests the termination.
+		 *
+		 * @return The number of crossings of the resulting order.
+		 */
+		long reduceCrossings(int maxIterations,
+				BooleanSupplier terminationRequested) {
+			long bestCrossings = countCrossings();
+			int[][] bestOrders = copyOrders(orders);
+			int nonImproving = 0;
+			for (int i = 0; i < maxIterations && bestCrossings > 0
+					&& !terminationRequested.getAsBoolean(); i++) {
+				for (int l = 1; l < orders.length; l++) {
+					sortLayer(orders[l], upper);
+				}
+				for (int l = orders.length - 2; l >= 0; l--) {
+					sortLayer(orders[l], lower);
+				}
+				long crossings = countCrossings();
+				if (crossings < bestCrossings) {
+					bestCrossings = crossings;
+					bestOrders = copyOrders(orders);
+					nonImproving = 0;
+				} else if (++nonImproving > 1) {
+					break;
+				}
+			}
+			orders = bestOrders;
+			updatePositions();
+
+			// exchange adjacent nodes while it reduces the crossings
+			boolean improved = bestCrossings > 0;
+			for (int i = 0; i < maxIterations && improved
+					&& !terminationRequested.getAsBoolean(); i++) {
+				improved = false;
+				for (int[] order : orders) {
+					improved |= exchangeAdjacent(order);
+				}
+			}
+			crossings = countCrossings();
+			return crossings;
+		}
+
+		long getCrossings() {
+			return crossings;
+		}
+
+		int[][] getOrders() {
+			return orders;
+		}
+
+		private static int[][] copyOrders(int[][] orders) {
+			int[][] copy = new int[orders.length][];
+			for (int l = 0; l < orders.length; l++) {
+				copy[l] = orders[l].clone();
+			}
+			return copy;
+		}
+
+		private void updatePositions() {
+			for (int[] order : orders) {
+				for (int i = 0; i < order.length; i++) {
+					position[order[i]] = i;
+				}
+			}
+		}
+
+		/**
+		 * Sorts the given layer by the barycenters (or medians) of the
+		 * neighbors in the given direction. Nodes without such neighbors keep
+		 * their position.
+		 */
+		private void sortLayer(int[] order, int[][] neighbors) {
+			final double[] weight = new double[order.length];
+			Integer[] indices = new Integer[order.length];
+			for (int i = 0; i < order.length; i++) {
+				int[] adjacent = neighbors[order[i]];
+				if (adjacent.length == 0) {
+					weight[i] = i;
+				} else if (median) {
+					int[] positions = sortedPositions(adjacent);
+					int m = positions.length / 2;
+					weight[i] = positions.length % 2 == 1 ? positions[m]
+							: (positions[m - 1] + positions[m]) / 2.0;
+				} else {
+					double sum = 0;
+					for (int a : adjacent) {
+						sum += position[a];
+					}
+					weight[i] = sum / adjacent.length;
+				}
+				indices[i] = i;
+			}
+			// stable sort, so that ties keep their relative order
+			Arrays.sort(indices, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer i1, Integer i2) {
+					return Double.compare(weight[i1], weight[i2]);
+				}
+			});
+			int[] sorted = new int[order.length];
+			for (int i = 0; i < order.length; i++) {
+				sorted[i] = order[indices[i]];
+			}
+			for (int i = 0; i < order.length; i++) {
+				order[i] = sorted[i];
+				position[order[i]] = i;
+			}
+		}
+
+		/**
+		 * Exchanges adjacent nodes of the given layer if this reduces the
+		 * number of crossings with both neighboring layers.
+		 */
+		private boolean exchangeAdjacent(int[] order) {
+			boolean exchanged = false;
+			for (int i = 0; i + 1 < order.length; i++) {
+				int u = order[i];
+				int v = order[i + 1];
+				long uv = countCrossings(u, v, upper)
+						+ countCrossings(u, v, lower);
+				long vu = countCrossings(v, u, upper)
+						+ countCrossings(v, u, lower);
+				if (vu < uv) {
+					order[i] = v;
+					order[i + 1] = u;
+					position[v] = i;
+					position[u] = i + 1;
+					exchanged = true;
+				}
+			}
+			return exchanged;
+		}
+
+		/**
+		 * Counts the crossings between the edges of u and v to the given
+		 * neighbors, if u is placed to the left of v.
+		 */
+		private long countCrossings(int u, int v, int[][] neighbors) {
+			int[] pu = sortedPositions(neighbors[u]);
+			int[] pv = sortedPositions(neighbors[v]);
+			// count pairs (a, b) with a of u right of b of v
+			long crossings = 0;
+			int j = 0;
+			for (int a : pu) {
+				while (j < pv.length && pv[j] < a) {
+					j++;
+				}
+				crossings += j;
+			}
+			return crossings;
+		}
+
+		private int[] sortedPositions(int[] ids) {
+			int[] positions = new int[ids.length];
+			for (int i = 0; i < ids.length; i++) {
+				positions[i] = position[ids[i]];
+			}
+			Arrays.sort(positions);
+			return positions;
+		}
+
+		/**
+		 * Returns the total number of crossings between consecutive layers.
+		 */
+		private long countCrossings() {
+			long crossings = 0;
+			for (int l = 0; l + 1 < orders.length; l++) {
+				crossings += countCrossings(orders[l], orders[l + 1].length);
+			}
+			return crossings;
+		}
+
+		/**
+		 * Counts the crossings between the given layer and the next layer
+		 * (containing the given number of nodes) using an accumulator tree.
+		 */
+		private long countCrossings(int[] order, int nextLayerSize) {
+			if (nextLayerSize < 2) {
+				return 0;
+			}
+			// leaves of the accumulator tree correspond to the positions in
+			// the next layer
+			int firstIndex = 1;
+			while (firstIndex < nextLayerSize) {
+				firstIndex *= 2;
+			}
+			int[] tree = new int[2 * firstIndex - 1];
+			firstIndex -= 1;
+			long crossings = 0;
+			// insert edges in lexicographic order of their end positions
+			for (int id : order) {
+				for (int p : sortedPositions(lower[id])) {
+					int index = p + firstIndex;
+					tree[index]++;
+					while (index > 0) {
+						if (index % 2 == 1) {
+							// count edges ending right of this one
+							crossings += tree[index + 1];
+						}
+						index = (index - 1) / 2;
+						tree[index]++;
+					}
+				}
+			}
+			return crossings;
+		}
+	}
+
+	/**
+	 * Implements the CrossingReducer interface. This algorithm sweeps over the
+	 * layers, ordering each layer by the barycenters of its neighbors in the
+	 * previous layer, and keeps the best order that was found. Afterwards,
+	 * adjacent nodes are exchanged as long as this reduces the number of
+	 * crossings.
+	 * <p>
+	 * The layers are converted to int-indexed arrays once, and the number of
+	 * crossings between two layers is counted with an accumulator tree in
+	 * <code>O(E log V)</code> (see Barth, Juenger, Mutzel: "Simple and
+	 * Efficient Bilayer Cross Counting"). Only edges between consecutive
+	 * layers are considered.
+	 */
+	public static class LayerSweepCrossingReducer implements CrossingReducer {
+
+		private static final int DEFAULT_MAX_ITERATIONS = 24;
+
+		private final int maxIterations;
+
+		/**
+		 * Constructs a new {@link LayerSweepCrossingReducer} that performs at
+		 * most 24 layer sweeps.
+		 */
+		public LayerSweepCrossingReducer() {
+			this(DEFAULT_MAX_ITERATIONS);
+		}
+
+		/**
+		 * Constructs a new {@link LayerSweepCrossingReducer} that performs at
+		 * most the given number of layer sweeps.
+		 * 
+		 * @param maxIterations
+		 *            The maximum number of layer sweeps.
+		 */
+		public LayerSweepCrossingReducer(int maxIterations) {
+			if (maxIterations < 0) {
+				throw new IllegalArgumentException(
+						"The number of iterations may not be negative.");
+			}
+			this.maxIterations = maxIterations;
+		}
+
+		public void crossReduction(List<List<NodeWrapper>> nodes) {
+			if (nodes.size() < 2) {
+				return;
+			}
+			IndexedLayers indexedLayers = new IndexedLayers(nodes);
+			LayerSweep sweep = new LayerSweep(indexedLayers,
+					indexedLayers.orders, false);
+			sweep.reduceCrossings(maxIterations, () -> false);
+			indexedLayers.apply(nodes, sweep.getOrders());
+		}
+	}
+
+	/**
+	 * Implements the CrossingReducer interface. This algorithm performs
+	 * several randomized runs of the layer sweep heuristic (see
+	 * {@link LayerSweepCrossingReducer}) in parallel on a {@link ForkJoinPool}
+	 * and keeps the order with the fewest crossings. The first run starts with
+	 * the given order and sorts by barycenters, so that the result is never
+	 * worse than the one of the {@link LayerSweepCrossingReducer}. All other
+	 * runs start with shuffled layers, and every second run sorts by medians
+	 * instead of barycenters.
+	 * <p>
+	 * Runs that did not start before the time budget is exhausted or the
+	 * termination of the layout pass is requested are skipped, and running
+	 * sweeps stop at the next iteration. The random numbers are
+	 * seeded per run, so that the result is deterministic as long as the time
+	 * budget is not exceeded.
+	 */
+	public static class ParallelCrossingReducer implements CrossingReducer {
+
+		private static final int DEFAULT_STARTS_PER_THREAD = 4;
+		private static final long DEFAULT_TIME_BUDGET = 1000;
+		private static final int MAX_ITERATIONS = 24;
+
+		private final int parallelism;
+		private final int starts;
+		private final long timeBudget;
+
+		/**
+		 * Constructs a new {@link ParallelCrossingReducer} that uses one thread
+		 * per available processor, performs four runs per thread, and has a
+		 * time budget of one second.
+		 */
+		public ParallelCrossingReducer() {
+			this(Runtime.getRuntime().availableProcessors(),
+					DEFAULT_TIME_BUDGET);
+		}
+
+		/**
+		 * Constructs a new {@link ParallelCrossingReducer} that uses the given
+		 * number of threads, performs four runs per thread, and has the given
+		 * time budget.
+		 * 
+		 * @param parallelism
+		 *            The number of threads to use.
+		 * @param timeBudget
+		 *            The time budget in milliseconds, or <code>0</code> for an
+		 *            unlimited time budget.
+		 */
+		public ParallelCrossingReducer(int parallelism, long timeBudget) {
+			this(parallelism, DEFAULT_STARTS_PER_THREAD * parallelism,
+					timeBudget);
+		}
+
+		/**
+		 * Constructs a new {@link ParallelCrossingReducer} that uses the given
+		 * number of threads, performs the given number of runs, and has the
+		 * given time budget.
+		 * 
+		 * @param parallelism
+		 *            The number of threads to use.
+		 * @param starts
+		 *            The number of runs to perform.
+		 * @param timeBudget
+		 *            The time budget in milliseconds, or <code>0</code> for an
+		 *            unlimited time budget.
+		 */
+		public ParallelCrossingReducer(int parallelism, int starts,
+				long timeBudget) {
+			if (parallelism < 1) {
+				throw new IllegalArgumentException(
+						"The parallelism has to be positive.");
+			}
+			if (starts < 1) {
+				throw new IllegalArgumentException(
+						"The number of runs has to be positive.");
+			}
+			if (timeBudget < 0) {
+				throw new IllegalArgumentException(
+						"The time budget may not be negative.");
+			}
+			this.parallelism = parallelism;
+			this.starts = starts;
+			this.timeBudget = timeBudget;
+		}
+
+		public void crossReduction(List<List<NodeWrapper>> nodes) {
+			crossReduction(nodes, null);
+		}
+
+		@Override
+		public void crossReduction(List<List<NodeWrapper>> nodes,
+				final LayoutContext layoutContext) {
+			if (nodes.size() < 2) {
+				return;
+			}
+			final IndexedLayers indexedLayers = new IndexedLayers(nodes);
+			final long deadline = System.nanoTime() + (timeBudget == 0
+					? Long.MAX_VALUE : timeBudget * 1000000);
+			final BooleanSupplier terminationCheck = AlgorithmHelper
+					.getTerminationCheck(layoutContext);
+			final BooleanSupplier terminationRequested = () -> System
+					.nanoTime() - deadline >= 0
+					|| terminationCheck.getAsBoolean();
+			List<Callable<LayerSweep>> runs = new ArrayList<>(starts);
+			for (int i = 0; i < starts; i++) {
+				final int start = i;
+				runs.add(new Callable<LayerSweep>() {
+					@Override
+					public LayerSweep call() {
+						// the first run is always performed
+						if (start > 0 && terminationRequested.getAsBoolean()) {
+							return null;
+						}
+						int[][] orders = indexedLayers.orders;
+						if (start > 0) {
+							orders = shuffle(orders, new Random(start));
+						}
+						LayerSweep sweep = new LayerSweep(indexedLayers, orders,
+								start % 2 == 1);
+						sweep.reduceCrossings(MAX_ITERATIONS,
+								terminationRequested);
+						return sweep;
+					}
+				});
+			}
+
+			LayerSweep best = null;
+			List<LayerSweep> sweeps = AlgorithmHelper.invokeAll(runs,
+					parallelism);
+			if (sweeps != null) {
+				// results are evaluated in the order of the runs, so that ties
+				// are resolved deterministically
+				for (LayerSweep sweep : sweeps) {
+					if (sweep != null && (best == null
+							|| sweep.getCrossings() < best.getCrossings())) {
+						best = sweep;
+					}
+				}
+			}
+			if (best != null) {
+				indexedLayers.apply(nodes, best.getOrders());
+			}
+		}
+
+		private static int[][] shuffle(int[][] orders, Random random) {
+			int[][] shuffled = new int[orders.length][];
+			for (int l = 0; l < orders.length; l++) {
+				int[] order = orders[l].clone();
+				for (int i = order.length - 1; i > 0; i--) {
+					int j = random.nextInt(i + 1);
+					int tmp = order[i];
+					order[i] = order[j];
+					order[j] = tmp;
+				}
+				shuffled[l] = order;
+			}
+			return shuffled;
+		}
+	}
+
+	/**
+	 * Implements the CoordinateAssigner interface. This algorithm computes the
+	 * coordinates of the nodes within their layers in linear time, following
+	 * Brandes and Koepf ("Fast and Simple Horizontal Coordinate Assignment"):
+	 * Nodes are aligned with their median neighbors in four directions,
+	 * aligned blocks are compacted, and the four resulting layouts are
+	 * balanced. In contrast to the uniform grid that is used per default, the
+	 * sizes of the nodes are respected, i.e. nodes are separated by their
+	 * extent plus the node spacing, and layers are separated by their
+	 * thickness plus the layer spacing. The resulting layout is placed at the
+	 * origin of the layout bounds, but not scaled to fit into them.
+	 */
+	public static class BrandesKoepfCoordinateAssigner
+			implements CoordinateAssigner {
+
+		private static final double DEFAULT_NODE_SPACING = 20;
+
+		private static final double DEFAULT_LAYER_SPACING = 40;
+
+		private final double nodeSpacing;
+		private final double layerSpacing;
+
+		// data for the current layout pass
+		private IndexedLayers indexedLayers;
+		private double[] breadth;
+		private Set<Long> conflicts;
+
+		/**
+		 * Constructs a new {@link BrandesKoepfCoordinateAssigner} with a node
+		 * spacing of 20 and a layer spacing of 40.
+		 */
+		public BrandesKoepfCoordinateAssigner() {
+			this(DEFAULT_NODE_SPACING, DEFAULT_LAYER_SPACING);
+		}
+
+		/**
+		 * Constructs a new {@link BrandesKoepfCoordinateAssigner} with the
+		 * given spacings.
+		 * 
+		 * @param nodeSpacing
+		 *            The minimum space between two nodes of the same layer.
+		 * @param layerSpacing
+		 *            The minimum space between two consecutive layers.
+		 */
+		public BrandesKoepfCoordinateAssigner(double nodeSpacing,
+				double layerSpacing) {
+			if (nodeSpacing < 0 || layerSpacing < 0) {
+				throw new IllegalArgumentException(
+						"The spacings may not be negative.");
+			}
+			this.nodeSpacing = nodeSpacing;
+			this.layerSpacing = layerSpacing;
+		}
+
+		public void assignCoordinates(List<List<NodeWrapper>> layers,
+				Direction direction, Rectangle bounds) {
+			indexedLayers = new IndexedLayers(layers);
+			int n = indexedLayers.wrappers.length;
+			if (n == 0) {
+				return;
+			}
+
+			// determine node extents within (breadth) and across (depth) the
+			// layers
+			boolean vertical = direction == Direction.VERTICAL;
+			breadth = new double[n];
+			double[] depth = new double[n];
+			for (int v = 0; v < n; v++) {
+				Node node = indexedLayers.wrappers[v].node;
+				Dimension size = node == null ? null
+						: LayoutProperties.getSize(node);
+				if (size != null) {
+					breadth[v] = vertical ? size.width : size.height;
+					depth[v] = vertical ? size.height : size.width;
+				}
+			}
+
+			// compute and balance the four candidate layouts
+			markConflicts();
+			double[][] candidates = new double[4][];
+			for (int i = 0; i < 4; i++) {
+				candidates[i] = computeCoordinates(i < 2, i % 2 == 0);
+			}
+			double[] x = balance(candidates);
+			separate(x);
+
+			// compute layer coordinates from the layer thicknesses
+			int[][] orders = indexedLayers.orders;
+			double[] layerCoordinates = new double[orders.length];
+			double offset = 0;
+			for (int l = 0; l < orders.length; l++) {
+				double thickness = 0;
+				for (int v : orders[l]) {
+					thickness = Math.max(thickness, depth[v]);
+				}
+				layerCoordinates[l] = offset + thickness / 2;
+				offset += thickness + layerSpacing;
+			}
+
+			double min = Double.POSITIVE_INFINITY;
+			for (int v = 0; v < n; v++) {
+				min = Math.min(min, x[v] - breadth[v] / 2);
+			}
+			for (int v = 0; v < n; v++) {
+				Node node = indexedLayers.wrappers[v].node;
+				if (node == null) {
+					continue;
+				}
+				double b = x[v] - min;
+				double d = layerCoordinates[indexedLayers.layer[v]];
+				LayoutProperties.setLocation(node,
+						vertical
+								? new Point(bounds.getX() + b,
+										bounds.getY() + d)
+								: new Point(bounds.getX() + d,
+										bounds.getY() + b));
+			}
+			indexedLayers = null;
+			conflicts = null;
+		}
+
+		/**
+		 * Marks type 1 conflicts, i.e. edges that cross an inner segment
+		 * (between two dummy nodes), so that inner segments are preferred
+		 * during alignment and long edges are drawn straight.
+		 */
+		private void markConflicts() {
+			conflicts = new HashSet<>();
+			int[][] orders = indexedLayers.orders;
+			int[] position = indexedLayers.position;
+			for (int l = 0; l + 1 < orders.length; l++) {
+				int[] lowerLayer = orders[l + 1];
+				int k0 = 0;
+				int scan = 0;
+				for (int l1 = 0; l1 < lowerLayer.length; l1++) {
+					int inner = getInnerSegmentSource(lowerLayer[l1]);
+					if (l1 == lowerLayer.length - 1 || inner >= 0) {
+						int k1 = inner >= 0 ? position[inner]
+								: orders[l].length - 1;
+						for (; scan <= l1; scan++) {
+							int w = lowerLayer[scan];
+							for (int u : indexedLayers.upper[w]) {
+								if (position[u] < k0 || position[u] > k1) {
+									conflicts.add(getKey(u, w));
+								}
+							}
+						}
+						k0 = k1;
+					}
+				}
+			}
+		}
+
+		private int getInnerSegmentSource(int v) {
+			if (indexedLayers.wrappers[v].isDummy()) {
+				for (int u : indexedLayers.upper[v]) {
+					if (indexedLayers.wrappers[u].isDummy()) {
+						return u;
+					}
+				}
+			}
+			return -1;
+		}
+
+		private long getKey(int u, int v) {
+			long n = indexedLayers.wrappers.length;
+			return Math.min(u, v) * n + Math.max(u, v);
+		}
+
+		/**
+		 * Computes a candidate layout by aligning the nodes with their median
+		 * neighbors in the previous layer and compacting the aligned blocks.
+		 * The layers are traversed top-down or bottom-up, and the nodes within
+		 * the layers left-to-right or right-to-left.
+		 */
+		private double[] computeCoordinates(boolean downward,
+				boolean leftToRight) {
+			int n = indexedLayers.wrappers.length;
+			int[][] orders = indexedLayers.orders;
+			int layerCount = orders.length;
+
+			// order of the nodes in traversal direction
+			int[][] order = new int[layerCount][];
+			int[] position = new int[n];
+			for (int l = 0; l < layerCount; l++) {
+				int length = orders[l].length;
+				order[l] = new int[length];
+				for (int k = 0; k < length; k++) {
+					order[l][k] = orders[l][leftToRight ? k
+							: length - 1 - k];
+					position[order[l][k]] = k;
+				}
+			}
+			int[][] neighbors = downward ? indexedLayers.upper
+					: indexedLayers.lower;
+
+			// vertical alignment
+			int[] root = new int[n];
+			int[] align = new int[n];
+			for (int v = 0; v < n; v++) {
+				root[v] = v;
+				align[v] = v;
+			}
+			for (int i = 1; i < layerCount; i++) {
+				int l = downward ? i : layerCount - 1 - i;
+				int r = -1;
+				for (int v : order[l]) {
+					int[] medians = sortByPosition(neighbors[v], position);
+					int d = medians.length;
+					for (int m = (d - 1) / 2; d > 0 && m <= d / 2; m++) {
+						int u = medians[m];
+						if (align[v] == v && r < position[u]
+								&& !conflicts.contains(getKey(u, v))) {
+							align[u] = v;
+							root[v] = root[u];
+							align[v] = root[v];
+							r = position[u];
+						}
+					}
+				}
+			}
+
+			// horizontal compaction
+			double[] x = new double[n];
+			int[] sink = new int[n];
+			double[] shift = new double[n];
+			boolean[] placed = new boolean[n];
+			boolean[] started = new boolean[n];
+			int[] cursor = new int[n];
+			for (int v = 0; v < n; v++) {
+				sink[v] = v;
+				shift[v] = Double.POSITIVE_INFINITY;
+			}
+			int[] stack = new int[n];
+			for (int[] nodes : order) {
+				for (int v : nodes) {
+					if (root[v] != v || placed[v]) {
+						continue;
+					}
+					// place blocks (iteratively, to support deep graphs)
+					int top = 0;
+					stack[top++] = v;
+					while (top > 0) {
+						int b = stack[top - 1];
+						if (!started[b]) {
+							started[b] = true;
+							cursor[b] = b;
+						}
+						boolean suspended = false;
+						int w = cursor[b];
+						do {
+							if (position[w] > 0) {
+								int pred = order[indexedLayers.layer[w]][position[w]
+										- 1];
+								int u = root[pred];
+								if (!placed[u]) {
+									cursor[b] = w;
+									stack[top++] = u;
+									suspended = true;
+									break;
+								}
+								double delta = (breadth[pred] + breadth[w]) / 2
+										+ nodeSpacing;
+								if (sink[b] == b) {
+									sink[b] = sink[u];
+								}
+								if (sink[b] != sink[u]) {
+									shift[sink[u]] = Math.min(shift[sink[u]],
+											x[b] - x[u] - delta);
+								} else {
+									x[b] = Math.max(x[b], x[u] + delta);
+								}
+							}
+							w = align[w];
+						} while (w != b);
+						if (!suspended) {
+							placed[b] = true;
+							top--;
+						}
+					}
+				}
+			}
+
+			// absolute coordinates (mirrored back for right-to-left)
+			double[] coordinates = new double[n];
+			for (int v = 0; v < n; v++) {
+				double c = x[root[v]];
+				double s = shift[sink[root[v]]];
+				if (s < Double.POSITIVE_INFINITY) {
+					c += s;
+				}
+				coordinates[v] = leftToRight ? c : -c;
+			}
+			return coordinates;
+		}
+
+		private static int[] sortByPosition(int[] nodes,
+				final int[] position) {
+			int[] sorted = nodes.clone();
+			// neighbor lists are short, so insertion sort is sufficient
+			for (int i = 1; i < sorted.length; i++) {
+				int v = sorted[i];
+				int j = i - 1;
+				while (j >= 0 && position[sorted[j]] > position[v]) {
+					sorted[j + 1] = sorted[j];
+					j--;
+				}
+				sorted[j + 1] = v;
+			}
+			return sorted;
+		}
+
+		/**
+		 * Aligns the four candidate layouts to the one with the smallest width
+		 * and returns the average median of the candidate coordinates.
+		 */
+		private double[] balance(double[][] candidates) {
+			int n = breadth.length;
+			double[] min = new double[4];
+			double[] max = new double[4];
+			int smallest = 0;
+			for (int i = 0; i < 4; i++) {
+				min[i] = Double.POSITIVE_INFINITY;
+				max[i] = Double.NEGATIVE_INFINITY;
+				for (int v = 0; v < n; v++) {
+					min[i] = Math.min(min[i], candidates[i][v] - breadth[v] / 2);
+					max[i] = Math.max(max[i], candidates[i][v] + breadth[v] / 2);
+				}
+				if (max[i] - min[i] < max[smallest] - min[smallest]) {
+					smallest = i;
+				}
+			}
+			for (int i = 0; i < 4; i++) {
+				// left-to-right candidates are aligned to the left border,
+				// right-to-left candidates to the right border
+				double offset = i % 2 == 0 ? min[smallest] - min[i]
+						: max[smallest] - max[i];
+				for (int v = 0; v < n; v++) {
+					candidates[i][v] += offset;
+				}
+			}
+			double[] x = new double[n];
+			double[] values = new double[4];
+			for (int v = 0; v < n; v++) {
+				for (int i = 0; i < 4; i++) {
+					values[i] = candidates[i][v];
+				}
+				Arrays.sort(values);
+				x[v] = (values[1] + values[2]) / 2;
+			}
+			return x;
+		}
+
+		/**
+		 * Ensures that the nodes of each layer are separated by their extent
+		 * plus the node spacing.
+		 */
+		private void separate(double[] x) {
+			for (int[] order : indexedLayers.orders) {
+				for (int k = 1; k < order.length; k++) {
+					int u = order[k - 1];
+					int v = order[k];
+					double min = x[u] + (breadth[u] + breadth[v]) / 2
+							+ nodeSpacing;
+					if (x[v] < min) {
+						x[v] = min;
+					}
+				}
+			}
+		}
+	}
+
 	/**
 	 * Structure to store nodes and their positions in the layers. Furthermore
 	 * predecessors and successors can be assigned to the nodes.
@@ -1210,6 +2193,440 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 
 	}
 
+	/**
+	 * Implements the LayerProvider interface. The layers are computed by
+	 * network simplex (see Gansner et al.: "A Technique for Drawing Directed
+	 * Graphs"), which minimizes the total length of the edges, starting from a
+	 * longest-path layering. Cycles are broken by reversing the back edges of
+	 * a depth-first search beforehand. Edges that span multiple layers are
+	 * split by dummy nodes, so that the resulting hierarchy is proper.
+	 */
+	public static class NetworkSimplexLayerProvider implements LayerProvider {
+
+		private final int maxIterations;
+
+		// graph data for the current computation
+		private int nodeCount;
+		private int[] tail;
+		private int[] head;
+		private int[][] incident;
+		private int[] rank;
+
+		// spanning forest data
+		private boolean[] treeEdge;
+		private int[] parentEdge;
+		private int[] low;
+		private int[] lim;
+		private int[] cutValue;
+		private int[] component;
+		private final List<Integer> roots = new ArrayList<>();
+
+		/**
+		 * Constructs a new {@link NetworkSimplexLayerProvider} that performs
+		 * at most 10 network simplex iterations per node.
+		 */
+		public NetworkSimplexLayerProvider() {
+			this(-1);
+		}
+
+		/**
+		 * Constructs a new {@link NetworkSimplexLayerProvider} that performs
+		 * at most the given number of network simplex iterations. A negative
+		 * value corresponds to 10 iterations per node.
+		 * 
+		 * @param maxIterations
+		 *            The maximum number of network simplex iterations.
+		 */
+		public NetworkSimplexLayerProvider(int maxIterations) {
+			this.maxIterations = maxIterations;
+		}
+
+		public List<List<NodeWrapper>> calculateLayers(List<Node> nodes) {
+			nodeCount = nodes.size();
+			Map<Node, Integer> ids = new IdentityHashMap<>();
+			for (int i = 0; i < nodeCount; i++) {
+				ids.put(nodes.get(i), i);
+			}
+			List<int[]> edges = new ArrayList<>();
+			for (int i = 0; i < nodeCount; i++) {
+				for (Edge edge : nodes.get(i).getOutgoingEdges()) {
+					Integer target = ids.get(edge.getTarget());
+					if (target != null && target.intValue() != i) {
+						edges.add(new int[] { i, target });
+					}
+				}
+			}
+			tail = new int[edges.size()];
+			head = new int[edges.size()];
+			for (int e = 0; e < tail.length; e++) {
+				tail[e] = edges.get(e)[0];
+				head[e] = edges.get(e)[1];
+			}
+
+			reverseCycles();
+			incident = getIncidentEdges();
+			rankLongestPath();
+			feasibleTree();
+			runNetworkSimplex(maxIterations < 0 ? 10 * nodeCount
+					: maxIterations);
+			normalizeRanks();
+
+			List<List<NodeWrapper>> layers = createLayers(nodes);
+			tail = head = rank = null;
+			incident = null;
+			return layers;
+		}
+
+		private int[][] getIncidentEdges() {
+			int[] degree = new int[nodeCount];
+			for (int e = 0; e < tail.length; e++) {
+				degree[tail[e]]++;
+				degree[head[e]]++;
+			}
+			int[][] edges = new int[nodeCount][];
+			for (int v = 0; v < nodeCount; v++) {
+				edges[v] = new int[degree[v]];
+				degree[v] = 0;
+			}
+			for (int e = 0; e < tail.length; e++) {
+				edges[tail[e]][degree[tail[e]]++] = e;
+				edges[head[e]][degree[head[e]]++] = e;
+			}
+			return edges;
+		}
+
+		private int getOpposite(int e, int v) {
+			return tail[e] == v ? head[e] : tail[e];
+		}
+
+		private int getSlack(int e) {
+			return rank[head[e]] - rank[tail[e]] - 1;
+		}
+
+		/**
+		 * Reverses the back edges of a depth-first search, so that the graph
+		 * becomes acyclic.
+		 */
+		private void reverseCycles() {
+			int[][] outgoing = new int[nodeCount][];
+			int[] degree = new int[nodeCount];
+			for (int e = 0; e < tail.length; e++) {
+				degree[tail[e]]++;
+			}
+			for (int v = 0; v < nodeCount; v++) {
+				outgoing[v] = new int[degree[v]];
+				degree[v] = 0;
+			}
+			for (int e = 0; e < tail.length; e++) {
+				outgoing[tail[e]][degree[tail[e]]++] = e;
+			}
+			// 0 = unvisited, 1 = on stack, 2 = finished
+			int[] state = new int[nodeCount];
+			int[] next = new int[nodeCount];
+			int[] stack = new int[nodeCount];
+			for (int s = 0; s < nodeCount; s++) {
+				if (state[s] != 0) {
+					continue;
+				}
+				int top = 0;
+				stack[top++] = s;
+				state[s] = 1;
+				while (top > 0) {
+					int v = stack[top - 1];
+					if (next[v] < outgoing[v].length) {
+						int e = outgoing[v][next[v]++];
+						int w = head[e];
+						if (state[w] == 1) {
+							head[e] = tail[e];
+							tail[e] = w;
+						} else if (state[w] == 0) {
+							state[w] = 1;
+							stack[top++] = w;
+						}
+					} else {
+						state[v] = 2;
+						top--;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Assigns each node the length of the longest path from a source.
+		 */
+		private void rankLongestPath() {
+			rank = new int[nodeCount];
+			int[] inDegree = new int[nodeCount];
+			for (int e = 0; e < tail.length; e++) {
+				inDegree[head[e]]++;
+			}
+			int[] queue = new int[nodeCount];
+			int first = 0, last = 0;
+			for (int v = 0; v < nodeCount; v++) {
+				if (inDegree[v] == 0) {
+					queue[last++] = v;
+				}
+			}
+			while (first < last) {
+				int v = queue[first++];
+				for (int e : incident[v]) {
+					if (tail[e] == v) {
+						int w = head[e];
+						rank[w] = Math.max(rank[w], rank[v] + 1);
+						if (--inDegree[w] == 0) {
+							queue[last++] = w;
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Computes a spanning forest of tight edges (one tree per connected
+		 * component), shifting the ranks of partial trees where necessary.
+		 */
+		private void feasibleTree() {
+			treeEdge = new boolean[tail.length];
+			component = new int[nodeCount];
+			roots.clear();
+			boolean[] inTree = new boolean[nodeCount];
+			List<Integer> treeNodes = new ArrayList<>();
+			for (int s = 0; s < nodeCount; s++) {
+				if (inTree[s]) {
+					continue;
+				}
+				int c = roots.size();
+				roots.add(s);
+				treeNodes.clear();
+				treeNodes.add(s);
+				inTree[s] = true;
+				while (true) {
+					// grow tree along tight edges
+					for (int i = 0; i < treeNodes.size(); i++) {
+						int v = treeNodes.get(i);
+						component[v] = c;
+						for (int e : incident[v]) {
+							int w = getOpposite(e, v);
+							if (!inTree[w] && getSlack(e) == 0) {
+								inTree[w] = true;
+								treeEdge[e] = true;
+								treeNodes.add(w);
+							}
+						}
+					}
+					// find incident edge with minimal slack
+					int minEdge = -1;
+					int minSlack = Integer.MAX_VALUE;
+					for (int v : treeNodes) {
+						for (int e : incident[v]) {
+							if (!inTree[getOpposite(e, v)]
+									&& getSlack(e) < minSlack) {
+								minEdge = e;
+								minSlack = getSlack(e);
+							}
+						}
+					}
+					if (minEdge < 0) {
+						break;
+					}
+					int delta = inTree[head[minEdge]] ? -minSlack : minSlack;
+					for (int v : treeNodes) {
+						rank[v] += delta;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Replaces tree edges with negative cut values by non-tree edges until
+		 * the layering is optimal or the maximum number of iterations is
+		 * reached.
+		 */
+		private void runNetworkSimplex(int iterations) {
+			parentEdge = new int[nodeCount];
+			low = new int[nodeCount];
+			lim = new int[nodeCount];
+			cutValue = new int[nodeCount];
+			updateTree();
+			for (int i = 0; i < iterations; i++) {
+				int leave = -1;
+				for (int v = 0; v < nodeCount; v++) {
+					if (parentEdge[v] >= 0 && cutValue[v] < 0) {
+						leave = parentEdge[v];
+						break;
+					}
+				}
+				if (leave < 0) {
+					break;
+				}
+				int enter = getEnterEdge(leave);
+				if (enter < 0) {
+					break;
+				}
+				treeEdge[leave] = false;
+				treeEdge[enter] = true;
+				updateTree();
+			}
+		}
+
+		/**
+		 * Determines the non-tree edge with minimal slack that reconnects the
+		 * two components that result from removing the given tree edge.
+		 */
+		private int getEnterEdge(int leave) {
+			int subtreeRoot = tail[leave];
+			boolean flip = false;
+			if (lim[tail[leave]] > lim[head[leave]]) {
+				subtreeRoot = head[leave];
+				flip = true;
+			}
+			int enter = -1;
+			int minSlack = Integer.MAX_VALUE;
+			for (int e = 0; e < tail.length; e++) {
+				if (flip == isDescendant(tail[e], subtreeRoot)
+						&& flip != isDescendant(head[e], subtreeRoot)
+						&& getSlack(e) < minSlack) {
+					enter = e;
+					minSlack = getSlack(e);
+				}
+			}
+			return enter;
+		}
+
+		private boolean isDescendant(int v, int root) {
+			return low[root] <= lim[v] && lim[v] <= lim[root];
+		}
+
+		/**
+		 * Recomputes the parent edges, postorder numbers, and ranks by
+		 * traversing the spanning forest, and afterwards the cut values.
+		 */
+		private void updateTree() {
+			int[] degree = new int[nodeCount];
+			for (int e = 0; e < tail.length; e++) {
+				if (treeEdge[e]) {
+					degree[tail[e]]++;
+					degree[head[e]]++;
+				}
+			}
+			int[][] treeEdges = new int[nodeCount][];
+			for (int v = 0; v < nodeCount; v++) {
+				treeEdges[v] = new int[degree[v]];
+				degree[v] = 0;
+			}
+			for (int e = 0; e < tail.length; e++) {
+				if (treeEdge[e]) {
+					treeEdges[tail[e]][degree[tail[e]]++] = e;
+					treeEdges[head[e]][degree[head[e]]++] = e;
+				}
+			}
+
+			int[] postorder = new int[nodeCount];
+			int postCount = 0;
+			int[] next = new int[nodeCount];
+			int[] stack = new int[nodeCount];
+			int number = 1;
+			for (int root : roots) {
+				int top = 0;
+				stack[top++] = root;
+				parentEdge[root] = -1;
+				low[root] = number;
+				while (top > 0) {
+					int v = stack[top - 1];
+					if (next[v] < treeEdges[v].length) {
+						int e = treeEdges[v][next[v]++];
+						if (e == parentEdge[v]) {
+							continue;
+						}
+						int w = getOpposite(e, v);
+						parentEdge[w] = e;
+						// tree edges are tight
+						rank[w] = rank[v] + (tail[e] == v ? 1 : -1);
+						low[w] = number;
+						stack[top++] = w;
+					} else {
+						lim[v] = number++;
+						postorder[postCount++] = v;
+						top--;
+					}
+				}
+			}
+
+			// cut values (children before parents)
+			for (int i = 0; i < postCount; i++) {
+				int child = postorder[i];
+				int pe = parentEdge[child];
+				if (pe < 0) {
+					continue;
+				}
+				boolean childIsTail = tail[pe] == child;
+				int cut = 1;
+				for (int e : incident[child]) {
+					if (e == pe) {
+						continue;
+					}
+					boolean pointsToHead = (tail[e] == child) == childIsTail;
+					cut += pointsToHead ? 1 : -1;
+					int other = getOpposite(e, child);
+					if (treeEdge[e] && parentEdge[other] == e) {
+						cut += pointsToHead ? -cutValue[other]
+								: cutValue[other];
+					}
+				}
+				cutValue[child] = cut;
+			}
+		}
+
+		/**
+		 * Shifts the ranks of each connected component, so that its minimum
+		 * rank is zero.
+		 */
+		private void normalizeRanks() {
+			int[] min = new int[roots.size()];
+			Arrays.fill(min, Integer.MAX_VALUE);
+			for (int v = 0; v < nodeCount; v++) {
+				min[component[v]] = Math.min(min[component[v]], rank[v]);
+			}
+			for (int v = 0; v < nodeCount; v++) {
+				rank[v] -= min[component[v]];
+			}
+		}
+
+		/**
+		 * Creates the layers for the computed ranks and inserts dummy nodes
+		 * for edges that span multiple layers.
+		 */
+		private List<List<NodeWrapper>> createLayers(List<Node> nodes) {
+			List<List<NodeWrapper>> layers = new ArrayList<>();
+			NodeWrapper[] wrappers = new NodeWrapper[nodeCount];
+			for (int v = 0; v < nodeCount; v++) {
+				while (layers.size() <= rank[v]) {
+					layers.add(new ArrayList<NodeWrapper>());
+				}
+				wrappers[v] = new NodeWrapper(nodes.get(v), rank[v]);
+				layers.get(rank[v]).add(wrappers[v]);
+			}
+			for (int e = 0; e < tail.length; e++) {
+				NodeWrapper predecessor = wrappers[tail[e]];
+				for (int level = rank[tail[e]] + 1; level < rank[head[e]]; level++) {
+					NodeWrapper dummy = new NodeWrapper(level);
+					dummy.addPredecessor(predecessor);
+					predecessor.addSuccessor(dummy);
+					layers.get(level).add(dummy);
+					predecessor = dummy;
+				}
+				wrappers[head[e]].addPredecessor(predecessor);
+				predecessor.addSuccessor(wrappers[head[e]]);
+			}
+			for (List<NodeWrapper> layer : layers) {
+				for (int index = 0; index < layer.size(); index++) {
+					layer.get(index).index = index;
+				}
+			}
+			return layers;
+		}
+	}
+
 	private List<List<NodeWrapper>> layers = new ArrayList<>();
 	private Map<Node, NodeWrapper> map = new IdentityHashMap<>();
 	private final Direction direction;
@@ -1220,6 +2637,7 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 
 	private LayerProvider layerProvider;
 	private CrossingReducer crossingReducer;
+	private CoordinateAssigner coordinateAssigner;
 
 	/**
 	 * Constructs a tree-like, layered layout of a directed graph.
@@ -1240,6 +2658,34 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	public SugiyamaLayoutAlgorithm(Direction dir, Dimension dim,
 			LayerProvider layering, CrossingReducer crossing) {
+		this(dir, dim, layering, crossing, null);
+	}
+
+	/**
+	 * Constructs a tree-like, layered layout of a directed graph.
+	 * 
+	 * @param dir
+	 *            {@link Direction#HORIZONTAL}: left to right -
+	 *            {@link Direction#VERTICAL} : top to bottom
+	 * 
+	 * @param dim
+	 *            - desired size of the layout area. Uses the BOUNDS_PROPERTY of
+	 *            the LayoutContext if not set
+	 * 
+	 * @param layering
+	 *            - implementation of LayerProvider interface
+	 * 
+	 * @param crossing
+	 *            - implementation of CrossingReducer interface
+	 * 
+	 * @param coordinates
+	 *            - implementation of CoordinateAssigner interface. The nodes
+	 *            are placed on a uniform grid within the layout area if not
+	 *            set
+	 */
+	public SugiyamaLayoutAlgorithm(Direction dir, Dimension dim,
+			LayerProvider layering, CrossingReducer crossing,
+			CoordinateAssigner coordinates) {
 		direction = dir;
 		dimension = dim;
 
@@ -1247,6 +2693,7 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 				: layering;
 		crossingReducer = (crossing == null) ? new BarycentricCrossingReducer()
 				: crossing;
+		coordinateAssigner = coordinates;
 	}
 
 	/**
@@ -1331,7 +2778,7 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 	}
 
 	public void applyLayout(LayoutContext layoutContext, boolean clean) {
-		if (!clean)
+		if (!clean || layoutContext.isTerminationRequested())
 			return;
 		layers.clear();
 		map.clear();
@@ -1343,7 +2790,13 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 			nodes2.add(node);
 		}
 		layers = layerProvider.calculateLayers(nodes);
-		crossingReducer.crossReduction(layers);
+		layoutContext.reportProgress(1, 3, Double.NaN);
+		// the crossing reduction is skipped when the layout pass is to be
+		// terminated, the nodes are placed in the order of their layers then
+		if (!layoutContext.isTerminationRequested()) {
+			crossingReducer.crossReduction(layers, layoutContext);
+		}
+		layoutContext.reportProgress(2, 3, Double.NaN);
 
 		for (List<NodeWrapper> layer : layers) {
 			if (layer.size() > last)
@@ -1352,14 +2805,25 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 				map.put(nw.node, nw);
 			}
 		}
-		calculatePositions(layoutContext);
+		if (coordinateAssigner != null) {
+			coordinateAssigner.assignCoordinates(layers, direction,
+					getBoundary(layoutContext));
+		} else {
+			calculatePositions(layoutContext);
+		}
+		layoutContext.reportProgress(3, 3, Double.NaN);
 	}
 
-	private void calculatePositions(LayoutContext context) {
+	private Rectangle getBoundary(LayoutContext context) {
 		Rectangle boundary = LayoutProperties.getBounds(context.getGraph());
 		if (dimension != null)
 			boundary = new Rectangle(0, 0, dimension.getWidth(),
 					dimension.getHeight());
+		return boundary;
+	}
+
+	private void calculatePositions(LayoutContext context) {
+		Rectangle boundary = getBoundary(context);
 		double dx = boundary.getWidth() / layers.size();
 		double dy = boundary.getHeight() / (last + 1);
 		if (direction == Direction.HORIZONTAL)
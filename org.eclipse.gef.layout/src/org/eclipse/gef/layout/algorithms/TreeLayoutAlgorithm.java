@@ -14,7 +14,12 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
@@ -28,6 +33,13 @@ import org.eclipse.gef.layout.algorithms.TreeLayoutHelper.TreeNode;
 /**
  * The TreeLayoutAlgorithm class implements a simple algorithm to arrange graph
  * nodes in a layered tree-like layout.
+ * <p>
+ * Per default, each leaf is assigned its own slot, and every other node is
+ * centered above the slots of its leaves. In compact mode (see
+ * {@link #setCompact(boolean)}), the subtrees are placed as close to each
+ * other as their contours permit, following Walker's improvement of the
+ * Reingold-Tilford algorithm, in the linear time variant of Buchheim, Juenger,
+ * and Leipert.
  * 
  * @author Casey Best
  * @author Ian Bull
@@ -75,6 +87,19 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 
 	private Dimension nodeSpace;
 
+	private boolean compact = false;
+
+	// breadth positions computed in compact mode (in slots)
+	private Map<TreeNode, Double> compactPositions;
+
+	private double compactBreadth;
+
+	// locations computed by the last layout pass (before fitting them within
+	// the layout bounds) and their bounds, used for incremental layout passes
+	private Map<Node, Point> locations;
+
+	private Rectangle locationBounds;
+
 	/**
 	 * Create a default Tree Layout.
 	 */
@@ -165,28 +190,135 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 		resize = resizing;
 	}
 
+	/**
+	 * Returns <code>true</code> if the subtrees are placed compactly,
+	 * following Walker's algorithm. Otherwise returns <code>false</code>.
+	 * 
+	 * @return <code>true</code> if the subtrees are placed compactly,
+	 *         otherwise <code>false</code>.
+	 */
+	public boolean isCompact() {
+		return compact;
+	}
+
+	/**
+	 * Specifies whether the subtrees are placed compactly, following Walker's
+	 * algorithm (<code>true</code>), or whether each leaf is assigned its own
+	 * slot (<code>false</code>, default). In compact mode, the contours of
+	 * neighboring subtrees are separated by one slot, so that subtrees may
+	 * share the slots of different layers, and the layout is computed in
+	 * linear time.
+	 * 
+	 * @param compact
+	 *            <code>true</code> to place the subtrees compactly, otherwise
+	 *            <code>false</code>.
+	 */
+	public void setCompact(boolean compact) {
+		this.compact = compact;
+	}
+
+	/**
+	 * Performs a layout pass. If <i>clean</i> is <code>false</code>, the
+	 * layout is updated incrementally: the tree is re-computed, but only those
+	 * nodes are re-located that were added or moved since the last layout pass
+	 * (see {@link LayoutContext#getAddedNodes()} and
+	 * {@link LayoutContext#getMovedNodes()}), or whose position within the
+	 * tree changed, i.e. the nodes of the affected subtrees. In case the
+	 * changes affect the whole layout, e.g. because the layout bounds or the
+	 * extent of the tree changed, all nodes are re-located.
+	 */
 	public void applyLayout(LayoutContext layoutContext, boolean clean) {
-		if (!clean)
+		if (!clean && !layoutContext.hasChanges()
+				|| layoutContext.isTerminationRequested())
 			return;
 
-		internalApplyLayout(layoutContext);
-
+		Map<Node, Point> lastLocations = locations;
+		Rectangle lastBounds = bounds;
+		Rectangle lastLocationBounds = locationBounds;
 		Node[] entities = layoutContext.getNodes();
+		locations = computeLocations(layoutContext);
+		locationBounds = getLocationBounds(entities);
+
+		if (!clean && !resize && lastLocations != null
+				&& bounds.equals(lastBounds) && entities.length > 1
+				&& (nodeSpace != null
+						|| locationBounds.equals(lastLocationBounds))) {
+			applyChangedLocations(layoutContext, entities, lastLocations);
+			layoutContext.reportProgress(1, 1, Double.NaN);
+			return;
+		}
+
+		for (Entry<Node, Point> entry : locations.entrySet()) {
+			LayoutProperties.setLocation(entry.getKey(),
+					entry.getValue().getCopy());
+		}
 		if (resize) {
 			AlgorithmHelper.maximizeSizes(entities);
 		}
 		scaleEntities(entities);
+		layoutContext.reportProgress(1, 1, Double.NaN);
+	}
+
+	/**
+	 * Applies the locations of the last layout pass to those of the given
+	 * entities that were added or moved, or whose location within the tree
+	 * changed.
+	 */
+	private void applyChangedLocations(LayoutContext context, Node[] entities,
+			Map<Node, Point> lastLocations) {
+		List<Node> changed = new ArrayList<>();
+		for (Node entity : entities) {
+			Point location = locations.get(entity);
+			if (location == null) {
+				continue;
+			}
+			if (context.getAddedNodes().contains(entity)
+					|| context.getMovedNodes().contains(entity)
+					|| !location.equals(lastLocations.get(entity))) {
+				LayoutProperties.setLocation(entity, location.getCopy());
+				changed.add(entity);
+			}
+		}
+		if (nodeSpace == null && !changed.isEmpty()) {
+			AlgorithmHelper.fitWithinBounds(
+					changed.toArray(new Node[changed.size()]), locationBounds,
+					getFitBounds(), false);
+		}
+	}
+
+	private Rectangle getFitBounds() {
+		Rectangle resizedBounds = new Rectangle(bounds);
+		int insets = 4;
+		resizedBounds.setX(resizedBounds.getX() + insets);
+		resizedBounds.setY(resizedBounds.getY() + insets);
+		resizedBounds.setWidth(resizedBounds.getWidth() - 2 * insets);
+		resizedBounds.setHeight(resizedBounds.getHeight() - 2 * insets);
+		return resizedBounds;
+	}
+
+	/**
+	 * Returns the bounds of the computed locations of the given entities.
+	 */
+	private Rectangle getLocationBounds(Node[] entities) {
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (Node entity : entities) {
+			Point location = locations.get(entity);
+			if (location != null) {
+				minX = Math.min(minX, location.x);
+				minY = Math.min(minY, location.y);
+				maxX = Math.max(maxX, location.x);
+				maxY = Math.max(maxY, location.y);
+			}
+		}
+		return new Rectangle(minX, minY, maxX - minX, maxY - minY);
 	}
 
 	private void scaleEntities(Node[] entities) {
 		if (nodeSpace == null) {
-			Rectangle resizedBounds = new Rectangle(bounds);
-			int insets = 4;
-			resizedBounds.setX(resizedBounds.getX() + insets);
-			resizedBounds.setY(resizedBounds.getY() + insets);
-			resizedBounds.setWidth(resizedBounds.getWidth() - 2 * insets);
-			resizedBounds.setHeight(resizedBounds.getHeight() - 2 * insets);
-			AlgorithmHelper.fitWithinBounds(entities, resizedBounds, resize);
+			AlgorithmHelper.fitWithinBounds(entities, getFitBounds(), resize);
 		}
 	}
 
@@ -198,19 +330,37 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 	 *            The {@link LayoutContext} to use.
 	 */
 	void internalApplyLayout(LayoutContext context) {
+		for (Entry<Node, Point> entry : computeLocations(context).entrySet()) {
+			LayoutProperties.setLocation(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Computes the locations of the tree nodes without scaling the entities to
+	 * maximum size / use the whole bounds.
+	 * 
+	 * @param context
+	 *            The {@link LayoutContext} to use.
+	 * @return A map from nodes to their computed locations.
+	 */
+	private Map<Node, Point> computeLocations(LayoutContext context) {
+		Map<Node, Point> locations = new IdentityHashMap<>();
 		treeObserver = new TreeLayoutHelper(null);
 		treeObserver.computeTree(context.getNodes());
 
 		TreeNode superRoot = treeObserver.getSuperRoot();
 		bounds = LayoutProperties.getBounds(context.getGraph());
+		compactPositions = compact ? computeCompactPositions(superRoot)
+				: null;
 		updateLeafAndLayerSizes();
 		int leafCountSoFar = 0;
 		for (Iterator<TreeNode> iterator = superRoot.getChildren()
 				.iterator(); iterator.hasNext();) {
 			TreeNode rootInfo = iterator.next();
-			computePositionRecursively(rootInfo, leafCountSoFar);
+			computePositionRecursively(rootInfo, leafCountSoFar, locations);
 			leafCountSoFar = leafCountSoFar + rootInfo.numOfLeaves;
 		}
+		return locations;
 	}
 
 	private void updateLeafAndLayerSizes() {
@@ -224,11 +374,12 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 			}
 		} else {
 			TreeNode superRoot = treeObserver.getSuperRoot();
+			double breadth = compact ? compactBreadth : superRoot.numOfLeaves;
 			if (direction == TOP_DOWN || direction == BOTTOM_UP) {
-				leafSize = bounds.getWidth() / superRoot.numOfLeaves;
+				leafSize = bounds.getWidth() / breadth;
 				layerSize = bounds.getHeight() / superRoot.height;
 			} else {
-				leafSize = bounds.getHeight() / superRoot.numOfLeaves;
+				leafSize = bounds.getHeight() / breadth;
 				layerSize = bounds.getWidth() / superRoot.height;
 			}
 		}
@@ -238,27 +389,28 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 	 * Computes positions recursively until the leaf nodes are reached.
 	 */
 	private void computePositionRecursively(TreeNode entityInfo,
-			int relativePosition) {
-		double breadthPosition = relativePosition
-				+ entityInfo.numOfLeaves / 2.0;
+			int relativePosition, Map<Node, Point> locations) {
+		double breadthPosition = compactPositions != null
+				? compactPositions.get(entityInfo)
+				: relativePosition + entityInfo.numOfLeaves / 2.0;
 		double depthPosition = (entityInfo.depth + 0.5);
 
 		switch (direction) {
 		case TOP_DOWN:
-			LayoutProperties.setLocation(entityInfo.getNode(), new Point(
+			locations.put(entityInfo.getNode(), new Point(
 					breadthPosition * leafSize, depthPosition * layerSize));
 			break;
 		case BOTTOM_UP:
-			LayoutProperties.setLocation(entityInfo.getNode(),
+			locations.put(entityInfo.getNode(),
 					new Point(breadthPosition * leafSize,
 							bounds.getHeight() - depthPosition * layerSize));
 			break;
 		case LEFT_RIGHT:
-			LayoutProperties.setLocation(entityInfo.getNode(), new Point(
+			locations.put(entityInfo.getNode(), new Point(
 					depthPosition * layerSize, breadthPosition * leafSize));
 			break;
 		case RIGHT_LEFT:
-			LayoutProperties.setLocation(entityInfo.getNode(),
+			locations.put(entityInfo.getNode(),
 					new Point(bounds.getWidth() - depthPosition * layerSize,
 							breadthPosition * leafSize));
 			break;
@@ -267,11 +419,191 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 		for (Iterator<TreeNode> iterator = entityInfo.children
 				.iterator(); iterator.hasNext();) {
 			TreeNode childInfo = iterator.next();
-			computePositionRecursively(childInfo, relativePosition);
+			computePositionRecursively(childInfo, relativePosition, locations);
 			relativePosition += childInfo.numOfLeaves;
 		}
 	}
 
+	/**
+	 * Computes the breadth positions of all nodes of the given (super root's)
+	 * trees, so that the contours of neighboring subtrees are separated by one
+	 * slot. The positions are shifted, so that the leftmost node is centered
+	 * within the first slot, and {@link #compactBreadth} is set to the number
+	 * of used slots.
+	 */
+	private Map<TreeNode, Double> computeCompactPositions(TreeNode superRoot) {
+		WalkerNode root = new WalkerNode(superRoot, null, 0);
+		root.firstWalk();
+		Map<TreeNode, Double> positions = new IdentityHashMap<>();
+		root.secondWalk(-root.prelim, positions);
+		positions.remove(superRoot);
+
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (double position : positions.values()) {
+			min = Math.min(min, position);
+			max = Math.max(max, position);
+		}
+		compactBreadth = positions.isEmpty() ? 1 : max - min + 1;
+		for (Entry<TreeNode, Double> entry : positions.entrySet()) {
+			entry.setValue(entry.getValue() - min + 0.5);
+		}
+		return positions;
+	}
+
+	/**
+	 * The data that is maintained per {@link TreeNode} by Walker's algorithm
+	 * (see Buchheim, Juenger, Leipert: "Improving Walker's Algorithm to Run in
+	 * Linear Time").
+	 */
+	private static class WalkerNode {
+
+		private final TreeNode treeNode;
+		private final WalkerNode parent;
+		private final List<WalkerNode> children = new ArrayList<>();
+		// (1-based) index among the siblings
+		private final int number;
+		private double prelim;
+		private double mod;
+		private double change;
+		private double shift;
+		private WalkerNode thread;
+		private WalkerNode ancestor = this;
+
+		WalkerNode(TreeNode treeNode, WalkerNode parent, int number) {
+			this.treeNode = treeNode;
+			this.parent = parent;
+			this.number = number;
+			for (TreeNode child : treeNode.children) {
+				children.add(
+						new WalkerNode(child, this, children.size() + 1));
+			}
+		}
+
+		private WalkerNode getLeftSibling() {
+			return parent == null || number == 1 ? null
+					: parent.children.get(number - 2);
+		}
+
+		private WalkerNode getLeftmostSibling() {
+			return parent == null || number == 1 ? null
+					: parent.children.get(0);
+		}
+
+		private WalkerNode nextLeft() {
+			return children.isEmpty() ? thread : children.get(0);
+		}
+
+		private WalkerNode nextRight() {
+			return children.isEmpty() ? thread
+					: children.get(children.size() - 1);
+		}
+
+		void firstWalk() {
+			WalkerNode leftSibling = getLeftSibling();
+			if (children.isEmpty()) {
+				prelim = leftSibling == null ? 0 : leftSibling.prelim + 1;
+				return;
+			}
+			WalkerNode defaultAncestor = children.get(0);
+			for (WalkerNode child : children) {
+				child.firstWalk();
+				defaultAncestor = child.apportion(defaultAncestor);
+			}
+			executeShifts();
+			double midpoint = (children.get(0).prelim
+					+ children.get(children.size() - 1).prelim) / 2;
+			if (leftSibling == null) {
+				prelim = midpoint;
+			} else {
+				prelim = leftSibling.prelim + 1;
+				mod = prelim - midpoint;
+			}
+		}
+
+		/**
+		 * Moves the subtree of this node to the right, so that its left
+		 * contour is separated from the right contour of the left siblings'
+		 * subtrees.
+		 */
+		private WalkerNode apportion(WalkerNode defaultAncestor) {
+			WalkerNode leftSibling = getLeftSibling();
+			if (leftSibling == null) {
+				return defaultAncestor;
+			}
+			WalkerNode insideRight = this;
+			WalkerNode outsideRight = this;
+			WalkerNode insideLeft = leftSibling;
+			WalkerNode outsideLeft = getLeftmostSibling();
+			double shiftInsideRight = insideRight.mod;
+			double shiftOutsideRight = outsideRight.mod;
+			double shiftInsideLeft = insideLeft.mod;
+			double shiftOutsideLeft = outsideLeft.mod;
+			while (insideLeft.nextRight() != null
+					&& insideRight.nextLeft() != null) {
+				insideLeft = insideLeft.nextRight();
+				insideRight = insideRight.nextLeft();
+				outsideLeft = outsideLeft.nextLeft();
+				outsideRight = outsideRight.nextRight();
+				outsideRight.ancestor = this;
+				double distance = (insideLeft.prelim + shiftInsideLeft)
+						- (insideRight.prelim + shiftInsideRight) + 1;
+				if (distance > 0) {
+					WalkerNode ancestor = insideLeft.ancestor.parent == parent
+							? insideLeft.ancestor : defaultAncestor;
+					moveSubtree(ancestor, this, distance);
+					shiftInsideRight += distance;
+					shiftOutsideRight += distance;
+				}
+				shiftInsideLeft += insideLeft.mod;
+				shiftInsideRight += insideRight.mod;
+				shiftOutsideLeft += outsideLeft.mod;
+				shiftOutsideRight += outsideRight.mod;
+			}
+			if (insideLeft.nextRight() != null
+					&& outsideRight.nextRight() == null) {
+				outsideRight.thread = insideLeft.nextRight();
+				outsideRight.mod += shiftInsideLeft - shiftOutsideRight;
+			}
+			if (insideRight.nextLeft() != null
+					&& outsideLeft.nextLeft() == null) {
+				outsideLeft.thread = insideRight.nextLeft();
+				outsideLeft.mod += shiftInsideRight - shiftOutsideLeft;
+				defaultAncestor = this;
+			}
+			return defaultAncestor;
+		}
+
+		private static void moveSubtree(WalkerNode left, WalkerNode right,
+				double distance) {
+			int subtrees = right.number - left.number;
+			right.change -= distance / subtrees;
+			right.shift += distance;
+			left.change += distance / subtrees;
+			right.prelim += distance;
+			right.mod += distance;
+		}
+
+		private void executeShifts() {
+			double shift = 0;
+			double change = 0;
+			for (int i = children.size() - 1; i >= 0; i--) {
+				WalkerNode child = children.get(i);
+				child.prelim += shift;
+				child.mod += shift;
+				change += child.change;
+				shift += child.shift + change;
+			}
+		}
+
+		void secondWalk(double modSum, Map<TreeNode, Double> positions) {
+			positions.put(treeNode, prelim + modSum);
+			for (WalkerNode child : children) {
+				child.secondWalk(modSum + mod, positions);
+			}
+		}
+	}
+
 	@Override
 	public String toString() {
 		StringBuffer sb = new StringBuffer();
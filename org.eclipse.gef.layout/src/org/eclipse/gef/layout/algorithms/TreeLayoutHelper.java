@@ -14,13 +14,13 @@
 package org.eclipse.gef.layout.algorithms;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.ListIterator;
-import java.util.Set;
+import java.util.Map;
 
 import org.eclipse.gef.graph.Node;
 import org.eclipse.gef.layout.LayoutContext;
@@ -170,8 +170,8 @@ public class TreeLayoutHelper {
 		 * Children are visited in the same order as they were added to their
 		 * layout context, unless {@link TreeLayoutHelper#computeTree(Node[])}
 		 * was called after the nodes were added. In that case the order is
-		 * determined by order of nodes returned by
-		 * {@link Node#getAllSuccessorNodes()}. Leaves are assigned successive
+		 * determined by the order of the outgoing edges (see
+		 * {@link Node#getOutgoingEdge(int)}). Leaves are assigned successive
 		 * numbers starting from 0, other nodes have order equal to the smallest
 		 * order of their children.
 		 * 
@@ -452,35 +452,73 @@ public class TreeLayoutHelper {
 
 	/**
 	 * Builds a tree structure using BFS method. Created trees are children of
-	 * {@link #superRoot}.
+	 * {@link #superRoot}. The successors and predecessors of the nodes are
+	 * indexed once (considering only edges between the given nodes), so that
+	 * the tree is built in linear time.
 	 * 
 	 * @param nodes
 	 */
 	private void createTrees(Node[] nodes) {
-		HashSet<Node> alreadyVisited = new HashSet<>();
-		LinkedList<Object[]> nodesToAdd = new LinkedList<>();
-		for (int i = 0; i < nodes.length; i++) {
-			Node root = findRoot(nodes[i], alreadyVisited);
-			if (root != null) {
-				alreadyVisited.add(root);
-				nodesToAdd.addLast(new Object[] { root, superRoot });
+		int n = nodes.length;
+		Map<Node, Integer> ids = new IdentityHashMap<>();
+		for (int i = 0; i < n; i++) {
+			if (!ids.containsKey(nodes[i])) {
+				ids.put(nodes[i], i);
 			}
 		}
-		while (!nodesToAdd.isEmpty()) {
-			Object[] dequeued = nodesToAdd.removeFirst();
-			TreeNode currentNode = factory.createTreeNode((Node) dequeued[0],
-					this);
-			layoutToTree.put(dequeued[0], currentNode);
-			TreeNode currentRoot = (TreeNode) dequeued[1];
-
-			currentRoot.addChild(currentNode);
-			Node[] children = currentNode.node.getAllSuccessorNodes()
-					.toArray(new Node[] {});
-			for (int i = 0; i < children.length; i++) {
-				if (!alreadyVisited.contains(children[i])) {
-					alreadyVisited.add(children[i]);
-					nodesToAdd
-							.addLast(new Object[] { children[i], currentNode });
+		int[][] successors = new int[n][];
+		int[] firstPredecessor = new int[n];
+		Arrays.fill(firstPredecessor, -1);
+		for (int i = 0; i < n; i++) {
+			Node node = nodes[i];
+			int count = node.getOutgoingEdgeCount();
+			int[] targets = new int[count];
+			int size = 0;
+			for (int k = 0; k < count; k++) {
+				Integer target = ids.get(node.getOutgoingEdge(k).getTarget());
+				if (target != null) {
+					targets[size++] = target;
+				}
+			}
+			successors[i] = size == count ? targets
+					: Arrays.copyOf(targets, size);
+			for (int k = 0; k < node.getIncomingEdgeCount(); k++) {
+				Integer source = ids.get(node.getIncomingEdge(k).getSource());
+				if (source != null) {
+					firstPredecessor[i] = source;
+					break;
+				}
+			}
+		}
+
+		// find roots
+		boolean[] alreadyVisited = new boolean[n];
+		int[] rootSearch = new int[n];
+		int[] queue = new int[n];
+		int tail = 0;
+		for (int i = 0; i < n; i++) {
+			int root = findRoot(i, firstPredecessor, alreadyVisited, rootSearch);
+			if (root >= 0) {
+				alreadyVisited[root] = true;
+				queue[tail++] = root;
+			}
+		}
+
+		// add nodes in BFS order
+		TreeNode[] treeNodes = new TreeNode[n];
+		TreeNode[] parents = new TreeNode[n];
+		for (int head = 0; head < tail; head++) {
+			int id = queue[head];
+			TreeNode currentNode = factory.createTreeNode(nodes[id], this);
+			layoutToTree.put(nodes[id], currentNode);
+			treeNodes[id] = currentNode;
+			(parents[id] == null ? superRoot : parents[id])
+					.addChild(currentNode);
+			for (int child : successors[id]) {
+				if (!alreadyVisited[child]) {
+					alreadyVisited[child] = true;
+					parents[child] = currentNode;
+					queue[tail++] = child;
 				}
 			}
 		}
@@ -490,31 +528,40 @@ public class TreeLayoutHelper {
 	/**
 	 * Searches for a root of a tree containing given node by continuously
 	 * grabbing a predecessor of current node. If it reaches an node that exists
-	 * in alreadyVisited set, it returns null. If it detects a cycle, it returns
+	 * in alreadyVisited set, it returns -1. If it detects a cycle, it returns
 	 * the first found node of that cycle. If it reaches a node that has no
 	 * predecessors, it returns that node.
+	 * <p>
+	 * The nodes on the path are marked in the given root search array, so
+	 * that subsequent searches that reach such a node can stop, because the
+	 * remaining path leads to a node that already exists in alreadyVisited.
 	 * 
-	 * @param nodeLayout
+	 * @param id
 	 *            starting node
+	 * @param firstPredecessor
+	 *            the first predecessor per node (or -1)
 	 * @param alreadyVisited
 	 *            set of nodes that can't lay on path to the root (if one does,
-	 *            method stops and returns null).
+	 *            method stops and returns -1).
+	 * @param rootSearch
+	 *            the (1-based) index of the search that visited a node (or 0)
 	 * @return
 	 */
-	private Node findRoot(Node nodeLayout, Set<Node> alreadyVisited) {
-		HashSet<Node> alreadyVisitedRoot = new HashSet<>();
+	private int findRoot(int id, int[] firstPredecessor,
+			boolean[] alreadyVisited, int[] rootSearch) {
+		int search = id + 1;
 		while (true) {
-			if (alreadyVisited.contains(nodeLayout))
-				return null;
-			if (alreadyVisitedRoot.contains(nodeLayout))
-				return nodeLayout;
-			alreadyVisitedRoot.add(nodeLayout);
-			Node[] predecessingNodes = nodeLayout.getAllPredecessorNodes()
-					.toArray(new Node[] {});
-			if (predecessingNodes.length > 0) {
-				nodeLayout = predecessingNodes[0];
+			if (alreadyVisited[id])
+				return -1;
+			if (rootSearch[id] == search)
+				return id;
+			if (rootSearch[id] != 0)
+				return -1;
+			rootSearch[id] = search;
+			if (firstPredecessor[id] >= 0) {
+				id = firstPredecessor[id];
 			} else {
-				return nodeLayout;
+				return id;
 			}
 		}
 	}
@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.internal.algorithms;
+
+/**
+ * The {@link ForceQuadTree} is a Barnes-Hut quadtree over a set of point
+ * bodies with unit mass. It is used to approximate the repulsive forces that
+ * all bodies exert on a single body in <code>O(log n)</code> instead of
+ * <code>O(n)</code>.
+ * <p>
+ * The tree is stored in primitive arrays, which are reused between subsequent
+ * calls to {@link #build(double[], double[], int)}, so that rebuilding the tree
+ * once per iteration does not create garbage.
+ */
+public class ForceQuadTree {
+
+	/**
+	 * Maximum depth of the tree. Bodies that end up in the same cell at this
+	 * depth (i.e. (nearly) coincident bodies) are stored in a list and
+	 * evaluated exactly.
+	 */
+	private static final int MAX_DEPTH = 32;
+
+	private static final int NO_INDEX = -1;
+
+	// per-cell data
+	private int[] firstChild = new int[0];
+	private int[] firstBody = new int[0];
+	private int[] depth = new int[0];
+	private double[] minX = new double[0];
+	private double[] minY = new double[0];
+	private double[] size = new double[0];
+	private double[] mass = new double[0];
+	private double[] massX = new double[0];
+	private double[] massY = new double[0];
+	private int cellCount;
+
+	// per-body data
+	private int[] nextBody = new int[0];
+	private double[] x;
+	private double[] y;
+
+	// traversal stack
+	private int[] stack = new int[0];
+
+	/**
+	 * (Re-)Builds this tree for the given body locations. Only the first
+	 * <i>n</i> entries of the given arrays are considered. The arrays are
+	 * referenced (not copied), so they may not be changed until the next
+	 * rebuild.
+	 *
+	 * @param x
+	 *            The x-coordinates of the bodies.
+	 * @param y
+	 *            The y-coordinates of the bodies.
+	 * @param n
+	 *            The number of bodies.
+	 */
+	public void build(double[] x, double[] y, int n) {
+		this.x = x;
+		this.y = y;
+		if (nextBody.length < n) {
+			nextBody = new int[n];
+		}
+		cellCount = 0;
+		if (n == 0) {
+			return;
+		}
+
+		// determine square root cell
+		double x0 = Double.POSITIVE_INFINITY, y0 = Double.POSITIVE_INFINITY;
+		double x1 = Double.NEGATIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			x0 = Math.min(x0, x[i]);
+			y0 = Math.min(y0, y[i]);
+			x1 = Math.max(x1, x[i]);
+			y1 = Math.max(y1, y[i]);
+		}
+		double extent = Math.max(x1 - x0, y1 - y0);
+		// enlarge slightly so that the maximum lies within the half-open cell
+		extent = extent <= 0 ? 1 : extent * (1 + 1e-9);
+		newCell(x0, y0, extent, 0);
+
+		for (int i = 0; i < n; i++) {
+			insert(i);
+		}
+		accumulateMass();
+	}
+
+	/**
+	 * Accumulates the repulsive force that all bodies of this tree exert on
+	 * the body with the given index. The force between two (clusters of)
+	 * bodies is <code>strength * mass / distance^2</code>, where the squared
+	 * distance is clamped to be at least <i>minDistanceSq</i>.
+	 *
+	 * @param i
+	 *            The index of the body for which to compute the force.
+	 * @param theta
+	 *            The Barnes-Hut opening criterion. A cell is approximated by
+	 *            its center of mass if <code>size / distance &lt; theta</code>.
+	 *            A value of <code>0</code> yields the exact result.
+	 * @param strength
+	 *            The force constant.
+	 * @param minDistanceSq
+	 *            The minimum squared distance to use.
+	 * @param force
+	 *            An array of length 2 to which the x- and y-components of the
+	 *            force are added.
+	 */
+	public void addRepulsion(int i, double theta, double strength,
+			double minDistanceSq, double[] force) {
+		if (cellCount == 0) {
+			return;
+		}
+		double xi = x[i];
+		double yi = y[i];
+		double thetaSq = theta * theta;
+		double fx = 0, fy = 0;
+
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int cell = stack[--top];
+			if (firstChild[cell] == NO_INDEX) {
+				// leaf: evaluate contained bodies exactly
+				for (int j = firstBody[cell]; j != NO_INDEX; j = nextBody[j]) {
+					if (j == i) {
+						continue;
+					}
+					double dx = xi - x[j];
+					double dy = yi - y[j];
+					double dsq = Math.max(minDistanceSq, dx * dx + dy * dy);
+					double f = strength / (dsq * Math.sqrt(dsq));
+					fx += f * dx;
+					fy += f * dy;
+				}
+				continue;
+			}
+			double dx = xi - massX[cell];
+			double dy = yi - massY[cell];
+			double dsq = dx * dx + dy * dy;
+			double s = size[cell];
+			if (s * s < thetaSq * dsq && !contains(cell, xi, yi)) {
+				// far enough away: approximate by center of mass
+				dsq = Math.max(minDistanceSq, dsq);
+				double f = strength * mass[cell] / (dsq * Math.sqrt(dsq));
+				fx += f * dx;
+				fy += f * dy;
+			} else {
+				int c = firstChild[cell];
+				for (int k = 0; k < 4; k++) {
+					if (mass[c + k] > 0) {
+						stack[top++] = c + k;
+					}
+				}
+			}
+		}
+		force[0] += fx;
+		force[1] += fy;
+	}
+
+	private void accumulateMass() {
+		// children are always created after their parent, so that iterating
+		// in reverse order processes all children before their parent
+		for (int cell = cellCount - 1; cell >= 0; cell--) {
+			double m = 0, mx = 0, my = 0;
+			int c = firstChild[cell];
+			if (c == NO_INDEX) {
+				for (int j = firstBody[cell]; j != NO_INDEX; j = nextBody[j]) {
+					m++;
+					mx += x[j];
+					my += y[j];
+				}
+			} else {
+				for (int k = c; k < c + 4; k++) {
+					m += mass[k];
+					mx += massX[k] * mass[k];
+					my += massY[k] * mass[k];
+				}
+			}
+			mass[cell] = m;
+			massX[cell] = m > 0 ? mx / m : 0;
+			massY[cell] = m > 0 ? my / m : 0;
+		}
+	}
+
+	private boolean contains(int cell, double px, double py) {
+		return px >= minX[cell] && px < minX[cell] + size[cell]
+				&& py >= minY[cell] && py < minY[cell] + size[cell];
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (firstChild.length >= capacity) {
+			return;
+		}
+		int length = Math.max(capacity, firstChild.length * 2);
+		firstChild = copyOf(firstChild, length);
+		firstBody = copyOf(firstBody, length);
+		depth = copyOf(depth, length);
+		minX = copyOf(minX, length);
+		minY = copyOf(minY, length);
+		size = copyOf(size, length);
+		mass = copyOf(mass, length);
+		massX = copyOf(massX, length);
+		massY = copyOf(massY, length);
+		// every internal cell pushes at most 4 children, and each level of
+		// the tree contributes at most 3 pending siblings
+		stack = new int[Math.max(stack.length, 4 * MAX_DEPTH + 8)];
+	}
+
+	private static double[] copyOf(double[] array, int length) {
+		double[] copy = new double[length];
+		System.arraycopy(array, 0, copy, 0, array.length);
+		return copy;
+	}
+
+	private static int[] copyOf(int[] array, int length) {
+		int[] copy = new int[length];
+		System.arraycopy(array, 0, copy, 0, array.length);
+		return copy;
+	}
+
+	private void insert(int body) {
+		double bx = x[body];
+		double by = y[body];
+		int cell = 0;
+		while (true) {
+			if (firstChild[cell] != NO_INDEX) {
+				cell = firstChild[cell] + quadrant(cell, bx, by);
+				continue;
+			}
+			int other = firstBody[cell];
+			if (other == NO_INDEX || depth[cell] >= MAX_DEPTH
+					|| (x[other] == bx && y[other] == by)) {
+				// empty leaf, maximum depth, or coincident bodies
+				nextBody[body] = other;
+				firstBody[cell] = body;
+				return;
+			}
+			// split leaf and push down the contained bodies
+			subdivide(cell);
+			int c = firstChild[cell];
+			while (other != NO_INDEX) {
+				int next = nextBody[other];
+				int child = c + quadrant(cell, x[other], y[other]);
+				nextBody[other] = firstBody[child];
+				firstBody[child] = other;
+				other = next;
+			}
+			firstBody[cell] = NO_INDEX;
+		}
+	}
+
+	private int newCell(double cellX, double cellY, double cellSize,
+			int cellDepth) {
+		ensureCapacity(cellCount + 1);
+		int cell = cellCount++;
+		firstChild[cell] = NO_INDEX;
+		firstBody[cell] = NO_INDEX;
+		depth[cell] = cellDepth;
+		minX[cell] = cellX;
+		minY[cell] = cellY;
+		size[cell] = cellSize;
+		mass[cell] = 0;
+		return cell;
+	}
+
+	private int quadrant(int cell, double px, double py) {
+		double half = size[cell] / 2;
+		int q = 0;
+		if (px >= minX[cell] + half) {
+			q += 1;
+		}
+		if (py >= minY[cell] + half) {
+			q += 2;
+		}
+		return q;
+	}
+
+	private void subdivide(int cell) {
+		double half = size[cell] / 2;
+		double cx = minX[cell];
+		double cy = minY[cell];
+		int d = depth[cell] + 1;
+		int c = newCell(cx, cy, half, d);
+		newCell(cx + half, cy, half, d);
+		newCell(cx, cy + half, half, d);
+		newCell(cx + half, cy + half, half, d);
+		firstChild[cell] = c;
+	}
+}
@@ -55,6 +55,7 @@ import org.eclipse.gef.mvc.fx.models.GridModel;
 import org.eclipse.gef.mvc.fx.models.HoverModel;
 import org.eclipse.gef.mvc.fx.models.SelectionModel;
 import org.eclipse.gef.mvc.fx.models.SnappingModel;
+import org.eclipse.gef.mvc.fx.models.VisualBoundsModel;
 import org.eclipse.gef.mvc.fx.parts.AbstractContentPart;
 import org.eclipse.gef.mvc.fx.parts.AbstractFeedbackPart;
 import org.eclipse.gef.mvc.fx.parts.AbstractHandlePart;
@@ -1145,6 +1146,28 @@ public class MvcFxModule extends AbstractModule {
 				.to(TypeStrokeGesture.class);
 	}
 
+	/**
+	 * Adds a binding for {@link VisualBoundsModel} to the adapter map binder
+	 * for {@link IViewer}. This binding is not added per default, because the
+	 * {@link VisualBoundsModel} observes the visuals of all content parts. It
+	 * may be added for content viewers with many content parts by calling
+	 * this method from
+	 * {@link #bindIViewerAdaptersForContentViewer(MapBinder)}.
+	 *
+	 * @param adapterMapBinder
+	 *            The {@link MapBinder} to be used for the binding registration.
+	 *            In this case, will be obtained from
+	 *            {@link AdapterMaps#getAdapterMapBinder(Binder, Class)} using
+	 *            {@link IViewer} as a key.
+	 *
+	 * @see AdapterMaps#getAdapterMapBinder(Binder, Class)
+	 */
+	protected void bindVisualBoundsModelAsContentViewerAdapter(
+			MapBinder<AdapterKey<?>, Object> adapterMapBinder) {
+		adapterMapBinder.addBinding(AdapterKey.defaultRole())
+				.to(VisualBoundsModel.class);
+	}
+
 	/**
 	 * Adds a binding for {@link ZoomOnPinchSpreadHandler} to the adapter map
 	 * binder for {@link IRootPart}.
@@ -89,6 +89,24 @@ public abstract class AbstractSnapTo implements ISnapToStrategy {
 		return snappingLocationProvider.getVerticalSnappingLocations(rp);
 	}
 
+	/**
+	 * Returns the {@link IContentPart}s that are tested for
+	 * {@link #isRelevant(IContentPart) relevance} when the given part is
+	 * snapped. By default, all {@link IContentPart}s within the
+	 * {@link IViewer} of the given part are returned. Subclasses may narrow
+	 * down the candidates (e.g. using the
+	 * {@link org.eclipse.gef.mvc.fx.models.VisualBoundsModel}), so that not
+	 * all parts need to be iterated.
+	 *
+	 * @param snappedPart
+	 *            The {@link IContentPart} that is snapped.
+	 * @return The {@link IContentPart}s that are candidates for snapping.
+	 */
+	protected Collection<? extends IContentPart<? extends Node>> getCandidateParts(
+			IContentPart<? extends Node> snappedPart) {
+		return snappedPart.getViewer().getContentPartMap().values();
+	}
+
 	@Override
 	public List<SnappingLocation> getHorizontalTargetLocations() {
 		return xLocations;
@@ -136,9 +154,9 @@ public abstract class AbstractSnapTo implements ISnapToStrategy {
 
 	/**
 	 * Determines if the given {@link IContentPart} should participate in
-	 * snapping. This callback method is called for all parts implementing
-	 * {@link IContentPart} within the {@link IViewer} of the currently snapped
-	 * part, except for the currently snapped part.
+	 * snapping. This callback method is called for all
+	 * {@link #getCandidateParts(IContentPart) candidate} parts, except for the
+	 * currently snapped part.
 	 *
 	 * By default, all {@link IContentPart}s are considered for snapping, i.e.
 	 * this method returns <code>true</code> regardless of its input.
@@ -160,9 +178,7 @@ public abstract class AbstractSnapTo implements ISnapToStrategy {
 		yLocations.clear();
 		if (snappedPart != null) {
 			List<IContentPart<? extends Node>> relevantParts = PartUtils
-					.filterParts(
-							snappedPart.getViewer().getContentPartMap()
-									.values(),
+					.filterParts(getCandidateParts(snappedPart),
 							(p) -> p != snappedPart && p instanceof IContentPart
 									&& isRelevant(
 											(IContentPart<? extends Node>) p));
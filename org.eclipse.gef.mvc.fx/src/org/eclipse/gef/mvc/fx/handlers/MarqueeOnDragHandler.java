@@ -15,15 +15,19 @@ package org.eclipse.gef.mvc.fx.handlers;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.Set;
 
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.gef.common.adapt.AdapterKey;
 import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.mvc.fx.models.VisualBoundsModel;
 import org.eclipse.gef.mvc.fx.operations.SelectOperation;
 import org.eclipse.gef.mvc.fx.parts.AbstractFeedbackPart;
 import org.eclipse.gef.mvc.fx.parts.DefaultSelectionFeedbackPartFactory;
@@ -37,6 +41,7 @@ import org.eclipse.gef.mvc.fx.viewer.IViewer;
 import com.google.common.reflect.TypeToken;
 import com.google.inject.Provider;
 
+import javafx.geometry.BoundingBox;
 import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
 import javafx.scene.Node;
@@ -221,8 +226,35 @@ public class MarqueeOnDragHandler extends AbstractHandler
 		double[] bbox = bbox(start, end);
 
 		// find nodes contained in bbox
-		List<Node> nodes = findContainedNodes(rootVisual.getScene().getRoot(),
-				bbox[0], bbox[1], bbox[2], bbox[3]);
+		List<Node> nodes;
+		VisualBoundsModel visualBoundsModel = root.getViewer()
+				.getAdapter(VisualBoundsModel.class);
+		if (visualBoundsModel == null) {
+			nodes = findContainedNodes(rootVisual.getScene().getRoot(), bbox[0],
+					bbox[1], bbox[2], bbox[3]);
+		} else {
+			// only the visuals of the content parts that intersect the
+			// marquee area need to be searched (skipping those that are nested
+			// within the visual of another one)
+			nodes = new ArrayList<>();
+			List<IVisualPart<? extends Node>> candidates = visualBoundsModel
+					.getPartsIntersecting(new BoundingBox(bbox[0], bbox[1],
+							bbox[2] - bbox[0], bbox[3] - bbox[1]));
+			Set<Node> candidateVisuals = new HashSet<>();
+			for (IVisualPart<? extends Node> candidate : candidates) {
+				candidateVisuals.add(candidate.getVisual());
+			}
+			for (IVisualPart<? extends Node> candidate : candidates) {
+				Parent parent = candidate.getVisual().getParent();
+				while (parent != null && !candidateVisuals.contains(parent)) {
+					parent = parent.getParent();
+				}
+				if (parent == null) {
+					nodes.addAll(findContainedNodes(candidate.getVisual(),
+							bbox[0], bbox[1], bbox[2], bbox[3]));
+				}
+			}
+		}
 
 		// find content parts for contained nodes
 		List<IContentPart<? extends Node>> parts = getParts(nodes);
@@ -257,17 +289,16 @@ public class MarqueeOnDragHandler extends AbstractHandler
 	 *         corresponding to the given {@link Node}s.
 	 */
 	protected List<IContentPart<? extends Node>> getParts(List<Node> nodes) {
-		List<IContentPart<? extends Node>> parts = new ArrayList<>();
+		Set<IContentPart<? extends Node>> parts = new LinkedHashSet<>();
 		IViewer viewer = getHost().getRoot().getViewer();
 		for (Node node : nodes) {
 			IVisualPart<? extends Node> part = PartUtils
 					.retrieveVisualPart(viewer, node);
-			if (part != null && part instanceof IContentPart
-					&& !parts.contains(part)) {
+			if (part instanceof IContentPart) {
 				parts.add((IContentPart<? extends Node>) part);
 			}
 		}
-		return parts;
+		return new ArrayList<>(parts);
 	}
 
 	/**
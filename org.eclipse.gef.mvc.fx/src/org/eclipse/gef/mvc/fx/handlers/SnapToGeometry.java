@@ -11,15 +11,19 @@
  *******************************************************************************/
 package org.eclipse.gef.mvc.fx.handlers;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.function.Predicate;
 
 import org.eclipse.gef.fx.nodes.InfiniteCanvas;
 import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.mvc.fx.models.SnappingModel.SnappingLocation;
+import org.eclipse.gef.mvc.fx.models.VisualBoundsModel;
 import org.eclipse.gef.mvc.fx.parts.IContentPart;
 import org.eclipse.gef.mvc.fx.parts.IVisualPart;
+import org.eclipse.gef.mvc.fx.parts.PartUtils;
 
+import javafx.geometry.BoundingBox;
 import javafx.geometry.Bounds;
 import javafx.geometry.Orientation;
 import javafx.scene.Node;
@@ -72,6 +76,31 @@ public class SnapToGeometry extends AbstractSnapTo implements ISnapToStrategy {
 		return p.getChildrenUnmodifiable().isEmpty();
 	};
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * In case a {@link VisualBoundsModel} is available within the viewer, only
+	 * those {@link IContentPart}s are returned whose visual bounds intersect
+	 * the viewport, because {@link #isRelevant(IContentPart) only those are
+	 * relevant}.
+	 */
+	@Override
+	protected Collection<? extends IContentPart<? extends Node>> getCandidateParts(
+			IContentPart<? extends Node> snappedPart) {
+		VisualBoundsModel visualBoundsModel = snappedPart.getViewer()
+				.getAdapter(VisualBoundsModel.class);
+		if (visualBoundsModel == null) {
+			return super.getCandidateParts(snappedPart);
+		}
+		InfiniteCanvas canvas = (InfiniteCanvas) snappedPart.getViewer()
+				.getCanvas();
+		Bounds viewportInScene = canvas.localToScene(new BoundingBox(0, 0,
+				canvas.getWidth(), canvas.getHeight()));
+		return PartUtils.filterParts(
+				visualBoundsModel.getPartsIntersecting(viewportInScene),
+				(p) -> p instanceof IContentPart);
+	}
+
 	@Override
 	protected String getTargetLocationProviderRole() {
 		return TARGET_SNAPPING_LOCATION_PROVIDER;
@@ -11,6 +11,9 @@
  *******************************************************************************/
 package org.eclipse.gef.mvc.fx.handlers;
 
+import java.util.Collection;
+import java.util.Collections;
+
 import org.eclipse.gef.fx.nodes.InfiniteCanvas;
 import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
@@ -59,6 +62,18 @@ public class SnapToGrid extends AbstractSnapTo implements ISnapToStrategy {
 		return Double.MAX_VALUE;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * As grid snapping does not depend on other parts, no candidate parts are
+	 * returned, so that the parts of the viewer are not iterated.
+	 */
+	@Override
+	protected Collection<? extends IContentPart<? extends Node>> getCandidateParts(
+			IContentPart<? extends Node> snappedPart) {
+		return Collections.emptyList();
+	}
+
 	@Override
 	protected String getTargetLocationProviderRole() {
 		return null;
@@ -91,7 +106,6 @@ public class SnapToGrid extends AbstractSnapTo implements ISnapToStrategy {
 
 	@Override
 	protected boolean isRelevant(IContentPart<? extends Node> part) {
-		// TODO: prevent part iteration
 		return false;
 	}
 
@@ -17,7 +17,9 @@ package org.eclipse.gef.mvc.fx.models;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.gef.common.beans.property.ReadOnlyListWrapperEx;
 import org.eclipse.gef.common.collections.CollectionUtils;
@@ -38,6 +40,11 @@ import javafx.scene.Node;
  * It represents the selection as an ordered list of {@link IContentPart}s.
  * Thereby, it supports a multi-selection and allows to identify a primary
  * selection (the head element of the list) that may be treated specially.
+ * <p>
+ * Internally, the selected {@link IContentPart}s are additionally maintained
+ * within an identity hash set, so that containment checks do not depend on the
+ * size of the selection, and each (bulk) update of the selection is notified
+ * to listeners by a single list change.
  *
  * @author anyssen
  * @author mwienand
@@ -45,7 +52,7 @@ import javafx.scene.Node;
  */
 // TODO: We could expose the selection as modifiable collection and modifiable
 // read-only property if we could use an ordered set. As we use a list, we have
-// to ensure it does not contain duplicates.
+// to ensure it does not contain duplicates (which is done using selectedParts).
 public class SelectionModel
 		extends org.eclipse.gef.common.adapt.IAdaptable.Bound.Impl<IViewer>
 		implements IDisposable {
@@ -57,6 +64,8 @@ public class SelectionModel
 
 	private ObservableList<IContentPart<? extends Node>> selection = CollectionUtils
 			.observableArrayList();
+	private Set<IContentPart<? extends Node>> selectedParts = Collections
+			.newSetFromMap(new IdentityHashMap<>());
 
 	private ObservableList<IContentPart<? extends Node>> selectionUnmodifiable = FXCollections
 			.unmodifiableObservableList(selection);
@@ -71,7 +80,7 @@ public class SelectionModel
 			if (change.wasRemoved()) {
 				IVisualPart<? extends Node> valueRemoved = change
 						.getValueRemoved();
-				if (selection.contains(valueRemoved)) {
+				if (selectedParts.remove(valueRemoved)) {
 					selection.remove(valueRemoved);
 				}
 			}
@@ -114,26 +123,24 @@ public class SelectionModel
 	 */
 	public void appendToSelection(
 			List<? extends IContentPart<? extends Node>> toBeAppended) {
-		List<IContentPart<? extends Node>> newSelection = getSelectionCopy();
-		newSelection.removeAll(toBeAppended);
-		for (IContentPart<? extends Node> p : toBeAppended) {
-			if (newSelection.contains(p)) {
-				throw new IllegalArgumentException("The content part " + p
-						+ " is provided more than once in the given list.");
+		Set<IContentPart<? extends Node>> toBeAppendedSet = toIdentitySet(
+				toBeAppended);
+		List<IContentPart<? extends Node>> newSelection = new ArrayList<>(
+				selection.size() + toBeAppended.size());
+		for (IContentPart<? extends Node> p : selection) {
+			if (!toBeAppendedSet.contains(p)) {
+				newSelection.add(p);
 			}
-			newSelection.add(p);
-		}
-		// XXX: ObservableList.setAll() is not properly guarded against not
-		// having an effect (and will always notify attached listeners)
-		if (!selection.equals(newSelection)) {
-			selection.setAll(newSelection);
 		}
+		newSelection.addAll(toBeAppended);
+		updateSelection(newSelection);
 	}
 
 	/**
 	 * Clears the current selection.
 	 */
 	public void clearSelection() {
+		selectedParts.clear();
 		selection.clear();
 	}
 
@@ -145,17 +152,6 @@ public class SelectionModel
 		// setAdaptable() already clears the selection
 	}
 
-	/**
-	 * Returns a modifiable list of the currently selected {@link IContentPart}
-	 * s.
-	 *
-	 * @return A modifiable list of the currently selected {@link IContentPart}
-	 *         s.
-	 */
-	private List<IContentPart<? extends Node>> getSelectionCopy() {
-		return new ArrayList<>(selection);
-	}
-
 	/**
 	 * Returns an unmodifiable observable list of the currently selected
 	 * {@link IContentPart}s.
@@ -177,7 +173,7 @@ public class SelectionModel
 	 *         current selection.
 	 */
 	public boolean isSelected(IContentPart<? extends Node> contentPart) {
-		return selection.contains(contentPart);
+		return selectedParts.contains(contentPart);
 	}
 
 	/**
@@ -216,19 +212,17 @@ public class SelectionModel
 	 */
 	public void prependToSelection(
 			List<? extends IContentPart<? extends Node>> toBePrepended) {
-		List<IContentPart<? extends Node>> newSelection = getSelectionCopy();
-		newSelection.removeAll(toBePrepended);
-		int i = 0;
-		for (IContentPart<? extends Node> p : toBePrepended) {
-			if (newSelection.contains(p)) {
-				throw new IllegalArgumentException("The content part " + p
-						+ " is provided more than once in the given list.");
+		Set<IContentPart<? extends Node>> toBePrependedSet = toIdentitySet(
+				toBePrepended);
+		List<IContentPart<? extends Node>> newSelection = new ArrayList<>(
+				selection.size() + toBePrepended.size());
+		newSelection.addAll(toBePrepended);
+		for (IContentPart<? extends Node> p : selection) {
+			if (!toBePrependedSet.contains(p)) {
+				newSelection.add(p);
 			}
-			newSelection.add(i++, p);
-		}
-		if (!selection.equals(newSelection)) {
-			selection.setAll(newSelection);
 		}
+		updateSelection(newSelection);
 	}
 
 	/**
@@ -242,7 +236,16 @@ public class SelectionModel
 	 */
 	public void removeFromSelection(
 			Collection<? extends IContentPart<? extends Node>> contentParts) {
-		selection.removeAll(contentParts);
+		Set<IContentPart<? extends Node>> toBeRemoved = Collections
+				.newSetFromMap(new IdentityHashMap<>());
+		for (IContentPart<? extends Node> p : contentParts) {
+			if (selectedParts.remove(p)) {
+				toBeRemoved.add(p);
+			}
+		}
+		if (!toBeRemoved.isEmpty()) {
+			selection.removeAll(toBeRemoved);
+		}
 	}
 
 	/**
@@ -254,7 +257,9 @@ public class SelectionModel
 	 *            selection.
 	 */
 	public void removeFromSelection(IContentPart<? extends Node> contentPart) {
-		selection.remove(contentPart);
+		if (selectedParts.remove(contentPart)) {
+			selection.remove(contentPart);
+		}
 	}
 
 	/**
@@ -305,17 +310,49 @@ public class SelectionModel
 	 */
 	public void setSelection(
 			List<? extends IContentPart<? extends Node>> selection) {
-		List<IContentPart<? extends Node>> newSelection = new ArrayList<>();
-		int i = 0;
-		for (IContentPart<? extends Node> p : selection) {
-			if (newSelection.contains(p)) {
+		toIdentitySet(selection);
+		updateSelection(new ArrayList<>(selection));
+	}
+
+	/**
+	 * Returns an identity hash set containing the given {@link IContentPart}s.
+	 *
+	 * @param contentParts
+	 *            The {@link IContentPart}s to put into the set.
+	 * @return An identity hash set containing the given {@link IContentPart}s.
+	 * @throws IllegalArgumentException
+	 *             if the given list contains an {@link IContentPart} more than
+	 *             once.
+	 */
+	private Set<IContentPart<? extends Node>> toIdentitySet(
+			List<? extends IContentPart<? extends Node>> contentParts) {
+		Set<IContentPart<? extends Node>> set = Collections
+				.newSetFromMap(new IdentityHashMap<>());
+		for (IContentPart<? extends Node> p : contentParts) {
+			if (!set.add(p)) {
 				throw new IllegalArgumentException("The content part " + p
 						+ " is provided more than once in the given list.");
 			}
-			newSelection.add(i++, p);
 		}
-		if (!this.selection.equals(newSelection)) {
-			this.selection.setAll(newSelection);
+		return set;
+	}
+
+	/**
+	 * Replaces the current selection with the given list of
+	 * {@link IContentPart}s (which has to be free of duplicates) using a single
+	 * list change, in case it differs from the current selection.
+	 *
+	 * @param newSelection
+	 *            The new selection.
+	 */
+	private void updateSelection(
+			List<IContentPart<? extends Node>> newSelection) {
+		// XXX: ObservableList.setAll() is not properly guarded against not
+		// having an effect (and will always notify attached listeners)
+		if (!selection.equals(newSelection)) {
+			selectedParts.clear();
+			selectedParts.addAll(newSelection);
+			selection.setAll(newSelection);
 		}
 	}
 }
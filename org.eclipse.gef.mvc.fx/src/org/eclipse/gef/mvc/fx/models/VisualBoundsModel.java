@@ -0,0 +1,302 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.mvc.fx.models;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.gef.common.dispose.IDisposable;
+import org.eclipse.gef.fx.utils.SpatialIndex;
+import org.eclipse.gef.mvc.fx.parts.IContentPart;
+import org.eclipse.gef.mvc.fx.parts.IRootPart;
+import org.eclipse.gef.mvc.fx.parts.IVisualPart;
+import org.eclipse.gef.mvc.fx.viewer.IViewer;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.collections.MapChangeListener;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+
+/**
+ * The {@link VisualBoundsModel} maintains a {@link SpatialIndex} over the
+ * visual bounds of all {@link IContentPart}s that are registered at the
+ * {@link IViewer#getVisualPartMap() visual-part-map} of its {@link IViewer},
+ * so that the content parts at a given position, the content parts within a
+ * given area, or the content part that is nearest to a given position can be
+ * determined without walking the scene graph. Feedback and handle parts are
+ * not indexed.
+ * <p>
+ * The {@link VisualBoundsModel} is not bound per default, as it observes the
+ * visuals of all content parts. It pays off for content viewers with many
+ * content parts, where it is used by the
+ * {@link org.eclipse.gef.mvc.fx.handlers.MarqueeOnDragHandler} and by
+ * {@link org.eclipse.gef.mvc.fx.handlers.SnapToGeometry} if it is bound (see
+ * <code>MvcFxModule#bindVisualBoundsModelAsContentViewerAdapter()</code>).
+ * <p>
+ * The bounds are indexed within the local coordinate system of the
+ * {@link IRootPart}'s visual, so that they do not have to be updated when the
+ * viewer is scrolled or zoomed. They are updated incrementally: changes to
+ * the bounds-in-parent, the transformation, or the parent of a registered
+ * visual mark the corresponding part (and in case of a transformation or
+ * parent change, also its descendant parts) as dirty, and the bounds of dirty
+ * parts are re-computed lazily upon the next query. Transformations of
+ * intermediate (non-registered) nodes are not observed.
+ * <p>
+ * All queries are performed in scene coordinates and return the parts whose
+ * (axis-aligned) bounds match, i.e. the result may contain parts whose
+ * geometry does not precisely match the query.
+ */
+public class VisualBoundsModel
+		extends org.eclipse.gef.common.adapt.IAdaptable.Bound.Impl<IViewer>
+		implements IDisposable {
+
+	private static final Bounds EMPTY_BOUNDS = new BoundingBox(0, 0, -1, -1);
+
+	private final SpatialIndex<IVisualPart<? extends Node>> index = new SpatialIndex<>();
+	private final Set<IVisualPart<? extends Node>> dirtyParts = Collections
+			.newSetFromMap(new IdentityHashMap<>());
+	private final Map<Node, IVisualPart<? extends Node>> indexedVisuals = new IdentityHashMap<>();
+	private Node rootVisual;
+
+	private InvalidationListener boundsObserver = new InvalidationListener() {
+		@Override
+		public void invalidated(Observable observable) {
+			IVisualPart<? extends Node> part = indexedVisuals
+					.get(((ReadOnlyProperty<?>) observable).getBean());
+			if (part != null) {
+				dirtyParts.add(part);
+			}
+		}
+	};
+
+	private InvalidationListener transformObserver = new InvalidationListener() {
+		@Override
+		public void invalidated(Observable observable) {
+			IVisualPart<? extends Node> part = indexedVisuals
+					.get(((ReadOnlyProperty<?>) observable).getBean());
+			if (part != null) {
+				markDirtyRecursively(part);
+			}
+		}
+	};
+
+	private MapChangeListener<Node, IVisualPart<? extends Node>> visualPartMapObserver = new MapChangeListener<Node, IVisualPart<? extends Node>>() {
+		@Override
+		public void onChanged(
+				javafx.collections.MapChangeListener.Change<? extends Node, ? extends IVisualPart<? extends Node>> change) {
+			if (change.wasRemoved()) {
+				unregister(change.getKey());
+			}
+			if (change.wasAdded()) {
+				register(change.getKey(), change.getValueAdded());
+			}
+		}
+	};
+
+	/**
+	 * Computes the bounds of the given {@link IVisualPart}'s visual within the
+	 * local coordinate system of the {@link IRootPart}'s visual. Returns empty
+	 * bounds if the visual is not nested within the root visual.
+	 *
+	 * @param part
+	 *            The {@link IVisualPart} for which to compute the bounds.
+	 * @return The bounds of the part's visual within the local coordinate
+	 *         system of the root visual.
+	 */
+	protected Bounds computeBoundsInRoot(IVisualPart<? extends Node> part) {
+		Node visual = part.getVisual();
+		// validate the observed properties, so that subsequent changes are
+		// reported again
+		visual.getBoundsInParent();
+		visual.getLocalToParentTransform();
+		Node current = visual.getParent();
+		while (current != null && current != rootVisual) {
+			current = current.getParent();
+		}
+		if (rootVisual == null || current == null) {
+			return EMPTY_BOUNDS;
+		}
+		return rootVisual.sceneToLocal(
+				visual.localToScene(visual.getBoundsInLocal()));
+	}
+
+	@Override
+	public void dispose() {
+		// setAdaptable() already unregisters all visuals
+	}
+
+	/**
+	 * Re-computes the bounds of all dirty parts.
+	 */
+	private void flush() {
+		if (dirtyParts.isEmpty()) {
+			return;
+		}
+		List<IVisualPart<? extends Node>> toUpdate = new ArrayList<>(
+				dirtyParts);
+		dirtyParts.clear();
+		for (IVisualPart<? extends Node> part : toUpdate) {
+			if (index.contains(part)) {
+				index.put(part, computeBoundsInRoot(part));
+			}
+		}
+	}
+
+	/**
+	 * Returns the {@link IContentPart} whose visual bounds are nearest to the
+	 * given scene position, or <code>null</code> if no part is indexed.
+	 *
+	 * @param sceneX
+	 *            The x coordinate of the position in scene coordinates.
+	 * @param sceneY
+	 *            The y coordinate of the position in scene coordinates.
+	 * @return The {@link IContentPart} that is nearest to the given position,
+	 *         or <code>null</code>.
+	 */
+	public IVisualPart<? extends Node> getNearestPart(double sceneX,
+			double sceneY) {
+		Point2D position = sceneToRoot(sceneX, sceneY);
+		if (position == null) {
+			return null;
+		}
+		flush();
+		return index.nearest(position.getX(), position.getY());
+	}
+
+	/**
+	 * Returns a {@link List} containing all {@link IContentPart}s whose visual
+	 * bounds contain the given scene position.
+	 *
+	 * @param sceneX
+	 *            The x coordinate of the position in scene coordinates.
+	 * @param sceneY
+	 *            The y coordinate of the position in scene coordinates.
+	 * @return A {@link List} containing the {@link IContentPart}s at the given
+	 *         position.
+	 */
+	public List<IVisualPart<? extends Node>> getPartsAt(double sceneX,
+			double sceneY) {
+		Point2D position = sceneToRoot(sceneX, sceneY);
+		if (position == null) {
+			return new ArrayList<>();
+		}
+		flush();
+		return index.query(position.getX(), position.getY());
+	}
+
+	/**
+	 * Returns a {@link List} containing all {@link IContentPart}s whose visual
+	 * bounds intersect the given {@link Bounds} (in scene coordinates).
+	 *
+	 * @param boundsInScene
+	 *            The {@link Bounds} to test in scene coordinates.
+	 * @return A {@link List} containing the {@link IContentPart}s that
+	 *         intersect the given {@link Bounds}.
+	 */
+	public List<IVisualPart<? extends Node>> getPartsIntersecting(
+			Bounds boundsInScene) {
+		if (boundsInScene == null) {
+			throw new IllegalArgumentException(
+					"boundsInScene may not be null.");
+		}
+		if (rootVisual == null) {
+			return new ArrayList<>();
+		}
+		flush();
+		return index.query(rootVisual.sceneToLocal(boundsInScene));
+	}
+
+	private void markDirtyRecursively(IVisualPart<? extends Node> part) {
+		if (index.contains(part)) {
+			dirtyParts.add(part);
+		}
+		for (IVisualPart<? extends Node> child : part
+				.getChildrenUnmodifiable()) {
+			markDirtyRecursively(child);
+		}
+	}
+
+	private void register(Node visual, IVisualPart<? extends Node> part) {
+		if (part instanceof IRootPart) {
+			// the root visual provides the coordinate system of the index
+			rootVisual = visual;
+			dirtyParts.addAll(indexedVisuals.values());
+			return;
+		}
+		if (!(part instanceof IContentPart)) {
+			return;
+		}
+		indexedVisuals.put(visual, part);
+		visual.boundsInParentProperty().addListener(boundsObserver);
+		visual.localToParentTransformProperty().addListener(transformObserver);
+		visual.parentProperty().addListener(transformObserver);
+		index.put(part, EMPTY_BOUNDS);
+		dirtyParts.add(part);
+	}
+
+	private Point2D sceneToRoot(double sceneX, double sceneY) {
+		if (rootVisual == null) {
+			return null;
+		}
+		return rootVisual.sceneToLocal(sceneX, sceneY);
+	}
+
+	@Override
+	public void setAdaptable(IViewer adaptable) {
+		if (getAdaptable() != null) {
+			// unregister visual-part-map listener and all visuals
+			getAdaptable().visualPartMapProperty()
+					.removeListener(visualPartMapObserver);
+			for (Node visual : new ArrayList<>(indexedVisuals.keySet())) {
+				unregister(visual);
+			}
+			rootVisual = null;
+		}
+		super.setAdaptable(adaptable);
+		if (adaptable != null) {
+			// register for visual-part-map changes and index all visuals
+			adaptable.visualPartMapProperty()
+					.addListener(visualPartMapObserver);
+			for (Map.Entry<Node, IVisualPart<? extends Node>> entry : adaptable
+					.getVisualPartMap().entrySet()) {
+				register(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	private void unregister(Node visual) {
+		if (visual == rootVisual) {
+			rootVisual = null;
+			return;
+		}
+		IVisualPart<? extends Node> part = indexedVisuals.remove(visual);
+		if (part == null) {
+			return;
+		}
+		visual.boundsInParentProperty().removeListener(boundsObserver);
+		visual.localToParentTransformProperty()
+				.removeListener(transformObserver);
+		visual.parentProperty().removeListener(transformObserver);
+		index.remove(part);
+		dirtyParts.remove(part);
+	}
+
+}
@@ -15,6 +15,7 @@ package org.eclipse.gef.mvc.tests.fx;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -126,6 +127,45 @@ public class SelectionModelTests {
 		}
 	}
 
+	@Test
+	public void testBulkSelection() {
+		SelectionModel selectionModel = new SelectionModel();
+		List<IContentPart<? extends Node>> parts = new ArrayList<>();
+		for (int i = 0; i < 20000; i++) {
+			parts.add(new ContentPartStub());
+		}
+		int[] changes = new int[1];
+		selectionModel.getSelectionUnmodifiable().addListener((ListChangeListener.Change<?> c) -> changes[0]++);
+
+		// a bulk append raises a single event only
+		selectionModel.appendToSelection(parts);
+		assertEquals(1, changes[0]);
+		assertEquals(parts, selectionModel.getSelectionUnmodifiable());
+		for (IContentPart<? extends Node> p : parts) {
+			Assert.assertTrue(selectionModel.isSelected(p));
+		}
+
+		// moving the first half to the back raises a single event only
+		selectionModel.appendToSelection(parts.subList(0, 10000));
+		assertEquals(2, changes[0]);
+		List<IContentPart<? extends Node>> expected = new ArrayList<>(parts.subList(10000, 20000));
+		expected.addAll(parts.subList(0, 10000));
+		assertEquals(expected, selectionModel.getSelectionUnmodifiable());
+
+		// deselect every other part
+		List<IContentPart<? extends Node>> toBeRemoved = new ArrayList<>();
+		for (int i = 0; i < parts.size(); i += 2) {
+			toBeRemoved.add(parts.get(i));
+		}
+		selectionModel.removeFromSelection(toBeRemoved);
+		assertEquals(3, changes[0]);
+		expected.removeAll(toBeRemoved);
+		assertEquals(expected, selectionModel.getSelectionUnmodifiable());
+		for (int i = 0; i < parts.size(); i++) {
+			assertEquals(i % 2 != 0, selectionModel.isSelected(parts.get(i)));
+		}
+	}
+
 	@Test
 	public void testChangeEvents() {
 		SelectionModel selectionModel = new SelectionModel();
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.mvc.tests.fx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.gef.common.adapt.AdapterKey;
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.mvc.fx.MvcFxModule;
+import org.eclipse.gef.mvc.fx.domain.IDomain;
+import org.eclipse.gef.mvc.fx.handlers.MarqueeOnDragHandler;
+import org.eclipse.gef.mvc.fx.models.SelectionModel;
+import org.eclipse.gef.mvc.fx.models.VisualBoundsModel;
+import org.eclipse.gef.mvc.fx.parts.AbstractFeedbackPart;
+import org.eclipse.gef.mvc.fx.parts.IContentPart;
+import org.eclipse.gef.mvc.fx.parts.IContentPartFactory;
+import org.eclipse.gef.mvc.fx.parts.IFeedbackPart;
+import org.eclipse.gef.mvc.fx.viewer.IViewer;
+import org.eclipse.gef.mvc.tests.fx.rules.FXNonApplicationThreadRule;
+import org.eclipse.gef.mvc.tests.fx.stubs.Cell;
+import org.eclipse.gef.mvc.tests.fx.stubs.CellContentPartFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.multibindings.MapBinder;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Point2D;
+import javafx.scene.Node;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.shape.Rectangle;
+
+/**
+ * Tests for the {@link VisualBoundsModel}.
+ */
+public class VisualBoundsModelTests {
+
+	private static IDomain domain;
+	private static IViewer viewer;
+
+	@Rule
+	public FXNonApplicationThreadRule ctx = new FXNonApplicationThreadRule();
+
+	@Before
+	public void activate() throws Throwable {
+		if (domain == null) {
+			domain = Guice.createInjector(new MvcFxModule() {
+
+				@Override
+				protected void bindIViewerAdaptersForContentViewer(MapBinder<AdapterKey<?>, Object> adapterMapBinder) {
+					super.bindIViewerAdaptersForContentViewer(adapterMapBinder);
+					bindVisualBoundsModelAsContentViewerAdapter(adapterMapBinder);
+				}
+
+				@Override
+				protected void configure() {
+					binder().bind(IContentPartFactory.class).to(CellContentPartFactory.class);
+					super.configure();
+				}
+			}).getInstance(IDomain.class);
+			viewer = domain.getAdapter(AdapterKey.get(IViewer.class, IDomain.CONTENT_VIEWER_ROLE));
+			ctx.createScene(viewer.getCanvas(), 100, 100);
+		}
+		ctx.runAndWait(() -> {
+			domain.activate();
+		});
+	}
+
+	@After
+	public void deactivate() throws Throwable {
+		ctx.runAndWait(() -> {
+			viewer.getContents().clear();
+			domain.deactivate();
+		});
+	}
+
+	private Point2D rootToScene(double x, double y) {
+		return viewer.getRootPart().getVisual().localToScene(x, y);
+	}
+
+	private List<IContentPart<? extends Node>> marqueeSelect(Point2D start, Point2D end) {
+		MarqueeOnDragHandler handler = viewer.getRootPart().getAdapters(MarqueeOnDragHandler.class).values().iterator()
+				.next();
+		SelectionModel selectionModel = viewer.getAdapter(SelectionModel.class);
+		selectionModel.clearSelection();
+		handler.startDrag(new MouseEvent(MouseEvent.MOUSE_PRESSED, start.getX(), start.getY(), start.getX(),
+				start.getY(), MouseButton.PRIMARY, 1, false, false, false, false, true, false, false, false, false, false,
+				null));
+		handler.endDrag(new MouseEvent(MouseEvent.MOUSE_RELEASED, end.getX(), end.getY(), end.getX(), end.getY(),
+				MouseButton.PRIMARY, 1, false, false, false, false, false, false, false, false, false, false, null),
+				new Dimension(end.getX() - start.getX(), end.getY() - start.getY()));
+		return new ArrayList<>(selectionModel.getSelectionUnmodifiable());
+	}
+
+	@Test
+	public void marqueeSelectionWithAndWithoutIndex() throws Throwable {
+		List<Cell> contents = Arrays.asList(new Cell("0"), new Cell("1"), new Cell("2"));
+		ctx.runAndWait(() -> {
+			viewer.getContents().setAll(contents);
+		});
+		IContentPart<? extends Node> p0 = viewer.getContentPartMap().get(contents.get(0));
+		IContentPart<? extends Node> p1 = viewer.getContentPartMap().get(contents.get(1));
+		IContentPart<? extends Node> p2 = viewer.getContentPartMap().get(contents.get(2));
+
+		ctx.runAndWait(() -> {
+			((Rectangle) p0.getVisual()).setWidth(20);
+			((Rectangle) p0.getVisual()).setHeight(20);
+			p0.getVisual().relocate(10, 10);
+			((Rectangle) p1.getVisual()).setWidth(20);
+			((Rectangle) p1.getVisual()).setHeight(20);
+			p1.getVisual().relocate(50, 50);
+			// only partially contained within the marquee area
+			((Rectangle) p2.getVisual()).setWidth(20);
+			((Rectangle) p2.getVisual()).setHeight(20);
+			p2.getVisual().relocate(70, 70);
+
+			Point2D start = rootToScene(0, 0);
+			Point2D end = rootToScene(80, 80);
+			List<IContentPart<? extends Node>> withIndex = marqueeSelect(start, end);
+			assertEquals(new HashSet<>(Arrays.asList(p0, p1)), new HashSet<>(withIndex));
+
+			// the same parts are selected if no index is available
+			VisualBoundsModel model = viewer.getAdapter(VisualBoundsModel.class);
+			viewer.unsetAdapter(model);
+			try {
+				List<IContentPart<? extends Node>> withoutIndex = marqueeSelect(start, end);
+				assertEquals(new HashSet<>(withIndex), new HashSet<>(withoutIndex));
+			} finally {
+				viewer.setAdapter(model);
+			}
+		});
+	}
+
+	@Test
+	public void onlyContentPartsAreIndexed() throws Throwable {
+		List<Cell> contents = Arrays.asList(new Cell("0"));
+		ctx.runAndWait(() -> {
+			viewer.getContents().setAll(contents);
+		});
+		IContentPart<? extends Node> p0 = viewer.getContentPartMap().get(contents.get(0));
+		VisualBoundsModel model = viewer.getAdapter(VisualBoundsModel.class);
+
+		ctx.runAndWait(() -> {
+			((Rectangle) p0.getVisual()).setWidth(20);
+			((Rectangle) p0.getVisual()).setHeight(20);
+			p0.getVisual().relocate(10, 10);
+			IFeedbackPart<Rectangle> feedback = new AbstractFeedbackPart<Rectangle>() {
+				@Override
+				protected Rectangle doCreateVisual() {
+					return new Rectangle(10, 10, 20, 20);
+				}
+
+				@Override
+				protected void doRefreshVisual(Rectangle visual) {
+				}
+			};
+			viewer.getRootPart().addChild(feedback);
+			try {
+				Point2D min = rootToScene(0, 0);
+				assertEquals(Collections.singletonList(p0),
+						model.getPartsIntersecting(new BoundingBox(min.getX(), min.getY(), 100, 100)));
+			} finally {
+				viewer.getRootPart().removeChild(feedback);
+			}
+		});
+	}
+
+	@Test
+	public void queriesFollowVisualChanges() throws Throwable {
+		List<Cell> contents = Arrays.asList(new Cell("0"), new Cell("1"));
+		ctx.runAndWait(() -> {
+			viewer.getContents().setAll(contents);
+		});
+		IContentPart<? extends Node> p0 = viewer.getContentPartMap().get(contents.get(0));
+		IContentPart<? extends Node> p1 = viewer.getContentPartMap().get(contents.get(1));
+		VisualBoundsModel model = viewer.getAdapter(VisualBoundsModel.class);
+		assertNotNull(model);
+
+		ctx.runAndWait(() -> {
+			Rectangle r0 = (Rectangle) p0.getVisual();
+			r0.setX(10);
+			r0.setY(10);
+			r0.setWidth(20);
+			r0.setHeight(20);
+			Rectangle r1 = (Rectangle) p1.getVisual();
+			r1.setWidth(20);
+			r1.setHeight(20);
+			r1.relocate(100, 100);
+
+			Point2D p = rootToScene(15, 15);
+			assertEquals(Collections.singletonList(p0), model.getPartsAt(p.getX(), p.getY()));
+			p = rootToScene(110, 110);
+			assertEquals(Collections.singletonList(p1), model.getPartsAt(p.getX(), p.getY()));
+			p = rootToScene(90, 90);
+			assertEquals(p1, model.getNearestPart(p.getX(), p.getY()));
+			Point2D min = rootToScene(0, 0);
+			assertEquals(new HashSet<>(Arrays.asList(p0, p1)), new HashSet<>(
+					model.getPartsIntersecting(new BoundingBox(min.getX(), min.getY(), 200, 200))));
+
+			// move the second part, so that it overlaps the first one
+			r1.relocate(15, 15);
+			p = rootToScene(20, 20);
+			assertEquals(new HashSet<>(Arrays.asList(p0, p1)), new HashSet<>(model.getPartsAt(p.getX(), p.getY())));
+			p = rootToScene(110, 110);
+			assertTrue(model.getPartsAt(p.getX(), p.getY()).isEmpty());
+		});
+
+		// removed parts are no longer reported
+		ctx.runAndWait(() -> {
+			viewer.getContents().setAll(contents.subList(0, 1));
+			Point2D p = rootToScene(20, 20);
+			assertEquals(Collections.singletonList(p0), model.getPartsAt(p.getX(), p.getY()));
+		});
+	}
+}
@@ -15,11 +15,21 @@ package org.eclipse.gef.zest.fx.behaviors;
 
 import java.util.List;
 import java.util.Map;
-
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.gef.common.attributes.IAttributeCopier;
+import org.eclipse.gef.common.attributes.IAttributeStore;
 import org.eclipse.gef.fx.nodes.InfiniteCanvas;
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Edge;
 import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.GraphCopier;
 import org.eclipse.gef.layout.ILayoutAlgorithm;
 import org.eclipse.gef.layout.ILayoutFilter;
 import org.eclipse.gef.layout.LayoutContext;
@@ -36,14 +46,20 @@ import org.eclipse.gef.zest.fx.models.NavigationModel.ViewportState;
 import org.eclipse.gef.zest.fx.parts.GraphPart;
 import org.eclipse.gef.zest.fx.parts.NodePart;
 
+import javafx.animation.Animation.Status;
+import javafx.animation.AnimationTimer;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.ListChangeListener;
 import javafx.collections.SetChangeListener;
+import javafx.concurrent.Task;
 import javafx.geometry.Bounds;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.util.Duration;
 
 /**
  * The {@link GraphLayoutBehavior} is responsible for initiating layout passes.
@@ -55,6 +71,71 @@ import javafx.scene.Scene;
 // only applicable for GraphPart (see #getHost())
 public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 
+	/**
+	 * A {@link GraphCopier} that creates a detached copy of the layout-relevant
+	 * part of a {@link Graph}, so that a layout can be computed on it without
+	 * touching the original graph. Geometric attribute values are copied, as
+	 * they may be modified in-place by layout algorithms.
+	 */
+	private static class LayoutSnapshotCopier extends GraphCopier {
+
+		private static final IAttributeCopier GEOMETRY_COPY = new IAttributeCopier() {
+			@Override
+			public void copy(IAttributeStore source, IAttributeStore target) {
+				for (Entry<String, Object> entry : source.getAttributes().entrySet()) {
+					Object value = entry.getValue();
+					if (value instanceof Point) {
+						value = ((Point) value).getCopy();
+					} else if (value instanceof Dimension) {
+						value = ((Dimension) value).getCopy();
+					} else if (value instanceof Rectangle) {
+						value = ((Rectangle) value).getCopy();
+					}
+					target.getAttributes().put(entry.getKey(), value);
+				}
+			}
+		};
+
+		private LayoutContext layoutContext;
+
+		public LayoutSnapshotCopier(LayoutContext layoutContext) {
+			super(GEOMETRY_COPY);
+			this.layoutContext = layoutContext;
+		}
+
+		@Override
+		protected Edge copyEdge(Edge edge) {
+			if (layoutContext.isLayoutIrrelevant(edge) || !getInputToOutputNodeMap().containsKey(edge.getSource())
+					|| !getInputToOutputNodeMap().containsKey(edge.getTarget())) {
+				return null;
+			}
+			return super.copyEdge(edge);
+		}
+
+		@Override
+		protected org.eclipse.gef.graph.Node copyNode(org.eclipse.gef.graph.Node node) {
+			if (layoutContext.isLayoutIrrelevant(node)) {
+				return null;
+			}
+			// nested graphs are laid out by their own behavior
+			org.eclipse.gef.graph.Node outputNode = new org.eclipse.gef.graph.Node();
+			copyAttributes(node, outputNode);
+			return outputNode;
+		}
+	}
+
+	/**
+	 * Creates the daemon threads that are used to compute background layouts.
+	 */
+	private static final ThreadFactory LAYOUT_THREAD_FACTORY = new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "GEF Zest Background Layout");
+			thread.setDaemon(true);
+			return thread;
+		}
+	};
+
 	private Runnable postLayout = new Runnable() {
 		@Override
 		public void run() {
@@ -90,19 +171,61 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 	private ListChangeListener<IVisualPart<? extends Node>> childrenObserver = new ListChangeListener<IVisualPart<? extends Node>>() {
 		@Override
 		public void onChanged(ListChangeListener.Change<? extends IVisualPart<? extends Node>> c) {
-			applyLayout(true, null);
+			scheduleLayout();
 		}
 	};
 
 	private SetChangeListener<org.eclipse.gef.graph.Node> hidingModelObserver = new SetChangeListener<org.eclipse.gef.graph.Node>() {
 		@Override
 		public void onChanged(SetChangeListener.Change<? extends org.eclipse.gef.graph.Node> change) {
-			applyLayout(true, null);
+			scheduleLayout();
 		}
 	};
 
 	private boolean skipNextLayout;
 
+	private boolean backgroundLayout = false;
+
+	// executes background layouts one after the other, so that a layout
+	// algorithm is never used by multiple threads concurrently (synchronous
+	// layout passes are deferred until the last background layout terminated,
+	// see deferLayout(Runnable))
+	private ExecutorService layoutExecutor;
+
+	// the execution of the last submitted background layout, which completes
+	// when its layout algorithm terminated (even if it was cancelled before)
+	private CompletableFuture<Void> layoutExecution;
+
+	// the synchronous layout pass that waits for the termination of the last
+	// background layout (if any)
+	private Runnable deferredLayout;
+
+	private Task<Map<org.eclipse.gef.graph.Node, org.eclipse.gef.graph.Node>> layoutTask;
+
+	private LayoutContext layoutTaskContext;
+
+	private boolean layoutPending;
+
+	private long coalescedLayoutRequestCount;
+
+	private Duration layoutQuietPeriod = Duration.ZERO;
+
+	// runs a scheduled layout with the next pulse
+	private AnimationTimer pulseLayoutTimer = new AnimationTimer() {
+		@Override
+		public void handle(long now) {
+			flushLayout();
+		}
+	};
+
+	// runs a scheduled layout after the quiet period
+	private PauseTransition quietPeriodLayoutTimer = new PauseTransition();
+	{
+		quietPeriodLayoutTimer.setOnFinished((e) -> {
+			flushLayout();
+		});
+	}
+
 	/**
 	 * Performs one layout pass using the static layout algorithm that is configured
 	 * for the layout context.
@@ -113,6 +236,13 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 	 */
 	@SuppressWarnings("unchecked")
 	public void applyLayout(boolean clean, Object extra) {
+		// a scheduled or deferred layout pass is superseded by this one
+		if (layoutPending) {
+			cancelScheduledLayout();
+			coalescedLayoutRequestCount++;
+		}
+		deferredLayout = null;
+
 		// check child parts exist for all content children
 		if (getHost().getChildrenUnmodifiable().size() != getHost().getContentChildrenUnmodifiable().size()) {
 			return;
@@ -149,10 +279,177 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		// update the graph
 		if (layoutContext.getGraph() != graph) {
 			layoutContext.setGraph(graph);
+		} else {
+			// the layout filter depends on the hiding model, the content parts,
+			// and the layout-irrelevant attributes, which are not observed by
+			// the layout context
+			layoutContext.invalidateLayoutRelevance();
 		}
 
 		// apply layout (if no algorithm is set, will be a no-op)
-		layoutContext.applyLayout(true);
+		if (backgroundLayout && layoutContext.getLayoutAlgorithm() != null) {
+			applyLayoutInBackground(layoutContext);
+		} else {
+			cancelBackgroundLayout();
+			if (layoutExecution != null && !layoutExecution.isDone()) {
+				deferLayout(() -> applyLayout(clean, extra));
+			} else {
+				layoutExecution = null;
+				layoutContext.applyLayout(true);
+			}
+		}
+	}
+
+	/**
+	 * Computes a layout pass for the given {@link LayoutContext} on a background
+	 * thread. The current layout information is transferred into the layout model
+	 * (see {@link #preLayout()}) and copied, so that the layout algorithm operates
+	 * on a detached snapshot. When the computation finishes, the results are
+	 * transferred back on the JavaFX application thread and {@link #postLayout()}
+	 * is executed once. A background layout that is still pending or running is
+	 * cancelled, i.e. its results are discarded. The time budget of the given
+	 * {@link LayoutContext} applies to the background layout, and its progress
+	 * is reported to the given {@link LayoutContext} (on the background
+	 * thread).
+	 *
+	 * @param layoutContext
+	 *            The {@link LayoutContext} that is to be laid out.
+	 */
+	protected void applyLayoutInBackground(LayoutContext layoutContext) {
+		cancelBackgroundLayout();
+
+		// transfer layout information into the layout model and snapshot it
+		layoutContext.preLayout();
+		LayoutSnapshotCopier copier = new LayoutSnapshotCopier(layoutContext);
+		Graph snapshot = copier.copy(layoutContext.getGraph());
+		final Map<org.eclipse.gef.graph.Node, org.eclipse.gef.graph.Node> nodeMap = copier.getInputToOutputNodeMap();
+		final LayoutContext snapshotContext = new LayoutContext();
+		snapshotContext.setGraph(snapshot);
+		snapshotContext.setLayoutAlgorithm(layoutContext.getLayoutAlgorithm());
+		snapshotContext.setTimeBudget(layoutContext.getTimeBudget());
+		snapshotContext.addProgressListener((context, iteration, totalIterations, energy) -> layoutContext
+				.reportProgress(iteration, totalIterations, energy));
+
+		final Task<Map<org.eclipse.gef.graph.Node, org.eclipse.gef.graph.Node>> task = new Task<Map<org.eclipse.gef.graph.Node, org.eclipse.gef.graph.Node>>() {
+			@Override
+			protected Map<org.eclipse.gef.graph.Node, org.eclipse.gef.graph.Node> call() throws Exception {
+				if (!isCancelled()) {
+					snapshotContext.applyLayout(true);
+				}
+				return nodeMap;
+			}
+		};
+		task.setOnSucceeded((e) -> {
+			if (layoutTask == task && isActive()) {
+				layoutTask = null;
+				layoutTaskContext = null;
+				commitBackgroundLayout(layoutContext, task.getValue());
+			}
+		});
+		task.setOnFailed((e) -> {
+			if (layoutTask == task) {
+				layoutTask = null;
+				layoutTaskContext = null;
+			}
+			Thread.currentThread().getUncaughtExceptionHandler().uncaughtException(Thread.currentThread(),
+					task.getException());
+		});
+		layoutTask = task;
+		layoutTaskContext = snapshotContext;
+		if (layoutExecutor == null) {
+			layoutExecutor = Executors.newSingleThreadExecutor(LAYOUT_THREAD_FACTORY);
+		}
+		// the task is started after the last background layout terminated,
+		// which may have been executed by the executor of a previous activation
+		// (failures are reported by the tasks, so that the executions always
+		// complete normally)
+		layoutExecution = layoutExecution == null ? CompletableFuture.runAsync(task, layoutExecutor)
+				: layoutExecution.thenRunAsync(task, layoutExecutor);
+	}
+
+	/**
+	 * Defers the given synchronous layout pass until the last background layout
+	 * (see {@link #applyLayoutInBackground(LayoutContext)}) has terminated, which
+	 * is needed before the layout algorithm may be used on the JavaFX
+	 * application thread. As cancellation is cooperative (see
+	 * {@link #cancelBackgroundLayout()}), a cancelled background layout may still
+	 * be running until its layout algorithm checks for termination. The layout
+	 * pass is executed on the JavaFX application thread afterwards, unless it was
+	 * superseded by another layout pass or this behavior was deactivated in the
+	 * meantime.
+	 *
+	 * @param layout
+	 *            The layout pass to execute after the last background layout
+	 *            terminated.
+	 */
+	protected void deferLayout(Runnable layout) {
+		deferredLayout = layout;
+		layoutExecution.thenRun(() -> Platform.runLater(() -> {
+			if (deferredLayout == layout && isActive()) {
+				deferredLayout = null;
+				layout.run();
+			}
+		}));
+	}
+
+	/**
+	 * Cancels a layout pass that was scheduled via {@link #scheduleLayout()} but
+	 * not executed yet.
+	 */
+	protected void cancelScheduledLayout() {
+		layoutPending = false;
+		pulseLayoutTimer.stop();
+		quietPeriodLayoutTimer.stop();
+	}
+
+	/**
+	 * Cancels the background layout that is currently pending or running (if
+	 * any), so that its results are discarded. A running layout algorithm is
+	 * requested to terminate (see {@link LayoutContext#cancel()}). This does not
+	 * wait for the layout algorithm to actually terminate (see
+	 * {@link #deferLayout(Runnable)}).
+	 */
+	protected void cancelBackgroundLayout() {
+		if (layoutTask != null) {
+			layoutTaskContext.cancel();
+			layoutTask.cancel(true);
+			layoutTask = null;
+			layoutTaskContext = null;
+		}
+	}
+
+	/**
+	 * Transfers the results of a background layout from the snapshot nodes back
+	 * to the original nodes and executes {@link #postLayout()} for the given
+	 * {@link LayoutContext}. Called on the JavaFX application thread.
+	 *
+	 * @param layoutContext
+	 *            The {@link LayoutContext} that was laid out.
+	 * @param nodeMap
+	 *            A {@link Map} from original to snapshot nodes.
+	 */
+	protected void commitBackgroundLayout(LayoutContext layoutContext,
+			Map<org.eclipse.gef.graph.Node, org.eclipse.gef.graph.Node> nodeMap) {
+		for (Entry<org.eclipse.gef.graph.Node, org.eclipse.gef.graph.Node> entry : nodeMap.entrySet()) {
+			// skip nodes that were removed in the meantime
+			if (entry.getKey().getGraph() != layoutContext.getGraph()) {
+				continue;
+			}
+			entry.getKey().beginAttributesChange();
+			try {
+				Point location = LayoutProperties.getLocation(entry.getValue());
+				if (location != null) {
+					LayoutProperties.setLocation(entry.getKey(), location);
+				}
+				Dimension size = LayoutProperties.getSize(entry.getValue());
+				if (size != null) {
+					LayoutProperties.setSize(entry.getKey(), size);
+				}
+			} finally {
+				entry.getKey().endAttributesChange();
+			}
+		}
+		layoutContext.postLayout();
 	}
 
 	/**
@@ -266,6 +563,16 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 	protected void doDeactivate() {
 		getHost().getChildrenUnmodifiable().removeListener(childrenObserver);
 
+		cancelScheduledLayout();
+		cancelBackgroundLayout();
+		deferredLayout = null;
+		// the execution of the cancelled background layout is kept, so that
+		// the layout algorithm is not used concurrently after re-activation
+		if (layoutExecutor != null) {
+			layoutExecutor.shutdown();
+			layoutExecutor = null;
+		}
+
 		final HidingModel hidingModel = getHost().getRoot().getViewer().getAdapter(HidingModel.class);
 		if (hidingModel != null) {
 			hidingModel.hiddenProperty().removeListener(hidingModelObserver);
@@ -284,6 +591,122 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		nestingVisual = null;
 	}
 
+	/**
+	 * Executes a layout pass that was scheduled via {@link #scheduleLayout()}
+	 * immediately, if one is pending. Otherwise does nothing.
+	 */
+	public void flushLayout() {
+		if (layoutPending) {
+			cancelScheduledLayout();
+			applyLayout(true, null);
+		}
+	}
+
+	/**
+	 * Returns the number of layout requests that did not result in a separate
+	 * layout pass, because they were coalesced with another request (see
+	 * {@link #scheduleLayout()}).
+	 *
+	 * @return The number of coalesced layout requests.
+	 */
+	public long getCoalescedLayoutRequestCount() {
+		return coalescedLayoutRequestCount;
+	}
+
+	/**
+	 * Returns the quiet period that needs to pass without further layout requests
+	 * before a scheduled layout pass is executed (see {@link #scheduleLayout()}).
+	 *
+	 * @return The quiet period before a scheduled layout pass is executed.
+	 */
+	public Duration getLayoutQuietPeriod() {
+		return layoutQuietPeriod;
+	}
+
+	/**
+	 * Returns <code>true</code> if a layout pass was scheduled via
+	 * {@link #scheduleLayout()} but not executed yet. Otherwise returns
+	 * <code>false</code>.
+	 *
+	 * @return <code>true</code> if a layout pass is scheduled, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isLayoutPending() {
+		return layoutPending;
+	}
+
+	/**
+	 * Returns <code>true</code> if layout passes are computed on a background
+	 * thread (see {@link #setBackgroundLayout(boolean)}). Otherwise returns
+	 * <code>false</code>.
+	 *
+	 * @return <code>true</code> if layout passes are computed on a background
+	 *         thread, otherwise <code>false</code>.
+	 */
+	public boolean isBackgroundLayout() {
+		return backgroundLayout;
+	}
+
+	/**
+	 * Marks the graph as dirty, so that a layout pass is executed later on. All
+	 * layout requests that are made until then are coalesced into a single layout
+	 * pass. Per default, the layout pass is executed with the next JavaFX pulse.
+	 * If a {@link #setLayoutQuietPeriod(Duration) quiet period} is specified, the
+	 * layout pass is executed as soon as no further layout requests were made for
+	 * that period.
+	 */
+	public void scheduleLayout() {
+		if (layoutPending) {
+			coalescedLayoutRequestCount++;
+			if (quietPeriodLayoutTimer.getStatus() == Status.RUNNING) {
+				quietPeriodLayoutTimer.playFromStart();
+			}
+			return;
+		}
+		layoutPending = true;
+		if (layoutQuietPeriod.greaterThan(Duration.ZERO)) {
+			quietPeriodLayoutTimer.setDuration(layoutQuietPeriod);
+			quietPeriodLayoutTimer.playFromStart();
+		} else {
+			pulseLayoutTimer.start();
+		}
+	}
+
+	/**
+	 * Specifies whether layout passes are computed synchronously on the JavaFX
+	 * application thread (default) or on a background thread (see
+	 * {@link #applyLayoutInBackground(LayoutContext)}), so that long-running
+	 * layout algorithms do not block the UI. When switching to synchronous
+	 * layout passes, a running background layout is cancelled, and the next
+	 * synchronous layout pass is deferred until it has terminated.
+	 *
+	 * @param backgroundLayout
+	 *            <code>true</code> to compute layout passes on a background
+	 *            thread, otherwise <code>false</code>.
+	 */
+	public void setBackgroundLayout(boolean backgroundLayout) {
+		this.backgroundLayout = backgroundLayout;
+		if (!backgroundLayout) {
+			cancelBackgroundLayout();
+		}
+	}
+
+	/**
+	 * Sets the quiet period that needs to pass without further layout requests
+	 * before a scheduled layout pass is executed (see {@link #scheduleLayout()}).
+	 * Per default, the quiet period is {@link Duration#ZERO}, i.e. a scheduled
+	 * layout pass is executed with the next JavaFX pulse.
+	 *
+	 * @param quietPeriod
+	 *            The new quiet period.
+	 */
+	public void setLayoutQuietPeriod(Duration quietPeriod) {
+		if (quietPeriod == null || quietPeriod.lessThan(Duration.ZERO)) {
+			throw new IllegalArgumentException("The quiet period may not be null or negative.");
+		}
+		layoutQuietPeriod = quietPeriod;
+	}
+
 	@Override
 	public GraphPart getHost() {
 		return (GraphPart) super.getHost();
@@ -365,7 +788,7 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		Rectangle oldBounds = LayoutProperties.getBounds(getHost().getContent());
 		if (oldBounds != newBounds && (oldBounds == null || !oldBounds.equals(newBounds))) {
 			LayoutProperties.setBounds(getHost().getContent(), newBounds);
-			applyLayout(true, null);
+			scheduleLayout();
 		}
 	}
 }
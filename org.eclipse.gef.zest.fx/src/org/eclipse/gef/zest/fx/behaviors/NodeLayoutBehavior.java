@@ -54,17 +54,23 @@ public class NodeLayoutBehavior extends AbstractLayoutBehavior {
 	protected void postLayout() {
 		org.eclipse.gef.graph.Node content = getHost().getContent();
 
-		// update size
-		Dimension postLayoutSize = LayoutProperties.getSize(content);
-		if (postLayoutSize != null) {
-			ZestProperties.setSize(content, postLayoutSize);
-		}
+		// report size and position changes at once
+		content.beginAttributesChange();
+		try {
+			// update size
+			Dimension postLayoutSize = LayoutProperties.getSize(content);
+			if (postLayoutSize != null) {
+				ZestProperties.setSize(content, postLayoutSize);
+			}
 
-		// location is center, position is top-left
-		Point postLayoutLocation = LayoutProperties.getLocation(content);
-		if (postLayoutLocation != null) {
-			ZestProperties.setPosition(content, postLayoutLocation.getTranslated(
-					(postLayoutSize == null ? preLayoutSize : postLayoutSize).getScaled(0.5).getNegated()));
+			// location is center, position is top-left
+			Point postLayoutLocation = LayoutProperties.getLocation(content);
+			if (postLayoutLocation != null) {
+				ZestProperties.setPosition(content, postLayoutLocation.getTranslated(
+						(postLayoutSize == null ? preLayoutSize : postLayoutSize).getScaled(0.5).getNegated()));
+			}
+		} finally {
+			content.endAttributesChange();
 		}
 
 		// refresh our visual
@@ -107,22 +113,28 @@ public class NodeLayoutBehavior extends AbstractLayoutBehavior {
 			}
 		}
 
-		// System.out.println("pre layout size of " + content + ": " +
-		// preLayoutSize);
-		LayoutProperties.setSize(content, preLayoutSize.getCopy());
+		// report the layout information changes at once
+		content.beginAttributesChange();
+		try {
+			// System.out.println("pre layout size of " + content + ": " +
+			// preLayoutSize);
+			LayoutProperties.setSize(content, preLayoutSize.getCopy());
+
+			// initialize location (layout location is center while visual
+			// position is top-left)
+			if (ZestProperties.getPosition(content) != null) {
+				LayoutProperties.setLocation(content,
+						ZestProperties.getPosition(content).getTranslated(preLayoutSize.getScaled(0.5)));
+			} else {
+				// no model information available yet, use visual location
+				LayoutProperties.setLocation(content, new Point(transform.getTx() + minx + (maxx - minx) / 2,
+						transform.getTy() + miny + (maxy - miny) / 2));
+			}
 
-		// initialize location (layout location is center while visual position
-		// is top-left)
-		if (ZestProperties.getPosition(content) != null) {
-			LayoutProperties.setLocation(content,
-					ZestProperties.getPosition(content).getTranslated(preLayoutSize.getScaled(0.5)));
-		} else {
-			// no model information available yet, use visual location
-			LayoutProperties.setLocation(content, new Point(transform.getTx() + minx + (maxx - minx) / 2,
-					transform.getTy() + miny + (maxy - miny) / 2));
+			// additional information inferred from visual
+			LayoutProperties.setResizable(content, visual.isResizable());
+		} finally {
+			content.endAttributesChange();
 		}
-
-		// additional information inferred from visual
-		LayoutProperties.setResizable(content, visual.isResizable());
 	}
 }
\ No newline at end of file
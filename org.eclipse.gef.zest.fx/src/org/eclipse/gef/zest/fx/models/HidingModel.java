@@ -78,10 +78,18 @@ public class HidingModel {
 	 *         {@link org.eclipse.gef.graph.Node}.
 	 */
 	public Set<org.eclipse.gef.graph.Node> getHiddenNeighbors(org.eclipse.gef.graph.Node node) {
-		Set<org.eclipse.gef.graph.Node> neighbors = node.getNeighbors();
 		Set<org.eclipse.gef.graph.Node> hiddenNeighbors = Collections
 				.newSetFromMap(new IdentityHashMap<org.eclipse.gef.graph.Node, Boolean>());
-		for (org.eclipse.gef.graph.Node neighbor : neighbors) {
+		// iterate the indexed adjacency directly, so that no intermediate
+		// neighbor sets have to be created
+		for (int i = 0; i < node.getIncomingEdgeCount(); i++) {
+			org.eclipse.gef.graph.Node neighbor = node.getIncomingEdge(i).getSource();
+			if (isHidden(neighbor)) {
+				hiddenNeighbors.add(neighbor);
+			}
+		}
+		for (int i = 0; i < node.getOutgoingEdgeCount(); i++) {
+			org.eclipse.gef.graph.Node neighbor = node.getOutgoingEdge(i).getTarget();
 			if (isHidden(neighbor)) {
 				hiddenNeighbors.add(neighbor);
 			}
@@ -128,7 +136,17 @@ public class HidingModel {
 	 *         <code>false</code>.
 	 */
 	public boolean hasHiddenNeighbors(org.eclipse.gef.graph.Node node) {
-		return getHiddenNeighbors(node).size() > 0;
+		for (int i = 0; i < node.getIncomingEdgeCount(); i++) {
+			if (isHidden(node.getIncomingEdge(i).getSource())) {
+				return true;
+			}
+		}
+		for (int i = 0; i < node.getOutgoingEdgeCount(); i++) {
+			if (isHidden(node.getOutgoingEdge(i).getTarget())) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
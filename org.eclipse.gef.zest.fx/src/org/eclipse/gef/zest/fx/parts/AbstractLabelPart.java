@@ -25,7 +25,8 @@ import org.eclipse.gef.mvc.fx.parts.ITransformableContentPart;
 import org.eclipse.gef.mvc.fx.parts.IVisualPart;
 import org.eclipse.gef.zest.fx.ZestProperties;
 
-import javafx.collections.MapChangeListener;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.collections.ObservableMap;
 import javafx.geometry.Bounds;
 import javafx.geometry.VPos;
@@ -66,9 +67,9 @@ public abstract class AbstractLabelPart extends AbstractContentPart<Group> imple
 		}
 	};
 
-	private MapChangeListener<String, Object> elementAttributesObserver = new MapChangeListener<String, Object>() {
+	private InvalidationListener elementAttributesObserver = new InvalidationListener() {
 		@Override
-		public void onChanged(MapChangeListener.Change<? extends String, ? extends Object> change) {
+		public void invalidated(Observable observable) {
 			refreshVisual();
 		}
 	};
@@ -33,6 +33,8 @@ import org.eclipse.gef.zest.fx.ZestProperties;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.SetMultimap;
 
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.collections.MapChangeListener;
 import javafx.scene.Node;
 
@@ -61,7 +63,16 @@ public class EdgePart extends AbstractContentPart<Connection> implements IBendab
 	 */
 	public static final String CSS_CLASS_DECORATION = "decoration";
 
-	private MapChangeListener<String, Object> edgeAttributesObserver = new MapChangeListener<String, Object>() {
+	private InvalidationListener edgeAttributesObserver = new InvalidationListener() {
+
+		@Override
+		public void invalidated(Observable observable) {
+			refreshVisual();
+		}
+
+	};
+
+	private MapChangeListener<String, Object> edgeRouterObserver = new MapChangeListener<String, Object>() {
 
 		@Override
 		public void onChanged(MapChangeListener.Change<? extends String, ? extends Object> change) {
@@ -73,8 +84,8 @@ public class EdgePart extends AbstractContentPart<Connection> implements IBendab
 					doDetachFromAnchorageVisual(anchoragesByRole.getKey(), anchoragesByRole.getValue());
 					doAttachToAnchorageVisual(anchoragesByRole.getKey(), anchoragesByRole.getValue());
 				}
+				refreshVisual();
 			}
-			refreshVisual();
 		}
 
 	};
@@ -83,6 +94,7 @@ public class EdgePart extends AbstractContentPart<Connection> implements IBendab
 	protected void doActivate() {
 		super.doActivate();
 		getContent().attributesProperty().addListener(edgeAttributesObserver);
+		getContent().attributesProperty().addListener(edgeRouterObserver);
 	}
 
 	@Override
@@ -139,6 +151,7 @@ public class EdgePart extends AbstractContentPart<Connection> implements IBendab
 
 	@Override
 	protected void doDeactivate() {
+		getContent().attributesProperty().removeListener(edgeRouterObserver);
 		getContent().attributesProperty().removeListener(edgeAttributesObserver);
 		super.doDeactivate();
 	}
@@ -33,7 +33,8 @@ import org.eclipse.gef.zest.fx.ZestProperties;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.SetMultimap;
 
-import javafx.collections.MapChangeListener;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.geometry.Bounds;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -166,9 +167,9 @@ public class NodePart extends AbstractContentPart<Group>
 
 	private static final String NODE_LABEL_EMPTY = "";
 
-	private MapChangeListener<String, Object> nodeAttributesObserver = new MapChangeListener<String, Object>() {
+	private InvalidationListener nodeAttributesObserver = new InvalidationListener() {
 		@Override
-		public void onChanged(MapChangeListener.Change<? extends String, ? extends Object> change) {
+		public void invalidated(Observable observable) {
 			refreshVisual();
 		}
 	};
@@ -0,0 +1,350 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.zest.tests.fx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.mvc.fx.parts.LayeredRootPart;
+import org.eclipse.gef.mvc.fx.viewer.InfiniteCanvasViewer;
+import org.eclipse.gef.mvc.tests.fx.rules.FXNonApplicationThreadRule;
+import org.eclipse.gef.mvc.tests.fx.rules.FXNonApplicationThreadRule.RunnableWithResult;
+import org.eclipse.gef.zest.fx.ZestProperties;
+import org.eclipse.gef.zest.fx.behaviors.GraphLayoutBehavior;
+import org.eclipse.gef.zest.fx.parts.GraphPart;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+/**
+ * Tests for the synchronous, background, and scheduled layout passes of the
+ * {@link GraphLayoutBehavior}.
+ */
+public class GraphLayoutBehaviorTests {
+
+	/**
+	 * An {@link ILayoutAlgorithm} that places all nodes at the location
+	 * (pass, pass), where pass is the number of the layout pass. It records the
+	 * executed layout passes, and may block the next layout pass until it is
+	 * released or terminated.
+	 */
+	private static class RecordingLayoutAlgorithm implements ILayoutAlgorithm {
+
+		private final AtomicInteger passes = new AtomicInteger();
+		private final AtomicInteger running = new AtomicInteger();
+		private volatile boolean concurrentUse;
+		private volatile boolean blockNextPass;
+		private volatile boolean released;
+		private volatile CountDownLatch started = new CountDownLatch(1);
+		private volatile CountDownLatch finished = new CountDownLatch(1);
+		private volatile Graph lastGraph;
+		private volatile boolean lastOnApplicationThread;
+
+		@Override
+		public void applyLayout(LayoutContext layoutContext, boolean clean) {
+			if (running.incrementAndGet() > 1) {
+				concurrentUse = true;
+			}
+			try {
+				int pass = passes.incrementAndGet();
+				lastGraph = layoutContext.getGraph();
+				lastOnApplicationThread = Platform.isFxApplicationThread();
+				started.countDown();
+				if (blockNextPass) {
+					blockNextPass = false;
+					while (!released && !layoutContext.isTerminationRequested()) {
+						sleep(1);
+					}
+					// finish the current "iteration" after termination was
+					// requested
+					sleep(100);
+				}
+				for (Node node : layoutContext.getNodes()) {
+					LayoutProperties.setLocation(node, new Point(pass, pass));
+				}
+			} finally {
+				running.decrementAndGet();
+				finished.countDown();
+			}
+		}
+
+		public void blockNextPass() {
+			started = new CountDownLatch(1);
+			finished = new CountDownLatch(1);
+			released = false;
+			blockNextPass = true;
+		}
+
+		public void release() {
+			released = true;
+		}
+	}
+
+	private static final long TIMEOUT_MILLIS = 5000;
+
+	private static void await(CountDownLatch latch) throws InterruptedException {
+		assertTrue(latch.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Rule
+	public FXNonApplicationThreadRule ctx = new FXNonApplicationThreadRule();
+
+	private Graph graph;
+	private Node node;
+	private RecordingLayoutAlgorithm algorithm;
+	private GraphLayoutBehavior behavior;
+
+	@Before
+	public void activate() throws Throwable {
+		algorithm = new RecordingLayoutAlgorithm();
+		node = new Node.Builder().buildNode();
+		Node other = new Node.Builder().buildNode();
+		graph = new Graph.Builder().attr(ZestProperties.LAYOUT_ALGORITHM__G, algorithm).nodes(node, other)
+				.edges(new Edge(node, other)).build();
+		ctx.runAndWait(() -> {
+			// TODO: use injection
+			GraphPart host = new GraphPart() {
+				@Override
+				public Graph getContent() {
+					return graph;
+				}
+			};
+			host.setAdapter(new LayoutContext());
+			LayeredRootPart rootPart = new LayeredRootPart();
+			InfiniteCanvasViewer viewer = new InfiniteCanvasViewer();
+			viewer.setAdapter(rootPart);
+			host.setParent(rootPart);
+			behavior = new GraphLayoutBehavior() {
+				@Override
+				protected Rectangle computeLayoutBounds() {
+					return new Rectangle(0, 0, 400, 300);
+				}
+
+				@Override
+				public GraphPart getHost() {
+					return host;
+				}
+			};
+			// applies an initial layout
+			behavior.activate();
+		});
+	}
+
+	private void cancelBackgroundLayout() throws Throwable {
+		ctx.runAndWait(() -> {
+			try {
+				Method method = GraphLayoutBehavior.class.getDeclaredMethod("cancelBackgroundLayout");
+				method.setAccessible(true);
+				method.invoke(behavior);
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	@After
+	public void deactivate() throws Throwable {
+		algorithm.release();
+		ctx.runAndWait(() -> {
+			behavior.deactivate();
+		});
+	}
+
+	private Point getLocation() throws Throwable {
+		return ctx.runAndWait(() -> LayoutProperties.getLocation(node));
+	}
+
+	private void waitUntil(RunnableWithResult<Boolean> condition) throws Throwable {
+		long start = System.currentTimeMillis();
+		while (!ctx.runAndWait(condition)) {
+			if (System.currentTimeMillis() - start > TIMEOUT_MILLIS) {
+				fail("Condition not satisfied within " + TIMEOUT_MILLIS + "ms.");
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	public void applyLayoutSupersedesScheduledLayout() throws Throwable {
+		int passes = algorithm.passes.get();
+		ctx.runAndWait(() -> {
+			long coalesced = behavior.getCoalescedLayoutRequestCount();
+			behavior.scheduleLayout();
+			behavior.applyLayout(true, null);
+			assertFalse(behavior.isLayoutPending());
+			assertEquals(passes + 1, algorithm.passes.get());
+			assertEquals(coalesced + 1, behavior.getCoalescedLayoutRequestCount());
+		});
+		// the scheduled layout pass is not executed in addition
+		sleep(200);
+		assertEquals(passes + 1, algorithm.passes.get());
+	}
+
+	@Test
+	public void backgroundLayoutCancel() throws Throwable {
+		ctx.runAndWait(() -> {
+			behavior.setBackgroundLayout(true);
+			algorithm.blockNextPass();
+			behavior.applyLayout(true, null);
+		});
+		await(algorithm.started);
+		Point location = getLocation();
+
+		// the running layout algorithm is requested to terminate, and its
+		// results are discarded
+		cancelBackgroundLayout();
+		await(algorithm.finished);
+		ctx.runAndWait(() -> {
+		});
+		assertEquals(location, getLocation());
+	}
+
+	@Test
+	public void backgroundLayoutSnapshotAndCommit() throws Throwable {
+		ctx.runAndWait(() -> {
+			behavior.setBackgroundLayout(true);
+			algorithm.blockNextPass();
+			behavior.applyLayout(true, null);
+		});
+		await(algorithm.started);
+
+		// the layout algorithm operates on a detached snapshot of the graph on
+		// a background thread
+		assertNotSame(graph, algorithm.lastGraph);
+		assertFalse(algorithm.lastOnApplicationThread);
+		assertEquals(graph.getNodes().size(), algorithm.lastGraph.getNodes().size());
+		Point location = getLocation();
+
+		// the results are committed to the original graph when the layout
+		// algorithm finished
+		int pass = algorithm.passes.get();
+		algorithm.release();
+		waitUntil(() -> new Point(pass, pass).equals(LayoutProperties.getLocation(node)));
+		assertNotEquals(location, getLocation());
+	}
+
+	@Test
+	public void coalesceScheduledLayouts() throws Throwable {
+		int passes = algorithm.passes.get();
+		ctx.runAndWait(() -> {
+			long coalesced = behavior.getCoalescedLayoutRequestCount();
+			behavior.scheduleLayout();
+			behavior.scheduleLayout();
+			behavior.scheduleLayout();
+			assertTrue(behavior.isLayoutPending());
+			assertEquals(passes, algorithm.passes.get());
+			assertEquals(coalesced + 2, behavior.getCoalescedLayoutRequestCount());
+		});
+		// the scheduled layout pass is executed with the next pulse
+		waitUntil(() -> !behavior.isLayoutPending());
+		assertEquals(passes + 1, algorithm.passes.get());
+	}
+
+	@Test
+	public void flushLayout() throws Throwable {
+		int passes = algorithm.passes.get();
+		ctx.runAndWait(() -> {
+			behavior.scheduleLayout();
+			behavior.flushLayout();
+			assertFalse(behavior.isLayoutPending());
+			assertEquals(passes + 1, algorithm.passes.get());
+			// flushing without a scheduled layout pass has no effect
+			behavior.flushLayout();
+			assertEquals(passes + 1, algorithm.passes.get());
+		});
+	}
+
+	@Test
+	public void quietPeriodIsRestarted() throws Throwable {
+		int passes = algorithm.passes.get();
+		ctx.runAndWait(() -> {
+			behavior.setLayoutQuietPeriod(Duration.millis(500));
+			behavior.scheduleLayout();
+		});
+		sleep(300);
+		ctx.runAndWait(() -> {
+			behavior.scheduleLayout();
+		});
+		// the quiet period of the first request is exceeded, but it was
+		// restarted by the second request
+		sleep(300);
+		assertTrue(ctx.runAndWait(() -> behavior.isLayoutPending()));
+		assertEquals(passes, algorithm.passes.get());
+		waitUntil(() -> !behavior.isLayoutPending());
+		assertEquals(passes + 1, algorithm.passes.get());
+	}
+
+	@Test
+	public void switchFromBackgroundToSynchronousLayout() throws Throwable {
+		ctx.runAndWait(() -> {
+			behavior.setBackgroundLayout(true);
+			algorithm.blockNextPass();
+			behavior.applyLayout(true, null);
+		});
+		await(algorithm.started);
+
+		// the synchronous layout pass is deferred (without blocking the
+		// application thread) until the cancelled background layout
+		// terminated, so that the layout algorithm is not used concurrently
+		int backgroundPass = algorithm.passes.get();
+		ctx.runAndWait(() -> {
+			behavior.setBackgroundLayout(false);
+			assertFalse(behavior.isBackgroundLayout());
+			behavior.applyLayout(true, null);
+			assertEquals(backgroundPass, algorithm.passes.get());
+		});
+		waitUntil(() -> algorithm.passes.get() > backgroundPass);
+		assertTrue(algorithm.lastOnApplicationThread);
+		assertFalse(algorithm.concurrentUse);
+		assertSame(graph, algorithm.lastGraph);
+		int pass = algorithm.passes.get();
+		assertEquals(backgroundPass + 1, pass);
+		assertEquals(new Point(pass, pass), getLocation());
+
+		// the results of the cancelled background layout are discarded
+		ctx.runAndWait(() -> {
+		});
+		assertEquals(new Point(pass, pass), getLocation());
+	}
+
+}